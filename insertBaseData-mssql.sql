@@ -29,6 +29,10 @@ SET QUOTED_IDENTIFIER ON
 --DROP TABLE DATABASECHANGELOG;
 --DROP TABLE DATABASECHANGELOGLOCK;
 
+TRUNCATE TABLE organizationAncestors;
+TRUNCATE TABLE taskAncestors;
+TRUNCATE TABLE reportDailyRollup;
+TRUNCATE TABLE advisorReportCounts;
 TRUNCATE TABLE peoplePositions;
 TRUNCATE TABLE approvers;
 TRUNCATE TABLE reportActions;
@@ -958,6 +962,24 @@ INSERT INTO noteRelatedObjects (noteUuid, relatedObjectType, relatedObjectUuid)
   FROM tasks t
   WHERE t.shortName = '1.2.B';
 
+-- Build the closure tables of the organization and task hierarchies
+WITH ancestors(uuid, parent_uuid, depth) AS (
+  SELECT uuid, uuid, 0 FROM organizations
+  UNION ALL
+  SELECT a.uuid, b.parentOrgUuid, a.depth + 1 FROM organizations b
+  INNER JOIN ancestors a ON b.uuid = a.parent_uuid
+  WHERE b.parentOrgUuid IS NOT NULL)
+INSERT INTO organizationAncestors (ancestorUuid, descendantUuid, depth)
+  SELECT parent_uuid, uuid, depth FROM ancestors;
+WITH ancestors(uuid, parent_uuid, depth) AS (
+  SELECT uuid, uuid, 0 FROM tasks
+  UNION ALL
+  SELECT a.uuid, b.customFieldRef1Uuid, a.depth + 1 FROM tasks b
+  INNER JOIN ancestors a ON b.uuid = a.parent_uuid
+  WHERE b.customFieldRef1Uuid IS NOT NULL)
+INSERT INTO taskAncestors (ancestorUuid, descendantUuid, depth)
+  SELECT parent_uuid, uuid, depth FROM ancestors;
+
 -- LEAVE THIS AS LAST STATEMENT
 -- Truncate all the dates (on reports etc.) to dates that could have been generated by
 -- Java (millisecond precision) rather than by the database itself (microsecond precision)
@@ -1006,3 +1028,32 @@ UPDATE notes SET
     createdAt=cast(createdAt as datetime2(3)),
     updatedAt=cast(updatedAt as datetime2(3))
   ;
+
+-- Build the daily rollup aggregates; must follow the truncation of the dates above
+INSERT INTO reportDailyRollup (orgType, releasedDate, engagementDate, orgUuid, state, count)
+  SELECT 0, CAST(releasedAt AS DATE), CAST(engagementDate AS DATE),
+    COALESCE(advisorOrganizationUuid, '-1'), state, COUNT(*)
+  FROM reports WHERE releasedAt IS NOT NULL AND engagementDate IS NOT NULL
+  GROUP BY CAST(releasedAt AS DATE), CAST(engagementDate AS DATE),
+    COALESCE(advisorOrganizationUuid, '-1'), state
+  UNION ALL
+  SELECT 1, CAST(releasedAt AS DATE), CAST(engagementDate AS DATE),
+    COALESCE(principalOrganizationUuid, '-1'), state, COUNT(*)
+  FROM reports WHERE releasedAt IS NOT NULL AND engagementDate IS NOT NULL
+  GROUP BY CAST(releasedAt AS DATE), CAST(engagementDate AS DATE),
+    COALESCE(principalOrganizationUuid, '-1'), state;
+
+-- Build the advisor report counts
+INSERT INTO advisorReportCounts (reportDate, organizationUuid, personUuid, nrReportsSubmitted, nrEngagementsAttended)
+  SELECT reportDate, organizationUuid, personUuid, SUM(submitted), SUM(attended) FROM (
+    SELECT CAST(createdAt AS DATE) AS reportDate, advisorOrganizationUuid AS organizationUuid,
+      authorUuid AS personUuid, 1 AS submitted, 0 AS attended
+    FROM reports
+    WHERE state IN (0, 1, 2) AND advisorOrganizationUuid IS NOT NULL AND authorUuid IS NOT NULL
+    UNION ALL
+    SELECT CAST(reports.engagementDate AS DATE), reports.advisorOrganizationUuid,
+      reportPeople.personUuid, 0, 1
+    FROM reports JOIN reportPeople ON reportPeople.reportUuid = reports.uuid
+    WHERE reports.state IN (0, 1, 2) AND reports.advisorOrganizationUuid IS NOT NULL
+      AND reports.engagementDate IS NOT NULL) c
+  GROUP BY reportDate, organizationUuid, personUuid;
@@ -34,5 +34,7 @@ s/(?<=rp.\"isPrimary\")\s+=\s+([10])/"= " . ($1 ? 'TRUE' : 'FALSE')/e;
 # standard date-time math would be so nice...
 s/DATEADD\s*\(([^,]*),\s*(-?\d+),\s*CURRENT_TIMESTAMP\)/CURRENT_TIMESTAMP + INTERVAL '$2 $1'/g;
 s/cast\((\S+) as datetime2\((\d+)\)\)/"date_trunc(" . ($2 eq '3' ? "'milliseconds'" : "'second'") . ", $1)"/ie;
+# Recursive common table expressions
+s/^WITH\b/WITH RECURSIVE/;
 # Function to generate uuid's
 s/lower\(newid\(\)\)/uuid_generate_v4()/g;
@@ -25,9 +25,11 @@ import io.dropwizard.cli.ServerCommand;
 import io.dropwizard.configuration.EnvironmentVariableSubstitutor;
 import io.dropwizard.configuration.SubstitutingSourceProvider;
 import io.dropwizard.db.DataSourceFactory;
+import io.dropwizard.lifecycle.ExecutorServiceManager;
 import io.dropwizard.migrations.MigrationsBundle;
 import io.dropwizard.setup.Bootstrap;
 import io.dropwizard.setup.Environment;
+import io.dropwizard.util.Duration;
 import io.dropwizard.views.ViewBundle;
 import java.io.IOException;
 import java.io.InputStream;
@@ -36,8 +38,8 @@ import java.util.Arrays;
 import java.util.EnumSet;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 import javax.servlet.DispatcherType;
 import javax.servlet.Filter;
@@ -48,7 +50,9 @@ import mil.dds.anet.auth.TimedNegotiateSecurityFilter;
 import mil.dds.anet.auth.UrlParamsAuthFilter;
 import mil.dds.anet.beans.Person;
 import mil.dds.anet.config.AnetConfiguration;
+import mil.dds.anet.config.AnetConfiguration.MaterializedViewsConfiguration;
 import mil.dds.anet.database.StatementLogger;
+import mil.dds.anet.database.TransactionCallbacks;
 import mil.dds.anet.resources.AdminResource;
 import mil.dds.anet.resources.ApprovalStepResource;
 import mil.dds.anet.resources.AuthorizationGroupResource;
@@ -70,6 +74,9 @@ import mil.dds.anet.threads.FutureEngagementWorker;
 import mil.dds.anet.threads.MaterializedViewRefreshWorker;
 import mil.dds.anet.threads.ReportApprovalWorker;
 import mil.dds.anet.threads.ReportPublicationWorker;
+import mil.dds.anet.threads.WorkerScheduler;
+import mil.dds.anet.utils.BatchingUtils;
+import mil.dds.anet.utils.ConnectionPoolThrottledExecutor;
 import mil.dds.anet.utils.DaoUtils;
 import mil.dds.anet.utils.HttpsRedirectFilter;
 import mil.dds.anet.views.ViewResponseFilter;
@@ -77,6 +84,7 @@ import org.eclipse.jetty.server.session.SessionHandler;
 import org.eclipse.jetty.servlet.FilterHolder;
 import org.eclipse.jetty.servlet.ServletContextHandler;
 import org.glassfish.jersey.server.filter.RolesAllowedDynamicFeature;
+import org.jdbi.v3.core.Jdbi;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import ru.vyarus.dropwizard.guice.GuiceBundle;
@@ -176,11 +184,31 @@ public class AnetApplication extends Application<AnetConfiguration> {
 
     // We want to use our own custom DB logger in order to clean up the logs a bit.
     final Injector injector = InjectorLookup.getInjector(this).get();
-    injector.getInstance(StatementLogger.class);
+    final StatementLogger statementLogger = injector.getInstance(StatementLogger.class);
+    // Let the DAOs update their in-memory caches once transactions complete
+    TransactionCallbacks.install(injector.getInstance(Jdbi.class));
+
+    // The data loaders of all GraphQL requests share one executor, sized from the database pool
+    final ExecutorService dataLoaderDispatcherService = BatchingUtils.createDispatcherService(
+        configuration.getDataLoader(), configuration.getDataSourceFactory().getMaxSize(),
+        metricRegistry);
+    environment.lifecycle().manage(new ExecutorServiceManager(dataLoaderDispatcherService,
+        Duration.seconds(5), "dataLoaderDispatcher"));
+    // Hold back new batch loads while the database pool is saturated
+    final Executor dataLoaderExecutor = new ConnectionPoolThrottledExecutor(
+        dataLoaderDispatcherService, metricRegistry, "dataLoaderDispatcher",
+        configuration.getDataSourceFactory().getMaxSize(),
+        configuration.getDataLoader().getMaxThrottleWait().toJavaDuration());
 
     // The Object Engine is the core place where we store all of the Dao's
     // You can always grab the engine from anywhere with AnetObjectEngine.getInstance()
     final AnetObjectEngine engine = new AnetObjectEngine(dbUrl, this, metricRegistry);
+    engine.getPersonDao().setRoleCacheTimeToLive(configuration.getRoleCacheTtl().toJavaDuration());
+    engine.setEntityCacheTimeToLive(configuration.getEntityCacheTtl().toJavaDuration());
+    engine.getOrganizationDao().getTreeService().setRefreshInterval(
+        configuration.getOrganizationTreeRefreshInterval().toJavaDuration());
+    engine.getOrganizationDao().getTreeService()
+        .setEnabled(configuration.isOrganizationTreeEnabled());
     environment.servlets().setSessionHandler(new SessionHandler());
 
     if (configuration.isDevelopmentMode()) {
@@ -222,47 +250,63 @@ public class AnetApplication extends Application<AnetConfiguration> {
     environment.jersey().register(RolesAllowedDynamicFeature.class);
     environment.jersey().register(new WebExceptionMapper());
 
+    final WorkerScheduler workerScheduler =
+        new WorkerScheduler(configuration.getWorkers(), metricRegistry);
+    environment.lifecycle().manage(workerScheduler);
     if (configuration.isTestMode()) {
       logger.info("AnetApplication is in testMode, skipping scheduled workers");
     } else {
       logger.info("AnetApplication is starting scheduled workers");
       // Schedule any tasks that need to run on an ongoing basis.
-      ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
-      AnetEmailWorker emailWorker = new AnetEmailWorker(engine.getEmailDao(), configuration);
-      FutureEngagementWorker futureWorker = new FutureEngagementWorker(engine.getReportDao());
-      ReportPublicationWorker reportPublicationWorker =
+      final ExecutorService workerPool =
+          workerScheduler.newPool("worker", configuration.getWorkers().getThreads());
+      final AnetEmailWorker emailWorker =
+          new AnetEmailWorker(engine.getEmailDao(), configuration, metricRegistry);
+      final FutureEngagementWorker futureWorker =
+          new FutureEngagementWorker(engine.getReportDao());
+      final ReportPublicationWorker reportPublicationWorker =
           new ReportPublicationWorker(engine.getReportDao(), configuration);
       final ReportApprovalWorker reportApprovalWorker =
           new ReportApprovalWorker(engine.getReportDao(), configuration);
 
       // Check for any reports that need to be published every 5 minutes.
       // And run once in 5 seconds from boot-up. (give the server time to boot up).
-      scheduler.scheduleAtFixedRate(reportPublicationWorker, 5, 5, TimeUnit.MINUTES);
-      scheduler.schedule(reportPublicationWorker, 5, TimeUnit.SECONDS);
+      workerScheduler.schedule(workerPool, "reportPublication", reportPublicationWorker, 5, 5,
+          TimeUnit.MINUTES);
+      workerScheduler.runOnce("reportPublication", 5, TimeUnit.SECONDS);
 
       // Check for any emails that need to be sent every 5 minutes.
       // And run once in 10 seconds from boot-up. (give the server time to boot up).
-      scheduler.scheduleAtFixedRate(emailWorker, 5, 5, TimeUnit.MINUTES);
-      scheduler.schedule(emailWorker, 10, TimeUnit.SECONDS);
+      workerScheduler.schedule(workerPool, "email", emailWorker, 5, 5, TimeUnit.MINUTES);
+      workerScheduler.runOnce("email", 10, TimeUnit.SECONDS);
 
       // Check for any future engagements every 3 hours.
       // And run once in 15 seconds from boot-up. (give the server time to boot up).
-      scheduler.scheduleAtFixedRate(futureWorker, 0, 3, TimeUnit.HOURS);
-      scheduler.schedule(futureWorker, 15, TimeUnit.SECONDS);
+      workerScheduler.schedule(workerPool, "futureEngagement", futureWorker, 3, 3,
+          TimeUnit.HOURS);
+      workerScheduler.runOnce("futureEngagement", 15, TimeUnit.SECONDS);
 
       // Check for any reports that need to be approved every 5 minutes.
       // And run once in 20 seconds from boot-up. (give the server time to boot up).
-      scheduler.scheduleAtFixedRate(reportApprovalWorker, 5, 5, TimeUnit.MINUTES);
-      scheduler.schedule(reportApprovalWorker, 5, TimeUnit.SECONDS);
+      workerScheduler.schedule(workerPool, "reportApproval", reportApprovalWorker, 5, 5,
+          TimeUnit.MINUTES);
+      workerScheduler.runOnce("reportApproval", 5, TimeUnit.SECONDS);
 
-      runAccountDeactivationWorker(configuration, scheduler, engine);
+      runAccountDeactivationWorker(configuration, workerScheduler, workerPool, engine);
 
       if (DaoUtils.isPostgresql()) {
-        // Wait 60 seconds between updates of PostgreSQL materialized views,
+        // Refresh the PostgreSQL materialized views on their own pool, each at its own interval,
         // starting 30 seconds after boot-up.
-        final MaterializedViewRefreshWorker materializedViewRefreshWorker =
-            new MaterializedViewRefreshWorker(engine.getAdminDao());
-        scheduler.scheduleWithFixedDelay(materializedViewRefreshWorker, 30, 60, TimeUnit.SECONDS);
+        final MaterializedViewsConfiguration mvConfig = configuration.getMaterializedViews();
+        final ExecutorService mvPool =
+            workerScheduler.newPool("materialized-views", mvConfig.getThreads());
+        for (final String viewName : MaterializedViewRefreshWorker.getMaterializedViews()) {
+          final MaterializedViewRefreshWorker materializedViewRefreshWorker =
+              new MaterializedViewRefreshWorker(engine.getAdminDao(), metricRegistry, viewName);
+          workerScheduler.schedule(mvPool, viewName, materializedViewRefreshWorker,
+              TimeUnit.SECONDS.toMillis(30), mvConfig.getInterval(viewName).toMilliseconds(),
+              TimeUnit.MILLISECONDS);
+        }
       }
     }
 
@@ -274,7 +318,8 @@ public class AnetApplication extends Application<AnetConfiguration> {
     OrganizationResource orgResource = new OrganizationResource(engine);
     PositionResource positionResource = new PositionResource(engine);
     ReportResource reportResource = new ReportResource(engine, configuration);
-    AdminResource adminResource = new AdminResource(engine, configuration);
+    AdminResource adminResource = new AdminResource(engine, configuration, workerScheduler,
+        statementLogger.getDbLogger());
     HomeResource homeResource = new HomeResource(engine, configuration);
     SavedSearchResource savedSearchResource = new SavedSearchResource(engine);
     final TagResource tagResource = new TagResource(engine);
@@ -286,6 +331,7 @@ public class AnetApplication extends Application<AnetConfiguration> {
     // Register all of the HTTP Resources
     environment.jersey().register(loggingResource);
     environment.jersey().register(adminResource);
+    environment.jersey().register(personResource);
     environment.jersey().register(homeResource);
     environment.jersey().register(new ViewResponseFilter(configuration));
     environment.jersey()
@@ -293,12 +339,12 @@ public class AnetApplication extends Application<AnetConfiguration> {
             ImmutableList.of(reportResource, personResource, positionResource, locationResource,
                 orgResource, taskResource, adminResource, savedSearchResource, tagResource,
                 authorizationGroupResource, noteResource, approvalStepResource),
-            metricRegistry));
+            metricRegistry, environment.getObjectMapper(), dataLoaderExecutor));
   }
 
   private void runAccountDeactivationWorker(final AnetConfiguration configuration,
-      final ScheduledExecutorService scheduler, final AnetObjectEngine engine)
-      throws IllegalArgumentException {
+      final WorkerScheduler workerScheduler, final ExecutorService workerPool,
+      final AnetObjectEngine engine) throws IllegalArgumentException {
     // Check whether the application is configured to auto-check for account deactivation
     if (configuration.getDictionaryEntry("automaticallyInactivateUsers") != null) {
       // Check for any accounts which are scheduled to be deactivated as they reach the end-of-tour
@@ -309,12 +355,12 @@ public class AnetApplication extends Application<AnetConfiguration> {
           configuration, engine.getPersonDao(), accountDeactivationWarningInterval);
 
       // Run the email deactivation worker at the set interval. In development run it every minute.
-      scheduler.scheduleAtFixedRate(deactivationWarningWorker, accountDeactivationWarningInterval,
-          accountDeactivationWarningInterval, TimeUnit.SECONDS);
+      workerScheduler.schedule(workerPool, "accountDeactivation", deactivationWarningWorker,
+          accountDeactivationWarningInterval, accountDeactivationWarningInterval, TimeUnit.SECONDS);
 
       // While in development, run the worker once at the start to see whether it works correctly
       if (configuration.isDevelopmentMode()) {
-        scheduler.schedule(deactivationWarningWorker, 20, TimeUnit.SECONDS);
+        workerScheduler.runOnce("accountDeactivation", 20, TimeUnit.SECONDS);
       }
     }
   }
@@ -3,6 +3,7 @@ package mil.dds.anet;
 import com.codahale.metrics.MetricRegistry;
 import com.google.inject.Injector;
 import io.dropwizard.Application;
+import java.time.Duration;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -31,6 +32,7 @@ import mil.dds.anet.database.EmailDao;
 import mil.dds.anet.database.LocationDao;
 import mil.dds.anet.database.NoteDao;
 import mil.dds.anet.database.OrganizationDao;
+import mil.dds.anet.database.OrganizationTreeService;
 import mil.dds.anet.database.PersonDao;
 import mil.dds.anet.database.PositionDao;
 import mil.dds.anet.database.ReportActionDao;
@@ -82,16 +84,22 @@ public class AnetObjectEngine {
     personDao = injector.getInstance(PersonDao.class);
     personDao.setMetricRegistry(metricRegistry);
     taskDao = injector.getInstance(TaskDao.class);
+    taskDao.setMetricRegistry(metricRegistry);
     locationDao = injector.getInstance(LocationDao.class);
+    locationDao.setMetricRegistry(metricRegistry);
     orgDao = injector.getInstance(OrganizationDao.class);
+    orgDao.setMetricRegistry(metricRegistry);
     positionDao = injector.getInstance(PositionDao.class);
+    positionDao.setMetricRegistry(metricRegistry);
     asDao = injector.getInstance(ApprovalStepDao.class);
     reportActionDao = injector.getInstance(ReportActionDao.class);
     reportDao = injector.getInstance(ReportDao.class);
+    reportDao.setMetricRegistry(metricRegistry);
     commentDao = injector.getInstance(CommentDao.class);
     adminDao = injector.getInstance(AdminDao.class);
     savedSearchDao = injector.getInstance(SavedSearchDao.class);
     tagDao = injector.getInstance(TagDao.class);
+    tagDao.setMetricRegistry(metricRegistry);
     reportSensitiveInformationDao = injector.getInstance(ReportSensitiveInformationDao.class);
     emailDao = injector.getInstance(EmailDao.class);
     authorizationGroupDao = injector.getInstance(AuthorizationGroupDao.class);
@@ -176,6 +184,20 @@ public class AnetObjectEngine {
     return searcher;
   }
 
+  /**
+   * Set the time-to-live of the entity caches of the organizations, positions, locations, tags
+   * and tasks.
+   *
+   * @param timeToLive the time-to-live; zero disables the caches
+   */
+  public void setEntityCacheTimeToLive(Duration timeToLive) {
+    orgDao.setEntityCacheTimeToLive(timeToLive);
+    positionDao.setEntityCacheTimeToLive(timeToLive);
+    locationDao.setEntityCacheTimeToLive(timeToLive);
+    tagDao.setEntityCacheTimeToLive(timeToLive);
+    taskDao.setEntityCacheTimeToLive(timeToLive);
+  }
+
   public String getDefaultOrgUuid() {
     return getAdminSetting(AdminSettingKeys.DEFAULT_APPROVAL_ORGANIZATION);
   }
@@ -262,6 +284,11 @@ public class AnetObjectEngine {
       if (approverOrg == null) {
         return CompletableFuture.completedFuture(false);
       }
+      final OrganizationTreeService.Snapshot tree = orgDao.getTreeService().getSnapshot();
+      if (tree != null) {
+        return CompletableFuture.completedFuture(taskedAdvisorOrgParentUuids.stream()
+            .anyMatch(o -> tree.isAncestor(o, DaoUtils.getUuid(approverOrg))));
+      }
       return approverOrg.loadAscendantOrgs(context, null).thenCompose(aos -> {
         final Set<String> matchingOrgs =
             aos.stream().map(o -> DaoUtils.getUuid(o)).collect(Collectors.toSet());
@@ -316,6 +343,10 @@ public class AnetObjectEngine {
    * get all orgs.
    */
   public Map<String, Organization> buildTopLevelOrgHash(OrganizationType orgType) {
+    final OrganizationTreeService.Snapshot tree = orgDao.getTreeService().getSnapshot();
+    if (tree != null) {
+      return tree.buildTopLevelOrgHash(orgType);
+    }
     OrganizationSearchQuery orgQuery = new OrganizationSearchQuery();
     orgQuery.setPageSize(0);
     orgQuery.setType(orgType);
@@ -330,6 +361,10 @@ public class AnetObjectEngine {
    * highest parent that is NOT the parentOrgUuid.
    */
   public Map<String, Organization> buildTopLevelOrgHash(String parentOrgUuid) {
+    final OrganizationTreeService.Snapshot tree = orgDao.getTreeService().getSnapshot();
+    if (tree != null) {
+      return tree.buildTopLevelOrgHash(parentOrgUuid);
+    }
     final OrganizationSearchQuery query = new OrganizationSearchQuery();
     query.setParentOrgUuid(Collections.singletonList(parentOrgUuid));
     query.setOrgRecurseStrategy(RecurseStrategy.CHILDREN);
@@ -25,6 +25,11 @@ public class MaintenanceCommand extends EnvironmentCommand<AnetConfiguration> {
     subparser.addArgument("-ceb", "--clearEmptyBiographies").action(Arguments.storeTrue())
         .required(false).help(
             "Clears empty biographies (blank or empty HTML tags) by replacing them with a NULL value");
+    subparser.addArgument("-rdr", "--rebuildDailyRollup").action(Arguments.storeTrue())
+        .required(false).help("Rebuilds the pre-aggregated daily rollup counts from the reports");
+    subparser.addArgument("-rarc", "--rebuildAdvisorReportCounts").action(Arguments.storeTrue())
+        .required(false)
+        .help("Rebuilds the pre-aggregated advisor report insights counts from the reports");
 
     super.configure(subparser);
   }
@@ -37,6 +42,12 @@ public class MaintenanceCommand extends EnvironmentCommand<AnetConfiguration> {
     if (Boolean.TRUE.equals(namespace.getBoolean("clearEmptyBiographies"))) {
       clearEmptyBiographies(engine);
     }
+    if (Boolean.TRUE.equals(namespace.getBoolean("rebuildDailyRollup"))) {
+      rebuildDailyRollup(engine);
+    }
+    if (Boolean.TRUE.equals(namespace.getBoolean("rebuildAdvisorReportCounts"))) {
+      rebuildAdvisorReportCounts(engine);
+    }
 
     System.exit(0);
   }
@@ -45,4 +56,16 @@ public class MaintenanceCommand extends EnvironmentCommand<AnetConfiguration> {
     logger.info("Clearing empty biographies");
     engine.getPersonDao().clearEmptyBiographies();
   }
+
+  private void rebuildDailyRollup(AnetObjectEngine engine) {
+    logger.info("Rebuilding the daily rollup");
+    final int rows = engine.getReportDao().rebuildDailyRollup();
+    logger.info("Rebuilt the daily rollup with {} rows", rows);
+  }
+
+  private void rebuildAdvisorReportCounts(AnetObjectEngine engine) {
+    logger.info("Rebuilding the advisor report counts");
+    final int rows = engine.getReportDao().rebuildAdvisorReportCounts(null);
+    logger.info("Rebuilt the advisor report counts with {} rows", rows);
+  }
 }
@@ -7,6 +7,8 @@ import java.io.IOException;
 import java.lang.invoke.MethodHandles;
 import java.security.Principal;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import javax.annotation.Priority;
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.container.ContainerRequestContext;
@@ -19,6 +21,7 @@ import mil.dds.anet.beans.Person.PersonStatus;
 import mil.dds.anet.beans.Person.Role;
 import mil.dds.anet.beans.Position;
 import mil.dds.anet.beans.Position.PositionType;
+import mil.dds.anet.utils.DaoUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -62,6 +65,9 @@ public class AnetAuthenticationFilter implements ContainerRequestFilter, Authori
 
         final Person user = person;
         ctx.setSecurityContext(new SecurityContext() {
+          // Memoize the authorization decisions for the duration of this request
+          private final Map<String, Boolean> authorizedRoles = new ConcurrentHashMap<>();
+
           @Override
           public Principal getUserPrincipal() {
             return user;
@@ -69,7 +75,7 @@ public class AnetAuthenticationFilter implements ContainerRequestFilter, Authori
 
           @Override
           public boolean isUserInRole(String role) {
-            return authorize(user, role);
+            return authorizedRoles.computeIfAbsent(role, r -> authorize(user, r));
           }
 
           @Override
@@ -106,22 +112,22 @@ public class AnetAuthenticationFilter implements ContainerRequestFilter, Authori
    * done later.
    */
   public static boolean checkAuthorization(Person principal, String role) {
-    Position position = principal.loadPosition();
-    if (position == null) {
+    final PositionType positionType = getPositionType(principal);
+    if (positionType == null) {
       logger.debug("Authorizing {} for role {} FAILED due to null position",
           principal.getDomainUsername(), role);
       return false;
     }
 
     // Administrators can do anything
-    if (position.getType() == PositionType.ADMINISTRATOR) {
+    if (positionType == PositionType.ADMINISTRATOR) {
       logger.debug("Authorizing {} for role {} SUCCESS", principal.getDomainUsername(), role);
       return true;
     }
 
     // Verify the user is a super user.
     if (PositionType.SUPER_USER.toString().equals(role)) {
-      if (position.getType() == PositionType.SUPER_USER) {
+      if (positionType == PositionType.SUPER_USER) {
         logger.debug("Authorizing {} for role {} SUCCESS", principal.getDomainUsername(), role);
         return true;
       }
@@ -130,4 +136,15 @@ public class AnetAuthenticationFilter implements ContainerRequestFilter, Authori
     return false;
   }
 
+  private static PositionType getPositionType(Person principal) {
+    final String personUuid = DaoUtils.getUuid(principal);
+    if (personUuid == null) {
+      final Position position = principal.getPosition();
+      return (position == null) ? null : position.getType();
+    }
+    // Rather than the principal's (possibly long cached) position, use the role cache, which
+    // bounds how long a revoked role remains effective
+    return AnetObjectEngine.getInstance().getPersonDao().getCachedPositionType(personUuid);
+  }
+
 }
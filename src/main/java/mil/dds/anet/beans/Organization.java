@@ -17,6 +17,7 @@ import mil.dds.anet.beans.search.OrganizationSearchQuery;
 import mil.dds.anet.beans.search.PositionSearchQuery;
 import mil.dds.anet.beans.search.RecursiveFkBatchParams;
 import mil.dds.anet.beans.search.TaskSearchQuery;
+import mil.dds.anet.database.OrganizationTreeService;
 import mil.dds.anet.utils.IdDataLoaderKey;
 import mil.dds.anet.utils.Utils;
 import mil.dds.anet.views.AbstractAnetBean;
@@ -209,6 +210,12 @@ public class Organization extends AbstractAnetBean {
   public CompletableFuture<List<Organization>> loadDescendantOrgs(
       @GraphQLRootContext Map<String, Object> context,
       @GraphQLArgument(name = "query") OrganizationSearchQuery query) {
+    final OrganizationTreeService.Snapshot tree = isDefaultQuery(query)
+        ? AnetObjectEngine.getInstance().getOrganizationDao().getTreeService().getSnapshot()
+        : null;
+    if (tree != null) {
+      return CompletableFuture.completedFuture(tree.getDescendantOrgs(uuid));
+    }
     if (query == null) {
       query = new OrganizationSearchQuery();
     }
@@ -224,6 +231,12 @@ public class Organization extends AbstractAnetBean {
   public CompletableFuture<List<Organization>> loadAscendantOrgs(
       @GraphQLRootContext Map<String, Object> context,
       @GraphQLArgument(name = "query") OrganizationSearchQuery query) {
+    final OrganizationTreeService.Snapshot tree = isDefaultQuery(query)
+        ? AnetObjectEngine.getInstance().getOrganizationDao().getTreeService().getSnapshot()
+        : null;
+    if (tree != null) {
+      return CompletableFuture.completedFuture(tree.getAscendantOrgs(uuid));
+    }
     if (query == null) {
       query = new OrganizationSearchQuery();
     }
@@ -234,6 +247,11 @@ public class Organization extends AbstractAnetBean {
         uuid, query);
   }
 
+  // Only plain queries can be answered from the organization tree
+  private static boolean isDefaultQuery(OrganizationSearchQuery query) {
+    return query == null || query.equals(new OrganizationSearchQuery());
+  }
+
   @GraphQLQuery(name = "tasks")
   public CompletableFuture<List<Task>> loadTasks(@GraphQLRootContext Map<String, Object> context) {
     if (tasks != null) {
@@ -12,6 +12,8 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Response.Status;
 import mil.dds.anet.AnetObjectEngine;
 import mil.dds.anet.beans.lists.AnetBeanList;
 import mil.dds.anet.beans.search.ReportSearchQuery;
@@ -31,6 +33,8 @@ public class Person extends AbstractCustomizableAnetBean implements Principal {
     ADVISOR, PRINCIPAL
   }
 
+  public static final int MAX_AVATAR_SIZE = 1024;
+
   private static final String AVATAR_TYPE = "png";
 
   @GraphQLQuery
@@ -75,6 +79,8 @@ public class Person extends AbstractCustomizableAnetBean implements Principal {
   private List<PersonPositionHistory> previousPositions;
   // annotated below
   private Optional<byte[]> avatar;
+  // not exposed; null when not loaded, empty when there is no avatar
+  private Optional<String> avatarHash;
   @GraphQLQuery
   @GraphQLInputField
   private String code;
@@ -256,25 +262,62 @@ public class Person extends AbstractCustomizableAnetBean implements Principal {
   @GraphQLQuery(name = "avatar")
   public CompletableFuture<String> loadAvatar(@GraphQLRootContext Map<String, Object> context,
       @GraphQLArgument(name = "size", defaultValue = "256") int size) {
+    checkAvatarSize(size);
+    if (avatarHash != null && avatar == null) {
+      // The hash is known, so a cached rendition can be used without loading the avatar
+      if (!avatarHash.isPresent()) {
+        return CompletableFuture.completedFuture(null);
+      }
+      final byte[] rendition = AnetObjectEngine.getInstance().getPersonDao()
+          .getCachedAvatarRendition(uuid, avatarHash.get(), size);
+      if (rendition != null) {
+        return CompletableFuture.completedFuture(toAvatarDataUrl(rendition));
+      }
+    }
     if (avatar != null) {
-      return CompletableFuture.completedFuture(resizeAvatar(size));
+      return CompletableFuture.completedFuture(getCachedAvatar(size));
     }
     return new UuidFetcher<Person>().load(context, IdDataLoaderKey.PEOPLE_AVATARS, uuid)
         .thenApply(o -> {
           avatar = Optional.ofNullable(o.getAvatar());
-          return resizeAvatar(size);
+          avatarHash = Optional.ofNullable(o.getAvatarHash());
+          return getCachedAvatar(size);
         });
   }
 
+  /**
+   * Check that an avatar size is within the allowed range.
+   *
+   * @param size the width and height of the resized avatar
+   * @throws WebApplicationException (bad request) if the size is not allowed
+   */
+  public static void checkAvatarSize(int size) {
+    if (size < 1 || size > MAX_AVATAR_SIZE) {
+      throw new WebApplicationException("Invalid avatar size", Status.BAD_REQUEST);
+    }
+  }
+
+  private String getCachedAvatar(int size) {
+    return toAvatarDataUrl(AnetObjectEngine.getInstance().getPersonDao()
+        .getAvatarRendition(uuid, getAvatarHash(), getAvatar(), size));
+  }
+
   public String resizeAvatar(int size) {
     try {
-      return String.format("data:image/%1$s;base64,%2$s", AVATAR_TYPE, Base64.getEncoder()
-          .encodeToString(Utils.resizeImage(getAvatar(), size, size, AVATAR_TYPE)));
+      return toAvatarDataUrl(Utils.resizeImage(getAvatar(), size, size, AVATAR_TYPE));
     } catch (Exception e) {
       return null;
     }
   }
 
+  private static String toAvatarDataUrl(byte[] resizedAvatar) {
+    if (resizedAvatar == null) {
+      return null;
+    }
+    return String.format("data:image/%1$s;base64,%2$s", AVATAR_TYPE,
+        Base64.getEncoder().encodeToString(resizedAvatar));
+  }
+
   public byte[] getAvatar() {
     return avatar == null ? null : avatar.orElse(null);
   }
@@ -298,6 +341,14 @@ public class Person extends AbstractCustomizableAnetBean implements Principal {
     }
   }
 
+  public String getAvatarHash() {
+    return avatarHash == null ? null : avatarHash.orElse(null);
+  }
+
+  public void setAvatarHash(String avatarHash) {
+    this.avatarHash = Optional.ofNullable(avatarHash);
+  }
+
   public String getCode() {
     return code;
   }
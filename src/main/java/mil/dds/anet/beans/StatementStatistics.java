@@ -0,0 +1,78 @@
+package mil.dds.anet.beans;
+
+import io.leangen.graphql.annotations.GraphQLQuery;
+
+public class StatementStatistics {
+
+  @GraphQLQuery
+  private String name;
+  @GraphQLQuery
+  private long count;
+  @GraphQLQuery
+  private long totalTimeMs;
+  @GraphQLQuery
+  private double meanTimeMs;
+  @GraphQLQuery
+  private double p99TimeMs;
+  @GraphQLQuery
+  private double maxTimeMs;
+  @GraphQLQuery
+  private Double meanRows;
+
+  public String getName() {
+    return name;
+  }
+
+  public void setName(String name) {
+    this.name = name;
+  }
+
+  public long getCount() {
+    return count;
+  }
+
+  public void setCount(long count) {
+    this.count = count;
+  }
+
+  public long getTotalTimeMs() {
+    return totalTimeMs;
+  }
+
+  public void setTotalTimeMs(long totalTimeMs) {
+    this.totalTimeMs = totalTimeMs;
+  }
+
+  public double getMeanTimeMs() {
+    return meanTimeMs;
+  }
+
+  public void setMeanTimeMs(double meanTimeMs) {
+    this.meanTimeMs = meanTimeMs;
+  }
+
+  public double getP99TimeMs() {
+    return p99TimeMs;
+  }
+
+  public void setP99TimeMs(double p99TimeMs) {
+    this.p99TimeMs = p99TimeMs;
+  }
+
+  public double getMaxTimeMs() {
+    return maxTimeMs;
+  }
+
+  public void setMaxTimeMs(double maxTimeMs) {
+    this.maxTimeMs = maxTimeMs;
+  }
+
+  public Double getMeanRows() {
+    return meanRows;
+  }
+
+  public void setMeanRows(Double meanRows) {
+    this.meanRows = meanRows;
+  }
+
+}
@@ -0,0 +1,129 @@
+package mil.dds.anet.beans;
+
+import io.leangen.graphql.annotations.GraphQLQuery;
+import java.time.Instant;
+
+public class WorkerHealth {
+
+  @GraphQLQuery
+  private String name;
+  @GraphQLQuery
+  private boolean running;
+  @GraphQLQuery
+  private Instant lastStartedAt;
+  @GraphQLQuery
+  private Instant lastFinishedAt;
+  @GraphQLQuery
+  private Instant lastSucceededAt;
+  @GraphQLQuery
+  private String lastError;
+  @GraphQLQuery
+  private Long lastDurationMs;
+  @GraphQLQuery
+  private Long lastLagMs;
+  @GraphQLQuery
+  private Integer lastItemsProcessed;
+  @GraphQLQuery
+  private long runs;
+  @GraphQLQuery
+  private long failures;
+  @GraphQLQuery
+  private long skipped;
+
+  public String getName() {
+    return name;
+  }
+
+  public void setName(String name) {
+    this.name = name;
+  }
+
+  public boolean isRunning() {
+    return running;
+  }
+
+  public void setRunning(boolean running) {
+    this.running = running;
+  }
+
+  public Instant getLastStartedAt() {
+    return lastStartedAt;
+  }
+
+  public void setLastStartedAt(Instant lastStartedAt) {
+    this.lastStartedAt = lastStartedAt;
+  }
+
+  public Instant getLastFinishedAt() {
+    return lastFinishedAt;
+  }
+
+  public void setLastFinishedAt(Instant lastFinishedAt) {
+    this.lastFinishedAt = lastFinishedAt;
+  }
+
+  public Instant getLastSucceededAt() {
+    return lastSucceededAt;
+  }
+
+  public void setLastSucceededAt(Instant lastSucceededAt) {
+    this.lastSucceededAt = lastSucceededAt;
+  }
+
+  public String getLastError() {
+    return lastError;
+  }
+
+  public void setLastError(String lastError) {
+    this.lastError = lastError;
+  }
+
+  public Long getLastDurationMs() {
+    return lastDurationMs;
+  }
+
+  public void setLastDurationMs(Long lastDurationMs) {
+    this.lastDurationMs = lastDurationMs;
+  }
+
+  public Long getLastLagMs() {
+    return lastLagMs;
+  }
+
+  public void setLastLagMs(Long lastLagMs) {
+    this.lastLagMs = lastLagMs;
+  }
+
+  public Integer getLastItemsProcessed() {
+    return lastItemsProcessed;
+  }
+
+  public void setLastItemsProcessed(Integer lastItemsProcessed) {
+    this.lastItemsProcessed = lastItemsProcessed;
+  }
+
+  public long getRuns() {
+    return runs;
+  }
+
+  public void setRuns(long runs) {
+    this.runs = runs;
+  }
+
+  public long getFailures() {
+    return failures;
+  }
+
+  public void setFailures(long failures) {
+    this.failures = failures;
+  }
+
+  public long getSkipped() {
+    return skipped;
+  }
+
+  public void setSkipped(long skipped) {
+    this.skipped = skipped;
+  }
+
+}
@@ -20,6 +20,9 @@ public class AnetBeanList<T> {
   @GraphQLQuery
   @GraphQLInputField
   Integer totalCount;
+  @GraphQLQuery
+  @GraphQLInputField
+  String nextCursor;
 
   public AnetBeanList() { /* Serialization Constructor */ }
 
@@ -77,4 +80,12 @@ public class AnetBeanList<T> {
     this.totalCount = totalCount;
   }
 
+  public String getNextCursor() {
+    return nextCursor;
+  }
+
+  public void setNextCursor(String nextCursor) {
+    this.nextCursor = nextCursor;
+  }
+
 }
@@ -23,6 +23,8 @@ public abstract class AbstractSearchQuery<T extends ISortBy> implements ISearchQ
   private Optional<Integer> pageSize = Optional.empty();
   private Optional<SortOrder> sortOrder = Optional.empty();
   private Optional<T> sortBy = Optional.empty();
+  private Optional<String> after = Optional.empty();
+  private Optional<Boolean> includeTotalCount = Optional.empty();
   private Optional<AbstractBatchParams<?, ?>> batchParams = Optional.empty();
   @GraphQLQuery
   @GraphQLInputField
@@ -110,6 +112,33 @@ public abstract class AbstractSearchQuery<T extends ISortBy> implements ISearchQ
     this.sortBy = Optional.ofNullable(sortBy);
   }
 
+  /**
+   * Get the cursor for keyset pagination: when set, the search returns the page following the
+   * result it was created from (ignoring pageNum).
+   *
+   * @return the opaque cursor, as returned in {@link mil.dds.anet.beans.lists.AnetBeanList}
+   */
+  @GraphQLQuery
+  public String getAfter() {
+    return after.orElse(null);
+  }
+
+  @GraphQLInputField
+  public void setAfter(String after) {
+    this.after = Optional.ofNullable(after);
+  }
+
+  @GraphQLQuery
+  @Nonnull
+  public boolean getIncludeTotalCount() {
+    return includeTotalCount.orElse(true);
+  }
+
+  @GraphQLInputField
+  public void setIncludeTotalCount(Boolean includeTotalCount) {
+    this.includeTotalCount = Optional.ofNullable(includeTotalCount);
+  }
+
   @Override
   @JsonIgnore
   public boolean isBatchParamsPresent() {
@@ -143,7 +172,8 @@ public abstract class AbstractSearchQuery<T extends ISortBy> implements ISearchQ
 
   @Override
   public int hashCode() {
-    return Objects.hash(text, pageNum, pageSize, sortOrder, sortBy, inMyReports, batchParams, user);
+    return Objects.hash(text, pageNum, pageSize, sortOrder, sortBy, after, includeTotalCount,
+        inMyReports, batchParams, user);
   }
 
   @Override
@@ -158,6 +188,8 @@ public abstract class AbstractSearchQuery<T extends ISortBy> implements ISearchQ
         && Objects.equals(getPageSize(), other.getPageSize())
         && Objects.equals(getSortOrder(), other.getSortOrder())
         && Objects.equals(getSortBy(), other.getSortBy())
+        && Objects.equals(getAfter(), other.getAfter())
+        && Objects.equals(getIncludeTotalCount(), other.getIncludeTotalCount())
         && Objects.equals(isInMyReports(), other.isInMyReports())
         && Objects.equals(getBatchParams(), other.getBatchParams())
         && Objects.equals(getUser(), other.getUser());
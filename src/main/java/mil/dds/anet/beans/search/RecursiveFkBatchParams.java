@@ -22,9 +22,8 @@ public class RecursiveFkBatchParams<B extends AbstractAnetBean, T extends Abstra
   @Override
   public void addQuery(AbstractSearchQueryBuilder<B, T> outerQb,
       AbstractSearchQueryBuilder<B, T> qb) {
-    qb.addRecursiveBatchClause(outerQb, getTableName(), new String[] {getForeignKey()},
-        "batch_parents", recursiveTableName, recursiveForeignKey, "batchUuids", getBatchUuids(),
-        recurseStrategy);
+    qb.addRecursiveBatchClause(getTableName(), new String[] {getForeignKey()}, "batch_parents",
+        recursiveTableName, recursiveForeignKey, "batchUuids", getBatchUuids(), recurseStrategy);
   }
 
   public String getRecursiveTableName() {
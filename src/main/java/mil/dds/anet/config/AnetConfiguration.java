@@ -6,10 +6,12 @@ import io.dropwizard.Configuration;
 import io.dropwizard.bundles.assets.AssetsBundleConfiguration;
 import io.dropwizard.bundles.assets.AssetsConfiguration;
 import io.dropwizard.db.DataSourceFactory;
+import io.dropwizard.util.Duration;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import javax.validation.Valid;
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 import mil.dds.anet.utils.Utils;
 
@@ -30,6 +32,23 @@ public class AnetConfiguration extends Configuration implements AssetsBundleConf
 
   private boolean timeWaffleRequests;
 
+  @NotNull
+  private Duration roleCacheTtl = Duration.seconds(60);
+
+  @NotNull
+  private Duration entityCacheTtl = Duration.minutes(5);
+
+  @NotNull
+  private Duration slowQueryThreshold = Duration.milliseconds(500);
+
+  private boolean organizationTreeEnabled;
+
+  @NotNull
+  private Duration organizationTreeRefreshInterval = Duration.minutes(5);
+
+  @Min(1)
+  private int xlsxRowWindow = 100;
+
   @Valid
   @NotNull
   @JsonProperty
@@ -42,6 +61,18 @@ public class AnetConfiguration extends Configuration implements AssetsBundleConf
   @NotNull
   private DataSourceFactory database = new DataSourceFactory();
 
+  @Valid
+  @NotNull
+  private DataLoaderConfiguration dataLoader = new DataLoaderConfiguration();
+
+  @Valid
+  @NotNull
+  private MaterializedViewsConfiguration materializedViews = new MaterializedViewsConfiguration();
+
+  @Valid
+  @NotNull
+  private WorkersConfiguration workers = new WorkersConfiguration();
+
   @NotNull
   private Map<String, Map<String, String>> views = Collections.emptyMap();
 
@@ -60,6 +91,30 @@ public class AnetConfiguration extends Configuration implements AssetsBundleConf
     return database;
   }
 
+  public DataLoaderConfiguration getDataLoader() {
+    return dataLoader;
+  }
+
+  public void setDataLoader(DataLoaderConfiguration dataLoader) {
+    this.dataLoader = dataLoader;
+  }
+
+  public MaterializedViewsConfiguration getMaterializedViews() {
+    return materializedViews;
+  }
+
+  public void setMaterializedViews(MaterializedViewsConfiguration materializedViews) {
+    this.materializedViews = materializedViews;
+  }
+
+  public WorkersConfiguration getWorkers() {
+    return workers;
+  }
+
+  public void setWorkers(WorkersConfiguration workers) {
+    this.workers = workers;
+  }
+
   public boolean isTestMode() {
     return testMode;
   }
@@ -106,6 +161,54 @@ public class AnetConfiguration extends Configuration implements AssetsBundleConf
     this.timeWaffleRequests = timeWaffleRequests;
   }
 
+  public Duration getRoleCacheTtl() {
+    return roleCacheTtl;
+  }
+
+  public void setRoleCacheTtl(Duration roleCacheTtl) {
+    this.roleCacheTtl = roleCacheTtl;
+  }
+
+  public Duration getEntityCacheTtl() {
+    return entityCacheTtl;
+  }
+
+  public void setEntityCacheTtl(Duration entityCacheTtl) {
+    this.entityCacheTtl = entityCacheTtl;
+  }
+
+  public Duration getSlowQueryThreshold() {
+    return slowQueryThreshold;
+  }
+
+  public void setSlowQueryThreshold(Duration slowQueryThreshold) {
+    this.slowQueryThreshold = slowQueryThreshold;
+  }
+
+  public boolean isOrganizationTreeEnabled() {
+    return organizationTreeEnabled;
+  }
+
+  public void setOrganizationTreeEnabled(boolean organizationTreeEnabled) {
+    this.organizationTreeEnabled = organizationTreeEnabled;
+  }
+
+  public Duration getOrganizationTreeRefreshInterval() {
+    return organizationTreeRefreshInterval;
+  }
+
+  public void setOrganizationTreeRefreshInterval(Duration organizationTreeRefreshInterval) {
+    this.organizationTreeRefreshInterval = organizationTreeRefreshInterval;
+  }
+
+  public int getXlsxRowWindow() {
+    return xlsxRowWindow;
+  }
+
+  public void setXlsxRowWindow(int xlsxRowWindow) {
+    this.xlsxRowWindow = xlsxRowWindow;
+  }
+
   public Map<String, String> getWaffleConfig() {
     return waffleConfig;
   }
@@ -168,6 +271,12 @@ public class AnetConfiguration extends Configuration implements AssetsBundleConf
     private boolean disabled = false;
     private Integer nbOfHoursForStaleEmails;
     private String sslTrust;
+    // Number of pending emails claimed and sent per transaction
+    @Min(1)
+    private int batchSize = 100;
+    // Number of threads rendering emails while others are being sent
+    @Min(1)
+    private int renderThreads = 4;
 
     public String getHostname() {
       return hostname;
@@ -232,6 +341,136 @@ public class AnetConfiguration extends Configuration implements AssetsBundleConf
     public void setSslTrust(String sslTrust) {
       this.sslTrust = sslTrust;
     }
+
+    public int getBatchSize() {
+      return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+      this.batchSize = batchSize;
+    }
+
+    public int getRenderThreads() {
+      return renderThreads;
+    }
+
+    public void setRenderThreads(int renderThreads) {
+      this.renderThreads = renderThreads;
+    }
+  }
+
+  public static class DataLoaderConfiguration {
+    // Number of threads for the data loaders, capped at the database pool's maxSize;
+    // 0 means half of the database pool's maxSize
+    @Min(0)
+    private int threads = 0;
+    // Number of batch loads that may be queued before callers have to run them themselves
+    @Min(1)
+    private int queueSize = 1000;
+    // Maximum time a batch load is held back while the database pool is saturated;
+    // 0 disables holding back
+    @NotNull
+    private Duration maxThrottleWait = Duration.seconds(1);
+
+    public int getThreads() {
+      return threads;
+    }
+
+    public void setThreads(int threads) {
+      this.threads = threads;
+    }
+
+    public int getQueueSize() {
+      return queueSize;
+    }
+
+    public void setQueueSize(int queueSize) {
+      this.queueSize = queueSize;
+    }
+
+    public Duration getMaxThrottleWait() {
+      return maxThrottleWait;
+    }
+
+    public void setMaxThrottleWait(Duration maxThrottleWait) {
+      this.maxThrottleWait = maxThrottleWait;
+    }
+  }
+
+  public static class MaterializedViewsConfiguration {
+    // Number of views that may be refreshed concurrently
+    @Min(1)
+    private int threads = 2;
+    // Minimum time between refreshes of a view
+    @NotNull
+    private Duration defaultInterval = Duration.seconds(60);
+    // Overrides of the interval, by view name
+    @NotNull
+    private Map<String, Duration> intervals = new HashMap<>();
+
+    public int getThreads() {
+      return threads;
+    }
+
+    public void setThreads(int threads) {
+      this.threads = threads;
+    }
+
+    public Duration getDefaultInterval() {
+      return defaultInterval;
+    }
+
+    public void setDefaultInterval(Duration defaultInterval) {
+      this.defaultInterval = defaultInterval;
+    }
+
+    public Map<String, Duration> getIntervals() {
+      return intervals;
+    }
+
+    public void setIntervals(Map<String, Duration> intervals) {
+      this.intervals = intervals;
+    }
+
+    public Duration getInterval(String viewName) {
+      return intervals.getOrDefault(viewName, defaultInterval);
+    }
+  }
+
+  public static class WorkersConfiguration {
+    // Number of background workers that may run concurrently
+    @Min(1)
+    private int threads = 5;
+    // Maximum random delay added to the first scheduled run of each worker
+    @NotNull
+    private Duration jitter = Duration.seconds(10);
+    // How long running workers may take to finish when the application stops
+    @NotNull
+    private Duration shutdownTimeout = Duration.seconds(30);
+
+    public int getThreads() {
+      return threads;
+    }
+
+    public void setThreads(int threads) {
+      this.threads = threads;
+    }
+
+    public Duration getJitter() {
+      return jitter;
+    }
+
+    public void setJitter(Duration jitter) {
+      this.jitter = jitter;
+    }
+
+    public Duration getShutdownTimeout() {
+      return shutdownTimeout;
+    }
+
+    public void setShutdownTimeout(Duration shutdownTimeout) {
+      this.shutdownTimeout = shutdownTimeout;
+    }
   }
 
 }
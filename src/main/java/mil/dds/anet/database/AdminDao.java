@@ -67,6 +67,26 @@ public class AdminDao {
         .bind("value", setting.getValue()).execute();
   }
 
+  /**
+   * Get the number of rows inserted, updated or deleted per table (PostgreSQL only). The counters
+   * come from the statistics collector, so they lag slightly behind, and they only go up (unless
+   * the statistics are reset).
+   *
+   * @return the modification counts by table name
+   */
+  @InTransaction
+  public Map<String, Long> getTableModificationCounts() {
+    final List<Map<String, Object>> rows = getDbHandle()
+        .createQuery("/* getTableModificationCounts */ SELECT relname,"
+            + " n_tup_ins + n_tup_upd + n_tup_del AS modifications FROM pg_stat_user_tables")
+        .mapToMap().list();
+    final Map<String, Long> result = new HashMap<>();
+    for (final Map<String, Object> row : rows) {
+      result.put((String) row.get("relname"), ((Number) row.get("modifications")).longValue());
+    }
+    return result;
+  }
+
   @InTransaction
   public void updateMaterializedView(String viewName) {
     // Can't use a prepared statement with a parameter here, alas
@@ -0,0 +1,90 @@
+package mil.dds.anet.database;
+
+import com.codahale.metrics.MetricRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import javax.cache.Cache;
+
+/**
+ * Short-lived cache of the advisor report insights, by organization uuid and period. The owning DAO
+ * empties the cache whenever the advisor report counts change, and so does the position DAO when a
+ * position (assignment) changes; the time-to-live bounds how long other changes (e.g. a renamed
+ * person or organization) can remain invisible.
+ */
+public class AdvisorReportInsightsCache {
+
+  private static final long MAX_ENTRIES = 1000;
+
+  static final class Entry {
+    private final List<Map<String, Object>> result;
+
+    private Entry(List<Map<String, Object>> result) {
+      this.result = Collections.unmodifiableList(result);
+    }
+  }
+
+  private final String cacheName;
+  private final Supplier<MetricRegistry> metricRegistrySupplier;
+  // Incremented on every eviction, so loads that raced with an eviction are not cached
+  private final AtomicLong version = new AtomicLong();
+  private final Cache<String, Entry> cache;
+
+  public AdvisorReportInsightsCache(String cacheName, Duration timeToLive,
+      Supplier<MetricRegistry> metricRegistrySupplier) {
+    this.cacheName = cacheName;
+    this.metricRegistrySupplier = metricRegistrySupplier;
+    // A zero duration disables caching
+    this.cache = (timeToLive.isNegative() || timeToLive.isZero()) ? null
+        : AnetCacheManager.createCache(cacheName, String.class, Entry.class, MAX_ENTRIES,
+            timeToLive);
+  }
+
+  /**
+   * Get the insights, loading them if they are not cached.
+   *
+   * @param orgUuid the uuid of the organization
+   * @param start the start of the period
+   * @param end the end of the period
+   * @param loader loads the insights from the database
+   * @return the (unmodifiable) insights
+   */
+  public List<Map<String, Object>> get(String orgUuid, Instant start, Instant end,
+      Supplier<List<Map<String, Object>>> loader) {
+    final String key = orgUuid + "|" + start.toEpochMilli() + "|" + end.toEpochMilli();
+    final Entry entry = (cache == null) ? null : cache.get(key);
+    if (entry != null) {
+      AnetCacheManager.updateStats(metricRegistrySupplier.get(), cacheName, true);
+      return entry.result;
+    }
+    AnetCacheManager.updateStats(metricRegistrySupplier.get(), cacheName, false);
+    final long loadVersion = version.get();
+    final Entry newEntry = new Entry(loader.get());
+    if (cache != null) {
+      put(key, newEntry, loadVersion);
+    }
+    return newEntry.result;
+  }
+
+  /**
+   * Evict all insights from the cache.
+   */
+  public synchronized void evictAll() {
+    version.incrementAndGet();
+    if (cache != null) {
+      cache.removeAll();
+    }
+  }
+
+  private synchronized void put(String key, Entry entry, long loadVersion) {
+    // Don't cache the result of a load that raced with an eviction
+    if (version.get() == loadVersion) {
+      cache.put(key, entry);
+    }
+  }
+
+}
@@ -0,0 +1,100 @@
+package mil.dds.anet.database;
+
+import java.util.Objects;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Response.Status;
+import org.jdbi.v3.core.Handle;
+
+/**
+ * Maintains a closure table (ancestorUuid, descendantUuid, depth) of a self-referencing hierarchy,
+ * so searches can join it instead of recursing over the whole table. Every node has a depth 0 row
+ * referencing itself. Must be called inside the transaction that changes the hierarchy.
+ */
+public class AncestorsTable {
+
+  private final String tableName;
+
+  public AncestorsTable(String tableName) {
+    this.tableName = tableName;
+  }
+
+  public String getTableName() {
+    return tableName;
+  }
+
+  /**
+   * Add a new node to the hierarchy.
+   *
+   * @param handle the database handle
+   * @param uuid the uuid of the new node
+   * @param parentUuid the uuid of its parent, or null
+   */
+  public void insert(Handle handle, String uuid, String parentUuid) {
+    handle.createUpdate("/* " + tableName + ".insertSelf */ INSERT INTO " + tableName
+        + " (\"ancestorUuid\", \"descendantUuid\", depth) VALUES (:uuid, :uuid, 0)")
+        .bind("uuid", uuid).execute();
+    if (parentUuid != null) {
+      handle.createUpdate("/* " + tableName + ".insertAncestors */ INSERT INTO " + tableName
+          + " (\"ancestorUuid\", \"descendantUuid\", depth)"
+          + " SELECT \"ancestorUuid\", :uuid, depth + 1 FROM " + tableName
+          + " WHERE \"descendantUuid\" = :parentUuid").bind("uuid", uuid)
+          .bind("parentUuid", parentUuid).execute();
+    }
+  }
+
+  /**
+   * Move a node (and its subtree) to a (possibly) new parent.
+   *
+   * @param handle the database handle
+   * @param uuid the uuid of the node
+   * @param parentUuid the uuid of its new parent, or null
+   * @throws WebApplicationException if the new parent is the node itself or one of its descendants
+   */
+  public void update(Handle handle, String uuid, String parentUuid) {
+    final String currentParentUuid = handle
+        .createQuery("/* " + tableName + ".getParent */ SELECT \"ancestorUuid\" FROM " + tableName
+            + " WHERE \"descendantUuid\" = :uuid AND depth = 1")
+        .bind("uuid", uuid).mapTo(String.class).findFirst().orElse(null);
+    if (Objects.equals(currentParentUuid, parentUuid)) {
+      return;
+    }
+    if (parentUuid != null && isAncestor(handle, uuid, parentUuid)) {
+      throw new WebApplicationException("Cannot move a node under itself or its descendants",
+          Status.BAD_REQUEST);
+    }
+
+    // Detach the subtree from all its current ancestors
+    handle.createUpdate("/* " + tableName + ".detach */ DELETE FROM " + tableName
+        + " WHERE \"descendantUuid\" IN (SELECT \"descendantUuid\" FROM " + tableName
+        + " WHERE \"ancestorUuid\" = :uuid)"
+        + " AND \"ancestorUuid\" NOT IN (SELECT \"descendantUuid\" FROM " + tableName
+        + " WHERE \"ancestorUuid\" = :uuid)").bind("uuid", uuid).execute();
+
+    if (parentUuid != null) {
+      // Attach the subtree to the new parent and all its ancestors
+      handle.createUpdate("/* " + tableName + ".attach */ INSERT INTO " + tableName
+          + " (\"ancestorUuid\", \"descendantUuid\", depth)"
+          + " SELECT a.\"ancestorUuid\", d.\"descendantUuid\", a.depth + d.depth + 1"
+          + " FROM " + tableName + " a, " + tableName + " d"
+          + " WHERE a.\"descendantUuid\" = :parentUuid AND d.\"ancestorUuid\" = :uuid")
+          .bind("uuid", uuid).bind("parentUuid", parentUuid).execute();
+    }
+  }
+
+  /**
+   * Check whether a node is an ancestor of (or the same as) another node.
+   *
+   * @param handle the database handle
+   * @param ancestorUuid the uuid of the possible ancestor
+   * @param descendantUuid the uuid of the possible descendant
+   * @return true if ancestorUuid is descendantUuid or one of its ancestors
+   */
+  public boolean isAncestor(Handle handle, String ancestorUuid, String descendantUuid) {
+    return handle
+        .createQuery("/* " + tableName + ".isAncestor */ SELECT COUNT(*) FROM " + tableName
+            + " WHERE \"ancestorUuid\" = :ancestorUuid AND \"descendantUuid\" = :descendantUuid")
+        .bind("ancestorUuid", ancestorUuid).bind("descendantUuid", descendantUuid)
+        .mapTo(Integer.class).one() > 0;
+  }
+
+}
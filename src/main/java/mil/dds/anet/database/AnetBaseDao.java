@@ -1,5 +1,6 @@
 package mil.dds.anet.database;
 
+import com.codahale.metrics.MetricRegistry;
 import javax.inject.Inject;
 import javax.inject.Provider;
 import mil.dds.anet.AnetObjectEngine;
@@ -16,6 +17,15 @@ public abstract class AnetBaseDao<T extends AbstractAnetBean, S extends Abstract
 
   @Inject
   private Provider<Handle> handle;
+  private MetricRegistry metricRegistry;
+
+  public MetricRegistry getMetricRegistry() {
+    return metricRegistry;
+  }
+
+  public void setMetricRegistry(MetricRegistry metricRegistry) {
+    this.metricRegistry = metricRegistry;
+  }
 
   @InTransaction
   @Override
@@ -46,6 +56,17 @@ public abstract class AnetBaseDao<T extends AbstractAnetBean, S extends Abstract
     return handle.get();
   }
 
+  /**
+   * Run a cache eviction now, and again once the current transaction has been committed or rolled
+   * back: until then, concurrent readers may still put the old values back in the cache.
+   *
+   * @param eviction the eviction to run
+   */
+  protected void evictNowAndAfterTransaction(Runnable eviction) {
+    eviction.run();
+    TransactionCallbacks.afterCompletion(getDbHandle(), eviction);
+  }
+
   protected DbType getDbType() {
     return DaoUtils.getDbType(AnetObjectEngine.getInstance().getDbUrl());
   }
@@ -0,0 +1,146 @@
+package mil.dds.anet.database;
+
+import com.codahale.metrics.MetricRegistry;
+import java.lang.invoke.MethodHandles;
+import java.net.URISyntaxException;
+import java.time.Duration;
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.config.units.MemoryUnit;
+import org.ehcache.jsr107.Eh107Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Access to the Ehcache caches of the application. Most are configured in ehcache-config.xml;
+ * caches whose settings come from the application configuration are created at runtime.
+ */
+public final class AnetCacheManager {
+
+  private static final Logger logger =
+      LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+  private static final String EHCACHE_CONFIG = "/ehcache-config.xml";
+
+  private AnetCacheManager() {}
+
+  /**
+   * Get a configured cache.
+   *
+   * @param cacheName the name (alias) of the cache
+   * @param keyType the type of the keys
+   * @param valueType the type of the values
+   * @return the cache, or null (and a warning is logged) if it is not configured
+   */
+  public static <K, V> Cache<K, V> getCache(String cacheName, Class<K> keyType,
+      Class<V> valueType) {
+    final CacheManager manager = getCacheManager();
+    if (manager == null) {
+      return null;
+    }
+    final Cache<K, V> cache = manager.getCache(cacheName, keyType, valueType);
+    if (cache == null) {
+      logger.warn("Caching config for {} not found in {}, proceeding without caching", cacheName,
+          EHCACHE_CONFIG);
+    }
+    return cache;
+  }
+
+  /**
+   * Create a cache on the heap, bounded by its number of entries, replacing any existing cache with
+   * the same name.
+   *
+   * @param cacheName the name (alias) of the cache
+   * @param keyType the type of the keys
+   * @param valueType the type of the values
+   * @param maxEntries the maximum number of entries
+   * @param timeToLive the time-to-live of the entries
+   * @return the cache, or null (and a warning is logged) if it could not be created
+   */
+  public static <K, V> Cache<K, V> createCache(String cacheName, Class<K> keyType,
+      Class<V> valueType, long maxEntries, Duration timeToLive) {
+    return createCache(cacheName,
+        CacheConfigurationBuilder
+            .newCacheConfigurationBuilder(keyType, valueType,
+                ResourcePoolsBuilder.heap(maxEntries))
+            .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(timeToLive)));
+  }
+
+  /**
+   * Create a cache on the heap, bounded by the memory its entries use, replacing any existing cache
+   * with the same name. The entries don't expire.
+   *
+   * @param cacheName the name (alias) of the cache
+   * @param keyType the type of the keys
+   * @param valueType the type of the values
+   * @param maxSize the maximum size of the entries
+   * @param unit the unit of the maximum size
+   * @return the cache, or null (and a warning is logged) if it could not be created
+   */
+  public static <K, V> Cache<K, V> createCache(String cacheName, Class<K> keyType,
+      Class<V> valueType, long maxSize, MemoryUnit unit) {
+    return createCache(cacheName, CacheConfigurationBuilder.newCacheConfigurationBuilder(keyType,
+        valueType, ResourcePoolsBuilder.newResourcePoolsBuilder().heap(maxSize, unit)));
+  }
+
+  private static <K, V> Cache<K, V> createCache(String cacheName,
+      CacheConfigurationBuilder<K, V> configuration) {
+    final CacheManager manager = getCacheManager();
+    if (manager == null) {
+      return null;
+    }
+    synchronized (manager) {
+      // No-op when there is no such cache yet
+      manager.destroyCache(cacheName);
+      return manager.createCache(cacheName,
+          Eh107Configuration.fromEhcacheCacheConfiguration(configuration));
+    }
+  }
+
+  /**
+   * Update the statistics of a cache after a lookup.
+   *
+   * @param metricRegistry the registry to update; may be null
+   * @param cacheName the name of the cache
+   * @param hit whether the lookup was a cache hit
+   */
+  public static void updateStats(MetricRegistry metricRegistry, String cacheName, boolean hit) {
+    updateStats(metricRegistry, cacheName, hit ? 1 : 0, hit ? 0 : 1);
+  }
+
+  /**
+   * Update the statistics of a cache after a number of lookups.
+   *
+   * @param metricRegistry the registry to update; may be null
+   * @param cacheName the name of the cache
+   * @param hitCount the number of cache hits
+   * @param missCount the number of cache misses
+   */
+  public static void updateStats(MetricRegistry metricRegistry, String cacheName, long hitCount,
+      long missCount) {
+    if (metricRegistry != null) {
+      metricRegistry.counter(MetricRegistry.name(cacheName, "LoadCount")).inc(hitCount + missCount);
+      metricRegistry.counter(MetricRegistry.name(cacheName, "CacheHitCount")).inc(hitCount);
+      metricRegistry.counter(MetricRegistry.name(cacheName, "CacheMissCount")).inc(missCount);
+    }
+  }
+
+  private static CacheManager getCacheManager() {
+    try {
+      // The caching provider keeps one manager per URI and class loader
+      final CachingProvider cachingProvider = Caching.getCachingProvider();
+      return cachingProvider.getCacheManager(
+          AnetCacheManager.class.getResource(EHCACHE_CONFIG).toURI(),
+          AnetCacheManager.class.getClassLoader());
+    } catch (URISyntaxException | NullPointerException e) {
+      logger.warn("Caching config {} not found, proceeding without caching", EHCACHE_CONFIG);
+      return null;
+    }
+  }
+
+}
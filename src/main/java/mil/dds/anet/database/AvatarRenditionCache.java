@@ -0,0 +1,110 @@
+package mil.dds.anet.database;
+
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.hash.Hashing;
+import java.lang.invoke.MethodHandles;
+import java.util.function.Supplier;
+import javax.cache.Cache;
+import mil.dds.anet.utils.Utils;
+import org.ehcache.config.units.MemoryUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Cache of resized avatars, by person uuid, size and hash of the original avatar; so a changed
+ * avatar never gets a stale rendition. The cache is bounded by the memory the renditions use.
+ */
+public class AvatarRenditionCache {
+
+  private static final Logger logger =
+      LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+  public static final String AVATAR_FORMAT = "png";
+
+  private final String cacheName;
+  private final Supplier<MetricRegistry> metricRegistrySupplier;
+  private final Cache<String, byte[]> cache;
+
+  public AvatarRenditionCache(String cacheName, long maxSizeMb,
+      Supplier<MetricRegistry> metricRegistrySupplier) {
+    this.cacheName = cacheName;
+    this.metricRegistrySupplier = metricRegistrySupplier;
+    this.cache = AnetCacheManager.createCache(cacheName, String.class, byte[].class, maxSizeMb,
+        MemoryUnit.MB);
+  }
+
+  /**
+   * Compute the hash of an avatar, which also serves as (part of) its HTTP entity tag.
+   *
+   * @param avatar the avatar
+   * @return the hash, or null if there is no avatar
+   */
+  public static String getAvatarHash(byte[] avatar) {
+    return avatar == null ? null : Hashing.sha256().hashBytes(avatar).toString();
+  }
+
+  /**
+   * Get a rendition of an avatar if it is cached, without needing the original avatar.
+   *
+   * @param personUuid the uuid of the person
+   * @param avatarHash the hash of the original avatar
+   * @param size the width and height of the rendition
+   * @return the rendition, or null if it is not cached
+   */
+  public byte[] getIfPresent(String personUuid, String avatarHash, int size) {
+    final byte[] rendition =
+        (cache == null) ? null : cache.get(getKey(personUuid, avatarHash, size));
+    if (rendition != null) {
+      AnetCacheManager.updateStats(metricRegistrySupplier.get(), cacheName, true);
+    }
+    return rendition;
+  }
+
+  /**
+   * Get a rendition of an avatar, resizing it if it is not cached.
+   *
+   * @param personUuid the uuid of the person
+   * @param avatarHash the hash of the original avatar, or null to compute it
+   * @param avatar the original avatar
+   * @param size the width and height of the rendition
+   * @return the rendition, or null if there is no avatar or it can't be resized
+   */
+  public byte[] get(String personUuid, String avatarHash, byte[] avatar, int size) {
+    if (avatar == null) {
+      return null;
+    }
+    final String key =
+        getKey(personUuid, avatarHash == null ? getAvatarHash(avatar) : avatarHash, size);
+    byte[] rendition = (cache == null) ? null : cache.get(key);
+    AnetCacheManager.updateStats(metricRegistrySupplier.get(), cacheName, rendition != null);
+    if (rendition != null) {
+      return rendition;
+    }
+
+    // Concurrent misses for the same key may both resize
+    try {
+      rendition = Utils.resizeImage(avatar, size, size, AVATAR_FORMAT);
+    } catch (Exception e) {
+      logger.debug("Could not resize avatar of person {}", personUuid, e);
+      return null;
+    }
+    if (cache != null) {
+      cache.put(key, rendition);
+    }
+    return rendition;
+  }
+
+  /**
+   * Evict all renditions from the cache.
+   */
+  public void evictAll() {
+    if (cache != null) {
+      cache.removeAll();
+    }
+  }
+
+  private static String getKey(String personUuid, String avatarHash, int size) {
+    return personUuid + "|" + size + "|" + avatarHash;
+  }
+
+}
@@ -0,0 +1,130 @@
+package mil.dds.anet.database;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.cache.Cache;
+import mil.dds.anet.beans.Person;
+import mil.dds.anet.utils.DaoUtils;
+
+/**
+ * Cache of domain users (by domainUsername), with reverse indexes from person uuid and position
+ * uuid to domainUsername so that evicting a person or the holder of a position doesn't need to scan
+ * the whole cache. Lookups are lock-free; updates of the cache and its indexes are serialized so
+ * they stay consistent with each other.
+ */
+public class DomainUsersCache {
+
+  private final Cache<String, Person> cache;
+  private final ConcurrentMap<String, String> personUuidIndex = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, String> positionUuidIndex = new ConcurrentHashMap<>();
+
+  public DomainUsersCache(Cache<String, Person> cache) {
+    this.cache = cache;
+  }
+
+  public Person get(String domainUsername) {
+    return cache.get(domainUsername);
+  }
+
+  /**
+   * Put a person in the cache, replacing any previous entry for the same domainUsername or for the
+   * same person.
+   *
+   * @param person the person to cache; must have a domainUsername
+   */
+  public synchronized void put(Person person) {
+    final String domainUsername = person.getDomainUsername();
+    // The person may have been cached under another domainUsername
+    final String oldDomainUsername = personUuidIndex.get(DaoUtils.getUuid(person));
+    if (oldDomainUsername != null && !oldDomainUsername.equals(domainUsername)) {
+      evict(oldDomainUsername);
+    }
+    // Clean up the indexes of the entry being replaced
+    removeFromIndexes(domainUsername, cache.getAndPut(domainUsername, person));
+    addToIndex(personUuidIndex, DaoUtils.getUuid(person), domainUsername);
+    addToIndex(positionUuidIndex, DaoUtils.getUuid(person.getPosition()), domainUsername);
+  }
+
+  /**
+   * Evict the person with the given domainUsername from the cache.
+   *
+   * @param domainUsername the domainUsername of the person to be evicted
+   */
+  public synchronized void evict(String domainUsername) {
+    if (domainUsername != null) {
+      removeFromIndexes(domainUsername, cache.getAndRemove(domainUsername));
+    }
+  }
+
+  /**
+   * Evict the person from the cache.
+   *
+   * @param personUuid the uuid of the person to be evicted
+   */
+  public synchronized void evictByPersonUuid(String personUuid) {
+    evictByIndex(personUuidIndex, personUuid);
+  }
+
+  /**
+   * Evict the person holding the position from the cache.
+   *
+   * @param positionUuid the uuid of the position for the person to be evicted
+   */
+  public synchronized void evictByPositionUuid(String positionUuid) {
+    evictByIndex(positionUuidIndex, positionUuid);
+  }
+
+  /**
+   * Get the domainUsername indexed for the person; for testing.
+   *
+   * @param personUuid the uuid of the person
+   * @return the domainUsername, or null if not indexed
+   */
+  String getIndexedByPersonUuid(String personUuid) {
+    return personUuidIndex.get(personUuid);
+  }
+
+  /**
+   * Get the domainUsername indexed for the position; for testing.
+   *
+   * @param positionUuid the uuid of the position
+   * @return the domainUsername, or null if not indexed
+   */
+  String getIndexedByPositionUuid(String positionUuid) {
+    return positionUuidIndex.get(positionUuid);
+  }
+
+  private void evictByIndex(ConcurrentMap<String, String> index, String key) {
+    if (key != null) {
+      final String domainUsername = index.remove(key);
+      // When the entry has already left the cache (e.g. expired), this only cleans up the index
+      evict(domainUsername);
+    }
+  }
+
+  private void addToIndex(ConcurrentMap<String, String> index, String key,
+      String domainUsername) {
+    if (key != null) {
+      // If another cached person was indexed here, it is stale now
+      final String oldDomainUsername = index.put(key, domainUsername);
+      if (oldDomainUsername != null && !oldDomainUsername.equals(domainUsername)) {
+        removeFromIndexes(oldDomainUsername, cache.getAndRemove(oldDomainUsername));
+      }
+    }
+  }
+
+  private void removeFromIndexes(String domainUsername, Person person) {
+    if (person != null) {
+      removeFromIndex(personUuidIndex, DaoUtils.getUuid(person), domainUsername);
+      removeFromIndex(positionUuidIndex, DaoUtils.getUuid(person.getPosition()), domainUsername);
+    }
+  }
+
+  private void removeFromIndex(ConcurrentMap<String, String> index, String key,
+      String domainUsername) {
+    if (key != null) {
+      index.remove(key, domainUsername);
+    }
+  }
+
+}
@@ -2,6 +2,7 @@ package mil.dds.anet.database;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.stream.Collectors;
 import javax.inject.Inject;
 import javax.inject.Provider;
 import mil.dds.anet.beans.AnetEmail;
@@ -32,14 +33,68 @@ public class EmailDao {
         .map(emailMapper).list();
   }
 
+  /**
+   * Claim a batch of pending emails, so workers on other nodes skip them until the claim expires.
+   * The claim is committed right away; the emails should then be sent outside of any transaction,
+   * and afterwards deleted (when processed) or released (when they should be tried again).
+   *
+   * @param afterId only claim emails with a higher id
+   * @param limit the maximum number of emails to claim
+   * @param claimedUntil when the claim expires, e.g. because the claiming worker died
+   * @return the claimed emails, ordered by id
+   */
   @InTransaction
-  public void deletePendingEmails(List<Integer> processedEmails) {
-    if (!processedEmails.isEmpty()) {
+  public List<AnetEmail> claimPendingEmails(int afterId, int limit, Instant claimedUntil) {
+    final String sql;
+    if (DaoUtils.isMsSql()) {
+      sql = "/* PendingEmailClaim */ SELECT TOP (:limit) * FROM \"pendingEmails\""
+          + " WITH (UPDLOCK, ROWLOCK, READPAST) WHERE id > :afterId"
+          + " AND (\"claimedUntil\" IS NULL OR \"claimedUntil\" < :now) ORDER BY id";
+    } else {
+      sql = "/* PendingEmailClaim */ SELECT * FROM \"pendingEmails\" WHERE id > :afterId"
+          + " AND (\"claimedUntil\" IS NULL OR \"claimedUntil\" < :now)"
+          + " ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED";
+    }
+    final List<AnetEmail> emails = getDbHandle().createQuery(sql).bind("afterId", afterId)
+        .bind("now", DaoUtils.asLocalDateTime(Instant.now())).bind("limit", limit)
+        .map(emailMapper).list();
+    if (!emails.isEmpty()) {
+      getDbHandle()
+          .createUpdate("/* PendingEmailSetClaim */ UPDATE \"pendingEmails\""
+              + " SET \"claimedUntil\" = :claimedUntil WHERE id IN ( <emailIds> )")
+          .bind("claimedUntil", DaoUtils.asLocalDateTime(claimedUntil))
+          .bindList("emailIds",
+              DaoUtils.padListArg(emails.stream().map(AnetEmail::getId)
+                  .collect(Collectors.toList())))
+          .execute();
+    }
+    return emails;
+  }
+
+  /**
+   * Release the claim on pending emails, so they are tried again on the next run.
+   *
+   * @param emailIds the ids of the emails
+   */
+  @InTransaction
+  public void releasePendingEmails(List<Integer> emailIds) {
+    if (!emailIds.isEmpty()) {
       getDbHandle()
-          .createUpdate(
-              "/* PendingEmailDelete*/ DELETE FROM \"pendingEmails\" WHERE id IN ( <emailIds> )")
-          .bindList("emailIds", processedEmails).execute();
+          .createUpdate("/* PendingEmailRelease */ UPDATE \"pendingEmails\""
+              + " SET \"claimedUntil\" = NULL WHERE id IN ( <emailIds> )")
+          .bindList("emailIds", DaoUtils.padListArg(emailIds)).execute();
+    }
+  }
+
+  @InTransaction
+  public int deletePendingEmails(List<Integer> processedEmails) {
+    if (processedEmails.isEmpty()) {
+      return 0;
     }
+    return getDbHandle()
+        .createUpdate(
+            "/* PendingEmailDelete*/ DELETE FROM \"pendingEmails\" WHERE id IN ( <emailIds> )")
+        .bindList("emailIds", DaoUtils.padListArg(processedEmails)).execute();
   }
 
   @InTransaction
@@ -0,0 +1,187 @@
+package mil.dds.anet.database;
+
+import com.codahale.metrics.MetricRegistry;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.InvocationTargetException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import javax.cache.Cache;
+import mil.dds.anet.views.AbstractAnetBean;
+import org.apache.commons.beanutils.PropertyUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Cross-request cache of beans by uuid, used in front of an {@link IdBatcher}. Only defensive
+ * copies of the given (database) properties are cached and returned, so loaded foreign objects are
+ * never shared between requests. The owning DAO must evict entries whenever it writes them, and
+ * again once the transaction has completed. Evictions are counted per uuid (in stripes, so the
+ * counters don't grow with the cache), and a bean whose load raced with an eviction is not cached,
+ * so concurrent readers can't put the old values back. Other servers don't see the evictions, nor
+ * are direct changes to the database noticed; the time-to-live bounds how long those go unseen.
+ */
+public class EntityCache<T extends AbstractAnetBean> {
+
+  private static final Logger logger =
+      LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+  public static final Duration DEFAULT_TIME_TO_LIVE = Duration.ofMinutes(5);
+
+  private static final long MAX_ENTRIES = 10000;
+  private static final int STRIPES = 64;
+
+  private final String cacheName;
+  private final Class<T> beanClass;
+  private final String[] properties;
+  private final Supplier<MetricRegistry> metricRegistrySupplier;
+  // Incremented on every eviction of a uuid in the stripe, so loads that raced with it are not
+  // cached
+  private final AtomicLongArray generations = new AtomicLongArray(STRIPES);
+  private final Object[] locks = new Object[STRIPES];
+  private volatile Cache<String, T> cache;
+
+  public EntityCache(String cacheName, Class<T> beanClass, String[] properties,
+      Duration timeToLive, Supplier<MetricRegistry> metricRegistrySupplier) {
+    this(cacheName, null, beanClass, properties, metricRegistrySupplier);
+    setTimeToLive(timeToLive);
+  }
+
+  EntityCache(String cacheName, Cache<String, T> cache, Class<T> beanClass, String[] properties,
+      Supplier<MetricRegistry> metricRegistrySupplier) {
+    this.cacheName = cacheName;
+    this.cache = cache;
+    this.beanClass = beanClass;
+    this.properties = properties;
+    this.metricRegistrySupplier = metricRegistrySupplier;
+    for (int i = 0; i < STRIPES; i++) {
+      locks[i] = new Object();
+    }
+  }
+
+  /**
+   * Set the time-to-live of the entries, emptying the cache; a zero duration disables caching.
+   *
+   * @param timeToLive the time-to-live
+   */
+  public synchronized void setTimeToLive(Duration timeToLive) {
+    cache = (timeToLive.isNegative() || timeToLive.isZero()) ? null
+        : AnetCacheManager.createCache(cacheName, String.class, beanClass, MAX_ENTRIES,
+            timeToLive);
+  }
+
+  /**
+   * Get the beans for the given uuids, only loading the ones not in the cache.
+   *
+   * @param uuids the uuids to look up
+   * @param loader loads the missing uuids from the database (in the same order)
+   * @return the beans, in the same order as the uuids (null if not found)
+   */
+  public List<T> getByIds(List<String> uuids, Function<List<String>, List<T>> loader) {
+    final Cache<String, T> currentCache = cache;
+    if (currentCache == null || uuids.isEmpty()) {
+      return loader.apply(uuids);
+    }
+    final Map<String, T> found = new HashMap<>();
+    final List<String> misses = new ArrayList<>();
+    for (final String uuid : uuids) {
+      // defensively copy the bean we return from the cache
+      final T bean = (uuid == null) ? null : copy(currentCache.get(uuid));
+      if (bean == null) {
+        misses.add(uuid);
+      } else {
+        found.put(uuid, bean);
+      }
+    }
+    AnetCacheManager.updateStats(metricRegistrySupplier.get(), cacheName,
+        uuids.size() - misses.size(), misses.size());
+    if (!misses.isEmpty()) {
+      final long[] loadGenerations = new long[misses.size()];
+      for (int i = 0; i < misses.size(); i++) {
+        loadGenerations[i] = getGeneration(misses.get(i));
+      }
+      final List<T> loaded = loader.apply(misses);
+      for (int i = 0; i < misses.size(); i++) {
+        final T bean = loaded.get(i);
+        if (bean != null) {
+          put(currentCache, bean, loadGenerations[i]);
+          found.put(misses.get(i), bean);
+        }
+      }
+    }
+    final List<T> result = new ArrayList<>(uuids.size());
+    for (final String uuid : uuids) {
+      result.add(found.get(uuid));
+    }
+    return result;
+  }
+
+  /**
+   * Evict the bean from the cache.
+   *
+   * @param uuid the uuid of the bean to be evicted from the cache
+   */
+  public void evict(String uuid) {
+    if (uuid != null) {
+      final int stripe = getStripe(uuid);
+      synchronized (locks[stripe]) {
+        generations.incrementAndGet(stripe);
+        final Cache<String, T> currentCache = cache;
+        if (currentCache != null) {
+          currentCache.remove(uuid);
+        }
+      }
+    }
+  }
+
+  private void put(Cache<String, T> currentCache, T bean, long loadGeneration) {
+    final String uuid = bean.getUuid();
+    if (uuid != null) {
+      // defensively copy the bean we will be caching
+      final T copy = copy(bean);
+      if (copy != null) {
+        final int stripe = getStripe(uuid);
+        synchronized (locks[stripe]) {
+          // Don't cache the result of a load that raced with an eviction
+          if (generations.get(stripe) == loadGeneration && currentCache == cache) {
+            currentCache.put(uuid, copy);
+          }
+        }
+      }
+    }
+  }
+
+  private long getGeneration(String uuid) {
+    return (uuid == null) ? 0 : generations.get(getStripe(uuid));
+  }
+
+  private static int getStripe(String uuid) {
+    return Math.floorMod(uuid.hashCode(), STRIPES);
+  }
+
+
+  // Make a defensive copy of only the (database) properties of a bean
+  private T copy(T bean) {
+    if (bean == null) {
+      return null;
+    }
+    try {
+      final T beanCopy = beanClass.newInstance();
+      for (final String prop : properties) {
+        PropertyUtils.setSimpleProperty(beanCopy, prop,
+            PropertyUtils.getSimpleProperty(bean, prop));
+      }
+      return beanCopy;
+    } catch (InstantiationException | IllegalAccessException | InvocationTargetException
+        | NoSuchMethodException e) {
+      logger.warn("Could not copy {}", beanClass.getSimpleName(), e);
+    }
+    return null;
+  }
+
+}
@@ -9,6 +9,7 @@ import java.util.stream.Collectors;
 import javax.inject.Inject;
 import javax.inject.Provider;
 import mil.dds.anet.database.mappers.ForeignKeyMapper;
+import mil.dds.anet.utils.DaoUtils;
 import mil.dds.anet.views.AbstractAnetBean;
 import org.jdbi.v3.core.Handle;
 import org.jdbi.v3.core.mapper.RowMapper;
@@ -22,6 +23,7 @@ public class ForeignKeyBatcher<T extends AbstractAnetBean> {
   @Inject
   private Provider<Handle> handle;
   private final String sql;
+  private final String anyArraySql;
   private final String paramName;
   private final RowMapper<T> objectMapper;
   private final String foreignKeyName;
@@ -30,6 +32,7 @@ public class ForeignKeyBatcher<T extends AbstractAnetBean> {
   public ForeignKeyBatcher(String sql, String paramName, RowMapper<T> objectMapper,
       String foreignKeyName, Map<String, Object> additionalParams) {
     this.sql = sql;
+    this.anyArraySql = DaoUtils.toAnyArraySql(sql, paramName);
     this.paramName = paramName;
     this.objectMapper = objectMapper;
     this.foreignKeyName = foreignKeyName;
@@ -47,8 +50,7 @@ public class ForeignKeyBatcher<T extends AbstractAnetBean> {
 
   @InTransaction
   public List<List<T>> getByForeignKeys(List<String> foreignKeys) {
-    final List<String> args = foreignKeys.isEmpty() ? defaultIfEmpty : foreignKeys;
-    final Query query = getDbHandle().createQuery(sql).bindList(paramName, args);
+    final Query query = createQuery(foreignKeys);
     if (additionalParams != null && !additionalParams.isEmpty()) {
       query.bindMap(additionalParams);
     }
@@ -65,4 +67,15 @@ public class ForeignKeyBatcher<T extends AbstractAnetBean> {
           .collect(Collectors.toList());
     });
   }
+
+  private Query createQuery(List<String> foreignKeys) {
+    if (DaoUtils.isPostgresql() && !anyArraySql.equals(sql)) {
+      // Bind the whole list as one varchar[] parameter
+      return getDbHandle().createQuery(anyArraySql).registerArrayType(String.class, "varchar")
+          .bindArray(paramName, String.class, foreignKeys);
+    }
+    final List<String> args =
+        foreignKeys.isEmpty() ? defaultIfEmpty : DaoUtils.padListArg(foreignKeys);
+    return getDbHandle().createQuery(sql).bindList(paramName, args);
+  }
 }
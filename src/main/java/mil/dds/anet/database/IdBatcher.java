@@ -6,9 +6,11 @@ import java.util.Map;
 import java.util.stream.Collectors;
 import javax.inject.Inject;
 import javax.inject.Provider;
+import mil.dds.anet.utils.DaoUtils;
 import mil.dds.anet.views.AbstractAnetBean;
 import org.jdbi.v3.core.Handle;
 import org.jdbi.v3.core.mapper.RowMapper;
+import org.jdbi.v3.core.statement.Query;
 import ru.vyarus.guicey.jdbi3.tx.InTransaction;
 
 public class IdBatcher<T extends AbstractAnetBean> {
@@ -18,11 +20,13 @@ public class IdBatcher<T extends AbstractAnetBean> {
   @Inject
   private Provider<Handle> handle;
   private final String sql;
+  private final String anyArraySql;
   private final String paramName;
   private final RowMapper<T> mapper;
 
   public IdBatcher(String sql, String paramName, RowMapper<T> mapper) {
     this.sql = sql;
+    this.anyArraySql = DaoUtils.toAnyArraySql(sql, paramName);
     this.paramName = paramName;
     this.mapper = mapper;
   }
@@ -33,12 +37,21 @@ public class IdBatcher<T extends AbstractAnetBean> {
 
   @InTransaction
   public List<T> getByIds(List<String> uuids) {
-    final List<String> args = uuids.isEmpty() ? defaultIfEmpty : uuids;
-    return getDbHandle().createQuery(sql).bindList(paramName, args).map(mapper)
+    return createQuery(uuids).map(mapper)
         .withStream(result -> {
           final Map<String, T> map = result.collect(Collectors.toMap(obj -> obj.getUuid(), // key
               obj -> obj)); // value
           return uuids.stream().map(uuid -> map.get(uuid)).collect(Collectors.toList());
         });
   }
+
+  private Query createQuery(List<String> uuids) {
+    if (DaoUtils.isPostgresql() && !anyArraySql.equals(sql)) {
+      // Bind the whole list as one varchar[] parameter
+      return getDbHandle().createQuery(anyArraySql).registerArrayType(String.class, "varchar")
+          .bindArray(paramName, String.class, uuids);
+    }
+    final List<String> args = uuids.isEmpty() ? defaultIfEmpty : DaoUtils.padListArg(uuids);
+    return getDbHandle().createQuery(sql).bindList(paramName, args);
+  }
 }
@@ -1,5 +1,6 @@
 package mil.dds.anet.database;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
 import mil.dds.anet.AnetObjectEngine;
@@ -11,8 +12,15 @@ import mil.dds.anet.utils.DaoUtils;
 
 public class LocationDao extends AnetBaseDao<Location, LocationSearchQuery> {
 
+  private static final String[] fields =
+      {"uuid", "name", "status", "lat", "lng", "createdAt", "updatedAt"};
   public static final String TABLE_NAME = "locations";
 
+  private static final String LOCATIONS_CACHE = "locationsCache";
+
+  private final EntityCache<Location> entityCache = new EntityCache<>(LOCATIONS_CACHE,
+      Location.class, fields, EntityCache.DEFAULT_TIME_TO_LIVE, this::getMetricRegistry);
+
   @Override
   public Location getByUuid(String uuid) {
     return getByIds(Arrays.asList(uuid)).get(0);
@@ -31,7 +39,17 @@ public class LocationDao extends AnetBaseDao<Location, LocationSearchQuery> {
   public List<Location> getByIds(List<String> uuids) {
     final IdBatcher<Location> idBatcher =
         AnetObjectEngine.getInstance().getInjector().getInstance(SelfIdBatcher.class);
-    return idBatcher.getByIds(uuids);
+    return entityCache.getByIds(uuids, idBatcher::getByIds);
+  }
+
+  /**
+   * Set the time-to-live of the cache, i.e. how long changes made elsewhere (e.g. on another
+   * server, or directly in the database) can go unnoticed at most.
+   *
+   * @param timeToLive the time-to-live; zero disables the cache
+   */
+  public void setEntityCacheTimeToLive(Duration timeToLive) {
+    entityCache.setTimeToLive(timeToLive);
   }
 
   @Override
@@ -42,15 +60,18 @@ public class LocationDao extends AnetBaseDao<Location, LocationSearchQuery> {
         .bindBean(l).bind("createdAt", DaoUtils.asLocalDateTime(l.getCreatedAt()))
         .bind("updatedAt", DaoUtils.asLocalDateTime(l.getUpdatedAt()))
         .bind("status", DaoUtils.getEnumId(l.getStatus())).execute();
+    evictNowAndAfterTransaction(() -> entityCache.evict(DaoUtils.getUuid(l)));
     return l;
   }
 
   @Override
   public int updateInternal(Location l) {
-    return getDbHandle().createUpdate("/* updateLocation */ UPDATE locations "
+    final int nr = getDbHandle().createUpdate("/* updateLocation */ UPDATE locations "
         + "SET name = :name, status = :status, lat = :lat, lng = :lng, \"updatedAt\" = :updatedAt WHERE uuid = :uuid")
         .bindBean(l).bind("updatedAt", DaoUtils.asLocalDateTime(l.getUpdatedAt()))
         .bind("status", DaoUtils.getEnumId(l.getStatus())).execute();
+    evictNowAndAfterTransaction(() -> entityCache.evict(DaoUtils.getUuid(l)));
+    return nr;
   }
 
   @Override
@@ -1,5 +1,6 @@
 package mil.dds.anet.database;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -17,6 +18,7 @@ import mil.dds.anet.utils.Utils;
 import mil.dds.anet.views.ForeignKeyFetcher;
 import mil.dds.anet.views.SearchQueryFetcher;
 import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.jdbi.v3.core.Jdbi;
 import org.jdbi.v3.sqlobject.config.RegisterRowMapper;
 import org.jdbi.v3.sqlobject.customizer.BindList;
 import org.jdbi.v3.sqlobject.statement.SqlQuery;
@@ -28,6 +30,15 @@ public class OrganizationDao extends AnetBaseDao<Organization, OrganizationSearc
       "type", "createdAt", "updatedAt", "parentOrgUuid"};
   public static String TABLE_NAME = "organizations";
   public static String ORGANIZATION_FIELDS = DaoUtils.buildFieldAliases(TABLE_NAME, fields, true);
+  public static final String ANCESTORS_TABLE_NAME = "\"organizationAncestors\"";
+
+  private static final String ORGANIZATIONS_CACHE = "organizationsCache";
+
+  private final EntityCache<Organization> entityCache = new EntityCache<>(ORGANIZATIONS_CACHE,
+      Organization.class, fields, EntityCache.DEFAULT_TIME_TO_LIVE, this::getMetricRegistry);
+  private final AncestorsTable ancestorsTable = new AncestorsTable(ANCESTORS_TABLE_NAME);
+  private final OrganizationTreeService treeService =
+      new OrganizationTreeService(this::loadTree);
 
   @Override
   public Organization getByUuid(String uuid) {
@@ -47,7 +58,17 @@ public class OrganizationDao extends AnetBaseDao<Organization, OrganizationSearc
   public List<Organization> getByIds(List<String> uuids) {
     final IdBatcher<Organization> idBatcher =
         AnetObjectEngine.getInstance().getInjector().getInstance(SelfIdBatcher.class);
-    return idBatcher.getByIds(uuids);
+    return entityCache.getByIds(uuids, idBatcher::getByIds);
+  }
+
+  /**
+   * Set the time-to-live of the cache, i.e. how long changes made elsewhere (e.g. on another
+   * server, or directly in the database) can go unnoticed at most.
+   *
+   * @param timeToLive the time-to-live; zero disables the cache
+   */
+  public void setEntityCacheTimeToLive(Duration timeToLive) {
+    entityCache.setTimeToLive(timeToLive);
   }
 
   static class OrganizationsBatcher extends ForeignKeyBatcher<Organization> {
@@ -114,6 +135,18 @@ public class OrganizationDao extends AnetBaseDao<Organization, OrganizationSearc
     return getDbHandle().attach(OrgListQueries.class).getOrgsByShortNames(shortNames);
   }
 
+  public OrganizationTreeService getTreeService() {
+    return treeService;
+  }
+
+  private List<Organization> loadTree() {
+    // Use a handle of its own, so the tree never contains uncommitted changes of the caller
+    return AnetObjectEngine.getInstance().getInjector().getInstance(Jdbi.class)
+        .withHandle(handle -> handle
+            .createQuery("/* loadOrgTree */ SELECT " + ORGANIZATION_FIELDS + " FROM organizations")
+            .map(new OrganizationMapper()).list());
+  }
+
   @Override
   public Organization insertInternal(Organization org) {
     getDbHandle().createUpdate(
@@ -124,18 +157,27 @@ public class OrganizationDao extends AnetBaseDao<Organization, OrganizationSearc
         .bind("status", DaoUtils.getEnumId(org.getStatus()))
         .bind("type", DaoUtils.getEnumId(org.getType()))
         .bind("parentOrgUuid", DaoUtils.getUuid(org.getParentOrg())).execute();
+    ancestorsTable.insert(getDbHandle(), DaoUtils.getUuid(org),
+        DaoUtils.getUuid(org.getParentOrg()));
+    evictNowAndAfterTransaction(() -> entityCache.evict(DaoUtils.getUuid(org)));
+    treeService.putAfterCommit(getDbHandle(), org, DaoUtils.getUuid(org.getParentOrg()));
     return org;
   }
 
   @Override
   public int updateInternal(Organization org) {
-    return getDbHandle().createUpdate("/* updateOrg */ UPDATE organizations "
+    final int nr = getDbHandle().createUpdate("/* updateOrg */ UPDATE organizations "
         + "SET \"shortName\" = :shortName, \"longName\" = :longName, status = :status, \"identificationCode\" = :identificationCode, type = :type, "
         + "\"updatedAt\" = :updatedAt, \"parentOrgUuid\" = :parentOrgUuid where uuid = :uuid")
         .bindBean(org).bind("updatedAt", DaoUtils.asLocalDateTime(org.getUpdatedAt()))
         .bind("status", DaoUtils.getEnumId(org.getStatus()))
         .bind("type", DaoUtils.getEnumId(org.getType()))
         .bind("parentOrgUuid", DaoUtils.getUuid(org.getParentOrg())).execute();
+    ancestorsTable.update(getDbHandle(), DaoUtils.getUuid(org),
+        DaoUtils.getUuid(org.getParentOrg()));
+    evictNowAndAfterTransaction(() -> entityCache.evict(DaoUtils.getUuid(org)));
+    treeService.putAfterCommit(getDbHandle(), org, DaoUtils.getUuid(org.getParentOrg()));
+    return nr;
   }
 
   @Override
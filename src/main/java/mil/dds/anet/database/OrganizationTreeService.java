@@ -0,0 +1,407 @@
+package mil.dds.anet.database;
+
+import java.lang.invoke.MethodHandles;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import mil.dds.anet.beans.Organization;
+import mil.dds.anet.beans.Organization.OrganizationType;
+import org.jdbi.v3.core.Handle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * In-memory snapshot of the whole organization forest, with parent pointers, child arrays, depths
+ * and Euler-tour intervals, so that ancestor tests take constant time and the ascendants and
+ * descendants of an organization can be listed without querying the database. Snapshots are
+ * immutable; {@link OrganizationDao} replaces them (copy-on-write) whenever it has committed a
+ * change to an organization, and they are reloaded periodically to pick up changes made elsewhere.
+ * Only copies of the organizations are handed out.
+ */
+public class OrganizationTreeService {
+
+  private static final Logger logger =
+      LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+  // Same order as the default organization search
+  private static final Comparator<Organization> DEFAULT_ORDER = Comparator
+      .comparing(Organization::getShortName, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER))
+      .thenComparing(Organization::getLongName,
+          Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER))
+      .thenComparing(Organization::getIdentificationCode,
+          Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER))
+      .thenComparing(Organization::getUuid);
+
+  private final Supplier<List<Organization>> loader;
+  private final LongSupplier clock;
+  private final AtomicBoolean reloading = new AtomicBoolean();
+  private volatile boolean enabled;
+  private volatile long refreshIntervalNanos;
+  private volatile Snapshot snapshot;
+
+  /**
+   * Creates the service.
+   *
+   * @param loader loads all organizations from the database
+   */
+  public OrganizationTreeService(Supplier<List<Organization>> loader) {
+    this(loader, System::nanoTime);
+  }
+
+  OrganizationTreeService(Supplier<List<Organization>> loader, LongSupplier clock) {
+    this.loader = loader;
+    this.clock = clock;
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+    if (!enabled) {
+      invalidate();
+    }
+  }
+
+  /**
+   * Set how long a snapshot may be used before it is reloaded from the database, so that changes
+   * made by other servers (or directly in the database) are eventually picked up.
+   *
+   * @param refreshInterval the refresh interval; zero or negative to never reload
+   */
+  public void setRefreshInterval(Duration refreshInterval) {
+    this.refreshIntervalNanos =
+        (refreshInterval.isNegative() || refreshInterval.isZero()) ? 0 : refreshInterval.toNanos();
+  }
+
+  /**
+   * Get the current snapshot of the tree, loading it if necessary.
+   *
+   * @return the snapshot, or null if the service is disabled or the hierarchy is inconsistent; in
+   *         that case, callers should fall back to querying the database
+   */
+  public Snapshot getSnapshot() {
+    if (!enabled) {
+      return null;
+    }
+    Snapshot s = snapshot;
+    if (s == null) {
+      s = reload(null);
+    } else if (isExpired(s) && reloading.compareAndSet(false, true)) {
+      // Only one thread reloads an expired snapshot; the others keep using it in the meantime
+      try {
+        s = reload(s);
+      } finally {
+        reloading.set(false);
+      }
+    }
+    return (s != null && s.valid) ? s : null;
+  }
+
+  /**
+   * Put a new or updated organization in the tree once the current transaction of the handle has
+   * been committed; called by {@link OrganizationDao} after writing it. Changes that are rolled
+   * back never reach the tree.
+   *
+   * @param handle the database handle
+   * @param org the organization as written to the database
+   * @param parentOrgUuid the uuid of its parent organization, or null
+   */
+  public void putAfterCommit(Handle handle, Organization org, String parentOrgUuid) {
+    // Copy it now, the caller may still change the organization before the commit
+    final Organization copy = copy(org);
+    copy.setParentOrgUuid(parentOrgUuid);
+    TransactionCallbacks.afterCommit(handle, () -> put(copy));
+  }
+
+  /**
+   * Put a new or updated organization in the tree.
+   *
+   * @param org the organization as it is in the database, including its parent organization uuid
+   */
+  synchronized void put(Organization org) {
+    final Snapshot s = snapshot;
+    if (s == null) {
+      // Not loaded yet, so the next load will see the change
+      return;
+    }
+    final Organization copy = copy(org);
+    final String parentOrgUuid = copy.getParentOrgUuid();
+    final Integer node = s.index.get(copy.getUuid());
+    if (node != null && Objects.equals(s.orgs[node].getParentOrgUuid(), parentOrgUuid)) {
+      // The hierarchy is unchanged, so share it with the new snapshot
+      snapshot = s.withOrg(node, copy);
+    } else {
+      final List<Organization> orgs = new ArrayList<>(Arrays.asList(s.orgs));
+      if (node == null) {
+        orgs.add(copy);
+      } else {
+        orgs.set(node, copy);
+      }
+      snapshot = Snapshot.build(orgs.toArray(new Organization[orgs.size()]), s.loadedAt);
+    }
+  }
+
+  /**
+   * Drop the current snapshot; it will be reloaded from the database when needed.
+   */
+  public synchronized void invalidate() {
+    snapshot = null;
+  }
+
+  private boolean isExpired(Snapshot s) {
+    final long interval = refreshIntervalNanos;
+    return interval > 0 && clock.getAsLong() - s.loadedAt >= interval;
+  }
+
+  private synchronized Snapshot reload(Snapshot expired) {
+    // Another thread may have (re)loaded it while we were waiting
+    if (snapshot == expired) {
+      final long loadedAt = clock.getAsLong();
+      final List<Organization> orgs = loader.get();
+      snapshot = Snapshot.build(orgs.toArray(new Organization[orgs.size()]), loadedAt);
+    }
+    return snapshot;
+  }
+
+  private static Organization getCopy(Map<String, Organization> copies, Organization org) {
+    return copies.computeIfAbsent(org.getUuid(), uuid -> copy(org));
+  }
+
+  private static Organization copy(Organization org) {
+    final Organization copy = new Organization();
+    copy.setUuid(org.getUuid());
+    copy.setShortName(org.getShortName());
+    copy.setLongName(org.getLongName());
+    copy.setStatus(org.getStatus());
+    copy.setIdentificationCode(org.getIdentificationCode());
+    copy.setType(org.getType());
+    copy.setCreatedAt(org.getCreatedAt());
+    copy.setUpdatedAt(org.getUpdatedAt());
+    copy.setParentOrgUuid(org.getParentOrgUuid());
+    return copy;
+  }
+
+  /**
+   * An immutable snapshot of the organization forest.
+   */
+  public static final class Snapshot {
+    private final Organization[] orgs;
+    private final Map<String, Integer> index;
+    // Index of the parent node, or -1 for top-level organizations
+    private final int[] parent;
+    private final int[][] children;
+    private final int[] depth;
+    // Euler-tour: the subtree of node n consists of tour[entry[n]] .. tour[exit[n]]
+    private final int[] tour;
+    private final int[] entry;
+    private final int[] exit;
+    // False if the hierarchy contains a loop
+    private final boolean valid;
+    // Clock time at which the organizations were loaded from the database
+    private final long loadedAt;
+
+    private Snapshot(Organization[] orgs, Map<String, Integer> index, int[] parent,
+        int[][] children, int[] depth, int[] tour, int[] entry, int[] exit, boolean valid,
+        long loadedAt) {
+      this.orgs = orgs;
+      this.index = index;
+      this.parent = parent;
+      this.children = children;
+      this.depth = depth;
+      this.tour = tour;
+      this.entry = entry;
+      this.exit = exit;
+      this.valid = valid;
+      this.loadedAt = loadedAt;
+    }
+
+    /**
+     * Get an organization and all its (transitive) parents, in the order of the default
+     * organization search.
+     *
+     * @param uuid the uuid of the organization
+     * @return the organizations, or an empty list if the organization is unknown
+     */
+    public List<Organization> getAscendantOrgs(String uuid) {
+      final Integer node = index.get(uuid);
+      if (node == null) {
+        return Collections.emptyList();
+      }
+      final List<Organization> result = new ArrayList<>(depth[node] + 1);
+      for (int n = node; n >= 0; n = parent[n]) {
+        result.add(copy(orgs[n]));
+      }
+      result.sort(DEFAULT_ORDER);
+      return result;
+    }
+
+    /**
+     * Get an organization and all its (transitive) children, in the order of the default
+     * organization search.
+     *
+     * @param uuid the uuid of the organization
+     * @return the organizations, or an empty list if the organization is unknown
+     */
+    public List<Organization> getDescendantOrgs(String uuid) {
+      final Integer node = index.get(uuid);
+      if (node == null) {
+        return Collections.emptyList();
+      }
+      final List<Organization> result = new ArrayList<>(exit[node] - entry[node] + 1);
+      for (int i = entry[node]; i <= exit[node]; i++) {
+        result.add(copy(orgs[tour[i]]));
+      }
+      result.sort(DEFAULT_ORDER);
+      return result;
+    }
+
+    /**
+     * Test whether an organization is an ancestor of another one (or the same).
+     *
+     * @param ancestorUuid the uuid of the (possible) ancestor
+     * @param descendantUuid the uuid of the (possible) descendant
+     * @return true if ancestorUuid is descendantUuid or one of its (transitive) parents
+     */
+    public boolean isAncestor(String ancestorUuid, String descendantUuid) {
+      final Integer a = index.get(ancestorUuid);
+      final Integer d = index.get(descendantUuid);
+      return a != null && d != null && entry[a] <= entry[d] && entry[d] <= exit[a];
+    }
+
+    /**
+     * Map all organizations of the given type to their highest parent of the same type; see
+     * {@link mil.dds.anet.utils.Utils#buildParentOrgMapping(List, String)}.
+     *
+     * @param orgType the organization type, or null for all organizations
+     * @return the mapping
+     */
+    public Map<String, Organization> buildTopLevelOrgHash(OrganizationType orgType) {
+      final Map<String, Organization> tops = new HashMap<>();
+      final Map<String, Organization> result = new HashMap<>();
+      for (int n = 0; n < orgs.length; n++) {
+        if (orgType == null || orgs[n].getType() == orgType) {
+          int top = n;
+          while (parent[top] >= 0
+              && (orgType == null || orgs[parent[top]].getType() == orgType)) {
+            top = parent[top];
+          }
+          result.put(orgs[n].getUuid(), getCopy(tops, orgs[top]));
+        }
+      }
+      return result;
+    }
+
+    /**
+     * Map an organization and all its (transitive) children to their highest parent below that
+     * organization, and the organization to itself; see
+     * {@link mil.dds.anet.utils.Utils#buildParentOrgMapping(List, String)}.
+     *
+     * @param parentOrgUuid the uuid of the top organization
+     * @return the mapping, empty if the organization is unknown
+     */
+    public Map<String, Organization> buildTopLevelOrgHash(String parentOrgUuid) {
+      final Integer topParent = index.get(parentOrgUuid);
+      final Map<String, Organization> result = new HashMap<>();
+      if (topParent != null) {
+        final Map<String, Organization> tops = new HashMap<>();
+        for (int i = entry[topParent]; i <= exit[topParent]; i++) {
+          final int n = tour[i];
+          int top = n;
+          while (top != topParent && parent[top] != topParent) {
+            top = parent[top];
+          }
+          result.put(orgs[n].getUuid(), getCopy(tops, orgs[top]));
+        }
+      }
+      return result;
+    }
+
+    private Snapshot withOrg(int node, Organization org) {
+      final Organization[] newOrgs = orgs.clone();
+      newOrgs[node] = org;
+      return new Snapshot(newOrgs, index, parent, children, depth, tour, entry, exit, valid,
+          loadedAt);
+    }
+
+    private static Snapshot build(Organization[] orgs, long loadedAt) {
+      final int size = orgs.length;
+      final Map<String, Integer> index = new HashMap<>(size * 2);
+      for (int n = 0; n < size; n++) {
+        index.put(orgs[n].getUuid(), n);
+      }
+
+      final int[] parent = new int[size];
+      final int[] nrOfChildren = new int[size];
+      for (int n = 0; n < size; n++) {
+        final Integer p = index.get(orgs[n].getParentOrgUuid());
+        parent[n] = (p == null) ? -1 : p;
+        if (p != null) {
+          nrOfChildren[p]++;
+        }
+      }
+      final int[][] children = new int[size][];
+      for (int n = 0; n < size; n++) {
+        children[n] = new int[nrOfChildren[n]];
+        nrOfChildren[n] = 0;
+      }
+      for (int n = 0; n < size; n++) {
+        if (parent[n] >= 0) {
+          children[parent[n]][nrOfChildren[parent[n]]++] = n;
+        }
+      }
+
+      // Iterative depth-first traversal from all top-level organizations
+      final int[] depth = new int[size];
+      final int[] tour = new int[size];
+      final int[] entry = new int[size];
+      final int[] exit = new int[size];
+      final int[] nextChild = new int[size];
+      final Deque<Integer> stack = new ArrayDeque<>();
+      int time = 0;
+      for (int root = 0; root < size; root++) {
+        if (parent[root] >= 0) {
+          continue;
+        }
+        depth[root] = 0;
+        entry[root] = time;
+        tour[time++] = root;
+        stack.push(root);
+        while (!stack.isEmpty()) {
+          final int n = stack.peek();
+          if (nextChild[n] < children[n].length) {
+            final int c = children[n][nextChild[n]++];
+            depth[c] = depth[n] + 1;
+            entry[c] = time;
+            tour[time++] = c;
+            stack.push(c);
+          } else {
+            exit[n] = time - 1;
+            stack.pop();
+          }
+        }
+      }
+
+      // Organizations not reached from any top-level organization are part of a loop
+      final boolean valid = (time == size);
+      if (!valid) {
+        logger.error("Loop detected in organization hierarchy, organization tree is unavailable");
+      }
+      return new Snapshot(orgs, index, parent, children, depth, tour, entry, exit, valid,
+          loadedAt);
+    }
+  }
+
+}
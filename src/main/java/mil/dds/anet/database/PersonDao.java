@@ -1,27 +1,22 @@
 package mil.dds.anet.database;
 
-import com.codahale.metrics.MetricRegistry;
 import com.google.common.collect.ObjectArrays;
 import java.lang.invoke.MethodHandles;
 import java.lang.reflect.InvocationTargetException;
-import java.net.URISyntaxException;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import javax.cache.Cache;
-import javax.cache.Cache.Entry;
-import javax.cache.CacheManager;
-import javax.cache.Caching;
-import javax.cache.spi.CachingProvider;
 import mil.dds.anet.AnetObjectEngine;
 import mil.dds.anet.beans.Person;
 import mil.dds.anet.beans.Person.PersonStatus;
 import mil.dds.anet.beans.PersonPositionHistory;
 import mil.dds.anet.beans.Position;
+import mil.dds.anet.beans.Position.PositionType;
 import mil.dds.anet.beans.lists.AnetBeanList;
 import mil.dds.anet.beans.search.PersonSearchQuery;
 import mil.dds.anet.database.mappers.PersonMapper;
@@ -45,9 +40,9 @@ public class PersonDao extends AnetBaseDao<Person, PersonSearchQuery> {
   public static String[] minimalFields = {"uuid", "name", "rank", "createdAt"};
   public static String[] additionalFields = {"status", "role", "emailAddress", "phoneNumber",
       "biography", "country", "gender", "endOfTourDate", "domainUsername", "pendingVerification",
-      "code", "updatedAt", "customFields"};
+      "code", "updatedAt", "customFields", "avatarHash"};
   // "avatar" has its own batcher
-  public static String[] avatarFields = {"uuid", "avatar"};
+  public static String[] avatarFields = {"uuid", "avatar", "avatarHash"};
   public static final String[] allFields =
       ObjectArrays.concat(minimalFields, additionalFields, String.class);
   public static String TABLE_NAME = "people";
@@ -57,35 +52,28 @@ public class PersonDao extends AnetBaseDao<Person, PersonSearchQuery> {
   public static String PERSON_FIELDS_NOAS =
       DaoUtils.buildFieldAliases(TABLE_NAME, allFields, false);
 
-  private static final String EHCACHE_CONFIG = "/ehcache-config.xml";
   private static final String DOMAIN_USERS_CACHE = "domainUsersCache";
-
-  private Cache<String, Person> domainUsersCache;
-  private MetricRegistry metricRegistry;
+  private static final String ROLE_CACHE = "roleCache";
+  private static final Duration DEFAULT_ROLE_CACHE_TTL = Duration.ofSeconds(60);
+  private static final String AVATAR_RENDITION_CACHE = "avatarRenditionCache";
+  private static final long AVATAR_RENDITION_CACHE_MAX_SIZE_MB = 32;
+  // The avatar sizes used by the client, generated as soon as an avatar is saved
+  private static final int[] AVATAR_RENDITION_SIZES = {32, 64, 256};
+
+  private DomainUsersCache domainUsersCache;
+  private final RoleCache roleCache =
+      new RoleCache(ROLE_CACHE, DEFAULT_ROLE_CACHE_TTL, this::getMetricRegistry);
+  private final AvatarRenditionCache avatarRenditionCache = new AvatarRenditionCache(
+      AVATAR_RENDITION_CACHE, AVATAR_RENDITION_CACHE_MAX_SIZE_MB, this::getMetricRegistry);
 
   public PersonDao() {
-    try {
-      final CachingProvider cachingProvider = Caching.getCachingProvider();
-      final CacheManager manager = cachingProvider.getCacheManager(
-          PersonDao.class.getResource(EHCACHE_CONFIG).toURI(), PersonDao.class.getClassLoader());
-      domainUsersCache = manager.getCache(DOMAIN_USERS_CACHE, String.class, Person.class);
-      if (domainUsersCache == null) {
-        logger.warn("Caching config for {} not found in {}, proceeding without caching",
-            DOMAIN_USERS_CACHE, EHCACHE_CONFIG);
-      }
-    } catch (URISyntaxException | NullPointerException e) {
-      logger.warn("Caching config {} not found, proceeding without caching", EHCACHE_CONFIG);
+    final Cache<String, Person> cache =
+        AnetCacheManager.getCache(DOMAIN_USERS_CACHE, String.class, Person.class);
+    if (cache != null) {
+      domainUsersCache = new DomainUsersCache(cache);
     }
   }
 
-  public MetricRegistry getMetricRegistry() {
-    return metricRegistry;
-  }
-
-  public void setMetricRegistry(MetricRegistry metricRegistry) {
-    this.metricRegistry = metricRegistry;
-  }
-
   @Override
   public Person getByUuid(String uuid) {
     return getByIds(Arrays.asList(uuid)).get(0);
@@ -126,6 +114,46 @@ public class PersonDao extends AnetBaseDao<Person, PersonSearchQuery> {
     return avatarBatcher.getByIds(uuids);
   }
 
+  /**
+   * Get a resized avatar of a person from the avatar rendition cache, without loading the avatar.
+   *
+   * @param personUuid the uuid of the person
+   * @param avatarHash the hash of the original avatar of the person
+   * @param size the width and height of the resized avatar
+   * @return the resized avatar, or null if it is not cached
+   */
+  public byte[] getCachedAvatarRendition(String personUuid, String avatarHash, int size) {
+    return avatarRenditionCache.getIfPresent(personUuid, avatarHash, size);
+  }
+
+  /**
+   * Get a resized avatar of a person, through the avatar rendition cache.
+   *
+   * @param personUuid the uuid of the person
+   * @param avatarHash the hash of the original avatar of the person, or null if not known
+   * @param avatar the original avatar of the person
+   * @param size the width and height of the resized avatar
+   * @return the resized avatar, or null if there is no (valid) avatar
+   */
+  public byte[] getAvatarRendition(String personUuid, String avatarHash, byte[] avatar,
+      int size) {
+    return avatarRenditionCache.get(personUuid, avatarHash, avatar, size);
+  }
+
+  private void generateAvatarRenditionsAfterCommit(Person p) {
+    final String personUuid = p.getUuid();
+    final String avatarHash = p.getAvatarHash();
+    final byte[] avatar = p.getAvatar();
+    if (avatar != null) {
+      // Resizing is slow, so don't keep the transaction (and its locks) open for it
+      TransactionCallbacks.afterCommit(getDbHandle(), () -> {
+        for (final int size : AVATAR_RENDITION_SIZES) {
+          getAvatarRendition(personUuid, avatarHash, avatar, size);
+        }
+      });
+    }
+  }
+
   static class PersonPositionHistoryBatcher extends ForeignKeyBatcher<PersonPositionHistory> {
     private static final String sql =
         "/* batch.getPersonPositionHistory */ SELECT * FROM \"peoplePositions\" "
@@ -144,12 +172,14 @@ public class PersonDao extends AnetBaseDao<Person, PersonSearchQuery> {
 
   @Override
   public Person insertInternal(Person p) {
+    // Stored with the avatar, so reading a cached rendition doesn't need the avatar itself
+    p.setAvatarHash(AvatarRenditionCache.getAvatarHash(p.getAvatar()));
     StringBuilder sql = new StringBuilder();
     sql.append("/* personInsert */ INSERT INTO people "
         + "(uuid, name, status, role, \"emailAddress\", \"phoneNumber\", rank, \"pendingVerification\", "
-        + "gender, country, avatar, code, \"endOfTourDate\", biography, \"domainUsername\", \"createdAt\", \"updatedAt\", \"customFields\") "
+        + "gender, country, avatar, \"avatarHash\", code, \"endOfTourDate\", biography, \"domainUsername\", \"createdAt\", \"updatedAt\", \"customFields\") "
         + "VALUES (:uuid, :name, :status, :role, :emailAddress, :phoneNumber, :rank, :pendingVerification, "
-        + ":gender, :country, :avatar, :code, ");
+        + ":gender, :country, :avatar, :avatarHash, :code, ");
     if (DaoUtils.isMsSql()) {
       // MsSql requires an explicit CAST when datetime2 might be NULL.
       sql.append("CAST(:endOfTourDate AS datetime2), ");
@@ -164,15 +194,17 @@ public class PersonDao extends AnetBaseDao<Person, PersonSearchQuery> {
         .bind("status", DaoUtils.getEnumId(p.getStatus()))
         .bind("role", DaoUtils.getEnumId(p.getRole())).execute();
     evictFromCache(p);
+    generateAvatarRenditionsAfterCommit(p);
     return p;
   }
 
   @Override
   public int updateInternal(Person p) {
+    p.setAvatarHash(AvatarRenditionCache.getAvatarHash(p.getAvatar()));
     StringBuilder sql = new StringBuilder("/* personUpdate */ UPDATE people "
         + "SET name = :name, status = :status, role = :role, "
         + "gender = :gender, country = :country,  \"emailAddress\" = :emailAddress, "
-        + "\"avatar\" = :avatar, code = :code, "
+        + "\"avatar\" = :avatar, \"avatarHash\" = :avatarHash, code = :code, "
         + "\"phoneNumber\" = :phoneNumber, rank = :rank, biography = :biography, "
         + "\"pendingVerification\" = :pendingVerification, \"domainUsername\" = :domainUsername, "
         + "\"updatedAt\" = :updatedAt, \"customFields\" = :customFields, ");
@@ -192,7 +224,8 @@ public class PersonDao extends AnetBaseDao<Person, PersonSearchQuery> {
         .bind("role", DaoUtils.getEnumId(p.getRole())).execute();
     evictFromCache(p);
     // The domainUsername may have changed, evict original person as well
-    evictFromCache(findInCache(p));
+    evictFromCacheByPersonUuid(DaoUtils.getUuid(p));
+    generateAvatarRenditionsAfterCommit(p);
     return nr;
   }
 
@@ -226,13 +259,37 @@ public class PersonDao extends AnetBaseDao<Person, PersonSearchQuery> {
     return people;
   }
 
+  /**
+   * Get the position type (and hence the roles) of a person, through the role cache.
+   *
+   * @param personUuid the uuid of the person
+   * @return the position type, or null if the person has no position
+   */
+  public PositionType getCachedPositionType(String personUuid) {
+    return roleCache.getPositionType(personUuid,
+        uuid -> AnetObjectEngine.getInstance().getPositionDao().getCurrentPositionForPerson(uuid));
+  }
+
+  /**
+   * Set the time-to-live of the role cache, i.e. how long a revoked role can remain effective at
+   * most when a cache eviction is missed.
+   *
+   * @param timeToLive the time-to-live; zero disables the role cache
+   */
+  public void setRoleCacheTimeToLive(Duration timeToLive) {
+    roleCache.setTimeToLive(timeToLive);
+  }
+
   /**
    * Evict the person from the cache.
    *
    * @param personUuid the uuid of the person to be evicted from the cache
    */
   public void evictFromCacheByPersonUuid(String personUuid) {
-    evictFromCache(findInCacheByPersonUuid(personUuid));
+    roleCache.evictByPersonUuid(personUuid);
+    if (domainUsersCache != null && personUuid != null) {
+      domainUsersCache.evictByPersonUuid(personUuid);
+    }
   }
 
   /**
@@ -241,7 +298,10 @@ public class PersonDao extends AnetBaseDao<Person, PersonSearchQuery> {
    * @param positionUuid the uuid of the position for the person to be evicted from the cache
    */
   public void evictFromCacheByPositionUuid(String positionUuid) {
-    evictFromCache(findInCacheByPositionUuid(positionUuid));
+    roleCache.evictByPositionUuid(positionUuid);
+    if (domainUsersCache != null && positionUuid != null) {
+      domainUsersCache.evictByPositionUuid(positionUuid);
+    }
   }
 
   private Person getFromCache(String domainUsername) {
@@ -249,14 +309,7 @@ public class PersonDao extends AnetBaseDao<Person, PersonSearchQuery> {
       return null;
     }
     final Person person = domainUsersCache.get(domainUsername);
-    if (metricRegistry != null) {
-      metricRegistry.counter(MetricRegistry.name(DOMAIN_USERS_CACHE, "LoadCount")).inc();
-      if (person == null) {
-        metricRegistry.counter(MetricRegistry.name(DOMAIN_USERS_CACHE, "CacheMissCount")).inc();
-      } else {
-        metricRegistry.counter(MetricRegistry.name(DOMAIN_USERS_CACHE, "CacheHitCount")).inc();
-      }
-    }
+    AnetCacheManager.updateStats(getMetricRegistry(), DOMAIN_USERS_CACHE, person != null);
     // defensively copy the person we return from the cache
     return copyPerson(person);
   }
@@ -266,7 +319,7 @@ public class PersonDao extends AnetBaseDao<Person, PersonSearchQuery> {
       // defensively copy the person we will be caching
       final Person copy = copyPerson(person);
       if (copy != null) {
-        domainUsersCache.put(person.getDomainUsername(), copy);
+        domainUsersCache.put(copy);
       }
     }
   }
@@ -278,35 +331,10 @@ public class PersonDao extends AnetBaseDao<Person, PersonSearchQuery> {
    * @param person the person to be evicted from the domain users cache
    */
   private void evictFromCache(Person person) {
+    roleCache.evictByPersonUuid(DaoUtils.getUuid(person));
     if (domainUsersCache != null && person != null && person.getDomainUsername() != null) {
-      domainUsersCache.remove(person.getDomainUsername());
-    }
-  }
-
-  private Person findInCache(Person person) {
-    return findInCacheByPersonUuid(DaoUtils.getUuid(person));
-  }
-
-  private Person findInCacheByPersonUuid(String personUuid) {
-    if (domainUsersCache != null && personUuid != null) {
-      for (final Entry<String, Person> entry : domainUsersCache) {
-        if (Objects.equals(DaoUtils.getUuid(entry.getValue()), personUuid)) {
-          return entry.getValue();
-        }
-      }
+      domainUsersCache.evict(person.getDomainUsername());
     }
-    return null;
-  }
-
-  private Person findInCacheByPositionUuid(String positionUuid) {
-    if (domainUsersCache != null && positionUuid != null) {
-      for (final Entry<String, Person> entry : domainUsersCache) {
-        if (Objects.equals(DaoUtils.getUuid(entry.getValue().getPosition()), positionUuid)) {
-          return entry.getValue();
-        }
-      }
-    }
-    return null;
   }
 
   // Make a defensive copy of a person and their position
@@ -401,6 +429,9 @@ public class PersonDao extends AnetBaseDao<Person, PersonSearchQuery> {
     // E.g. positions may have been updated, so evict from the cache
     evictFromCache(winner);
     evictFromCache(loser);
+    // Both their reports and their attendance have moved to the winner
+    AnetObjectEngine.getInstance().getReportDao()
+        .rebuildAdvisorReportCounts(Arrays.asList(winner.getUuid(), loser.getUuid()));
     return nr;
   }
 
@@ -1,6 +1,7 @@
 package mil.dds.anet.database;
 
 import java.sql.SQLException;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.Arrays;
 import java.util.Collections;
@@ -35,6 +36,11 @@ public class PositionDao extends AnetBaseDao<Position, PositionSearchQuery> {
   public static String TABLE_NAME = "positions";
   public static String POSITIONS_FIELDS = DaoUtils.buildFieldAliases(TABLE_NAME, fields, true);
 
+  private static final String POSITIONS_CACHE = "positionsCache";
+
+  private final EntityCache<Position> entityCache = new EntityCache<>(POSITIONS_CACHE,
+      Position.class, fields, EntityCache.DEFAULT_TIME_TO_LIVE, this::getMetricRegistry);
+
   @Override
   public Position insertInternal(Position p) {
     // prevent code conflicts
@@ -57,6 +63,7 @@ public class PositionDao extends AnetBaseDao<Position, PositionSearchQuery> {
       checkForUniqueCodeViolation(e);
       throw e;
     }
+    evictNowAndAfterTransaction(() -> entityCache.evict(DaoUtils.getUuid(p)));
     return p;
   }
 
@@ -91,7 +98,17 @@ public class PositionDao extends AnetBaseDao<Position, PositionSearchQuery> {
   public List<Position> getByIds(List<String> uuids) {
     final IdBatcher<Position> idBatcher =
         AnetObjectEngine.getInstance().getInjector().getInstance(SelfIdBatcher.class);
-    return idBatcher.getByIds(uuids);
+    return entityCache.getByIds(uuids, idBatcher::getByIds);
+  }
+
+  /**
+   * Set the time-to-live of the cache, i.e. how long changes made elsewhere (e.g. on another
+   * server, or directly in the database) can go unnoticed at most.
+   *
+   * @param timeToLive the time-to-live; zero disables the cache
+   */
+  public void setEntityCacheTimeToLive(Duration timeToLive) {
+    entityCache.setTimeToLive(timeToLive);
   }
 
   static class PersonPositionHistoryBatcher extends ForeignKeyBatcher<PersonPositionHistory> {
@@ -163,10 +180,13 @@ public class PositionDao extends AnetBaseDao<Position, PositionSearchQuery> {
           .bindBean(p).bind("updatedAt", DaoUtils.asLocalDateTime(p.getUpdatedAt()))
           .bind("type", DaoUtils.getEnumId(p.getType()))
           .bind("status", DaoUtils.getEnumId(p.getStatus())).execute();
+      evictNowAndAfterTransaction(() -> entityCache.evict(DaoUtils.getUuid(p)));
       // Evict the person holding this position from the domain users cache, as their position has
       // changed
       AnetObjectEngine.getInstance().getPersonDao()
           .evictFromCacheByPositionUuid(DaoUtils.getUuid(p));
+      // The advisor report insights only count people in advisor positions
+      AnetObjectEngine.getInstance().getReportDao().evictAdvisorReportInsightsCache();
       return nr;
     } catch (UnableToExecuteStatementException e) {
       checkForUniqueCodeViolation(e);
@@ -218,6 +238,7 @@ public class PositionDao extends AnetBaseDao<Position, PositionSearchQuery> {
               "/* positionSetPerson.remove1 */ UPDATE positions set \"currentPersonUuid\" = NULL "
                   + "WHERE \"currentPersonUuid\" = :personUuid")
           .bind("personUuid", personUuid).execute();
+      evictNowAndAfterTransaction(() -> entityCache.evict(currPos.getUuid()));
 
       getDbHandle()
           .createUpdate("/* positionSetPerson.remove2 */ INSERT INTO \"peoplePositions\" "
@@ -239,8 +260,10 @@ public class PositionDao extends AnetBaseDao<Position, PositionSearchQuery> {
         .bind("positionUuid", positionUuid).bind("personUuid", personUuid)
         // Need to ensure this timestamp is greater than previous INSERT.
         .bind("createdAt", DaoUtils.asLocalDateTime(now.plusMillis(1))).execute();
+    evictNowAndAfterTransaction(() -> entityCache.evict(positionUuid));
     // Evict this person from the domain users cache, as their position has changed
     AnetObjectEngine.getInstance().getPersonDao().evictFromCacheByPersonUuid(personUuid);
+    AnetObjectEngine.getInstance().getReportDao().evictAdvisorReportInsightsCache();
 
     return nr;
   }
@@ -306,8 +329,10 @@ public class PositionDao extends AnetBaseDao<Position, PositionSearchQuery> {
         .bind("positionUuid", positionUuid)
         // Need to ensure this timestamp is greater than previous INSERT.
         .bind("createdAt", DaoUtils.asLocalDateTime(now.plusMillis(1))).execute();
+    evictNowAndAfterTransaction(() -> entityCache.evict(positionUuid));
     // Evict the person (previously) holding this position from the domain users cache
     AnetObjectEngine.getInstance().getPersonDao().evictFromCacheByPositionUuid(positionUuid);
+    AnetObjectEngine.getInstance().getReportDao().evictAdvisorReportInsightsCache();
     return nr;
   }
 
@@ -443,8 +468,10 @@ public class PositionDao extends AnetBaseDao<Position, PositionSearchQuery> {
 
     final int nr = getDbHandle().createUpdate("DELETE FROM positions WHERE uuid = :positionUuid")
         .bind("positionUuid", positionUuid).execute();
+    evictNowAndAfterTransaction(() -> entityCache.evict(positionUuid));
     // Evict the person (previously) holding this position from the domain users cache
     AnetObjectEngine.getInstance().getPersonDao().evictFromCacheByPositionUuid(positionUuid);
+    AnetObjectEngine.getInstance().getReportDao().evictAdvisorReportInsightsCache();
     return nr;
   }
 
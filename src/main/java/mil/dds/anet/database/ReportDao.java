@@ -2,7 +2,12 @@ package mil.dds.anet.database;
 
 import com.google.common.collect.ObjectArrays;
 import io.leangen.graphql.annotations.GraphQLRootContext;
+import java.time.Duration;
 import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -56,7 +61,9 @@ import mil.dds.anet.views.ForeignKeyFetcher;
 import mil.dds.anet.views.SearchQueryFetcher;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.jdbi.v3.core.mapper.MapMapper;
+import org.jdbi.v3.core.statement.PreparedBatch;
 import org.jdbi.v3.core.statement.Query;
+import org.jdbi.v3.core.statement.Update;
 import org.jdbi.v3.sqlobject.customizer.Bind;
 import org.jdbi.v3.sqlobject.customizer.BindBean;
 import org.jdbi.v3.sqlobject.statement.SqlBatch;
@@ -76,6 +83,16 @@ public class ReportDao extends AnetBaseDao<Report, ReportSearchQuery> {
   public static final String REPORT_FIELDS =
       DaoUtils.buildFieldAliases(TABLE_NAME, allFields, true);
 
+  private static final String ADVISOR_REPORT_INSIGHTS_CACHE = "advisorReportInsightsCache";
+  private static final Duration ADVISOR_REPORT_INSIGHTS_CACHE_TTL = Duration.ofMinutes(10);
+  // Reports in these states count in the advisor report insights
+  private static final String ADVISOR_REPORT_STATES = DaoUtils.getEnumId(ReportState.DRAFT) + ", "
+      + DaoUtils.getEnumId(ReportState.PENDING_APPROVAL) + ", "
+      + DaoUtils.getEnumId(ReportState.PUBLISHED);
+
+  private final AdvisorReportInsightsCache advisorReportInsightsCache =
+      new AdvisorReportInsightsCache(ADVISOR_REPORT_INSIGHTS_CACHE,
+          ADVISOR_REPORT_INSIGHTS_CACHE_TTL, this::getMetricRegistry);
   private String weekFormat;
 
   public String getWeekFormat() {
@@ -160,6 +177,10 @@ public class ReportDao extends AnetBaseDao<Report, ReportSearchQuery> {
     if (r.getTags() != null) {
       rb.insertReportTags(r.getUuid(), r.getTags());
     }
+    if (r.getReleasedAt() != null) {
+      updateDailyRollup(Collections.emptyList(), getDailyRollupKeys(r.getUuid()));
+    }
+    updateAdvisorReportCounts(Collections.emptyMap(), getAdvisorReportCounts(r.getUuid()));
     return r;
   }
 
@@ -241,38 +262,58 @@ public class ReportDao extends AnetBaseDao<Report, ReportSearchQuery> {
             + "\"principalOrganizationUuid\" = :principalOrgUuid, \"advisorOrganizationUuid\" = :advisorOrgUuid, "
             + "\"customFields\" = :customFields " + "WHERE uuid = :uuid");
 
-    return getDbHandle().createUpdate(sql.toString()).bindBean(r)
+    lockReport(r.getUuid());
+    final List<DailyRollupKey> oldKeys = getDailyRollupKeys(r.getUuid());
+    final Map<AdvisorReportCountKey, int[]> oldCounts = getAdvisorReportCounts(r.getUuid());
+    final int numRows = getDbHandle().createUpdate(sql.toString()).bindBean(r)
         .bind("updatedAt", DaoUtils.asLocalDateTime(r.getUpdatedAt()))
         .bind("engagementDate", DaoUtils.asLocalDateTime(r.getEngagementDate()))
         .bind("releasedAt", DaoUtils.asLocalDateTime(r.getReleasedAt()))
         .bind("state", DaoUtils.getEnumId(r.getState()))
         .bind("atmosphere", DaoUtils.getEnumId(r.getAtmosphere()))
         .bind("cancelledReason", DaoUtils.getEnumId(r.getCancelledReason())).execute();
+    updateDailyRollup(oldKeys, getDailyRollupKeys(r.getUuid()));
+    updateAdvisorReportCounts(oldCounts, getAdvisorReportCounts(r.getUuid()));
+    return numRows;
   }
 
   @InTransaction
   public void updateToDraftState(Report r) {
+    lockReport(r.getUuid());
+    final List<DailyRollupKey> oldKeys = getDailyRollupKeys(r.getUuid());
+    final Map<AdvisorReportCountKey, int[]> oldCounts = getAdvisorReportCounts(r.getUuid());
     getDbHandle().createUpdate(
         "/* UpdateFutureEngagementToDraft */ UPDATE reports SET state = :state , \"approvalStepUuid\" = NULL "
             + "WHERE uuid = :reportUuid")
         .bind("state", DaoUtils.getEnumId(ReportState.DRAFT)).bind("reportUuid", r.getUuid())
         .execute();
+    updateDailyRollup(oldKeys, getDailyRollupKeys(r.getUuid()));
+    updateAdvisorReportCounts(oldCounts, getAdvisorReportCounts(r.getUuid()));
   }
 
   @InTransaction
   public int addAttendeeToReport(ReportPerson rp, Report r) {
-    return getDbHandle().createUpdate("/* addReportAttendee */ INSERT INTO \"reportPeople\" "
-        + "(\"personUuid\", \"reportUuid\", \"isPrimary\") VALUES (:personUuid, :reportUuid, :isPrimary)")
+    lockReport(r.getUuid());
+    final Map<AdvisorReportCountKey, int[]> oldCounts = getAdvisorReportCounts(r.getUuid());
+    final int numRows = getDbHandle().createUpdate(
+        "/* addReportAttendee */ INSERT INTO \"reportPeople\" "
+            + "(\"personUuid\", \"reportUuid\", \"isPrimary\") VALUES (:personUuid, :reportUuid, :isPrimary)")
         .bind("personUuid", rp.getUuid()).bind("reportUuid", r.getUuid())
         .bind("isPrimary", rp.isPrimary()).execute();
+    updateAdvisorReportCounts(oldCounts, getAdvisorReportCounts(r.getUuid()));
+    return numRows;
   }
 
   @InTransaction
   public int removeAttendeeFromReport(Person p, Report r) {
-    return getDbHandle()
+    lockReport(r.getUuid());
+    final Map<AdvisorReportCountKey, int[]> oldCounts = getAdvisorReportCounts(r.getUuid());
+    final int numRows = getDbHandle()
         .createUpdate("/* deleteReportAttendee */ DELETE FROM \"reportPeople\" "
             + "WHERE \"reportUuid\" = :reportUuid AND \"personUuid\" = :personUuid")
         .bind("reportUuid", r.getUuid()).bind("personUuid", p.getUuid()).execute();
+    updateAdvisorReportCounts(oldCounts, getAdvisorReportCounts(r.getUuid()));
+    return numRows;
   }
 
   @InTransaction
@@ -381,6 +422,9 @@ public class ReportDao extends AnetBaseDao<Report, ReportSearchQuery> {
   @InTransaction
   @Override
   public int deleteInternal(String reportUuid) {
+    lockReport(reportUuid);
+    final Map<AdvisorReportCountKey, int[]> oldCounts = getAdvisorReportCounts(reportUuid);
+
     // Delete tags
     getDbHandle().execute(
         "/* deleteReport.tags */ DELETE FROM \"reportTags\" where \"reportUuid\" = ?", reportUuid);
@@ -410,10 +454,14 @@ public class ReportDao extends AnetBaseDao<Report, ReportSearchQuery> {
         reportUuid);
 
     // Delete report
+    final List<DailyRollupKey> oldKeys = getDailyRollupKeys(reportUuid);
     // GraphQL mutations *have* to return something, so we return the number of deleted report rows
-    return getDbHandle()
+    final int numRows = getDbHandle()
         .createUpdate("/* deleteReport.report */ DELETE FROM reports where uuid = :reportUuid")
         .bind("reportUuid", reportUuid).execute();
+    updateDailyRollup(oldKeys, Collections.emptyList());
+    updateAdvisorReportCounts(oldCounts, Collections.emptyMap());
+    return numRows;
   }
 
   private Instant getRollupEngagmentStart(Instant start) {
@@ -449,13 +497,19 @@ public class ReportDao extends AnetBaseDao<Report, ReportSearchQuery> {
     List<Organization> orgList = null;
     final Map<String, Organization> orgMap;
     if (!parentOrgUuid.equals(Organization.DUMMY_ORG_UUID)) {
-      // doing this as two separate queries because I do need all the information about the
-      // organizations
-      OrganizationSearchQuery query = new OrganizationSearchQuery();
-      query.setParentOrgUuid(Collections.singletonList(parentOrgUuid));
-      query.setOrgRecurseStrategy(RecurseStrategy.CHILDREN);
-      query.setPageSize(0);
-      orgList = AnetObjectEngine.getInstance().getOrganizationDao().search(query).getList();
+      final OrganizationTreeService.Snapshot tree =
+          AnetObjectEngine.getInstance().getOrganizationDao().getTreeService().getSnapshot();
+      if (tree != null) {
+        orgList = tree.getDescendantOrgs(parentOrgUuid);
+      } else {
+        // doing this as two separate queries because I do need all the information about the
+        // organizations
+        OrganizationSearchQuery query = new OrganizationSearchQuery();
+        query.setParentOrgUuid(Collections.singletonList(parentOrgUuid));
+        query.setOrgRecurseStrategy(RecurseStrategy.CHILDREN);
+        query.setPageSize(0);
+        orgList = AnetObjectEngine.getInstance().getOrganizationDao().search(query).getList();
+      }
       Optional<Organization> parentOrg =
           orgList.stream().filter(o -> o.getUuid().equals(parentOrgUuid)).findFirst();
       if (parentOrg.isPresent() == false) {
@@ -473,130 +527,238 @@ public class ReportDao extends AnetBaseDao<Report, ReportSearchQuery> {
     return generateRollupGraphFromResults(results, orgMap, nonReportingOrgs);
   }
 
-  /* Generates Advisor Report Insights for Organizations */
-  @InTransaction
+  /**
+   * Generates Advisor Report Insights for Organizations, from the advisorReportCounts table. The
+   * period is rounded down to whole days.
+   *
+   * @param start the start of the period
+   * @param end the end of the period (exclusive)
+   * @param orgUuid the organization to generate the insights for, per advisor; or
+   *        {@link Organization#DUMMY_ORG_UUID} for the insights per organization
+   * @return the (unmodifiable) number of reports submitted and engagements attended per week
+   */
   public List<Map<String, Object>> getAdvisorReportInsights(Instant start, Instant end,
       String orgUuid) {
-    final Map<String, Object> sqlArgs = new HashMap<String, Object>();
-    StringBuilder sql = new StringBuilder();
+    return advisorReportInsightsCache.get(orgUuid, start, end,
+        () -> getAdvisorReportInsightsFromDb(start, end, orgUuid));
+  }
 
-    sql.append("/* AdvisorReportInsightsQuery */ ");
-    sql.append("SELECT ");
-    sql.append(
-        "CASE WHEN a.\"organizationUuid\" IS NULL THEN b.\"organizationUuid\" ELSE a.\"organizationUuid\" END AS \"organizationUuid\",");
-    sql.append(
-        "CASE WHEN a.\"organizationShortName\" IS NULL THEN b.\"organizationShortName\" ELSE a.\"organizationShortName\" END AS \"organizationShortName\",");
-    sql.append("%1$s");
-    sql.append("%2$s");
-    sql.append("CASE WHEN a.week IS NULL THEN b.week ELSE a.week END AS week,");
-    sql.append(
-        "CASE WHEN a.\"nrReportsSubmitted\" IS NULL THEN 0 ELSE a.\"nrReportsSubmitted\" END AS \"nrReportsSubmitted\",");
-    sql.append(
-        "CASE WHEN b.\"nrEngagementsAttended\" IS NULL THEN 0 ELSE b.\"nrEngagementsAttended\" END AS \"nrEngagementsAttended\"");
-
-    sql.append(" FROM (");
-
-    sql.append("SELECT ");
-    sql.append("organizations.uuid AS \"organizationUuid\",");
-    sql.append("organizations.\"shortName\" AS \"organizationShortName\",");
-    sql.append("%3$s");
-    sql.append("%4$s");
-    sql.append(" " + String.format(getWeekFormat(), "reports.\"createdAt\"") + " AS week,");
-    sql.append("COUNT(reports.\"authorUuid\") AS \"nrReportsSubmitted\"");
-
-    sql.append(" FROM ");
-    sql.append("positions,");
-    sql.append("reports,");
-    sql.append("%5$s");
-    sql.append("organizations");
-
-    sql.append(" WHERE positions.\"currentPersonUuid\" = reports.\"authorUuid\"");
-    sql.append(" %6$s");
-    sql.append(" AND reports.\"advisorOrganizationUuid\" = organizations.uuid");
-    sql.append(" AND positions.type = :positionAdvisor");
-    sql.append(" AND reports.state IN ( :reportPublished, :reportPending, :reportDraft )");
-    sql.append(" AND reports.\"createdAt\" BETWEEN :startDate and :endDate");
-    sql.append(" %11$s");
-
-    sql.append(" GROUP BY ");
-    sql.append("organizations.uuid,");
-    sql.append("organizations.\"shortName\",");
-    sql.append("%7$s");
-    sql.append("%8$s");
-    sql.append(" " + String.format(getWeekFormat(), "reports.\"createdAt\""));
-    sql.append(") a");
-
-    sql.append(" FULL OUTER JOIN (");
-    sql.append("SELECT ");
-    sql.append("organizations.uuid AS \"organizationUuid\",");
-    sql.append("organizations.\"shortName\" AS \"organizationShortName\",");
-    sql.append("%3$s");
-    sql.append("%4$s");
-    sql.append(" " + String.format(getWeekFormat(), "reports.\"engagementDate\"") + " AS week,");
-    sql.append("COUNT(\"reportPeople\".\"personUuid\") AS \"nrEngagementsAttended\"");
-
-    sql.append(" FROM ");
-    sql.append("positions,");
-    sql.append("%5$s");
-    sql.append("reports,");
-    sql.append("\"reportPeople\",");
-    sql.append("organizations");
-
-    sql.append(" WHERE positions.\"currentPersonUuid\" = \"reportPeople\".\"personUuid\"");
-    sql.append(" %6$s");
-    sql.append(" AND \"reportPeople\".\"reportUuid\" = reports.uuid");
-    sql.append(" AND reports.\"advisorOrganizationUuid\" = organizations.uuid");
-    sql.append(" AND positions.type = :positionAdvisor");
-    sql.append(" AND reports.state IN ( :reportPublished, :reportPending, :reportDraft )");
-    sql.append(" AND reports.\"engagementDate\" BETWEEN :startDate and :endDate");
-    sql.append(" %11$s");
-
-    sql.append(" GROUP BY ");
-    sql.append("organizations.uuid,");
-    sql.append("organizations.\"shortName\",");
-    sql.append("%7$s");
-    sql.append("%8$s");
-    sql.append(" " + String.format(getWeekFormat(), "reports.\"engagementDate\""));
-    sql.append(") b");
-
-    sql.append(" ON ");
-    sql.append(" a.\"organizationUuid\" = b.\"organizationUuid\"");
-    sql.append(" %9$s");
-    sql.append(" AND a.week = b.week");
-
-    sql.append(" ORDER BY ");
-    sql.append("\"organizationShortName\",");
-    sql.append("%10$s");
-    sql.append("week;");
-
-    final Object[] fmtArgs;
-    if (!Organization.DUMMY_ORG_UUID.equals(orgUuid)) {
-      fmtArgs = new String[] {
-          "CASE WHEN a.\"personUuid\" IS NULL THEN b.\"personUuid\" ELSE a.\"personUuid\" END AS \"personUuid\",",
-          "CASE WHEN a.name IS NULL THEN b.name ELSE a.name END AS name,",
-          "people.uuid AS \"personUuid\",", "people.name AS name,", "people,",
-          "AND positions.\"currentPersonUuid\" = people.uuid", "people.uuid,", "people.name,",
-          "AND a.\"personUuid\" = b.\"personUuid\"", "name,",
-          "AND organizations.uuid = :organizationUuid"};
-      sqlArgs.put("organizationUuid", orgUuid);
+  @InTransaction
+  protected List<Map<String, Object>> getAdvisorReportInsightsFromDb(Instant start, Instant end,
+      String orgUuid) {
+    final boolean perPerson = !Organization.DUMMY_ORG_UUID.equals(orgUuid);
+    final String week = String.format(getWeekFormat(), "c.\"reportDate\"");
+    final StringBuilder sql = new StringBuilder();
+    sql.append("/* AdvisorReportInsightsQuery */ SELECT ");
+    sql.append("organizations.uuid AS \"organizationUuid\", "
+        + "organizations.\"shortName\" AS \"organizationShortName\", ");
+    if (perPerson) {
+      sql.append("people.uuid AS \"personUuid\", people.name AS name, ");
+    }
+    sql.append(week + " AS week, SUM(c.\"nrReportsSubmitted\") AS \"nrReportsSubmitted\", "
+        + "SUM(c.\"nrEngagementsAttended\") AS \"nrEngagementsAttended\" ");
+    sql.append("FROM \"advisorReportCounts\" c "
+        + "JOIN positions ON positions.\"currentPersonUuid\" = c.\"personUuid\" ");
+    if (perPerson) {
+      sql.append("JOIN people ON people.uuid = c.\"personUuid\" ");
+    }
+    sql.append("JOIN organizations ON organizations.uuid = c.\"organizationUuid\" "
+        + "WHERE positions.type = :positionAdvisor "
+        + "AND c.\"reportDate\" >= :startDate AND c.\"reportDate\" < :endDate ");
+    if (perPerson) {
+      sql.append("AND c.\"organizationUuid\" = :organizationUuid ");
+    }
+    sql.append("GROUP BY organizations.uuid, organizations.\"shortName\", ");
+    if (perPerson) {
+      sql.append("people.uuid, people.name, ");
+    }
+    sql.append(week);
+    // Counts that went back to zero are kept in the table
+    sql.append(" HAVING SUM(c.\"nrReportsSubmitted\") > 0 OR SUM(c.\"nrEngagementsAttended\") > 0");
+    sql.append(" ORDER BY \"organizationShortName\", ");
+    if (perPerson) {
+      sql.append("name, ");
+    }
+    sql.append("week");
+
+    final ZoneId zoneId = DaoUtils.getDefaultZoneId();
+    final Query q = getDbHandle().createQuery(sql.toString())
+        .bind("positionAdvisor", DaoUtils.getEnumId(Position.PositionType.ADVISOR))
+        .bind("startDate", start.atZone(zoneId).toLocalDate())
+        .bind("endDate", end.atZone(zoneId).toLocalDate());
+    if (perPerson) {
+      q.bind("organizationUuid", orgUuid);
+    }
+    return q.map(new MapMapper(false)).list();
+  }
+
+  /**
+   * Empty the advisor report insights cache, now and again after the current transaction: until it
+   * has been committed, concurrent readers may still load and cache the old counts.
+   */
+  public void evictAdvisorReportInsightsCache() {
+    evictNowAndAfterTransaction(advisorReportInsightsCache::evictAll);
+  }
+
+  /**
+   * Rebuilds the advisorReportCounts table from the reports.
+   *
+   * @param personUuids only rebuild the counts of these people; null means everyone
+   * @return the number of rows inserted
+   */
+  @InTransaction
+  public int rebuildAdvisorReportCounts(List<String> personUuids) {
+    final String deleteSql =
+        "/* rebuildAdvisorReportCounts.delete */ DELETE FROM \"advisorReportCounts\""
+            + (personUuids == null ? "" : " WHERE \"personUuid\" IN ( <personUuids> )");
+    final String insertSql = "/* rebuildAdvisorReportCounts.insert */ INSERT INTO "
+        + "\"advisorReportCounts\" (\"reportDate\", \"organizationUuid\", \"personUuid\", "
+        + "\"nrReportsSubmitted\", \"nrEngagementsAttended\") "
+        + "SELECT \"reportDate\", \"organizationUuid\", \"personUuid\", SUM(submitted), "
+        + "SUM(attended) FROM ("
+        + (personUuids == null ? getAdvisorReportCountsSelect("", "")
+            : getAdvisorReportCountsSelect("AND reports.\"authorUuid\" IN ( <personUuids> ) ",
+                "AND \"reportPeople\".\"personUuid\" IN ( <personUuids> ) "))
+        + ") c GROUP BY \"reportDate\", \"organizationUuid\", \"personUuid\"";
+    final Update delete = getDbHandle().createUpdate(deleteSql);
+    final Update insert = getDbHandle().createUpdate(insertSql);
+    if (personUuids != null) {
+      delete.bindList("personUuids", personUuids);
+      insert.bindList("personUuids", personUuids);
+    }
+    delete.execute();
+    final int numRows = insert.execute();
+    evictAdvisorReportInsightsCache();
+    return numRows;
+  }
+
+  private String getAdvisorReportCountsSelect(String authorCondition, String attendeeCondition) {
+    return "SELECT CAST(reports.\"createdAt\" AS DATE) AS \"reportDate\", "
+        + "reports.\"advisorOrganizationUuid\" AS \"organizationUuid\", "
+        + "reports.\"authorUuid\" AS \"personUuid\", 1 AS submitted, 0 AS attended "
+        + "FROM reports WHERE reports.state IN (" + ADVISOR_REPORT_STATES + ") "
+        + "AND reports.\"advisorOrganizationUuid\" IS NOT NULL "
+        + "AND reports.\"authorUuid\" IS NOT NULL " + authorCondition + "UNION ALL "
+        + "SELECT CAST(reports.\"engagementDate\" AS DATE), reports.\"advisorOrganizationUuid\", "
+        + "\"reportPeople\".\"personUuid\", 0, 1 FROM reports "
+        + "JOIN \"reportPeople\" ON \"reportPeople\".\"reportUuid\" = reports.uuid "
+        + "WHERE reports.state IN (" + ADVISOR_REPORT_STATES + ") "
+        + "AND reports.\"advisorOrganizationUuid\" IS NOT NULL "
+        + "AND reports.\"engagementDate\" IS NOT NULL " + attendeeCondition;
+  }
+
+  /*
+   * Returns the advisorReportCounts the given report counts in: reports submitted by the author,
+   * and engagements attended by each attendee.
+   */
+  private Map<AdvisorReportCountKey, int[]> getAdvisorReportCounts(String reportUuid) {
+    final List<ImmutablePair<AdvisorReportCountKey, int[]>> rows = getDbHandle()
+        .createQuery("/* getAdvisorReportCounts */ "
+            + getAdvisorReportCountsSelect("AND reports.uuid = :reportUuid ",
+                "AND reports.uuid = :reportUuid "))
+        .bind("reportUuid", reportUuid)
+        .map((rs, ctx) -> new ImmutablePair<AdvisorReportCountKey, int[]>(
+            new AdvisorReportCountKey(rs.getDate("reportDate").toLocalDate(),
+                rs.getString("organizationUuid"), rs.getString("personUuid")),
+            new int[] {rs.getInt("submitted"), rs.getInt("attended")}))
+        .list();
+    // Rows coincide when the author attended an engagement on the day they created the report
+    final Map<AdvisorReportCountKey, int[]> counts = new HashMap<>();
+    for (final ImmutablePair<AdvisorReportCountKey, int[]> row : rows) {
+      final int[] count = counts.computeIfAbsent(row.getLeft(), k -> new int[2]);
+      count[0] += row.getRight()[0];
+      count[1] += row.getRight()[1];
+    }
+    return counts;
+  }
+
+  /*
+   * Applies the difference between the oldCounts and newCounts of a report to the
+   * advisorReportCounts table.
+   */
+  private void updateAdvisorReportCounts(Map<AdvisorReportCountKey, int[]> oldCounts,
+      Map<AdvisorReportCountKey, int[]> newCounts) {
+    final Map<AdvisorReportCountKey, int[]> deltas = new HashMap<>();
+    for (final Map.Entry<AdvisorReportCountKey, int[]> entry : newCounts.entrySet()) {
+      deltas.put(entry.getKey(), entry.getValue().clone());
+    }
+    for (final Map.Entry<AdvisorReportCountKey, int[]> entry : oldCounts.entrySet()) {
+      final int[] delta = deltas.computeIfAbsent(entry.getKey(), k -> new int[2]);
+      delta[0] -= entry.getValue()[0];
+      delta[1] -= entry.getValue()[1];
+    }
+    deltas.values().removeIf(delta -> delta[0] == 0 && delta[1] == 0);
+    if (deltas.isEmpty()) {
+      return;
+    }
+
+    final String sql;
+    if (DaoUtils.isMsSql()) {
+      sql = "/* updateAdvisorReportCounts */ MERGE \"advisorReportCounts\" WITH (HOLDLOCK) AS t "
+          + "USING (SELECT :organizationUuid AS \"organizationUuid\", "
+          + ":reportDate AS \"reportDate\", :personUuid AS \"personUuid\") AS s "
+          + "ON t.\"organizationUuid\" = s.\"organizationUuid\" "
+          + "AND t.\"reportDate\" = s.\"reportDate\" AND t.\"personUuid\" = s.\"personUuid\" "
+          + "WHEN MATCHED THEN UPDATE SET "
+          + "\"nrReportsSubmitted\" = t.\"nrReportsSubmitted\" + :submitted, "
+          + "\"nrEngagementsAttended\" = t.\"nrEngagementsAttended\" + :attended "
+          + "WHEN NOT MATCHED THEN INSERT (\"organizationUuid\", \"reportDate\", \"personUuid\", "
+          + "\"nrReportsSubmitted\", \"nrEngagementsAttended\") VALUES (s.\"organizationUuid\", "
+          + "s.\"reportDate\", s.\"personUuid\", :submitted, :attended);";
     } else {
-      fmtArgs = new String[] {"", "", "", "", "", "", "", "", "", "", ""};
+      sql = "/* updateAdvisorReportCounts */ INSERT INTO \"advisorReportCounts\" AS t "
+          + "(\"organizationUuid\", \"reportDate\", \"personUuid\", \"nrReportsSubmitted\", "
+          + "\"nrEngagementsAttended\") "
+          + "VALUES (:organizationUuid, :reportDate, :personUuid, :submitted, :attended) "
+          + "ON CONFLICT (\"organizationUuid\", \"reportDate\", \"personUuid\") DO UPDATE SET "
+          + "\"nrReportsSubmitted\" = t.\"nrReportsSubmitted\" + EXCLUDED.\"nrReportsSubmitted\", "
+          + "\"nrEngagementsAttended\" = "
+          + "t.\"nrEngagementsAttended\" + EXCLUDED.\"nrEngagementsAttended\"";
+    }
+    final PreparedBatch batch = getDbHandle().prepareBatch(sql);
+    for (final Map.Entry<AdvisorReportCountKey, int[]> entry : deltas.entrySet()) {
+      final AdvisorReportCountKey key = entry.getKey();
+      batch.bind("organizationUuid", key.organizationUuid).bind("reportDate", key.reportDate)
+          .bind("personUuid", key.personUuid).bind("submitted", entry.getValue()[0])
+          .bind("attended", entry.getValue()[1]).add();
     }
+    batch.execute();
+    evictAdvisorReportInsightsCache();
+  }
 
-    DaoUtils.addInstantAsLocalDateTime(sqlArgs, "startDate", start);
-    DaoUtils.addInstantAsLocalDateTime(sqlArgs, "endDate", end);
-    sqlArgs.put("positionAdvisor", DaoUtils.getEnumId(Position.PositionType.ADVISOR));
-    sqlArgs.put("reportDraft", DaoUtils.getEnumId(ReportState.DRAFT));
-    sqlArgs.put("reportPending", DaoUtils.getEnumId(ReportState.PENDING_APPROVAL));
-    sqlArgs.put("reportPublished", DaoUtils.getEnumId(ReportState.PUBLISHED));
+  private static class AdvisorReportCountKey {
+    private final LocalDate reportDate;
+    private final String organizationUuid;
+    private final String personUuid;
+
+    AdvisorReportCountKey(LocalDate reportDate, String organizationUuid, String personUuid) {
+      this.reportDate = reportDate;
+      this.organizationUuid = organizationUuid;
+      this.personUuid = personUuid;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof AdvisorReportCountKey)) {
+        return false;
+      }
+      final AdvisorReportCountKey other = (AdvisorReportCountKey) o;
+      return reportDate.equals(other.reportDate)
+          && organizationUuid.equals(other.organizationUuid)
+          && personUuid.equals(other.personUuid);
+    }
 
-    return getDbHandle().createQuery(String.format(sql.toString(), fmtArgs)).bindMap(sqlArgs)
-        .map(new MapMapper(false)).list();
+    @Override
+    public int hashCode() {
+      return Objects.hash(reportDate, organizationUuid, personUuid);
+    }
   }
 
   /**
    * Helper method that builds and executes the daily rollup query. Searching for just all reports
-   * and for reports in certain organizations.
+   * and for reports in certain organizations. The full days in the period are counted from the
+   * pre-aggregated reportDailyRollup table, only the partial days at the edges of the period are
+   * counted from the reports themselves.
    * 
    * @param orgType the type of organization to be looking for
    * @param orgs the list of orgs for whose reports to find, null means all
@@ -605,23 +767,80 @@ public class ReportDao extends AnetBaseDao<Report, ReportSearchQuery> {
   @InTransaction
   public List<Map<String, Object>> rollupQuery(Instant start, Instant end, OrganizationType orgType,
       List<Organization> orgs, boolean missingOrgReports) {
+    final Instant engagementDateStart = getRollupEngagmentStart(start);
+    final Map<String, Object> sqlArgs = new HashMap<String, Object>();
+    DaoUtils.addInstantAsLocalDateTime(sqlArgs, "startDate", start);
+    DaoUtils.addInstantAsLocalDateTime(sqlArgs, "endDate", end);
+    DaoUtils.addInstantAsLocalDateTime(sqlArgs, "engagementDateStart", engagementDateStart);
+
+    final ZoneId zoneId = DaoUtils.getDefaultZoneId();
+    final ZonedDateTime zonedStart = start.atZone(zoneId);
+    final LocalDate fullStartDay = zonedStart.toLocalTime().equals(LocalTime.MIDNIGHT)
+        ? zonedStart.toLocalDate()
+        : zonedStart.toLocalDate().plusDays(1);
+    final LocalDate fullEndDay = end.atZone(zoneId).toLocalDate();
+    if (!fullStartDay.isBefore(fullEndDay)) {
+      // No full days in the period
+      return rollupReportsQuery("\"releasedAt\" >= :startDate AND \"releasedAt\" < :endDate ",
+          sqlArgs, orgType, orgs, missingOrgReports);
+    }
+
+    // Reports on the day of engagementDateStart itself have to be checked individually
+    final LocalDate engagementDay = engagementDateStart.atZone(zoneId).toLocalDate();
+    DaoUtils.addInstantAsLocalDateTime(sqlArgs, "fullStartDate",
+        fullStartDay.atStartOfDay(zoneId).toInstant());
+    DaoUtils.addInstantAsLocalDateTime(sqlArgs, "fullEndDate",
+        fullEndDay.atStartOfDay(zoneId).toInstant());
+    DaoUtils.addInstantAsLocalDateTime(sqlArgs, "engagementDateEnd",
+        engagementDay.plusDays(1).atStartOfDay(zoneId).toInstant());
+    final List<Map<String, Object>> results = new ArrayList<>(rollupReportsQuery(
+        "((\"releasedAt\" >= :startDate AND \"releasedAt\" < :fullStartDate) "
+            + "OR (\"releasedAt\" >= :fullEndDate AND \"releasedAt\" < :endDate) "
+            + "OR (\"releasedAt\" >= :fullStartDate AND \"releasedAt\" < :fullEndDate "
+            + "AND \"engagementDate\" < :engagementDateEnd)) ",
+        sqlArgs, orgType, orgs, missingOrgReports));
+
+    final StringBuilder sql = new StringBuilder();
+    final Map<String, List<?>> listArgs = new HashMap<>();
+    sql.append("/* RollupQuery.dailyRollup */ SELECT NULLIF(\"orgUuid\", '"
+        + Organization.DUMMY_ORG_UUID + "') AS \"orgUuid\", state, SUM(count) AS count ");
+    sql.append("FROM \"reportDailyRollup\" WHERE \"orgType\" = :orgType "
+        + "AND \"releasedDate\" >= :fullStartDay AND \"releasedDate\" < :fullEndDay "
+        + "AND \"engagementDate\" > :engagementDay ");
+    if (!Utils.isEmptyOrNull(orgs)) {
+      sql.append("AND \"orgUuid\" IN ( <orgUuids> ) ");
+      listArgs.put("orgUuids",
+          orgs.stream().map(org -> org.getUuid()).collect(Collectors.toList()));
+    } else if (missingOrgReports) {
+      sql.append("AND \"orgUuid\" = '" + Organization.DUMMY_ORG_UUID + "' ");
+    }
+    sql.append("GROUP BY \"orgUuid\", state");
+
+    final Query q = getDbHandle().createQuery(sql.toString())
+        .bind("orgType", DaoUtils.getEnumId(orgType)).bind("fullStartDay", fullStartDay)
+        .bind("fullEndDay", fullEndDay).bind("engagementDay", engagementDay);
+    for (final Map.Entry<String, List<?>> listArg : listArgs.entrySet()) {
+      q.bindList(listArg.getKey(), DaoUtils.padListArg(listArg.getValue()));
+    }
+    // generateRollupGraphFromResults adds up the counts per organization and state
+    results.addAll(q.map(new MapMapper(false)).list());
+    return results;
+  }
+
+  private List<Map<String, Object>> rollupReportsQuery(String releasedAtClause,
+      Map<String, Object> sqlArgs, OrganizationType orgType, List<Organization> orgs,
+      boolean missingOrgReports) {
     String orgColumn =
         String.format("\"%s\"", orgType == OrganizationType.ADVISOR_ORG ? "advisorOrganizationUuid"
             : "principalOrganizationUuid");
-    final Map<String, Object> sqlArgs = new HashMap<String, Object>();
     final Map<String, List<?>> listArgs = new HashMap<>();
 
     StringBuilder sql = new StringBuilder();
     sql.append(
         "/* RollupQuery */ SELECT " + orgColumn + " as \"orgUuid\", state, count(*) AS count ");
     sql.append("FROM reports WHERE ");
-
-    sql.append("\"releasedAt\" >= :startDate and \"releasedAt\" < :endDate "
-        + "AND \"engagementDate\" > :engagementDateStart ");
-    DaoUtils.addInstantAsLocalDateTime(sqlArgs, "startDate", start);
-    DaoUtils.addInstantAsLocalDateTime(sqlArgs, "endDate", end);
-    DaoUtils.addInstantAsLocalDateTime(sqlArgs, "engagementDateStart",
-        getRollupEngagmentStart(start));
+    sql.append(releasedAtClause);
+    sql.append("AND \"engagementDate\" > :engagementDateStart ");
 
     if (!Utils.isEmptyOrNull(orgs)) {
       sql.append("AND " + orgColumn + " IN ( <orgUuids> ) ");
@@ -635,11 +854,146 @@ public class ReportDao extends AnetBaseDao<Report, ReportSearchQuery> {
 
     final Query q = getDbHandle().createQuery(sql.toString()).bindMap(sqlArgs);
     for (final Map.Entry<String, List<?>> listArg : listArgs.entrySet()) {
-      q.bindList(listArg.getKey(), listArg.getValue());
+      q.bindList(listArg.getKey(), DaoUtils.padListArg(listArg.getValue()));
     }
     return q.map(new MapMapper(false)).list();
   }
 
+  /**
+   * Rebuilds the reportDailyRollup table from the reports.
+   *
+   * @return the number of rows in the rebuilt table
+   */
+  @InTransaction
+  public int rebuildDailyRollup() {
+    getDbHandle().execute("/* rebuildDailyRollup.delete */ DELETE FROM \"reportDailyRollup\"");
+    return getDbHandle().execute("/* rebuildDailyRollup.insert */ INSERT INTO "
+        + "\"reportDailyRollup\" (\"orgType\", \"releasedDate\", \"engagementDate\", "
+        + "\"orgUuid\", state, count) "
+        + getDailyRollupSelect(OrganizationType.ADVISOR_ORG, "advisorOrganizationUuid")
+        + " UNION ALL "
+        + getDailyRollupSelect(OrganizationType.PRINCIPAL_ORG, "principalOrganizationUuid"));
+  }
+
+  private String getDailyRollupSelect(OrganizationType orgType, String orgColumn) {
+    final String groupBy = "CAST(\"releasedAt\" AS DATE), CAST(\"engagementDate\" AS DATE), "
+        + "COALESCE(\"" + orgColumn + "\", '" + Organization.DUMMY_ORG_UUID + "'), state";
+    return "SELECT " + DaoUtils.getEnumId(orgType) + ", " + groupBy + ", COUNT(*) FROM reports "
+        + "WHERE \"releasedAt\" IS NOT NULL AND \"engagementDate\" IS NOT NULL GROUP BY "
+        + groupBy;
+  }
+
+  /*
+   * Locks the report row until the end of the transaction. Concurrent changes of the same report
+   * then read its old reportDailyRollup keys and advisorReportCounts one after the other, instead
+   * of both reading (and later both decrementing) the same rows.
+   */
+  private void lockReport(String reportUuid) {
+    final String sql = DaoUtils.isMsSql()
+        ? "/* lockReport */ SELECT uuid FROM reports WITH (UPDLOCK, ROWLOCK) "
+            + "WHERE uuid = :reportUuid"
+        : "/* lockReport */ SELECT uuid FROM reports WHERE uuid = :reportUuid FOR UPDATE";
+    getDbHandle().createQuery(sql).bind("reportUuid", reportUuid).mapTo(String.class)
+        .findFirst();
+  }
+
+  /*
+   * Returns the reportDailyRollup rows that the given report counts in, one for each organization
+   * type; none if the report has not been released.
+   */
+  private List<DailyRollupKey> getDailyRollupKeys(String reportUuid) {
+    return getDbHandle().createQuery("/* getDailyRollupKeys */ SELECT state, "
+        + "CAST(\"releasedAt\" AS DATE) AS \"releasedDate\", "
+        + "CAST(\"engagementDate\" AS DATE) AS \"engagementDate\", "
+        + "\"advisorOrganizationUuid\", \"principalOrganizationUuid\" FROM reports "
+        + "WHERE uuid = :reportUuid "
+        + "AND \"releasedAt\" IS NOT NULL AND \"engagementDate\" IS NOT NULL")
+        .bind("reportUuid", reportUuid).map((rs, ctx) -> {
+          final int state = rs.getInt("state");
+          final LocalDate releasedDate = rs.getDate("releasedDate").toLocalDate();
+          final LocalDate engagementDate = rs.getDate("engagementDate").toLocalDate();
+          final List<DailyRollupKey> keys = new ArrayList<>();
+          keys.add(new DailyRollupKey(DaoUtils.getEnumId(OrganizationType.ADVISOR_ORG),
+              releasedDate, engagementDate, rs.getString("advisorOrganizationUuid"), state));
+          keys.add(new DailyRollupKey(DaoUtils.getEnumId(OrganizationType.PRINCIPAL_ORG),
+              releasedDate, engagementDate, rs.getString("principalOrganizationUuid"), state));
+          return keys;
+        }).findFirst().orElse(Collections.emptyList());
+  }
+
+  /*
+   * Moves a report from the oldKeys to the newKeys rows of the reportDailyRollup table.
+   */
+  private void updateDailyRollup(List<DailyRollupKey> oldKeys, List<DailyRollupKey> newKeys) {
+    if (oldKeys.equals(newKeys)) {
+      return;
+    }
+    final String sql;
+    if (DaoUtils.isMsSql()) {
+      sql = "/* updateDailyRollup */ MERGE \"reportDailyRollup\" WITH (HOLDLOCK) AS t "
+          + "USING (SELECT :orgType AS \"orgType\", :releasedDate AS \"releasedDate\", "
+          + ":engagementDate AS \"engagementDate\", :orgUuid AS \"orgUuid\", :state AS state) AS s "
+          + "ON t.\"orgType\" = s.\"orgType\" AND t.\"releasedDate\" = s.\"releasedDate\" "
+          + "AND t.\"engagementDate\" = s.\"engagementDate\" AND t.\"orgUuid\" = s.\"orgUuid\" "
+          + "AND t.state = s.state WHEN MATCHED THEN UPDATE SET count = t.count + :delta "
+          + "WHEN NOT MATCHED THEN INSERT (\"orgType\", \"releasedDate\", \"engagementDate\", "
+          + "\"orgUuid\", state, count) VALUES (s.\"orgType\", s.\"releasedDate\", "
+          + "s.\"engagementDate\", s.\"orgUuid\", s.state, :delta);";
+    } else {
+      sql = "/* updateDailyRollup */ INSERT INTO \"reportDailyRollup\" AS t (\"orgType\", "
+          + "\"releasedDate\", \"engagementDate\", \"orgUuid\", state, count) "
+          + "VALUES (:orgType, :releasedDate, :engagementDate, :orgUuid, :state, :delta) "
+          + "ON CONFLICT (\"orgType\", \"releasedDate\", \"engagementDate\", \"orgUuid\", state) "
+          + "DO UPDATE SET count = t.count + EXCLUDED.count";
+    }
+    final PreparedBatch batch = getDbHandle().prepareBatch(sql);
+    for (final DailyRollupKey key : oldKeys) {
+      key.bind(batch).bind("delta", -1).add();
+    }
+    for (final DailyRollupKey key : newKeys) {
+      key.bind(batch).bind("delta", 1).add();
+    }
+    batch.execute();
+  }
+
+  private static class DailyRollupKey {
+    private final int orgType;
+    private final LocalDate releasedDate;
+    private final LocalDate engagementDate;
+    private final String orgUuid;
+    private final int state;
+
+    DailyRollupKey(int orgType, LocalDate releasedDate, LocalDate engagementDate, String orgUuid,
+        int state) {
+      this.orgType = orgType;
+      this.releasedDate = releasedDate;
+      this.engagementDate = engagementDate;
+      this.orgUuid = orgUuid == null ? Organization.DUMMY_ORG_UUID : orgUuid;
+      this.state = state;
+    }
+
+    PreparedBatch bind(PreparedBatch batch) {
+      return batch.bind("orgType", orgType).bind("releasedDate", releasedDate)
+          .bind("engagementDate", engagementDate).bind("orgUuid", orgUuid).bind("state", state);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof DailyRollupKey)) {
+        return false;
+      }
+      final DailyRollupKey other = (DailyRollupKey) o;
+      return orgType == other.orgType && releasedDate.equals(other.releasedDate)
+          && engagementDate.equals(other.engagementDate) && orgUuid.equals(other.orgUuid)
+          && state == other.state;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(orgType, releasedDate, engagementDate, orgUuid, state);
+    }
+  }
+
   /*
    * Given the results from the database on the number of reports grouped by organization And the
    * map of each organization to the organization that their reports roll up to this method returns
@@ -0,0 +1,159 @@
+package mil.dds.anet.database;
+
+import com.codahale.metrics.MetricRegistry;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import javax.cache.Cache;
+import mil.dds.anet.beans.Position;
+import mil.dds.anet.beans.Position.PositionType;
+import mil.dds.anet.utils.DaoUtils;
+
+/**
+ * Short-lived cache of the position type (which determines the roles) of a person, by person uuid.
+ * The owning DAO evicts entries whenever a position assignment changes; the time-to-live bounds how
+ * long a revoked role can remain effective when an eviction is missed (e.g. because the change was
+ * made on another server, or directly in the database). Like the {@link DomainUsersCache}, it
+ * keeps a reverse index from position uuid to person uuid, so that evicting the holder of a
+ * position doesn't need to scan the whole cache. Lookups are lock-free; updates of the cache and
+ * its index are serialized so they stay consistent with each other.
+ */
+public class RoleCache {
+
+  private static final long MAX_ENTRIES = 10000;
+
+  static final class Entry {
+    private final String positionUuid;
+    private final PositionType positionType;
+
+    private Entry(Position position) {
+      this.positionUuid = DaoUtils.getUuid(position);
+      this.positionType = (position == null) ? null : position.getType();
+    }
+  }
+
+  private final String cacheName;
+  private final Supplier<MetricRegistry> metricRegistrySupplier;
+  // A position has at most one person; entries for expired cache entries are cleaned up lazily
+  private final ConcurrentMap<String, String> positionUuidIndex = new ConcurrentHashMap<>();
+  // Incremented on every eviction, so loads that raced with an eviction are not cached
+  private final AtomicLong version = new AtomicLong();
+  private volatile Cache<String, Entry> cache;
+
+  public RoleCache(String cacheName, Duration timeToLive,
+      Supplier<MetricRegistry> metricRegistrySupplier) {
+    this.cacheName = cacheName;
+    this.metricRegistrySupplier = metricRegistrySupplier;
+    setTimeToLive(timeToLive);
+  }
+
+  /**
+   * Set the time-to-live of the entries, emptying the cache; a zero duration disables caching.
+   *
+   * @param timeToLive the time-to-live
+   */
+  public synchronized void setTimeToLive(Duration timeToLive) {
+    evictAll();
+    cache = (timeToLive.isNegative() || timeToLive.isZero()) ? null
+        : AnetCacheManager.createCache(cacheName, String.class, Entry.class, MAX_ENTRIES,
+            timeToLive);
+  }
+
+  /**
+   * Get the position type of the person, loading their current position if it is not cached.
+   *
+   * @param personUuid the uuid of the person
+   * @param loader loads the current position of the person (or null if they have none)
+   * @return the position type, or null if the person has no position
+   */
+  public PositionType getPositionType(String personUuid, Function<String, Position> loader) {
+    final Cache<String, Entry> currentCache = cache;
+    final Entry entry = (currentCache == null) ? null : currentCache.get(personUuid);
+    if (entry != null) {
+      AnetCacheManager.updateStats(metricRegistrySupplier.get(), cacheName, true);
+      return entry.positionType;
+    }
+    AnetCacheManager.updateStats(metricRegistrySupplier.get(), cacheName, false);
+    final long loadVersion = version.get();
+    final Entry newEntry = new Entry(loader.apply(personUuid));
+    if (currentCache != null) {
+      put(currentCache, personUuid, newEntry, loadVersion);
+    }
+    return newEntry.positionType;
+  }
+
+  /**
+   * Evict the person from the cache.
+   *
+   * @param personUuid the uuid of the person to be evicted
+   */
+  public synchronized void evictByPersonUuid(String personUuid) {
+    if (personUuid != null) {
+      version.incrementAndGet();
+      final Cache<String, Entry> currentCache = cache;
+      if (currentCache != null) {
+        removeFromIndex(personUuid, currentCache.getAndRemove(personUuid));
+      }
+    }
+  }
+
+  /**
+   * Evict the person holding the position from the cache.
+   *
+   * @param positionUuid the uuid of the position for the person to be evicted
+   */
+  public synchronized void evictByPositionUuid(String positionUuid) {
+    if (positionUuid != null) {
+      version.incrementAndGet();
+      final String personUuid = positionUuidIndex.remove(positionUuid);
+      final Cache<String, Entry> currentCache = cache;
+      // When the entry has already left the cache (e.g. expired), this only cleans up the index
+      if (personUuid != null && currentCache != null) {
+        removeFromIndex(personUuid, currentCache.getAndRemove(personUuid));
+      }
+    }
+  }
+
+  /**
+   * Evict all persons from the cache.
+   */
+  public synchronized void evictAll() {
+    version.incrementAndGet();
+    final Cache<String, Entry> currentCache = cache;
+    if (currentCache != null) {
+      currentCache.removeAll();
+    }
+    positionUuidIndex.clear();
+  }
+
+  /**
+   * Get the person uuid indexed for the position; for testing.
+   *
+   * @param positionUuid the uuid of the position
+   * @return the person uuid, or null if not indexed
+   */
+  String getIndexedByPositionUuid(String positionUuid) {
+    return positionUuidIndex.get(positionUuid);
+  }
+
+  private synchronized void put(Cache<String, Entry> currentCache, String personUuid,
+      Entry entry, long loadVersion) {
+    // Don't cache the result of a load that raced with an eviction
+    if (version.get() == loadVersion && currentCache == cache) {
+      removeFromIndex(personUuid, currentCache.getAndPut(personUuid, entry));
+      if (entry.positionUuid != null) {
+        positionUuidIndex.put(entry.positionUuid, personUuid);
+      }
+    }
+  }
+
+  private void removeFromIndex(String personUuid, Entry entry) {
+    if (entry != null && entry.positionUuid != null) {
+      positionUuidIndex.remove(entry.positionUuid, personUuid);
+    }
+  }
+
+}
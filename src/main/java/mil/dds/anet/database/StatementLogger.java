@@ -1,16 +1,25 @@
 package mil.dds.anet.database;
 
+import io.dropwizard.setup.Environment;
 import javax.inject.Inject;
+import mil.dds.anet.config.AnetConfiguration;
 import mil.dds.anet.utils.AnetDbLogger;
 import org.jdbi.v3.core.Jdbi;
-import org.jdbi.v3.core.statement.SqlStatements;
 
 public class StatementLogger {
 
+  private final AnetDbLogger dbLogger;
+
   @Inject
-  public StatementLogger(final Jdbi jdbi) {
-    final SqlStatements sqlStatements = jdbi.getConfig(SqlStatements.class);
-    sqlStatements.setSqlLogger(new AnetDbLogger());
+  public StatementLogger(final Jdbi jdbi, final AnetConfiguration configuration,
+      final Environment environment) {
+    dbLogger = new AnetDbLogger(environment.metrics(),
+        configuration.getSlowQueryThreshold().toMilliseconds());
+    dbLogger.install(jdbi);
+  }
+
+  public AnetDbLogger getDbLogger() {
+    return dbLogger;
   }
 
 }
@@ -1,5 +1,6 @@
 package mil.dds.anet.database;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
 import mil.dds.anet.AnetObjectEngine;
@@ -11,8 +12,14 @@ import mil.dds.anet.utils.DaoUtils;
 
 public class TagDao extends AnetBaseDao<Tag, TagSearchQuery> {
 
+  private static final String[] fields = {"uuid", "name", "description", "createdAt", "updatedAt"};
   public static final String TABLE_NAME = "tags";
 
+  private static final String TAGS_CACHE = "tagsCache";
+
+  private final EntityCache<Tag> entityCache = new EntityCache<>(TAGS_CACHE, Tag.class, fields,
+      EntityCache.DEFAULT_TIME_TO_LIVE, this::getMetricRegistry);
+
   @Override
   public Tag getByUuid(String uuid) {
     return getByIds(Arrays.asList(uuid)).get(0);
@@ -31,7 +38,17 @@ public class TagDao extends AnetBaseDao<Tag, TagSearchQuery> {
   public List<Tag> getByIds(List<String> uuids) {
     final IdBatcher<Tag> idBatcher =
         AnetObjectEngine.getInstance().getInjector().getInstance(SelfIdBatcher.class);
-    return idBatcher.getByIds(uuids);
+    return entityCache.getByIds(uuids, idBatcher::getByIds);
+  }
+
+  /**
+   * Set the time-to-live of the cache, i.e. how long changes made elsewhere (e.g. on another
+   * server, or directly in the database) can go unnoticed at most.
+   *
+   * @param timeToLive the time-to-live; zero disables the cache
+   */
+  public void setEntityCacheTimeToLive(Duration timeToLive) {
+    entityCache.setTimeToLive(timeToLive);
   }
 
   @Override
@@ -41,14 +58,17 @@ public class TagDao extends AnetBaseDao<Tag, TagSearchQuery> {
             + "VALUES (:uuid, :name, :description, :createdAt, :updatedAt)")
         .bindBean(t).bind("createdAt", DaoUtils.asLocalDateTime(t.getCreatedAt()))
         .bind("updatedAt", DaoUtils.asLocalDateTime(t.getUpdatedAt())).execute();
+    evictNowAndAfterTransaction(() -> entityCache.evict(DaoUtils.getUuid(t)));
     return t;
   }
 
   @Override
   public int updateInternal(Tag t) {
-    return getDbHandle().createUpdate("/* updateTag */ UPDATE tags "
+    final int nr = getDbHandle().createUpdate("/* updateTag */ UPDATE tags "
         + "SET name = :name, description = :description, \"updatedAt\" = :updatedAt WHERE uuid = :uuid")
         .bindBean(t).bind("updatedAt", DaoUtils.asLocalDateTime(t.getUpdatedAt())).execute();
+    evictNowAndAfterTransaction(() -> entityCache.evict(DaoUtils.getUuid(t)));
+    return nr;
   }
 
   @Override
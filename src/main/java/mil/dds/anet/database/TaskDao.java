@@ -1,5 +1,6 @@
 package mil.dds.anet.database;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
@@ -26,7 +27,18 @@ import ru.vyarus.guicey.jdbi3.tx.InTransaction;
 
 public class TaskDao extends AnetBaseDao<Task, TaskSearchQuery> {
 
+  private static final String[] fields = {"uuid", "shortName", "longName", "category",
+      "customField", "customFieldEnum1", "customFieldEnum2", "plannedCompletion",
+      "projectedCompletion", "status", "customFieldRef1Uuid", "customFields", "createdAt",
+      "updatedAt"};
   public static final String TABLE_NAME = "tasks";
+  public static final String ANCESTORS_TABLE_NAME = "\"taskAncestors\"";
+
+  private static final String TASKS_CACHE = "tasksCache";
+
+  private final EntityCache<Task> entityCache = new EntityCache<>(TASKS_CACHE, Task.class, fields,
+      EntityCache.DEFAULT_TIME_TO_LIVE, this::getMetricRegistry);
+  private final AncestorsTable ancestorsTable = new AncestorsTable(ANCESTORS_TABLE_NAME);
 
   @Override
   public Task getByUuid(String uuid) {
@@ -46,7 +58,17 @@ public class TaskDao extends AnetBaseDao<Task, TaskSearchQuery> {
   public List<Task> getByIds(List<String> uuids) {
     final IdBatcher<Task> idBatcher =
         AnetObjectEngine.getInstance().getInjector().getInstance(SelfIdBatcher.class);
-    return idBatcher.getByIds(uuids);
+    return entityCache.getByIds(uuids, idBatcher::getByIds);
+  }
+
+  /**
+   * Set the time-to-live of the cache, i.e. how long changes made elsewhere (e.g. on another
+   * server, or directly in the database) can go unnoticed at most.
+   *
+   * @param timeToLive the time-to-live; zero disables the cache
+   */
+  public void setEntityCacheTimeToLive(Duration timeToLive) {
+    entityCache.setTimeToLive(timeToLive);
   }
 
   static class ResponsiblePositionsBatcher extends ForeignKeyBatcher<Position> {
@@ -124,6 +146,8 @@ public class TaskDao extends AnetBaseDao<Task, TaskSearchQuery> {
     if (p.getResponsiblePositions() != null) {
       tb.inserttaskResponsiblePositions(p.getUuid(), p.getResponsiblePositions());
     }
+    ancestorsTable.insert(getDbHandle(), DaoUtils.getUuid(p), p.getCustomFieldRef1Uuid());
+    evictNowAndAfterTransaction(() -> entityCache.evict(DaoUtils.getUuid(p)));
     return p;
   }
 
@@ -139,7 +163,7 @@ public class TaskDao extends AnetBaseDao<Task, TaskSearchQuery> {
 
   @Override
   public int updateInternal(Task p) {
-    return getDbHandle().createUpdate(
+    final int nr = getDbHandle().createUpdate(
         "/* updateTask */ UPDATE tasks set \"longName\" = :longName, \"shortName\" = :shortName, "
             + "category = :category, \"customFieldRef1Uuid\" = :customFieldRef1Uuid, \"updatedAt\" = :updatedAt, status = :status, "
             + "\"customField\" = :customField, \"customFieldEnum1\" = :customFieldEnum1, \"customFieldEnum2\" = :customFieldEnum2, "
@@ -149,6 +173,9 @@ public class TaskDao extends AnetBaseDao<Task, TaskSearchQuery> {
         .bind("plannedCompletion", DaoUtils.asLocalDateTime(p.getPlannedCompletion()))
         .bind("projectedCompletion", DaoUtils.asLocalDateTime(p.getProjectedCompletion()))
         .bind("status", DaoUtils.getEnumId(p.getStatus())).execute();
+    ancestorsTable.update(getDbHandle(), DaoUtils.getUuid(p), p.getCustomFieldRef1Uuid());
+    evictNowAndAfterTransaction(() -> entityCache.evict(DaoUtils.getUuid(p)));
+    return nr;
   }
 
   @InTransaction
@@ -0,0 +1,161 @@
+package mil.dds.anet.database;
+
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.jdbi.v3.core.Handle;
+import org.jdbi.v3.core.HandleCallback;
+import org.jdbi.v3.core.Jdbi;
+import org.jdbi.v3.core.transaction.DelegatingTransactionHandler;
+import org.jdbi.v3.core.transaction.TransactionHandler;
+import org.jdbi.v3.core.transaction.TransactionIsolationLevel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs actions once the transaction they were registered in has been committed or rolled back,
+ * e.g. to update in-memory caches only when the database changes have become visible to other
+ * transactions. Outside of a transaction, after-commit actions run immediately. Requires the
+ * transaction handler to be installed on the {@link Jdbi} instance; until then, after-commit
+ * actions run immediately and after-rollback actions are ignored.
+ */
+public final class TransactionCallbacks {
+
+  private static final Logger logger =
+      LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+  private static final class Callbacks {
+    private final List<Runnable> afterCommit = new ArrayList<>();
+    private final List<Runnable> afterRollback = new ArrayList<>();
+  }
+
+  // Pending callbacks of the transactions in progress, by handle
+  private static final Map<Handle, Callbacks> pending = new ConcurrentHashMap<>();
+  private static volatile boolean installed;
+
+  private TransactionCallbacks() {}
+
+  /**
+   * Install the transaction handler that runs the callbacks on the given Jdbi instance; must be
+   * done before any handles are opened.
+   *
+   * @param jdbi the Jdbi instance
+   */
+  public static void install(Jdbi jdbi) {
+    jdbi.setTransactionHandler(new CallbackTransactionHandler(jdbi.getTransactionHandler()));
+    installed = true;
+  }
+
+  /**
+   * Run an action after the transaction of the handle has been committed.
+   *
+   * @param handle the handle
+   * @param action the action to run
+   */
+  public static void afterCommit(Handle handle, Runnable action) {
+    if (!installed || !handle.isInTransaction()) {
+      action.run();
+    } else {
+      getCallbacks(handle).afterCommit.add(action);
+    }
+  }
+
+  /**
+   * Run an action after the transaction of the handle has been rolled back.
+   *
+   * @param handle the handle
+   * @param action the action to run
+   */
+  public static void afterRollback(Handle handle, Runnable action) {
+    if (installed && handle.isInTransaction()) {
+      getCallbacks(handle).afterRollback.add(action);
+    }
+  }
+
+  /**
+   * Run an action after the transaction of the handle has been committed or rolled back.
+   *
+   * @param handle the handle
+   * @param action the action to run
+   */
+  public static void afterCompletion(Handle handle, Runnable action) {
+    afterCommit(handle, action);
+    afterRollback(handle, action);
+  }
+
+  private static Callbacks getCallbacks(Handle handle) {
+    // A handle is only used by one thread at a time, so the lists need no further synchronization
+    return pending.computeIfAbsent(handle, h -> new Callbacks());
+  }
+
+  private static void complete(Handle handle, boolean committed) {
+    final Callbacks callbacks = pending.remove(handle);
+    if (callbacks != null) {
+      for (final Runnable action : committed ? callbacks.afterCommit : callbacks.afterRollback) {
+        try {
+          action.run();
+        } catch (RuntimeException e) {
+          logger.error("Transaction callback failed", e);
+        }
+      }
+    }
+  }
+
+  private static class CallbackTransactionHandler extends DelegatingTransactionHandler {
+
+    CallbackTransactionHandler(TransactionHandler delegate) {
+      super(delegate);
+    }
+
+    @Override
+    public void commit(Handle handle) {
+      super.commit(handle);
+      complete(handle, true);
+    }
+
+    @Override
+    public void rollback(Handle handle) {
+      try {
+        super.rollback(handle);
+      } finally {
+        complete(handle, false);
+      }
+    }
+
+    @Override
+    public <R, X extends Exception> R inTransaction(Handle handle,
+        HandleCallback<R, X> callback) throws X {
+      final boolean outermost = !isInTransaction(handle);
+      boolean committed = false;
+      try {
+        final R result = super.inTransaction(handle, callback);
+        committed = true;
+        return result;
+      } finally {
+        // No-op when commit or rollback already completed the callbacks
+        if (outermost) {
+          complete(handle, committed);
+        }
+      }
+    }
+
+    @Override
+    public <R, X extends Exception> R inTransaction(Handle handle,
+        TransactionIsolationLevel level, HandleCallback<R, X> callback) throws X {
+      final boolean outermost = !isInTransaction(handle);
+      boolean committed = false;
+      try {
+        final R result = super.inTransaction(handle, level, callback);
+        committed = true;
+        return result;
+      } finally {
+        if (outermost) {
+          complete(handle, committed);
+        }
+      }
+    }
+  }
+
+}
@@ -28,7 +28,7 @@ public class AnetEmailMapper implements RowMapper<AnetEmail> {
       AnetEmail email = mapper.readValue(jobSpec, AnetEmail.class);
 
       email.setId(rs.getInt("id"));
-      email.setCreatedAt(MapperUtils.getInstantAsLocalDateTime(rs, "createdAt"));
+      email.setCreatedAt(MapperUtils.getInstantAsLocalDateTime(rs, ctx, "createdAt"));
       return email;
     } catch (Exception e) {
       logger.error("Error mapping email", e);
@@ -12,11 +12,11 @@ public class ApprovalStepMapper implements RowMapper<ApprovalStep> {
   @Override
   public ApprovalStep map(ResultSet r, StatementContext ctx) throws SQLException {
     ApprovalStep step = new ApprovalStep();
-    MapperUtils.setCommonBeanFields(step, r, null);
+    MapperUtils.setCommonBeanFields(step, r, ctx, null);
     step.setNextStepUuid(r.getString("nextStepUuid"));
     step.setRelatedObjectUuid(r.getString("relatedObjectUuid"));
     step.setName(r.getString("name"));
-    step.setType(MapperUtils.getEnumIdx(r, "type", ApprovalStepType.class));
+    step.setType(MapperUtils.getEnumIdx(r, ctx, "type", ApprovalStepType.class));
     step.setRestrictedApproval(r.getBoolean("restrictedApproval"));
 
     return step;
@@ -12,12 +12,12 @@ public class AuthorizationGroupMapper implements RowMapper<AuthorizationGroup> {
   @Override
   public AuthorizationGroup map(ResultSet rs, StatementContext ctx) throws SQLException {
     final AuthorizationGroup a = new AuthorizationGroup();
-    MapperUtils.setCommonBeanFields(a, rs, null);
+    MapperUtils.setCommonBeanFields(a, rs, ctx, null);
     a.setName(rs.getString("name"));
     a.setDescription(rs.getString("description"));
-    a.setStatus(MapperUtils.getEnumIdx(rs, "status", AuthorizationGroupStatus.class));
+    a.setStatus(MapperUtils.getEnumIdx(rs, ctx, "status", AuthorizationGroupStatus.class));
 
-    if (MapperUtils.containsColumnNamed(rs, "totalCount")) {
+    if (MapperUtils.containsColumnNamed(rs, ctx, "totalCount")) {
       ctx.define("totalCount", rs.getInt("totalCount"));
     }
 
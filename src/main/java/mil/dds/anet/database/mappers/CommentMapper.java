@@ -11,7 +11,7 @@ public class CommentMapper implements RowMapper<Comment> {
   @Override
   public Comment map(ResultSet r, StatementContext ctx) throws SQLException {
     final Comment c = new Comment();
-    MapperUtils.setCommonBeanFields(c, r, "comments");
+    MapperUtils.setCommonBeanFields(c, r, ctx, "comments");
     c.setReportUuid(r.getString("comments_reportUuid"));
     c.setAuthorUuid(r.getString("comments_authorUuid"));
     c.setText(r.getString("comments_text"));
@@ -12,14 +12,14 @@ public class LocationMapper implements RowMapper<Location> {
   @Override
   public Location map(ResultSet rs, StatementContext ctx) throws SQLException {
     Location l = new Location();
-    MapperUtils.setCommonBeanFields(l, rs, null);
+    MapperUtils.setCommonBeanFields(l, rs, ctx, null);
     l.setName(rs.getString("name"));
-    l.setStatus(MapperUtils.getEnumIdx(rs, "status", LocationStatus.class));
+    l.setStatus(MapperUtils.getEnumIdx(rs, ctx, "status", LocationStatus.class));
     // preserve NULL values; when NULL there are no coordinates set:
-    l.setLat(MapperUtils.getOptionalDouble(rs, "lat"));
-    l.setLng(MapperUtils.getOptionalDouble(rs, "lng"));
+    l.setLat(MapperUtils.getOptionalDouble(rs, ctx, "lat"));
+    l.setLng(MapperUtils.getOptionalDouble(rs, ctx, "lng"));
 
-    if (MapperUtils.containsColumnNamed(rs, "totalCount")) {
+    if (MapperUtils.containsColumnNamed(rs, ctx, "totalCount")) {
       ctx.define("totalCount", rs.getInt("totalCount"));
     }
 
@@ -4,23 +4,22 @@ import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
-import java.lang.invoke.MethodHandles;
 import java.sql.ResultSet;
-import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.time.Instant;
 import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import mil.dds.anet.utils.DaoUtils;
 import mil.dds.anet.utils.Utils;
 import mil.dds.anet.views.AbstractAnetBean;
 import mil.dds.anet.views.AbstractCustomizableAnetBean;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import org.jdbi.v3.core.statement.StatementContext;
 
 public class MapperUtils {
 
-  private static final Logger logger =
-      LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+  // Enum.values() returns a new copy on every call, so keep our own
+  private static final Map<Class<?>, Object[]> enumValues = new ConcurrentHashMap<>();
 
   public static ObjectMapper getDefaultMapper() {
     return new ObjectMapper().registerModule(new JavaTimeModule())
@@ -28,96 +27,89 @@ public class MapperUtils {
         .configure(DeserializationFeature.READ_DATE_TIMESTAMPS_AS_NANOSECONDS, false);
   }
 
-  public static void setCommonBeanFields(AbstractAnetBean bean, ResultSet rs, String tableName)
-      throws SQLException {
+  public static void setCommonBeanFields(AbstractAnetBean bean, ResultSet rs,
+      StatementContext ctx, String tableName) throws SQLException {
     // Should always be there
     bean.setUuid(rs.getString(getQualifiedFieldName(tableName, "uuid")));
 
     // Not all beans have createdAt and/or updatedAt
-    bean.setCreatedAt(getInstantAsLocalDateTime(rs, getQualifiedFieldName(tableName, "createdAt")));
-    bean.setUpdatedAt(getInstantAsLocalDateTime(rs, getQualifiedFieldName(tableName, "updatedAt")));
+    bean.setCreatedAt(
+        getInstantAsLocalDateTime(rs, ctx, getQualifiedFieldName(tableName, "createdAt")));
+    bean.setUpdatedAt(
+        getInstantAsLocalDateTime(rs, ctx, getQualifiedFieldName(tableName, "updatedAt")));
 
     // Only present when batch searching
-    bean.setBatchUuid(getOptionalString(rs, "batchUuid"));
+    bean.setBatchUuid(getOptionalString(rs, ctx, "batchUuid"));
   }
 
   public static void setCustomizableBeanFields(AbstractCustomizableAnetBean bean, ResultSet rs,
-      String tableName) throws SQLException {
-    setCommonBeanFields(bean, rs, tableName);
+      StatementContext ctx, String tableName) throws SQLException {
+    setCommonBeanFields(bean, rs, ctx, tableName);
 
-    final String customFieldsCol = getQualifiedFieldName(tableName, "customFields");
-    if (containsColumnNamed(rs, customFieldsCol)) {
-      bean.setCustomFields(rs.getString(customFieldsCol));
+    final int customFieldsIdx =
+        getColumnIndex(rs, ctx, getQualifiedFieldName(tableName, "customFields"));
+    if (customFieldsIdx != 0) {
+      bean.setCustomFields(rs.getString(customFieldsIdx));
     }
   }
 
-  public static Integer getOptionalInt(final ResultSet rs, final String columnName)
-      throws SQLException {
-    if (!containsColumnNamed(rs, columnName)) {
+  public static Integer getOptionalInt(final ResultSet rs, final StatementContext ctx,
+      final String columnName) throws SQLException {
+    final int idx = getColumnIndex(rs, ctx, columnName);
+    if (idx == 0) {
       return null;
     }
-    final int value = rs.getInt(columnName);
+    final int value = rs.getInt(idx);
     return rs.wasNull() ? null : value;
   }
 
-  public static Double getOptionalDouble(final ResultSet rs, final String columnName)
-      throws SQLException {
-    if (!containsColumnNamed(rs, columnName)) {
+  public static Double getOptionalDouble(final ResultSet rs, final StatementContext ctx,
+      final String columnName) throws SQLException {
+    final int idx = getColumnIndex(rs, ctx, columnName);
+    if (idx == 0) {
       return null;
     }
-    final double value = rs.getDouble(columnName);
+    final double value = rs.getDouble(idx);
     return rs.wasNull() ? null : value;
   }
 
-  public static String getOptionalString(final ResultSet rs, final String columnName)
-      throws SQLException {
-    if (!containsColumnNamed(rs, columnName)) {
-      return null;
-    }
-    return rs.getString(columnName);
+  public static String getOptionalString(final ResultSet rs, final StatementContext ctx,
+      final String columnName) throws SQLException {
+    final int idx = getColumnIndex(rs, ctx, columnName);
+    return idx == 0 ? null : rs.getString(idx);
   }
 
-  public static Boolean getOptionalBoolean(final ResultSet rs, final String columnName)
-      throws SQLException {
-    if (!containsColumnNamed(rs, columnName)) {
-      return null;
-    }
-    return rs.getBoolean(columnName);
+  public static Boolean getOptionalBoolean(final ResultSet rs, final StatementContext ctx,
+      final String columnName) throws SQLException {
+    final int idx = getColumnIndex(rs, ctx, columnName);
+    return idx == 0 ? null : rs.getBoolean(idx);
   }
 
-  public static byte[] getOptionalBytes(final ResultSet rs, final String columnName)
-      throws SQLException {
-    if (!containsColumnNamed(rs, columnName)) {
-      return null;
-    }
-    return rs.getBytes(columnName);
+  public static byte[] getOptionalBytes(final ResultSet rs, final StatementContext ctx,
+      final String columnName) throws SQLException {
+    final int idx = getColumnIndex(rs, ctx, columnName);
+    return idx == 0 ? null : rs.getBytes(idx);
   }
 
-  public static <T extends Enum<T>> T getEnumIdx(ResultSet rs, String columnName, Class<T> clazz)
-      throws SQLException {
-    final Integer idx = getOptionalInt(rs, columnName);
+  public static <T extends Enum<T>> T getEnumIdx(ResultSet rs, StatementContext ctx,
+      String columnName, Class<T> clazz) throws SQLException {
+    final Integer idx = getOptionalInt(rs, ctx, columnName);
     if (idx == null) {
       return null;
     }
+    @SuppressWarnings("unchecked")
+    final T[] values = (T[]) enumValues.computeIfAbsent(clazz, Class::getEnumConstants);
+    return values[idx];
+  }
 
-    try {
-      @SuppressWarnings("unchecked")
-      T[] values = (T[]) clazz.getMethod("values").invoke(null);
-      return values[idx];
-    } catch (Exception e) {
-      logger.error("failed to get/invoke method", e);
-      return null;
-    }
+  public static boolean containsColumnNamed(ResultSet rs, StatementContext ctx, String colName)
+      throws SQLException {
+    return getColumnIndex(rs, ctx, colName) != 0;
   }
 
-  public static boolean containsColumnNamed(ResultSet rs, String colName) throws SQLException {
-    ResultSetMetaData metaData = rs.getMetaData();
-    for (int i = 1; i <= metaData.getColumnCount(); i++) {
-      if (colName.equals(metaData.getColumnName(i))) {
-        return true;
-      }
-    }
-    return false;
+  private static int getColumnIndex(ResultSet rs, StatementContext ctx, String colName)
+      throws SQLException {
+    return ResultSetColumns.get(rs, ctx).indexOf(colName);
   }
 
   private static String getQualifiedFieldName(String tableName, String fieldName) {
@@ -130,15 +122,16 @@ public class MapperUtils {
     return result.toString();
   }
 
-  public static Instant getInstantAsLocalDateTime(ResultSet rs, String columnName)
-      throws SQLException {
-    if (!containsColumnNamed(rs, columnName)) {
+  public static Instant getInstantAsLocalDateTime(ResultSet rs, StatementContext ctx,
+      String columnName) throws SQLException {
+    final int idx = getColumnIndex(rs, ctx, columnName);
+    if (idx == 0) {
       return null;
     }
     // We would like to do <code>rs.getObject(columnName, java.time.Instant.class)</code>
     // but the MSSQL JDBC driver does not support that (yet).
     // However, as of the 7.1.0 preview, at least java.time.LocalDateTime *is* supported.
-    final LocalDateTime result = rs.getObject(columnName, LocalDateTime.class);
+    final LocalDateTime result = rs.getObject(idx, LocalDateTime.class);
     if (result != null) {
       return result.toInstant(DaoUtils.getDefaultZoneOffset());
     }
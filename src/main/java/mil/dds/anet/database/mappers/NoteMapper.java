@@ -12,12 +12,12 @@ public class NoteMapper implements RowMapper<Note> {
   @Override
   public Note map(ResultSet rs, StatementContext ctx) throws SQLException {
     final Note n = new Note();
-    MapperUtils.setCommonBeanFields(n, rs, null);
-    n.setType(MapperUtils.getEnumIdx(rs, "type", NoteType.class));
+    MapperUtils.setCommonBeanFields(n, rs, ctx, null);
+    n.setType(MapperUtils.getEnumIdx(rs, ctx, "type", NoteType.class));
     n.setText(rs.getString("text"));
     n.setAuthorUuid(rs.getString("authorUuid"));
 
-    if (MapperUtils.containsColumnNamed(rs, "totalCount")) {
+    if (MapperUtils.containsColumnNamed(rs, ctx, "totalCount")) {
       ctx.define("totalCount", rs.getInt("totalCount"));
     }
 
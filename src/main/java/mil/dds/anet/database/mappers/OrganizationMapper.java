@@ -13,15 +13,15 @@ public class OrganizationMapper implements RowMapper<Organization> {
   @Override
   public Organization map(ResultSet r, StatementContext ctx) throws SQLException {
     Organization org = new Organization();
-    MapperUtils.setCommonBeanFields(org, r, "organizations");
+    MapperUtils.setCommonBeanFields(org, r, ctx, "organizations");
     org.setShortName(r.getString("organizations_shortName"));
     org.setLongName(r.getString("organizations_longName"));
-    org.setStatus(MapperUtils.getEnumIdx(r, "organizations_status", OrganizationStatus.class));
+    org.setStatus(MapperUtils.getEnumIdx(r, ctx, "organizations_status", OrganizationStatus.class));
     org.setIdentificationCode(r.getString("organizations_identificationCode"));
-    org.setType(MapperUtils.getEnumIdx(r, "organizations_type", OrganizationType.class));
+    org.setType(MapperUtils.getEnumIdx(r, ctx, "organizations_type", OrganizationType.class));
     org.setParentOrgUuid(r.getString("organizations_parentOrgUuid"));
 
-    if (MapperUtils.containsColumnNamed(r, "totalCount")) {
+    if (MapperUtils.containsColumnNamed(r, ctx, "totalCount")) {
       ctx.define("totalCount", r.getInt("totalCount"));
     }
 
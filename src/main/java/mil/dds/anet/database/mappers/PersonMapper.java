@@ -13,41 +13,45 @@ public class PersonMapper implements RowMapper<Person> {
 
   @Override
   public Person map(ResultSet rs, StatementContext ctx) throws SQLException {
-    Person p = fillInFields(new Person(), rs);
+    Person p = fillInFields(new Person(), rs, ctx);
 
-    if (MapperUtils.containsColumnNamed(rs, "positions_uuid")) {
-      p.setPosition(PositionMapper.fillInFields(new Position(), rs));
+    if (MapperUtils.containsColumnNamed(rs, ctx, "positions_uuid")) {
+      p.setPosition(PositionMapper.fillInFields(new Position(), rs, ctx));
     }
 
-    if (MapperUtils.containsColumnNamed(rs, "totalCount")) {
+    if (MapperUtils.containsColumnNamed(rs, ctx, "totalCount")) {
       ctx.define("totalCount", rs.getInt("totalCount"));
     }
     return p;
   }
 
-  public static <T extends Person> T fillInFields(T a, ResultSet rs) throws SQLException {
+  public static <T extends Person> T fillInFields(T a, ResultSet rs, StatementContext ctx)
+      throws SQLException {
     // This hits when we do a join but there's no Person record.
     if (rs.getObject("people_uuid") == null) {
       return null;
     }
-    MapperUtils.setCustomizableBeanFields(a, rs, "people");
-    a.setName(MapperUtils.getOptionalString(rs, "people_name"));
-    a.setStatus(MapperUtils.getEnumIdx(rs, "people_status", PersonStatus.class));
-    a.setRole(MapperUtils.getEnumIdx(rs, "people_role", Role.class));
-    a.setEmailAddress(MapperUtils.getOptionalString(rs, "people_emailAddress"));
-    a.setPhoneNumber(MapperUtils.getOptionalString(rs, "people_phoneNumber"));
-    a.setCountry(MapperUtils.getOptionalString(rs, "people_country"));
-    a.setGender(MapperUtils.getOptionalString(rs, "people_gender"));
-    a.setCode(MapperUtils.getOptionalString(rs, "people_code"));
-    a.setEndOfTourDate(MapperUtils.getInstantAsLocalDateTime(rs, "people_endOfTourDate"));
-    a.setRank(MapperUtils.getOptionalString(rs, "people_rank"));
-    a.setBiography(MapperUtils.getOptionalString(rs, "people_biography"));
-    a.setDomainUsername(MapperUtils.getOptionalString(rs, "people_domainUsername"));
-    a.setPendingVerification(MapperUtils.getOptionalBoolean(rs, "people_pendingVerification"));
+    MapperUtils.setCustomizableBeanFields(a, rs, ctx, "people");
+    a.setName(MapperUtils.getOptionalString(rs, ctx, "people_name"));
+    a.setStatus(MapperUtils.getEnumIdx(rs, ctx, "people_status", PersonStatus.class));
+    a.setRole(MapperUtils.getEnumIdx(rs, ctx, "people_role", Role.class));
+    a.setEmailAddress(MapperUtils.getOptionalString(rs, ctx, "people_emailAddress"));
+    a.setPhoneNumber(MapperUtils.getOptionalString(rs, ctx, "people_phoneNumber"));
+    a.setCountry(MapperUtils.getOptionalString(rs, ctx, "people_country"));
+    a.setGender(MapperUtils.getOptionalString(rs, ctx, "people_gender"));
+    a.setCode(MapperUtils.getOptionalString(rs, ctx, "people_code"));
+    a.setEndOfTourDate(MapperUtils.getInstantAsLocalDateTime(rs, ctx, "people_endOfTourDate"));
+    a.setRank(MapperUtils.getOptionalString(rs, ctx, "people_rank"));
+    a.setBiography(MapperUtils.getOptionalString(rs, ctx, "people_biography"));
+    a.setDomainUsername(MapperUtils.getOptionalString(rs, ctx, "people_domainUsername"));
+    a.setPendingVerification(MapperUtils.getOptionalBoolean(rs, ctx, "people_pendingVerification"));
     // Treat "avatar" special so it only gets loaded & set when explicitly requested
-    if (MapperUtils.containsColumnNamed(rs, "people_avatar")) {
+    if (MapperUtils.containsColumnNamed(rs, ctx, "people_avatar")) {
       a.setAvatar(rs.getBytes("people_avatar"));
     }
+    if (MapperUtils.containsColumnNamed(rs, ctx, "people_avatarHash")) {
+      a.setAvatarHash(rs.getString("people_avatarHash"));
+    }
 
     return a;
   }
@@ -11,9 +11,9 @@ public class PersonPositionHistoryMapper implements RowMapper<PersonPositionHist
   @Override
   public PersonPositionHistory map(ResultSet rs, StatementContext ctx) throws SQLException {
     final PersonPositionHistory pph = new PersonPositionHistory();
-    pph.setCreatedAt(MapperUtils.getInstantAsLocalDateTime(rs, "createdAt"));
-    pph.setStartTime(MapperUtils.getInstantAsLocalDateTime(rs, "createdAt"));
-    pph.setEndTime(MapperUtils.getInstantAsLocalDateTime(rs, "endedAt"));
+    pph.setCreatedAt(MapperUtils.getInstantAsLocalDateTime(rs, ctx, "createdAt"));
+    pph.setStartTime(MapperUtils.getInstantAsLocalDateTime(rs, ctx, "createdAt"));
+    pph.setEndTime(MapperUtils.getInstantAsLocalDateTime(rs, ctx, "endedAt"));
     pph.setPositionUuid(rs.getString("positionUuid"));
     pph.setPersonUuid(rs.getString("personUuid"));
     return pph;
@@ -17,20 +17,21 @@ public class PositionMapper implements RowMapper<Position> {
       return null;
     }
 
-    Position p = fillInFields(new Position(), rs);
+    Position p = fillInFields(new Position(), rs, ctx);
 
-    if (MapperUtils.containsColumnNamed(rs, "totalCount")) {
+    if (MapperUtils.containsColumnNamed(rs, ctx, "totalCount")) {
       ctx.define("totalCount", rs.getInt("totalCount"));
     }
     return p;
   }
 
-  public static Position fillInFields(Position p, ResultSet rs) throws SQLException {
-    MapperUtils.setCommonBeanFields(p, rs, "positions");
+  public static Position fillInFields(Position p, ResultSet rs, StatementContext ctx)
+      throws SQLException {
+    MapperUtils.setCommonBeanFields(p, rs, ctx, "positions");
     p.setName(rs.getString("positions_name"));
     p.setCode(rs.getString("positions_code"));
-    p.setType(MapperUtils.getEnumIdx(rs, "positions_type", PositionType.class));
-    p.setStatus(MapperUtils.getEnumIdx(rs, "positions_status", PositionStatus.class));
+    p.setType(MapperUtils.getEnumIdx(rs, ctx, "positions_type", PositionType.class));
+    p.setStatus(MapperUtils.getEnumIdx(rs, ctx, "positions_status", PositionStatus.class));
 
     p.setOrganizationUuid(rs.getString("positions_organizationUuid"));
     p.setPersonUuid(rs.getString("positions_currentPersonUuid"));
@@ -15,8 +15,8 @@ public class ReportActionMapper implements RowMapper<ReportAction> {
     aa.setPersonUuid(rs.getString("personUuid"));
     aa.setReportUuid(rs.getString("reportUuid"));
     aa.setStepUuid(rs.getString("approvalStepUuid"));
-    aa.setCreatedAt(MapperUtils.getInstantAsLocalDateTime(rs, "createdAt"));
-    aa.setType(MapperUtils.getEnumIdx(rs, "type", ActionType.class));
+    aa.setCreatedAt(MapperUtils.getInstantAsLocalDateTime(rs, ctx, "createdAt"));
+    aa.setType(MapperUtils.getEnumIdx(rs, ctx, "type", ActionType.class));
     return aa;
   }
 
@@ -14,34 +14,35 @@ public class ReportMapper implements RowMapper<Report> {
   @Override
   public Report map(ResultSet rs, StatementContext ctx) throws SQLException {
     Report r = new Report();
-    MapperUtils.setCustomizableBeanFields(r, rs, "reports");
-
-    r.setState(MapperUtils.getEnumIdx(rs, "reports_state", ReportState.class));
-    r.setEngagementDate(MapperUtils.getInstantAsLocalDateTime(rs, "reports_engagementDate"));
-    r.setDuration(MapperUtils.getOptionalInt(rs, "reports_duration"));
-    r.setReleasedAt(MapperUtils.getInstantAsLocalDateTime(rs, "reports_releasedAt"));
-    r.setLocationUuid(MapperUtils.getOptionalString(rs, "reports_locationUuid"));
-    r.setApprovalStepUuid(MapperUtils.getOptionalString(rs, "reports_approvalStepUuid"));
-
-    r.setIntent(MapperUtils.getOptionalString(rs, "reports_intent"));
-    r.setExsum(MapperUtils.getOptionalString(rs, "reports_exsum"));
-    r.setAtmosphere(MapperUtils.getEnumIdx(rs, "reports_atmosphere", Atmosphere.class));
-    r.setAtmosphereDetails(MapperUtils.getOptionalString(rs, "reports_atmosphereDetails"));
+    MapperUtils.setCustomizableBeanFields(r, ctx, rs, "reports");
+
+    r.setState(MapperUtils.getEnumIdx(rs, ctx, "reports_state", ReportState.class));
+    r.setEngagementDate(MapperUtils.getInstantAsLocalDateTime(rs, ctx, "reports_engagementDate"));
+    r.setDuration(MapperUtils.getOptionalInt(rs, ctx, "reports_duration"));
+    r.setReleasedAt(MapperUtils.getInstantAsLocalDateTime(rs, ctx, "reports_releasedAt"));
+    r.setLocationUuid(MapperUtils.getOptionalString(rs, ctx, "reports_locationUuid"));
+    r.setApprovalStepUuid(MapperUtils.getOptionalString(rs, ctx, "reports_approvalStepUuid"));
+
+    r.setIntent(MapperUtils.getOptionalString(rs, ctx, "reports_intent"));
+    r.setExsum(MapperUtils.getOptionalString(rs, ctx, "reports_exsum"));
+    r.setAtmosphere(MapperUtils.getEnumIdx(rs, ctx, "reports_atmosphere", Atmosphere.class));
+    r.setAtmosphereDetails(MapperUtils.getOptionalString(rs, ctx, "reports_atmosphereDetails"));
     r.setCancelledReason(
-        MapperUtils.getEnumIdx(rs, "reports_cancelledReason", ReportCancelledReason.class));
+        MapperUtils.getEnumIdx(rs, ctx, "reports_cancelledReason", ReportCancelledReason.class));
 
-    r.setReportText(MapperUtils.getOptionalString(rs, "reports_text"));
-    r.setKeyOutcomes(MapperUtils.getOptionalString(rs, "reports_keyOutcomes"));
-    r.setNextSteps(MapperUtils.getOptionalString(rs, "reports_nextSteps"));
+    r.setReportText(MapperUtils.getOptionalString(rs, ctx, "reports_text"));
+    r.setKeyOutcomes(MapperUtils.getOptionalString(rs, ctx, "reports_keyOutcomes"));
+    r.setNextSteps(MapperUtils.getOptionalString(rs, ctx, "reports_nextSteps"));
 
-    r.setAuthorUuid(MapperUtils.getOptionalString(rs, "reports_authorUuid"));
-    r.setAdvisorOrgUuid(MapperUtils.getOptionalString(rs, "reports_advisorOrganizationUuid"));
-    r.setPrincipalOrgUuid(MapperUtils.getOptionalString(rs, "reports_principalOrganizationUuid"));
+    r.setAuthorUuid(MapperUtils.getOptionalString(rs, ctx, "reports_authorUuid"));
+    r.setAdvisorOrgUuid(MapperUtils.getOptionalString(rs, ctx, "reports_advisorOrganizationUuid"));
+    r.setPrincipalOrgUuid(
+        MapperUtils.getOptionalString(rs, ctx, "reports_principalOrganizationUuid"));
 
-    if (MapperUtils.containsColumnNamed(rs, "totalCount")) {
+    if (MapperUtils.containsColumnNamed(rs, ctx, "totalCount")) {
       ctx.define("totalCount", rs.getInt("totalCount"));
     }
-    if (MapperUtils.containsColumnNamed(rs, "engagementDayOfWeek")) {
+    if (MapperUtils.containsColumnNamed(rs, ctx, "engagementDayOfWeek")) {
       r.setEngagementDayOfWeek(rs.getInt("engagementDayOfWeek"));
     }
 
@@ -10,7 +10,7 @@ public class ReportPersonMapper implements RowMapper<ReportPerson> {
 
   @Override
   public ReportPerson map(ResultSet r, StatementContext ctx) throws SQLException {
-    ReportPerson rp = PersonMapper.fillInFields(new ReportPerson(), r);
+    ReportPerson rp = PersonMapper.fillInFields(new ReportPerson(), r, ctx);
     rp.setPrimary(r.getBoolean("isPrimary"));
     return rp;
   }
@@ -11,7 +11,7 @@ public class ReportSensitiveInformationMapper implements RowMapper<ReportSensiti
   @Override
   public ReportSensitiveInformation map(ResultSet rs, StatementContext ctx) throws SQLException {
     final ReportSensitiveInformation rsi = new ReportSensitiveInformation();
-    MapperUtils.setCommonBeanFields(rsi, rs, "reportsSensitiveInformation");
+    MapperUtils.setCommonBeanFields(rsi, rs, ctx, "reportsSensitiveInformation");
     rsi.setText(rs.getString("reportsSensitiveInformation_text"));
     return rsi;
   }
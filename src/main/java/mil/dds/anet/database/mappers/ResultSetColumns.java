@@ -0,0 +1,67 @@
+package mil.dds.anet.database.mappers;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import org.jdbi.v3.core.statement.StatementContext;
+
+/**
+ * The column indexes of a result set by column name. They are resolved once per result set and
+ * cached on the statement context, so mappers don't scan the result set metadata for every column
+ * of every row.
+ */
+public class ResultSetColumns {
+
+  private static final String CONTEXT_ATTRIBUTE = ResultSetColumns.class.getName();
+
+  private final ResultSet rs;
+  private final Map<String, Integer> indexes;
+
+  private ResultSetColumns(ResultSet rs) throws SQLException {
+    this.rs = rs;
+    final ResultSetMetaData metaData = rs.getMetaData();
+    final int columnCount = metaData.getColumnCount();
+    indexes = new HashMap<>(columnCount * 2);
+    for (int i = 1; i <= columnCount; i++) {
+      // Like ResultSet.findColumn, the first column with a given name wins
+      indexes.putIfAbsent(metaData.getColumnName(i), i);
+    }
+  }
+
+  /**
+   * Get the columns of a result set.
+   *
+   * @param rs the result set
+   * @param ctx the statement context to cache the columns on; may be null
+   * @return the columns
+   * @throws SQLException if the result set metadata can't be read
+   */
+  public static ResultSetColumns get(ResultSet rs, StatementContext ctx) throws SQLException {
+    if (ctx != null) {
+      final Object cached = ctx.getAttribute(CONTEXT_ATTRIBUTE);
+      // A statement may produce more than one result set
+      if (cached instanceof ResultSetColumns && ((ResultSetColumns) cached).rs == rs) {
+        return (ResultSetColumns) cached;
+      }
+    }
+    final ResultSetColumns columns = new ResultSetColumns(rs);
+    if (ctx != null) {
+      ctx.define(CONTEXT_ATTRIBUTE, columns);
+    }
+    return columns;
+  }
+
+  /**
+   * Get the index of a column.
+   *
+   * @param columnName the name of the column
+   * @return the (1-based) index of the column, or 0 if the result set has no such column
+   */
+  public int indexOf(String columnName) {
+    final Integer index = indexes.get(columnName);
+    return index == null ? 0 : index;
+  }
+
+}
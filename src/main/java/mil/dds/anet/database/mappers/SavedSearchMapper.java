@@ -12,10 +12,10 @@ public class SavedSearchMapper implements RowMapper<SavedSearch> {
   @Override
   public SavedSearch map(ResultSet rs, StatementContext ctx) throws SQLException {
     SavedSearch ss = new SavedSearch();
-    MapperUtils.setCommonBeanFields(ss, rs, null);
+    MapperUtils.setCommonBeanFields(ss, rs, ctx, null);
     ss.setOwnerUuid(rs.getString("ownerUuid"));
     ss.setName(rs.getString("name"));
-    ss.setObjectType(MapperUtils.getEnumIdx(rs, "objectType", SearchObjectType.class));
+    ss.setObjectType(MapperUtils.getEnumIdx(rs, ctx, "objectType", SearchObjectType.class));
     ss.setQuery(rs.getString("query"));
     return ss;
   }
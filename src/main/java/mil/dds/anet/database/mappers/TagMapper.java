@@ -11,11 +11,11 @@ public class TagMapper implements RowMapper<Tag> {
   @Override
   public Tag map(ResultSet rs, StatementContext ctx) throws SQLException {
     final Tag t = new Tag();
-    MapperUtils.setCommonBeanFields(t, rs, null);
+    MapperUtils.setCommonBeanFields(t, rs, ctx, null);
     t.setName(rs.getString("name"));
     t.setDescription(rs.getString("description"));
 
-    if (MapperUtils.containsColumnNamed(rs, "totalCount")) {
+    if (MapperUtils.containsColumnNamed(rs, ctx, "totalCount")) {
       ctx.define("totalCount", rs.getInt("totalCount"));
     }
 
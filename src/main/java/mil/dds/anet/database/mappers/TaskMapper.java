@@ -12,19 +12,19 @@ public class TaskMapper implements RowMapper<Task> {
   @Override
   public Task map(ResultSet r, StatementContext ctx) throws SQLException {
     Task p = new Task();
-    MapperUtils.setCustomizableBeanFields(p, r, null);
+    MapperUtils.setCustomizableBeanFields(p, r, ctx, null);
     p.setLongName(r.getString("longName"));
     p.setShortName(r.getString("shortName"));
     p.setCategory(r.getString("category"));
     p.setCustomField(r.getString("customField"));
     p.setCustomFieldEnum1(r.getString("customFieldEnum1"));
     p.setCustomFieldEnum2(r.getString("customFieldEnum2"));
-    p.setPlannedCompletion(MapperUtils.getInstantAsLocalDateTime(r, "plannedCompletion"));
-    p.setProjectedCompletion(MapperUtils.getInstantAsLocalDateTime(r, "projectedCompletion"));
-    p.setStatus(MapperUtils.getEnumIdx(r, "status", TaskStatus.class));
+    p.setPlannedCompletion(MapperUtils.getInstantAsLocalDateTime(r, ctx, "plannedCompletion"));
+    p.setProjectedCompletion(MapperUtils.getInstantAsLocalDateTime(r, ctx, "projectedCompletion"));
+    p.setStatus(MapperUtils.getEnumIdx(r, ctx, "status", TaskStatus.class));
     p.setCustomFieldRef1Uuid(r.getString("customFieldRef1Uuid"));
 
-    if (MapperUtils.containsColumnNamed(r, "totalCount")) {
+    if (MapperUtils.containsColumnNamed(r, ctx, "totalCount")) {
       ctx.define("totalCount", r.getInt("totalCount"));
     }
 
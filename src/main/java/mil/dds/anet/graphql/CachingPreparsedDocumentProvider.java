@@ -0,0 +1,95 @@
+package mil.dds.anet.graphql;
+
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+import graphql.ExecutionInput;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.execution.preparsed.PreparsedDocumentProvider;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import mil.dds.anet.database.AnetCacheManager;
+
+/**
+ * Cache of parsed and validated GraphQL documents, keyed by the SHA-256 hash of the query text. The
+ * cache is bounded by the total length of the cached queries. Since the keys are the same hashes
+ * that clients send for automatic persisted queries, the cache also serves as the store of
+ * persisted queries. Only documents without errors are cached.
+ */
+public class CachingPreparsedDocumentProvider implements PreparsedDocumentProvider {
+
+  private static final class Entry {
+    private final String query;
+    private final PreparsedDocumentEntry document;
+    private final long parseNanos;
+
+    private Entry(String query, PreparsedDocumentEntry document, long parseNanos) {
+      this.query = query;
+      this.document = document;
+      this.parseNanos = parseNanos;
+    }
+  }
+
+  private final String cacheName;
+  private final MetricRegistry metricRegistry;
+  private final Cache<String, Entry> entries;
+
+  public CachingPreparsedDocumentProvider(String cacheName, long maxQueryChars,
+      MetricRegistry metricRegistry) {
+    this.cacheName = cacheName;
+    this.metricRegistry = metricRegistry;
+    // A single segment, so the bound applies to all queries together and the least recently used
+    // ones are evicted first (each segment would otherwise get only part of the bound)
+    this.entries = CacheBuilder.newBuilder().concurrencyLevel(1).maximumWeight(maxQueryChars)
+        .weigher((String key, Entry entry) -> entry.query.length()).build();
+  }
+
+  /**
+   * Compute the hash of a query, as used for the cache and for persisted queries.
+   *
+   * @param query the query text
+   * @return the lowercase hexadecimal SHA-256 hash
+   */
+  public static String getQueryHash(String query) {
+    return Hashing.sha256().hashString(query, StandardCharsets.UTF_8).toString();
+  }
+
+  /**
+   * Look up a persisted query.
+   *
+   * @param queryHash the hash of the query
+   * @return the query text, or null if it is not (or no longer) cached
+   */
+  public String getPersistedQuery(String queryHash) {
+    final Entry entry = entries.getIfPresent(queryHash);
+    return entry == null ? null : entry.query;
+  }
+
+  @Override
+  public PreparsedDocumentEntry getDocument(ExecutionInput executionInput,
+      Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidateFunction) {
+    final String query = executionInput.getQuery();
+    final String queryHash = getQueryHash(query);
+    final Entry cached = entries.getIfPresent(queryHash);
+    if (cached != null) {
+      AnetCacheManager.updateStats(metricRegistry, cacheName, true);
+      // Count the parse and validation time this hit saved
+      metricRegistry.counter(MetricRegistry.name(cacheName, "SavedParseMicros"))
+          .inc(TimeUnit.NANOSECONDS.toMicros(cached.parseNanos));
+      return cached.document;
+    }
+    AnetCacheManager.updateStats(metricRegistry, cacheName, false);
+    final long start = System.nanoTime();
+    final PreparsedDocumentEntry document = parseAndValidateFunction.apply(executionInput);
+    final long parseNanos = System.nanoTime() - start;
+    metricRegistry.timer(MetricRegistry.name(cacheName, "ParseTime")).update(parseNanos,
+        TimeUnit.NANOSECONDS);
+    if (!document.hasErrors()) {
+      entries.put(queryHash, new Entry(query, document, parseNanos));
+    }
+    return document;
+  }
+
+}
@@ -0,0 +1,141 @@
+package mil.dds.anet.graphql;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.dataloader.DataLoaderRegistry;
+
+/**
+ * Dispatches the data loaders of a single GraphQL request. The
+ * {@link DataLoaderDispatcherInstrumentation} keeps track of the field fetches in progress per
+ * execution level; as soon as no more fetches are in progress (i.e. every level is quiescent and
+ * all remaining work is waiting on data loaders), the waiting request thread is signalled to
+ * dispatch the {@link DataLoaderRegistry}.
+ */
+public class DataLoaderDispatcher {
+
+  public static final String CONTEXT_KEY = "dataLoaderDispatcher";
+
+  // Upper bound on how long we wait for a signal; this is only a safety net for loads that are
+  // queued outside of a field fetch (e.g. from an asynchronous callback on another executor)
+  private static final long MAX_WAIT_MILLIS = 50;
+
+  private final DataLoaderRegistry dataLoaderRegistry;
+  private final Map<Integer, AtomicInteger> fetchesInProgress = new ConcurrentHashMap<>();
+  private final AtomicInteger totalFetchesInProgress = new AtomicInteger();
+  private final Object monitor = new Object();
+  private long generation;
+  private int dispatchRounds;
+  private int waitTimeouts;
+
+  public DataLoaderDispatcher(DataLoaderRegistry dataLoaderRegistry) {
+    this.dataLoaderRegistry = dataLoaderRegistry;
+  }
+
+  public DataLoaderRegistry getDataLoaderRegistry() {
+    return dataLoaderRegistry;
+  }
+
+  /**
+   * Get the number of times the data loaders were dispatched for this request.
+   *
+   * @return the number of dispatch rounds
+   */
+  public int getDispatchRounds() {
+    return dispatchRounds;
+  }
+
+  /**
+   * Get the number of times the wait for quiescence ran into the safety-net timeout instead of
+   * being signalled.
+   *
+   * @return the number of wait timeouts
+   */
+  public int getWaitTimeouts() {
+    return waitTimeouts;
+  }
+
+  /**
+   * Called when a field fetch starts at the given execution level.
+   *
+   * @param level the execution level of the field
+   */
+  public void fetchStarted(int level) {
+    fetchesInProgress.computeIfAbsent(level, l -> new AtomicInteger()).incrementAndGet();
+    totalFetchesInProgress.incrementAndGet();
+  }
+
+  /**
+   * Called when the data fetcher for a field at the given execution level has returned (its value
+   * may still be pending on a data loader).
+   *
+   * @param level the execution level of the field
+   */
+  public void fetchDispatched(int level) {
+    final int levelCount = fetchesInProgress.get(level).decrementAndGet();
+    final int totalCount = totalFetchesInProgress.decrementAndGet();
+    if (levelCount == 0 || totalCount == 0) {
+      signal();
+    }
+  }
+
+  /**
+   * Dispatch the data loaders until the request is done. Blocks the calling thread, waking up
+   * whenever the instrumentation signals that the field fetches have become quiescent.
+   *
+   * @param request the future of the GraphQL request being executed
+   */
+  public void dispatchUntilDone(CompletableFuture<?> request) {
+    request.whenComplete((result, throwable) -> signal());
+    long lastGeneration = -1;
+    while (!request.isDone()) {
+      lastGeneration = awaitQuiescence(request, lastGeneration);
+      // Dispatch all our data loaders as long as they have work;
+      // we have data loaders at various depths (one dependent on another),
+      // e.g. in {@link Report#loadWorkflow}
+      while (!request.isDone() && dispatchAll()) {
+        dispatchRounds++;
+      }
+    }
+  }
+
+  private boolean dispatchAll() {
+    final CompletableFuture<?>[] dispatchersWithWork = dataLoaderRegistry.getDataLoaders().stream()
+        .filter(dl -> dl.dispatchDepth() > 0).map(dl -> (CompletableFuture<?>) dl.dispatch())
+        .toArray(CompletableFuture<?>[]::new);
+    if (dispatchersWithWork.length == 0) {
+      return false;
+    }
+    CompletableFuture.allOf(dispatchersWithWork).join();
+    return true;
+  }
+
+  private long awaitQuiescence(CompletableFuture<?> request, long lastGeneration) {
+    synchronized (monitor) {
+      final long deadline = System.currentTimeMillis() + MAX_WAIT_MILLIS;
+      while (!request.isDone()
+          && (generation == lastGeneration || totalFetchesInProgress.get() > 0)) {
+        final long timeout = deadline - System.currentTimeMillis();
+        if (timeout <= 0) {
+          waitTimeouts++;
+          break;
+        }
+        try {
+          monitor.wait(timeout);
+        } catch (InterruptedException ignored) {
+          // just retry
+        }
+      }
+      return generation;
+    }
+  }
+
+  private void signal() {
+    synchronized (monitor) {
+      generation++;
+      monitor.notifyAll();
+    }
+  }
+
+}
@@ -0,0 +1,49 @@
+package mil.dds.anet.graphql;
+
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.SimpleInstrumentation;
+import graphql.execution.instrumentation.SimpleInstrumentationContext;
+import graphql.execution.instrumentation.parameters.InstrumentationFieldFetchParameters;
+import graphql.schema.DataFetchingEnvironment;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Instrumentation that reports the start and end of every field fetch to the
+ * {@link DataLoaderDispatcher} of the request (found in the GraphQL context), so that it can
+ * dispatch the data loaders as soon as an execution level is quiescent. This replaces the default
+ * DataLoaderDispatcherInstrumentation of graphql-java, which doesn't handle data loaders that are
+ * chained inside our fetchers. The instrumentation itself is stateless and can be shared.
+ */
+public class DataLoaderDispatcherInstrumentation extends SimpleInstrumentation {
+
+  @Override
+  public InstrumentationContext<Object> beginFieldFetch(
+      InstrumentationFieldFetchParameters parameters) {
+    final DataFetchingEnvironment environment = parameters.getEnvironment();
+    final DataLoaderDispatcher dispatcher = getDispatcher(environment);
+    if (dispatcher == null) {
+      return super.beginFieldFetch(parameters);
+    }
+    final int level = environment.getExecutionStepInfo().getPath().getLevel();
+    dispatcher.fetchStarted(level);
+    return new SimpleInstrumentationContext<Object>() {
+      @Override
+      public void onDispatched(CompletableFuture<Object> result) {
+        dispatcher.fetchDispatched(level);
+      }
+    };
+  }
+
+  private DataLoaderDispatcher getDispatcher(DataFetchingEnvironment environment) {
+    final Object context = environment.getContext();
+    if (context instanceof Map) {
+      final Object dispatcher = ((Map<?, ?>) context).get(DataLoaderDispatcher.CONTEXT_KEY);
+      if (dispatcher instanceof DataLoaderDispatcher) {
+        return (DataLoaderDispatcher) dispatcher;
+      }
+    }
+    return null;
+  }
+
+}
@@ -19,13 +19,13 @@ import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.apache.poi.ss.usermodel.CellStyle;
 import org.apache.poi.ss.usermodel.CreationHelper;
 import org.apache.poi.ss.usermodel.FillPatternType;
+import org.apache.poi.ss.usermodel.Font;
 import org.apache.poi.ss.usermodel.HorizontalAlignment;
 import org.apache.poi.ss.usermodel.IndexedColors;
-import org.apache.poi.xssf.usermodel.XSSFCell;
-import org.apache.poi.xssf.usermodel.XSSFFont;
-import org.apache.poi.xssf.usermodel.XSSFRow;
-import org.apache.poi.xssf.usermodel.XSSFSheet;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFCell;
+import org.apache.poi.xssf.streaming.SXSSFRow;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -43,47 +43,58 @@ public class JsonToXlsxTransformer implements Function<Map<String, Object>, Stre
 
   @Override
   public StreamingOutput apply(final Map<String, Object> json) {
-    return new XssfWorkbookStreamingOutput(createWorkbook(json));
+    return new XlsxStreamingOutput(json);
   }
 
   /**
-   * Converts the supplied result object to a {@link XSSFWorkbook}.
-   * 
+   * Writes the supplied result object as a streaming workbook; only a window of
+   * {@link AnetConfiguration#getXlsxRowWindow()} rows per sheet is kept in memory, the rest is
+   * flushed to temporary files until the workbook is written out.
+   *
    * @param resultMap the content map
-   * @return the workbook
+   * @param output the stream to write the workbook to
+   * @throws IOException when writing fails
    */
-  private XSSFWorkbook createWorkbook(final Map<String, Object> resultMap) {
-
-    final XSSFWorkbook workbook = new XSSFWorkbook();
-
-    for (Entry<String, Object> entry : resultMap.entrySet()) {
-      if (entry.getValue() instanceof Map<?, ?>) {
-        locateData(workbook, entry.getKey(), (Map<?, ?>) entry.getValue());
+  private void writeWorkbook(final Map<String, Object> resultMap, final OutputStream output)
+      throws IOException {
+    final SXSSFWorkbook workbook = new SXSSFWorkbook(config.getXlsxRowWindow());
+    workbook.setCompressTempFiles(true);
+    try {
+      final CellStyles styles = new CellStyles(workbook);
+      for (Entry<String, Object> entry : resultMap.entrySet()) {
+        if (entry.getValue() instanceof Map<?, ?>) {
+          locateData(workbook, styles, entry.getKey(), (Map<?, ?>) entry.getValue());
+        }
       }
+      workbook.write(output);
+    } finally {
+      workbook.dispose();
+      workbook.close();
     }
-
-    return workbook;
   }
 
   /**
    * Locate the data in the map and create sheets in the workbook.
    * 
    * @param workbook the workbook
+   * @param styles the cell styles of the workbook
    * @param name the name of the collection
    * @param data the map to obtain the data from to populate the workbook
    */
-  private void locateData(final XSSFWorkbook workbook, final String name, final Map<?, ?> data) {
+  private void locateData(final SXSSFWorkbook workbook, final CellStyles styles, final String name,
+      final Map<?, ?> data) {
 
     if (RESULT_KEY_DATA.equals(name)) {
       // Go through all data collections
       for (Entry<?, ?> entry : data.entrySet()) {
         if (entry.getValue() instanceof Map<?, ?>) {
-          createSheet(workbook, String.valueOf(entry.getKey()), (Map<?, ?>) entry.getValue());
+          createSheet(workbook, styles, String.valueOf(entry.getKey()),
+              (Map<?, ?>) entry.getValue());
         }
       }
     } else {
       // Errors
-      createSheet(workbook, name, data);
+      createSheet(workbook, styles, name, data);
     }
   }
 
@@ -93,86 +104,106 @@ public class JsonToXlsxTransformer implements Function<Map<String, Object>, Stre
    * TODO: This should end up in a converter type class, perhaps lookup by annotations.
    *
    * @param workbook the workbook
+   * @param styles the cell styles of the workbook
    * @param name the name for the sheet
    * @param data the data used to populate the sheet
    */
-  private void createSheet(final XSSFWorkbook workbook, final String name, final Map<?, ?> data) {
+  private static void createSheet(final SXSSFWorkbook workbook, final CellStyles styles,
+      final String name, final Map<?, ?> data) {
 
-    final XSSFSheet sheet = workbook.createSheet(name);
+    final SXSSFSheet sheet = workbook.createSheet(name);
 
     sheet.setDefaultColumnWidth(30);
 
-    final XSSFFont headerFont = workbook.createFont();
-    headerFont.setFontHeightInPoints((short) 10);
-    headerFont.setFontName("Arial");
-    headerFont.setColor(IndexedColors.WHITE.getIndex());
-    headerFont.setBold(true);
-    headerFont.setItalic(false);
-
-    final CellStyle headerStyle = workbook.createCellStyle();
-    headerStyle.setFillBackgroundColor(IndexedColors.BLACK.getIndex());
-    headerStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
-    headerStyle.setAlignment(HorizontalAlignment.CENTER);
-    headerStyle.setFont(headerFont);
-
-    final CellStyle dateStyle = workbook.createCellStyle();
-    final CreationHelper createHelper = workbook.getCreationHelper();
-    final short dateFormat = createHelper.createDataFormat()
-        .getFormat((String) config.getDictionaryEntry("dateFormats.excel"));
-    dateStyle.setDataFormat(dateFormat);
-
-    final XSSFRow header = sheet.createRow(0);
-    header.setRowStyle(headerStyle);
+    // The header must be complete before the rows are written, as it gets flushed with them
+    final List<String> headers = new ArrayList<>();
+    for (Entry<?, ?> entry : data.entrySet()) {
+      if (entry.getValue() instanceof List<?>) {
+        addHeaders(headers, (List<?>) entry.getValue());
+      }
+    }
+    createHeader(sheet.createRow(0), styles.headerStyle, headers);
 
+    int rowCount = 1;
     for (Entry<?, ?> entry : data.entrySet()) {
       if (entry.getValue() instanceof List<?>) {
-        createRow(sheet, header, dateStyle, (List<?>) entry.getValue());
+        rowCount = createRows(sheet, rowCount, styles.dateStyle, (List<?>) entry.getValue());
+      }
+    }
+  }
+
+  /**
+   * Add the header of any column in the data not seen before; a column is named after the key of
+   * the first row having that column.
+   *
+   * @param headers the headers so far
+   * @param data the data
+   */
+  private static void addHeaders(final List<String> headers, final List<?> data) {
+    for (Object value : data) {
+      if (value instanceof Map<?, ?>) {
+        int column = 0;
+        for (Object key : ((Map<?, ?>) value).keySet()) {
+          if (column++ >= headers.size()) {
+            headers.add(String.valueOf(key).toUpperCase());
+          }
+        }
       }
     }
   }
 
   /**
-   * Create a row in the supplied sheet using the supplied data.
+   * Create the header row.
+   *
+   * @param header the header row
+   * @param headerStyle the style for header cells
+   * @param headers the header names
+   */
+  private static void createHeader(final SXSSFRow header, final CellStyle headerStyle,
+      final List<String> headers) {
+    header.setRowStyle(headerStyle);
+    int column = 0;
+    for (final String name : headers) {
+      final SXSSFCell headerCell = header.createCell(column++);
+      headerCell.setCellValue(name);
+      headerCell.setCellStyle(headerStyle);
+    }
+  }
+
+  /**
+   * Create rows in the supplied sheet using the supplied data.
    * 
    * @param sheet the sheet
-   * @param header the header row
+   * @param rowCount the number of the first row to create
    * @param dateStyle the style for date cells
    * @param data the data
+   * @return the number of the next row to create
    */
-  private static void createRow(final XSSFSheet sheet, final XSSFRow header,
-      final CellStyle dateStyle, final List<?> data) {
-
-    int rowCount = 1;
+  private static int createRows(final SXSSFSheet sheet, int rowCount, final CellStyle dateStyle,
+      final List<?> data) {
 
     for (Object value : data) {
       if (value instanceof Map<?, ?>) {
-        createColumns(header, sheet.createRow(rowCount++), dateStyle, (Map<?, ?>) value);
+        createColumns(sheet.createRow(rowCount++), dateStyle, (Map<?, ?>) value);
       }
     }
+    return rowCount;
   }
 
   /**
    * Create a column in a row of data.
    * 
-   * @param header the header row
    * @param row the row of data
    * @param dateStyle the style for date cells
    * @param data the data
    */
-  private static void createColumns(final XSSFRow header, final XSSFRow row,
-      final CellStyle dateStyle, final Map<?, ?> data) {
+  private static void createColumns(final SXSSFRow row, final CellStyle dateStyle,
+      final Map<?, ?> data) {
 
     int column = 0;
 
     for (Entry<?, ?> entry : data.entrySet()) {
-      if (header.getCell(column) == null) {
-        final XSSFCell headerCell = header.createCell(column);
-        headerCell.setCellValue(String.valueOf(entry.getKey()).toUpperCase());
-        headerCell.setCellStyle(header.getRowStyle());
-      }
-
-      final XSSFCell cell = row.createCell(column);
-      cell.setCellStyle(row.getRowStyle());
+      final SXSSFCell cell = row.createCell(column);
 
       final Object repr = getValueRepr(entry.getValue());
       if (repr != null) {
@@ -234,20 +265,50 @@ public class JsonToXlsxTransformer implements Function<Map<String, Object>, Stre
   }
 
   /**
-   * {@link StreamingOutput} implementation that uses a {@link XSSFWorkbook} as the source of the
-   * stream to be written.
+   * The cell styles of a workbook; a workbook can only hold a limited number of styles, so they are
+   * shared between its sheets.
+   */
+  private class CellStyles {
+    private final CellStyle headerStyle;
+    private final CellStyle dateStyle;
+
+    private CellStyles(final SXSSFWorkbook workbook) {
+      final Font headerFont = workbook.createFont();
+      headerFont.setFontHeightInPoints((short) 10);
+      headerFont.setFontName("Arial");
+      headerFont.setColor(IndexedColors.WHITE.getIndex());
+      headerFont.setBold(true);
+      headerFont.setItalic(false);
+
+      headerStyle = workbook.createCellStyle();
+      headerStyle.setFillBackgroundColor(IndexedColors.BLACK.getIndex());
+      headerStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+      headerStyle.setAlignment(HorizontalAlignment.CENTER);
+      headerStyle.setFont(headerFont);
+
+      dateStyle = workbook.createCellStyle();
+      final CreationHelper createHelper = workbook.getCreationHelper();
+      final short dateFormat = createHelper.createDataFormat()
+          .getFormat((String) config.getDictionaryEntry("dateFormats.excel"));
+      dateStyle.setDataFormat(dateFormat);
+    }
+  }
+
+  /**
+   * {@link StreamingOutput} implementation that builds a streaming workbook from the result while
+   * it is being written.
    */
-  public static class XssfWorkbookStreamingOutput implements StreamingOutput {
+  public class XlsxStreamingOutput implements StreamingOutput {
 
-    private final XSSFWorkbook workbook;
+    private final Map<String, Object> json;
 
     /**
-     * Creates an instance of this class using the supplied workbook.
+     * Creates an instance of this class using the supplied result.
      * 
-     * @param workbook the workbook
+     * @param json the content map
      */
-    public XssfWorkbookStreamingOutput(final XSSFWorkbook workbook) {
-      this.workbook = workbook;
+    public XlsxStreamingOutput(final Map<String, Object> json) {
+      this.json = json;
     }
 
     /**
@@ -256,11 +317,10 @@ public class JsonToXlsxTransformer implements Function<Map<String, Object>, Stre
     @Override
     public void write(final OutputStream output) throws IOException, WebApplicationException {
       try {
-        // TODO: The performance of this operation, specifically with large files, should be tested.
-        workbook.write(output);
+        writeWorkbook(json, output);
       } catch (Exception e) {
         final Throwable rootCause = ExceptionUtils.getRootCause(e);
-        logger.error("Error writing XSSFWorkbook", rootCause == null ? e : rootCause);
+        logger.error("Error writing SXSSFWorkbook", rootCause == null ? e : rootCause);
       }
     }
   }
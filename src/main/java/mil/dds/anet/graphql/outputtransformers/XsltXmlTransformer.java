@@ -1,43 +1,135 @@
 package mil.dds.anet.graphql.outputtransformers;
 
+import java.io.IOException;
 import java.io.InputStream;
-import java.io.StringReader;
-import java.io.StringWriter;
+import java.io.OutputStream;
+import java.lang.invoke.MethodHandles;
+import java.util.Collection;
+import java.util.Map;
 import java.util.function.Function;
-import javax.xml.transform.Transformer;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.StreamingOutput;
+import javax.xml.transform.Templates;
 import javax.xml.transform.TransformerConfigurationException;
-import javax.xml.transform.TransformerException;
 import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.sax.SAXTransformerFactory;
+import javax.xml.transform.sax.TransformerHandler;
 import javax.xml.transform.stream.StreamResult;
 import javax.xml.transform.stream.StreamSource;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.AttributesImpl;
 
-public class XsltXmlTransformer implements Function<String, String> {
+/**
+ * Transforms a GraphQL result with an XSLT stylesheet. The stylesheet is compiled once into
+ * (thread-safe) {@link Templates}; each transformation gets its own cheap Transformer. The result
+ * is fed to the stylesheet as SAX events, in the same XML structure JsonToXmlTransformer produces
+ * (a single top-level key becomes the root element, and list items become &lt;element&gt;
+ * elements), and the output is streamed to the response.
+ */
+public class XsltXmlTransformer implements Function<Map<String, Object>, StreamingOutput> {
 
-  private static final TransformerFactory transformerFactory = TransformerFactory.newInstance();
+  private static final Logger logger =
+      LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
-  private Transformer transformer;
+  private static final SAXTransformerFactory transformerFactory =
+      (SAXTransformerFactory) TransformerFactory.newInstance();
+  private static final String ROOT_ELEMENT = "root";
+  private static final String LIST_ITEM_ELEMENT = "element";
+  private static final AttributesImpl NO_ATTRIBUTES = new AttributesImpl();
 
-  public XsltXmlTransformer(final InputStream stylesheetInputStream) {
+  private final Templates templates;
 
+  public XsltXmlTransformer(final InputStream stylesheetInputStream) {
     try {
-      transformer = transformerFactory.newTransformer(new StreamSource(stylesheetInputStream));
-    } catch (TransformerConfigurationException exception) {
-      exception.printStackTrace();
+      templates = transformerFactory.newTemplates(new StreamSource(stylesheetInputStream));
+    } catch (TransformerConfigurationException e) {
+      throw new IllegalArgumentException("Invalid XSLT stylesheet", e);
     }
   }
 
   @Override
-  public String apply(final String xml) {
+  public StreamingOutput apply(final Map<String, Object> json) {
+    return new XsltStreamingOutput(json);
+  }
 
-    final StreamSource inputXmlSource = new StreamSource(new StringReader(xml));
+  /**
+   * Transforms the supplied result and writes the output to a stream.
+   *
+   * @param json the content map
+   * @param output the stream to write the output to
+   * @throws TransformerConfigurationException when no transformer can be created
+   * @throws SAXException when the transformation fails
+   */
+  public void transform(final Map<String, Object> json, final OutputStream output)
+      throws TransformerConfigurationException, SAXException {
+    final TransformerHandler handler = transformerFactory.newTransformerHandler(templates);
+    handler.setResult(new StreamResult(output));
+    handler.startDocument();
+    if (json.size() == 1) {
+      final Map.Entry<String, Object> entry = json.entrySet().iterator().next();
+      writeElement(handler, entry.getKey(), entry.getValue());
+    } else {
+      writeElement(handler, ROOT_ELEMENT, json);
+    }
+    handler.endDocument();
+  }
 
-    final StringWriter writer = new StringWriter();
-    try {
-      transformer.transform(inputXmlSource, new StreamResult(writer));
-    } catch (TransformerException exception) {
-      exception.printStackTrace();
+  private static void writeElement(final ContentHandler handler, final String key,
+      final Object value) throws SAXException {
+    final String name = toElementName(key);
+    handler.startElement("", name, name, NO_ATTRIBUTES);
+    if (value instanceof Map) {
+      for (final Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+        writeElement(handler, String.valueOf(entry.getKey()), entry.getValue());
+      }
+    } else if (value instanceof Collection) {
+      for (final Object item : (Collection<?>) value) {
+        writeElement(handler, LIST_ITEM_ELEMENT, item);
+      }
+    } else if (value != null) {
+      final char[] text = value.toString().toCharArray();
+      handler.characters(text, 0, text.length);
     }
+    handler.endElement("", name, name);
+  }
 
-    return writer.toString();
+  // GraphQL names are valid XML names, but be safe for arbitrary map keys
+  private static String toElementName(final String key) {
+    final String name = key.replaceAll("[^A-Za-z0-9_.-]", "_");
+    final boolean validStart =
+        !name.isEmpty() && (Character.isLetter(name.charAt(0)) || name.charAt(0) == '_');
+    return validStart ? name : "_" + name;
   }
+
+  public class XsltStreamingOutput implements StreamingOutput {
+
+    private final Map<String, Object> json;
+
+    /**
+     * Creates an instance of this class using the supplied result.
+     *
+     * @param json the content map
+     */
+    public XsltStreamingOutput(final Map<String, Object> json) {
+      this.json = json;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void write(final OutputStream output) throws IOException, WebApplicationException {
+      try {
+        transform(json, output);
+      } catch (Exception e) {
+        final Throwable rootCause = ExceptionUtils.getRootCause(e);
+        logger.error("Error transforming result with XSLT", rootCause == null ? e : rootCause);
+      }
+    }
+  }
+
 }
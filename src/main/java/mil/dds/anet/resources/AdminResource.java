@@ -14,9 +14,13 @@ import javax.ws.rs.core.MediaType;
 import mil.dds.anet.AnetObjectEngine;
 import mil.dds.anet.beans.AdminSetting;
 import mil.dds.anet.beans.Person;
+import mil.dds.anet.beans.StatementStatistics;
+import mil.dds.anet.beans.WorkerHealth;
 import mil.dds.anet.config.AnetConfiguration;
 import mil.dds.anet.database.AdminDao;
+import mil.dds.anet.threads.WorkerScheduler;
 import mil.dds.anet.utils.AnetAuditLogger;
+import mil.dds.anet.utils.AnetDbLogger;
 import mil.dds.anet.utils.AuthUtils;
 import mil.dds.anet.utils.DaoUtils;
 
@@ -25,10 +29,15 @@ public class AdminResource {
 
   private final AdminDao dao;
   private final AnetConfiguration config;
+  private final WorkerScheduler workerScheduler;
+  private final AnetDbLogger dbLogger;
 
-  public AdminResource(AnetObjectEngine engine, AnetConfiguration config) {
+  public AdminResource(AnetObjectEngine engine, AnetConfiguration config,
+      WorkerScheduler workerScheduler, AnetDbLogger dbLogger) {
     this.dao = engine.getAdminDao();
     this.config = config;
+    this.workerScheduler = workerScheduler;
+    this.dbLogger = dbLogger;
   }
 
   @GraphQLQuery(name = "adminSettings")
@@ -49,6 +58,20 @@ public class AdminResource {
     return numRows;
   }
 
+  @GraphQLQuery(name = "workerHealth")
+  public List<WorkerHealth> getWorkerHealth(@GraphQLRootContext Map<String, Object> context) {
+    AuthUtils.assertAdministrator(DaoUtils.getUserFromContext(context));
+    return workerScheduler.getHealth();
+  }
+
+  @GraphQLQuery(name = "topStatements")
+  public List<StatementStatistics> getTopStatements(
+      @GraphQLRootContext Map<String, Object> context,
+      @GraphQLArgument(name = "limit", defaultValue = "20") int limit) {
+    AuthUtils.assertAdministrator(DaoUtils.getUserFromContext(context));
+    return dbLogger.getTopStatements(limit);
+  }
+
   @GET
   @Timed
   @Path("/dictionary")
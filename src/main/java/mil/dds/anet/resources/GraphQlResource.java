@@ -2,11 +2,15 @@ package mil.dds.anet.resources;
 
 import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.annotation.Timed;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import graphql.ExceptionWhileDataFetching;
 import graphql.ExecutionInput;
 import graphql.ExecutionResult;
+import graphql.ExecutionResultImpl;
 import graphql.GraphQL;
 import graphql.GraphQLError;
+import graphql.GraphqlErrorBuilder;
+import graphql.execution.instrumentation.Instrumentation;
 import graphql.schema.GraphQLSchema;
 import io.dropwizard.auth.Auth;
 import io.leangen.graphql.GraphQLSchemaGenerator;
@@ -15,14 +19,17 @@ import io.leangen.graphql.generator.mapping.common.ScalarMapper;
 import io.leangen.graphql.metadata.strategy.DefaultInclusionStrategy;
 import io.leangen.graphql.metadata.strategy.InputFieldInclusionParams;
 import io.leangen.graphql.metadata.strategy.query.AnnotatedResolverBuilder;
+import java.io.IOException;
 import java.lang.invoke.MethodHandles;
 import java.lang.reflect.AnnotatedElement;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.function.Function;
 import javax.ws.rs.GET;
 import javax.ws.rs.POST;
@@ -37,6 +44,9 @@ import javax.ws.rs.core.Response.Status;
 import mil.dds.anet.AnetObjectEngine;
 import mil.dds.anet.beans.Person;
 import mil.dds.anet.config.AnetConfiguration;
+import mil.dds.anet.graphql.CachingPreparsedDocumentProvider;
+import mil.dds.anet.graphql.DataLoaderDispatcher;
+import mil.dds.anet.graphql.DataLoaderDispatcherInstrumentation;
 import mil.dds.anet.graphql.DateTimeMapper;
 import mil.dds.anet.graphql.outputtransformers.JsonToXlsxTransformer;
 import mil.dds.anet.graphql.outputtransformers.JsonToXmlTransformer;
@@ -54,12 +64,21 @@ public class GraphQlResource {
       LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
   private static final String MEDIATYPE_XLSX =
       "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+  // Bounds the parsed document cache by the total length of the cached queries
+  private static final long DOCUMENT_CACHE_MAX_QUERY_CHARS = 2_000_000;
+  private static final String PERSISTED_QUERY_NOT_FOUND = "PersistedQueryNotFound";
 
   private final AnetObjectEngine engine;
   private final List<Object> resources;
   private final MetricRegistry metricRegistry;
+  private final ObjectMapper objectMapper;
+  private final Executor dataLoaderExecutor;
 
-  private GraphQLSchema graphqlSchema;
+  private final Instrumentation dispatcherInstrumentation =
+      new DataLoaderDispatcherInstrumentation();
+
+  private final CachingPreparsedDocumentProvider documentProvider;
+  private GraphQL graphql;
   private final List<ResourceTransformer> resourceTransformers =
       new LinkedList<ResourceTransformer>();
 
@@ -74,21 +93,26 @@ public class GraphQlResource {
     }
   }
 
-  private static final ResourceTransformer jsonTransformer =
-      new ResourceTransformer("json", MediaType.APPLICATION_JSON) {
-        @Override
-        public ResponseBuilder apply(Map<String, Object> json) {
-          return Response.ok(json, this.mediaType);
-        }
-      };
+  private final ResourceTransformer jsonTransformer;
 
   public GraphQlResource(AnetObjectEngine engine, AnetConfiguration config, List<Object> resources,
-      MetricRegistry metricRegistry) {
+      MetricRegistry metricRegistry, ObjectMapper objectMapper, Executor dataLoaderExecutor) {
     this.engine = engine;
     this.resources = resources;
     this.metricRegistry = metricRegistry;
+    this.objectMapper = objectMapper;
+    this.dataLoaderExecutor = dataLoaderExecutor;
+    this.documentProvider = new CachingPreparsedDocumentProvider(
+        MetricRegistry.name(GraphQlResource.class, "DocumentCache"),
+        DOCUMENT_CACHE_MAX_QUERY_CHARS, metricRegistry);
 
-    resourceTransformers.add(GraphQlResource.jsonTransformer);
+    jsonTransformer = new ResourceTransformer("json", MediaType.APPLICATION_JSON) {
+      @Override
+      public ResponseBuilder apply(Map<String, Object> json) {
+        return Response.ok(json, this.mediaType);
+      }
+    };
+    resourceTransformers.add(jsonTransformer);
     resourceTransformers.add(new ResourceTransformer("xml", MediaType.APPLICATION_XML) {
       final JsonToXmlTransformer jsonToXmlTransformer = new JsonToXmlTransformer();
 
@@ -109,26 +133,22 @@ public class GraphQlResource {
     });
 
     resourceTransformers.add(new ResourceTransformer("nvg", MediaType.APPLICATION_XML) {
-      final JsonToXmlTransformer jsonToXmlTransformer = new JsonToXmlTransformer();
       final XsltXmlTransformer xsltXmlTransformer = new XsltXmlTransformer(
           GraphQlResource.class.getResourceAsStream("/stylesheets/nvg.xslt"));
 
       @Override
       public ResponseBuilder apply(final Map<String, Object> json) {
-        return Response.ok(xsltXmlTransformer.apply(jsonToXmlTransformer.apply(json)),
-            this.mediaType);
+        return Response.ok(xsltXmlTransformer.apply(json), this.mediaType);
       }
     });
 
     resourceTransformers.add(new ResourceTransformer("kml", MediaType.APPLICATION_XML) {
-      final JsonToXmlTransformer jsonToXmlTransformer = new JsonToXmlTransformer();
       final XsltXmlTransformer xsltXmlTransformer = new XsltXmlTransformer(
           GraphQlResource.class.getResourceAsStream("/stylesheets/kml.xslt"));
 
       @Override
       public ResponseBuilder apply(final Map<String, Object> json) {
-        return Response.ok(xsltXmlTransformer.apply(jsonToXmlTransformer.apply(json)),
-            this.mediaType);
+        return Response.ok(xsltXmlTransformer.apply(json), this.mediaType);
       }
     });
 
@@ -138,7 +158,8 @@ public class GraphQlResource {
   /**
    * Constructs the GraphQL "Graph" of ANET. 1) Scans all Resources to find methods it can use as
    * graph entry points. These should all be annotated with @GraphQLFetcher 2) For each of the types
-   * that the Resource can return, scans those to find methods annotated with GraphQLFetcher
+   * that the Resource can return, scans those to find methods annotated with GraphQLFetcher 3)
+   * Builds the (thread-safe) GraphQL instance that executes all requests against the graph
    */
   private void buildGraph() {
     final String topPackage = "mil.dds.anet";
@@ -166,7 +187,18 @@ public class GraphQlResource {
       schemaBuilder.withOperationsFromSingleton(resource);
     }
 
-    graphqlSchema = schemaBuilder.generate();
+    final GraphQLSchema graphqlSchema = schemaBuilder.generate();
+    graphql = GraphQL.newGraphQL(graphqlSchema)
+        // Prevent adding graphql-java's own DataLoaderDispatcherInstrumentation
+        // — use our own level-tracking dispatcher instead
+        .doNotAddDefaultInstrumentations().instrumentation(dispatcherInstrumentation)
+        // Skip parsing and validation of queries seen before
+        .preparsedDocumentProvider(documentProvider).build();
+  }
+
+  // For the dispatch benchmark
+  GraphQL getGraphQl() {
+    return graphql;
   }
 
   @POST
@@ -182,21 +214,50 @@ public class GraphQlResource {
       variables = new HashMap<String, Object>();
     }
 
+    @SuppressWarnings("unchecked")
+    final Map<String, Object> extensions = (Map<String, Object>) body.get("extensions");
+
     final String output = (String) body.get("output"); // Non-GraphQL
 
-    return graphql(user, operationName, query, variables, output);
+    return graphql(user, operationName, query, variables, extensions, output);
   }
 
   @GET
   @Timed
   @Produces({MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML, MEDIATYPE_XLSX})
   public Response graphqlGet(@Auth Person user, @QueryParam("operationName") String operationName,
-      @QueryParam("query") String query, @QueryParam("output") String output) {
-    return graphql(user, operationName, query, new HashMap<String, Object>(), output);
+      @QueryParam("query") String query, @QueryParam("extensions") String extensions,
+      @QueryParam("output") String output) {
+    Map<String, Object> extensionsMap = null;
+    if (extensions != null) {
+      try {
+        @SuppressWarnings("unchecked")
+        final Map<String, Object> parsed = objectMapper.readValue(extensions, Map.class);
+        extensionsMap = parsed;
+      } catch (IOException e) {
+        throw new WebApplicationException("invalid extensions", Status.BAD_REQUEST);
+      }
+    }
+    return graphql(user, operationName, query, new HashMap<String, Object>(), extensionsMap,
+        output);
   }
 
   protected Response graphql(@Auth Person user, String operationName, String query,
-      Map<String, Object> variables, String output) {
+      Map<String, Object> variables, Map<String, Object> extensions, String output) {
+    final String queryHash = getPersistedQueryHash(extensions);
+    if (queryHash != null) {
+      if (StringUtils.isEmpty(query)) {
+        // Automatic persisted query: the client sent only the hash
+        query = documentProvider.getPersistedQuery(queryHash);
+        if (query == null) {
+          // Let the client retry with the full query
+          return jsonTransformer.apply(persistedQueryNotFound()).build();
+        }
+      } else if (!queryHash.equals(CachingPreparsedDocumentProvider.getQueryHash(query))) {
+        throw new WebApplicationException("persisted query hash mismatch", Status.BAD_REQUEST);
+      }
+    }
+
     final ExecutionResult executionResult = dispatchRequest(user, operationName, query, variables);
     final Map<String, Object> result = executionResult.toSpecification();
     if (executionResult.getErrors().size() > 0) {
@@ -217,56 +278,52 @@ public class GraphQlResource {
       return Response.status(status).entity(result).build();
     }
 
-    ResourceTransformer transformer = StringUtils.isEmpty(output) ? GraphQlResource.jsonTransformer
+    ResourceTransformer transformer = StringUtils.isEmpty(output) ? jsonTransformer
         : resourceTransformers.stream().filter(t -> t.outputType.equals(output)).findFirst().get();
     return transformer.apply(result).build();
   }
 
+  private static String getPersistedQueryHash(Map<String, Object> extensions) {
+    if (extensions == null) {
+      return null;
+    }
+    final Object persistedQuery = extensions.get("persistedQuery");
+    if (!(persistedQuery instanceof Map)) {
+      return null;
+    }
+    final Object queryHash = ((Map<?, ?>) persistedQuery).get("sha256Hash");
+    return queryHash instanceof String ? (String) queryHash : null;
+  }
+
+  private static Map<String, Object> persistedQueryNotFound() {
+    final GraphQLError error = GraphqlErrorBuilder.newError().message(PERSISTED_QUERY_NOT_FOUND)
+        .extensions(Collections.singletonMap("code", "PERSISTED_QUERY_NOT_FOUND")).build();
+    return new ExecutionResultImpl(error).toSpecification();
+  }
+
   private ExecutionResult dispatchRequest(Person user, String operationName, String query,
       Map<String, Object> variables) {
-    final BatchingUtils batchingUtils = new BatchingUtils(engine, true, true);
+    final BatchingUtils batchingUtils = new BatchingUtils(engine, true, true, dataLoaderExecutor);
     final DataLoaderRegistry dataLoaderRegistry = batchingUtils.getDataLoaderRegistry();
     final Map<String, Object> context = new HashMap<>();
     context.put("user", user);
     context.put("dataLoaderRegistry", dataLoaderRegistry);
+    final DataLoaderDispatcher dispatcher = new DataLoaderDispatcher(dataLoaderRegistry);
+    context.put(DataLoaderDispatcher.CONTEXT_KEY, dispatcher);
     final ExecutionInput executionInput =
         ExecutionInput.newExecutionInput().operationName(operationName).query(query)
             .variables(variables).dataLoaderRegistry(dataLoaderRegistry).context(context).build();
 
-    final GraphQL graphql = GraphQL.newGraphQL(graphqlSchema)
-        // Prevent adding .instrumentation(new DataLoaderDispatcherInstrumentation())
-        // — use our own dispatcher instead
-        .doNotAddDefaultInstrumentations().build();
     final CompletableFuture<ExecutionResult> request = graphql.executeAsync(executionInput);
-    final Runnable dispatcher = () -> {
-      while (!request.isDone()) {
-        // Wait a while, giving other threads the chance to do some work
-        try {
-          Thread.yield();
-          Thread.sleep(50);
-        } catch (InterruptedException ignored) {
-          // just retry
-        }
-
-        // Dispatch all our data loaders until the request is done;
-        // we have data loaders at various depths (one dependent on another),
-        // e.g. in {@link Report#loadWorkflow}
-        final CompletableFuture<?>[] dispatchersWithWork = dataLoaderRegistry.getDataLoaders()
-            .stream().filter(dl -> dl.dispatchDepth() > 0)
-            .map(dl -> (CompletableFuture<?>) dl.dispatch()).toArray(CompletableFuture<?>[]::new);
-        if (dispatchersWithWork.length > 0) {
-          CompletableFuture.allOf(dispatchersWithWork).join();
-        }
-      }
-    };
-    dispatcher.run();
+    dispatcher.dispatchUntilDone(request);
     try {
       return request.get();
     } catch (InterruptedException | ExecutionException e) {
       throw new WebApplicationException("failed to complete graphql request", e);
     } finally {
+      metricRegistry.histogram(MetricRegistry.name(DataLoaderDispatcher.class, "DispatchRounds"))
+          .update(dispatcher.getDispatchRounds());
       batchingUtils.updateStats(metricRegistry, dataLoaderRegistry);
-      batchingUtils.shutdown();
     }
   }
 
@@ -1,5 +1,7 @@
 package mil.dds.anet.resources;
 
+import com.codahale.metrics.annotation.Timed;
+import io.dropwizard.auth.Auth;
 import io.leangen.graphql.annotations.GraphQLArgument;
 import io.leangen.graphql.annotations.GraphQLEnvironment;
 import io.leangen.graphql.annotations.GraphQLMutation;
@@ -9,7 +11,19 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
+import javax.ws.rs.DefaultValue;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
 import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.CacheControl;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.Request;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.ResponseBuilder;
 import javax.ws.rs.core.Response.Status;
 import mil.dds.anet.AnetObjectEngine;
 import mil.dds.anet.beans.Person;
@@ -26,6 +40,7 @@ import mil.dds.anet.utils.AuthUtils;
 import mil.dds.anet.utils.DaoUtils;
 import mil.dds.anet.utils.Utils;
 
+@Path("/api/people")
 public class PersonResource {
 
   private final PersonDao dao;
@@ -48,6 +63,43 @@ public class PersonResource {
     return p;
   }
 
+  /**
+   * Returns a resized avatar of a person as a PNG image. The response has an entity tag, so clients
+   * can revalidate their cached copy with a conditional request.
+   */
+  @GET
+  @Timed
+  @Path("/{uuid}/avatar")
+  @Produces("image/png")
+  public Response getAvatar(@Auth Person user, @PathParam("uuid") String uuid,
+      @QueryParam("size") @DefaultValue("256") int size, @Context Request request) {
+    Person.checkAvatarSize(size);
+    // The stored hash is enough to revalidate, or to find a cached rendition
+    final Person person = dao.getByUuid(uuid);
+    final String avatarHash = (person == null) ? null : person.getAvatarHash();
+    if (avatarHash == null) {
+      throw new WebApplicationException("Avatar not found", Status.NOT_FOUND);
+    }
+    final EntityTag entityTag = new EntityTag(avatarHash + "-" + size);
+    final CacheControl cacheControl = new CacheControl();
+    cacheControl.setPrivate(true);
+    cacheControl.setNoCache(true);
+    final ResponseBuilder notModified = request.evaluatePreconditions(entityTag);
+    if (notModified != null) {
+      return notModified.cacheControl(cacheControl).build();
+    }
+    byte[] rendition = dao.getCachedAvatarRendition(uuid, avatarHash, size);
+    if (rendition == null) {
+      final Person avatarPerson = dao.getAvatar(uuid);
+      rendition = dao.getAvatarRendition(uuid, avatarHash,
+          (avatarPerson == null) ? null : avatarPerson.getAvatar(), size);
+    }
+    if (rendition == null) {
+      throw new WebApplicationException("Invalid avatar", Status.NOT_FOUND);
+    }
+    return Response.ok(rendition).tag(entityTag).cacheControl(cacheControl).build();
+  }
+
   @GraphQLMutation(name = "createPerson")
   public Person createPerson(@GraphQLRootContext Map<String, Object> context,
       @GraphQLArgument(name = "person") Person p) {
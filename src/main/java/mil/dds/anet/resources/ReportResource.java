@@ -1,9 +1,5 @@
 package mil.dds.anet.resources;
 
-import static mil.dds.anet.AnetApplication.FREEMARKER_VERSION;
-
-import freemarker.template.Configuration;
-import freemarker.template.DefaultObjectWrapperBuilder;
 import freemarker.template.Template;
 import io.leangen.graphql.annotations.GraphQLArgument;
 import io.leangen.graphql.annotations.GraphQLEnvironment;
@@ -12,7 +8,6 @@ import io.leangen.graphql.annotations.GraphQLQuery;
 import io.leangen.graphql.annotations.GraphQLRootContext;
 import java.io.StringWriter;
 import java.lang.invoke.MethodHandles;
-import java.nio.charset.StandardCharsets;
 import java.time.DayOfWeek;
 import java.time.Instant;
 import java.time.format.DateTimeFormatter;
@@ -66,6 +61,7 @@ import mil.dds.anet.threads.AnetEmailWorker;
 import mil.dds.anet.utils.AnetAuditLogger;
 import mil.dds.anet.utils.AuthUtils;
 import mil.dds.anet.utils.DaoUtils;
+import mil.dds.anet.utils.FreemarkerUtils;
 import mil.dds.anet.utils.Utils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -778,17 +774,7 @@ public class ReportResource {
     context.put("fields", fields);
 
     try {
-      Configuration freemarkerConfig = new Configuration(FREEMARKER_VERSION);
-      // auto-escape HTML in our .ftlh templates
-      freemarkerConfig.setRecognizeStandardFileExtensions(true);
-      freemarkerConfig
-          .setObjectWrapper(new DefaultObjectWrapperBuilder(FREEMARKER_VERSION).build());
-      freemarkerConfig.loadBuiltInEncodingMap();
-      freemarkerConfig.setDefaultEncoding(StandardCharsets.UTF_8.name());
-      freemarkerConfig.setClassForTemplateLoading(this.getClass(), "/");
-      freemarkerConfig.setAPIBuiltinEnabled(true);
-
-      Template temp = freemarkerConfig.getTemplate(action.getTemplateName());
+      Template temp = FreemarkerUtils.getConfiguration().getTemplate(action.getTemplateName());
       StringWriter writer = new StringWriter();
       temp.process(action.buildContext(context), writer);
 
@@ -55,11 +55,27 @@ public abstract class AbstractAuthorizationGroupSearcher
       qb.addSqlArg("userUuid", DaoUtils.getUuid(query.getUser()));
     }
 
+    addKeysetClause(query);
     addOrderByClauses(qb, query);
   }
 
   protected abstract void addTextQuery(AuthorizationGroupSearchQuery query);
 
+  protected void addKeysetClause(AuthorizationGroupSearchQuery query) {
+    switch (query.getSortBy()) {
+      case CREATED_AT:
+        addKeysetClause(query, "\"authorizationGroups\"", "\"createdAt\"");
+        break;
+      case RECENT:
+        // Not supported
+        break;
+      case NAME:
+      default:
+        addKeysetClause(query, "\"authorizationGroups\"", "name");
+        break;
+    }
+  }
+
   protected void addOrderByClauses(AbstractSearchQueryBuilder<?, ?> qb,
       AuthorizationGroupSearchQuery query) {
     switch (query.getSortBy()) {
@@ -40,11 +40,27 @@ public abstract class AbstractLocationSearcher
       qb.addSqlArg("userUuid", DaoUtils.getUuid(query.getUser()));
     }
 
+    addKeysetClause(query);
     addOrderByClauses(qb, query);
   }
 
   protected abstract void addTextQuery(LocationSearchQuery query);
 
+  protected void addKeysetClause(LocationSearchQuery query) {
+    switch (query.getSortBy()) {
+      case CREATED_AT:
+        addKeysetClause(query, "locations", "\"createdAt\"");
+        break;
+      case RECENT:
+        // Not supported
+        break;
+      case NAME:
+      default:
+        addKeysetClause(query, "locations", "name");
+        break;
+    }
+  }
+
   protected void addOrderByClauses(AbstractSearchQueryBuilder<?, ?> qb, LocationSearchQuery query) {
     switch (query.getSortBy()) {
       case CREATED_AT:
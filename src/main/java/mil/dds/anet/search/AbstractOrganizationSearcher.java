@@ -54,6 +54,7 @@ public abstract class AbstractOrganizationSearcher extends
       addParentOrgUuidQuery(query);
     }
 
+    addKeysetClause(query);
     addOrderByClauses(qb, query);
   }
 
@@ -68,7 +69,7 @@ public abstract class AbstractOrganizationSearcher extends
   protected void addParentOrgUuidQuery(OrganizationSearchQuery query) {
     if (RecurseStrategy.CHILDREN.equals(query.getOrgRecurseStrategy())
         || RecurseStrategy.PARENTS.equals(query.getOrgRecurseStrategy())) {
-      qb.addRecursiveClause(null, "organizations", "\"uuid\"", "parent_orgs", "organizations",
+      qb.addRecursiveClause("organizations", "\"uuid\"", "parent_orgs", "organizations",
           "\"parentOrgUuid\"", "parentOrgUuid", query.getParentOrgUuid(),
           RecurseStrategy.CHILDREN.equals(query.getOrgRecurseStrategy()));
     } else {
@@ -77,6 +78,20 @@ public abstract class AbstractOrganizationSearcher extends
     }
   }
 
+  protected void addKeysetClause(OrganizationSearchQuery query) {
+    switch (query.getSortBy()) {
+      case CREATED_AT:
+        addKeysetClause(query, "organizations", "\"createdAt\"");
+        break;
+      case TYPE:
+        addKeysetClause(query, "organizations", "type");
+        break;
+      default:
+        // Not supported for other sort orders
+        break;
+    }
+  }
+
   protected void addOrderByClauses(AbstractSearchQueryBuilder<?, ?> qb,
       OrganizationSearchQuery query) {
     switch (query.getSortBy()) {
@@ -20,7 +20,9 @@ public abstract class AbstractPersonSearcher extends AbstractSearcher<Person, Pe
 
   private static final Set<String> ALL_FIELDS = Sets.newHashSet(PersonDao.allFields);
   private static final Set<String> MINIMAL_FIELDS = Sets.newHashSet(PersonDao.minimalFields);
-  private static final Map<String, String> FIELD_MAPPING = ImmutableMap.of();
+  // Searches don't load the avatar itself, only its hash (to look up cached renditions)
+  private static final Map<String, String> FIELD_MAPPING =
+      ImmutableMap.of("avatar", "avatarHash");
 
   public AbstractPersonSearcher(AbstractSearchQueryBuilder<Person, PersonSearchQuery> qb) {
     super(qb);
@@ -70,8 +72,8 @@ public abstract class AbstractPersonSearcher extends AbstractSearcher<Person, Pe
     if (query.getOrgUuid() != null) {
       if (RecurseStrategy.CHILDREN.equals(query.getOrgRecurseStrategy())
           || RecurseStrategy.PARENTS.equals(query.getOrgRecurseStrategy())) {
-        qb.addRecursiveClause(null, "positions", "\"organizationUuid\"", "parent_orgs",
-            "organizations", "\"parentOrgUuid\"", "orgUuid", query.getOrgUuid(),
+        qb.addRecursiveClause("positions", "\"organizationUuid\"", "parent_orgs", "organizations",
+            "\"parentOrgUuid\"", "orgUuid", query.getOrgUuid(),
             RecurseStrategy.CHILDREN.equals(query.getOrgRecurseStrategy()));
       } else {
         qb.addEqualsClause("orgUuid", "positions.\"organizationUuid\"", query.getOrgUuid());
@@ -99,11 +101,30 @@ public abstract class AbstractPersonSearcher extends AbstractSearcher<Person, Pe
       qb.addSqlArg("userUuid", DaoUtils.getUuid(query.getUser()));
     }
 
+    addKeysetClause(query);
     addOrderByClauses(qb, query);
   }
 
   protected abstract void addTextQuery(PersonSearchQuery query);
 
+  protected void addKeysetClause(PersonSearchQuery query) {
+    switch (query.getSortBy()) {
+      case CREATED_AT:
+        addKeysetClause(query, "people", "\"createdAt\"");
+        break;
+      case RANK:
+        addKeysetClause(query, "people", "rank");
+        break;
+      case RECENT:
+        // Not supported
+        break;
+      case NAME:
+      default:
+        addKeysetClause(query, "people", "name");
+        break;
+    }
+  }
+
   protected void addOrderByClauses(AbstractSearchQueryBuilder<?, ?> qb, PersonSearchQuery query) {
     switch (query.getSortBy()) {
       case CREATED_AT:
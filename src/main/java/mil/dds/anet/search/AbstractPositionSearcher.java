@@ -47,8 +47,8 @@ public abstract class AbstractPositionSearcher
     if (query.getOrganizationUuid() != null) {
       if (RecurseStrategy.CHILDREN.equals(query.getOrgRecurseStrategy())
           || RecurseStrategy.PARENTS.equals(query.getOrgRecurseStrategy())) {
-        qb.addRecursiveClause(null, "positions", "\"organizationUuid\"", "parent_orgs",
-            "organizations", "\"parentOrgUuid\"", "orgUuid", query.getOrganizationUuid(),
+        qb.addRecursiveClause("positions", "\"organizationUuid\"", "parent_orgs", "organizations",
+            "\"parentOrgUuid\"", "orgUuid", query.getOrganizationUuid(),
             RecurseStrategy.CHILDREN.equals(query.getOrgRecurseStrategy()));
       } else {
         qb.addEqualsClause("orgUuid", "positions.\"organizationUuid\"",
@@ -75,6 +75,7 @@ public abstract class AbstractPositionSearcher
       qb.addSqlArg("authorizationGroupUuid", query.getAuthorizationGroupUuid());
     }
 
+    addKeysetClause(query);
     addOrderByClauses(qb, query);
   }
 
@@ -85,6 +86,21 @@ public abstract class AbstractPositionSearcher
     qb.addBatchClause((AbstractBatchParams<Position, PositionSearchQuery>) query.getBatchParams());
   }
 
+  protected void addKeysetClause(PositionSearchQuery query) {
+    switch (query.getSortBy()) {
+      case CREATED_AT:
+        addKeysetClause(query, "positions", "\"createdAt\"");
+        break;
+      case CODE:
+        addKeysetClause(query, "positions", "code");
+        break;
+      case NAME:
+      default:
+        addKeysetClause(query, "positions", "name");
+        break;
+    }
+  }
+
   protected void addOrderByClauses(AbstractSearchQueryBuilder<?, ?> qb, PositionSearchQuery query) {
     switch (query.getSortBy()) {
       case CREATED_AT:
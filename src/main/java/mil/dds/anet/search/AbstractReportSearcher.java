@@ -5,11 +5,9 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Sets;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.CompletableFuture;
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Response.Status;
 import mil.dds.anet.AnetObjectEngine;
@@ -19,12 +17,12 @@ import mil.dds.anet.beans.Report;
 import mil.dds.anet.beans.Report.ReportCancelledReason;
 import mil.dds.anet.beans.Report.ReportState;
 import mil.dds.anet.beans.Task;
-import mil.dds.anet.beans.lists.AnetBeanList;
 import mil.dds.anet.beans.search.AbstractBatchParams;
 import mil.dds.anet.beans.search.ISearchQuery.RecurseStrategy;
 import mil.dds.anet.beans.search.ISearchQuery.SortOrder;
 import mil.dds.anet.beans.search.ReportSearchQuery;
 import mil.dds.anet.beans.search.ReportSearchQuery.EngagementStatus;
+import mil.dds.anet.database.OrganizationDao;
 import mil.dds.anet.database.PositionDao;
 import mil.dds.anet.database.ReportDao;
 import mil.dds.anet.search.AbstractSearchQueryBuilder.Comparison;
@@ -45,35 +43,6 @@ public abstract class AbstractReportSearcher extends AbstractSearcher<Report, Re
     super(qb);
   }
 
-  protected CompletableFuture<AnetBeanList<Report>> postProcessResults(Map<String, Object> context,
-      ReportSearchQuery query, AnetBeanList<Report> result) {
-    if (query.getPendingApprovalOf() == null) {
-      return CompletableFuture.completedFuture(result);
-    }
-    // Post-process results to filter out the reports that can't be approved
-    final AnetObjectEngine engine = AnetObjectEngine.getInstance();
-    final List<Report> list = result.getList();
-    @SuppressWarnings({"unchecked"})
-    final CompletableFuture<Boolean>[] allReports = (CompletableFuture<Boolean>[]) list.stream()
-        .map(r -> (r.getApprovalStepUuid() == null || r.getAdvisorOrgUuid() == null)
-            ? CompletableFuture.completedFuture(false)
-            : engine.canUserApproveStep(context, query.getPendingApprovalOf(),
-                r.getApprovalStepUuid(), r.getAdvisorOrgUuid()))
-        .toArray(CompletableFuture<?>[]::new);
-    return CompletableFuture.allOf(allReports).thenCompose(v -> {
-
-      final Iterator<Report> iterator = list.iterator();
-      for (final CompletableFuture<Boolean> cf : allReports) {
-        iterator.next();
-        if (!cf.join()) {
-          iterator.remove();
-        }
-      }
-      result.setTotalCount(list.size());
-      return CompletableFuture.completedFuture(result);
-    });
-  }
-
   @Override
   protected void buildQuery(ReportSearchQuery query) {
     throw new UnsupportedOperationException();
@@ -162,11 +131,7 @@ public abstract class AbstractReportSearcher extends AbstractSearcher<Report, Re
     }
 
     if (query.getPendingApprovalOf() != null) {
-      qb.addWhereClause("reports.\"authorUuid\" != :approverUuid");
-      qb.addWhereClause("reports.\"approvalStepUuid\" IN"
-          + " (SELECT \"approvalStepUuid\" FROM approvers WHERE \"positionUuid\" IN"
-          + " (SELECT uuid FROM positions WHERE \"currentPersonUuid\" = :approverUuid))");
-      qb.addSqlArg("approverUuid", query.getPendingApprovalOf());
+      addPendingApprovalOfQuery(query);
     }
 
     qb.addInClause("states", "reports.state", query.getState());
@@ -272,9 +237,37 @@ public abstract class AbstractReportSearcher extends AbstractSearcher<Report, Re
       }
     }
 
+    addKeysetClause(query);
     addOrderByClauses(qb, query);
   }
 
+  /**
+   * Only include reports the user can approve (the same rules as
+   * {@link AnetObjectEngine#canUserApproveStep}): the user must hold one of the approver positions
+   * of the report's current step, and if that step has restricted approval, one of the tasked
+   * organizations of the step's task must be an ascendant of both the report's advisor
+   * organization and the approver's organization.
+   */
+  protected void addPendingApprovalOfQuery(ReportSearchQuery query) {
+    final String ancestors = OrganizationDao.ANCESTORS_TABLE_NAME;
+    qb.addWhereClause("reports.\"authorUuid\" != :approverUuid");
+    qb.addWhereClause("reports.\"advisorOrganizationUuid\" IS NOT NULL");
+    qb.addWhereClause("EXISTS (SELECT approvers.\"positionUuid\" FROM approvers"
+        + " JOIN positions ON positions.uuid = approvers.\"positionUuid\""
+        + " JOIN \"approvalSteps\" ON \"approvalSteps\".uuid = approvers.\"approvalStepUuid\""
+        + " WHERE approvers.\"approvalStepUuid\" = reports.\"approvalStepUuid\""
+        + " AND positions.\"currentPersonUuid\" = :approverUuid"
+        + " AND (\"approvalSteps\".\"restrictedApproval\" = :unrestrictedApproval"
+        + " OR EXISTS (SELECT tto.\"organizationUuid\" FROM \"taskTaskedOrganizations\" tto"
+        + " JOIN " + ancestors + " ra ON ra.\"ancestorUuid\" = tto.\"organizationUuid\""
+        + " JOIN " + ancestors + " pa ON pa.\"ancestorUuid\" = tto.\"organizationUuid\""
+        + " WHERE tto.\"taskUuid\" = \"approvalSteps\".\"relatedObjectUuid\""
+        + " AND ra.\"descendantUuid\" = reports.\"advisorOrganizationUuid\""
+        + " AND pa.\"descendantUuid\" = positions.\"organizationUuid\")))");
+    qb.addSqlArg("approverUuid", query.getPendingApprovalOf());
+    qb.addSqlArg("unrestrictedApproval", false);
+  }
+
   protected abstract void addTextQuery(ReportSearchQuery query);
 
   protected abstract void addBatchClause(ReportSearchQuery query);
@@ -290,13 +283,10 @@ public abstract class AbstractReportSearcher extends AbstractSearcher<Report, Re
 
   protected abstract void addEngagementDayOfWeekQuery(ReportSearchQuery query);
 
-  protected abstract void addOrgUuidQuery(ReportSearchQuery query);
-
-  protected void addOrgUuidQuery(AbstractSearchQueryBuilder<Report, ReportSearchQuery> outerQb,
-      ReportSearchQuery query) {
+  protected void addOrgUuidQuery(ReportSearchQuery query) {
     if (RecurseStrategy.CHILDREN.equals(query.getOrgRecurseStrategy())
         || RecurseStrategy.PARENTS.equals(query.getOrgRecurseStrategy())) {
-      qb.addRecursiveClause(outerQb, "reports",
+      qb.addRecursiveClause("reports",
           new String[] {"\"advisorOrganizationUuid\"", "\"principalOrganizationUuid\""},
           "parent_orgs", "organizations", "\"parentOrgUuid\"", "orgUuid", query.getOrgUuid(),
           RecurseStrategy.CHILDREN.equals(query.getOrgRecurseStrategy()));
@@ -307,38 +297,50 @@ public abstract class AbstractReportSearcher extends AbstractSearcher<Report, Re
     }
   }
 
-  protected abstract void addAdvisorOrgUuidQuery(ReportSearchQuery query);
-
-  protected void addAdvisorOrgUuidQuery(
-      AbstractSearchQueryBuilder<Report, ReportSearchQuery> outerQb, ReportSearchQuery query) {
+  protected void addAdvisorOrgUuidQuery(ReportSearchQuery query) {
     if (Organization.DUMMY_ORG_UUID.equals(query.getAdvisorOrgUuid())) {
       qb.addWhereClause("reports.\"advisorOrganizationUuid\" IS NULL");
     } else if (!query.getIncludeAdvisorOrgChildren()) {
       qb.addEqualsClause("advisorOrganizationUuid", "reports.\"advisorOrganizationUuid\"",
           query.getAdvisorOrgUuid());
     } else {
-      qb.addRecursiveClause(outerQb, "reports", "\"advisorOrganizationUuid\"",
-          "advisor_parent_orgs", "organizations", "\"parentOrgUuid\"", "advisorOrganizationUuid",
+      qb.addRecursiveClause("reports", "\"advisorOrganizationUuid\"", "advisor_parent_orgs",
+          "organizations", "\"parentOrgUuid\"", "advisorOrganizationUuid",
           query.getAdvisorOrgUuid(), true);
     }
   }
 
-  protected abstract void addPrincipalOrgUuidQuery(ReportSearchQuery query);
-
-  protected void addPrincipalOrgUuidQuery(
-      AbstractSearchQueryBuilder<Report, ReportSearchQuery> outerQb, ReportSearchQuery query) {
+  protected void addPrincipalOrgUuidQuery(ReportSearchQuery query) {
     if (Organization.DUMMY_ORG_UUID.equals(query.getPrincipalOrgUuid())) {
       qb.addWhereClause("reports.\"principalOrganizationUuid\" IS NULL");
     } else if (!query.getIncludePrincipalOrgChildren()) {
       qb.addEqualsClause("principalOrganizationUuid", "reports.\"principalOrganizationUuid\"",
           query.getPrincipalOrgUuid());
     } else {
-      qb.addRecursiveClause(outerQb, "reports", "\"principalOrganizationUuid\"",
+      qb.addRecursiveClause("reports", "\"principalOrganizationUuid\"",
           "principal_parent_orgs", "organizations", "\"parentOrgUuid\"",
           "principalOrganizationUuid", query.getPrincipalOrgUuid(), true);
     }
   }
 
+  protected void addKeysetClause(ReportSearchQuery query) {
+    switch (query.getSortBy()) {
+      case CREATED_AT:
+        addKeysetClause(query, "reports", "\"createdAt\"");
+        break;
+      case RELEASED_AT:
+        addKeysetClause(query, "reports", "\"releasedAt\"");
+        break;
+      case UPDATED_AT:
+        addKeysetClause(query, "reports", "\"updatedAt\"");
+        break;
+      case ENGAGEMENT_DATE:
+      default:
+        addKeysetClause(query, "reports", "\"engagementDate\"");
+        break;
+    }
+  }
+
   protected void addOrderByClauses(AbstractSearchQueryBuilder<?, ?> qb, ReportSearchQuery query) {
     // Beware of the sort field names, they have to match what's in the selected fields of the inner
     // query!
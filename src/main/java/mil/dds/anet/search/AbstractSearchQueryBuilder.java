@@ -1,6 +1,7 @@
 package mil.dds.anet.search;
 
 import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableMap;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -9,10 +10,15 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Response.Status;
 import mil.dds.anet.beans.lists.AnetBeanList;
 import mil.dds.anet.beans.search.AbstractBatchParams;
 import mil.dds.anet.beans.search.AbstractSearchQuery;
 import mil.dds.anet.beans.search.ISearchQuery.RecurseStrategy;
+import mil.dds.anet.beans.search.ISearchQuery.SortOrder;
+import mil.dds.anet.database.OrganizationDao;
+import mil.dds.anet.database.TaskDao;
 import mil.dds.anet.utils.DaoUtils;
 import mil.dds.anet.utils.Utils;
 import mil.dds.anet.views.AbstractAnetBean;
@@ -35,6 +41,13 @@ public abstract class AbstractSearchQueryBuilder<B extends AbstractAnetBean, T e
     }
   }
 
+  private static final String ANCESTOR_UUID = "\"ancestorUuid\"";
+  private static final String DESCENDANT_UUID = "\"descendantUuid\"";
+  // Closure tables, by recursive table and foreign key, used instead of recursive queries
+  private static final Map<String, String> ANCESTORS_TABLES = ImmutableMap.of(
+      OrganizationDao.TABLE_NAME + ".\"parentOrgUuid\"", OrganizationDao.ANCESTORS_TABLE_NAME,
+      TaskDao.TABLE_NAME + ".\"customFieldRef1Uuid\"", TaskDao.ANCESTORS_TABLE_NAME);
+
   protected final StringBuilder sql;
   protected final Map<String, Object> sqlArgs;
   protected final Map<String, List<?>> listArgs;
@@ -47,6 +60,9 @@ public abstract class AbstractSearchQueryBuilder<B extends AbstractAnetBean, T e
   private final List<String> whereClauses;
   private final List<String> groupByClauses;
   private final List<String> orderByClauses;
+  private boolean totalCount;
+  private boolean includeTotalCount = true;
+  private boolean keysetPagination;
 
   public AbstractSearchQueryBuilder(String queryName, String likeKeyword) {
     sql = new StringBuilder(String.format("/* %s */ ", queryName));
@@ -96,7 +112,8 @@ public abstract class AbstractSearchQueryBuilder<B extends AbstractAnetBean, T e
   }
 
   public void addTotalCount() {
-    addSelectClause("COUNT(*) OVER() AS \"totalCount\"");
+    // Added when building, unless the search query doesn't want it
+    totalCount = true;
   }
 
   public void addFromClause(String clause) {
@@ -222,67 +239,107 @@ public abstract class AbstractSearchQueryBuilder<B extends AbstractAnetBean, T e
     }
   }
 
-  public final void addRecursiveClause(AbstractSearchQueryBuilder<B, T> outerQb, String tableName,
-      String foreignKey, String withTableName, String recursiveTableName,
-      String recursiveForeignKey, String paramName, String fieldValue, boolean findChildren) {
-    addRecursiveClause(outerQb, tableName, new String[] {foreignKey}, withTableName,
-        recursiveTableName, recursiveForeignKey, paramName, Collections.singletonList(fieldValue),
-        findChildren);
+  public final void addRecursiveClause(String tableName, String foreignKey, String withTableName,
+      String recursiveTableName, String recursiveForeignKey, String paramName, String fieldValue,
+      boolean findChildren) {
+    addRecursiveClause(tableName, new String[] {foreignKey}, withTableName, recursiveTableName,
+        recursiveForeignKey, paramName, Collections.singletonList(fieldValue), findChildren);
   }
 
-  public final void addRecursiveClause(AbstractSearchQueryBuilder<B, T> outerQb, String tableName,
-      String[] foreignKeys, String withTableName, String recursiveTableName,
-      String recursiveForeignKey, String paramName, String fieldValue, boolean findChildren) {
-    addRecursiveClause(outerQb, tableName, foreignKeys, withTableName, recursiveTableName,
+  public final void addRecursiveClause(String tableName, String[] foreignKeys,
+      String withTableName, String recursiveTableName, String recursiveForeignKey,
+      String paramName, String fieldValue, boolean findChildren) {
+    addRecursiveClause(tableName, foreignKeys, withTableName, recursiveTableName,
         recursiveForeignKey, paramName, Collections.singletonList(fieldValue), findChildren);
   }
 
-  public final void addRecursiveClause(AbstractSearchQueryBuilder<B, T> outerQb, String tableName,
-      String foreignKey, String withTableName, String recursiveTableName,
-      String recursiveForeignKey, String paramName, List<String> fieldValues,
-      boolean findChildren) {
-    addRecursiveClause(outerQb, tableName, new String[] {foreignKey}, withTableName,
-        recursiveTableName, recursiveForeignKey, paramName, fieldValues, findChildren);
+  public final void addRecursiveClause(String tableName, String foreignKey, String withTableName,
+      String recursiveTableName, String recursiveForeignKey, String paramName,
+      List<String> fieldValues, boolean findChildren) {
+    addRecursiveClause(tableName, new String[] {foreignKey}, withTableName, recursiveTableName,
+        recursiveForeignKey, paramName, fieldValues, findChildren);
   }
 
-  public final void addRecursiveBatchClause(AbstractSearchQueryBuilder<B, T> outerQb,
-      String tableName, String[] foreignKeys, String withTableName, String recursiveTableName,
-      String recursiveForeignKey, String paramName, List<String> fieldValues,
-      RecurseStrategy recurseStrategy) {
+  public final void addRecursiveBatchClause(String tableName, String[] foreignKeys,
+      String withTableName, String recursiveTableName, String recursiveForeignKey,
+      String paramName, List<String> fieldValues, RecurseStrategy recurseStrategy) {
     final boolean findChildren = RecurseStrategy.CHILDREN.equals(recurseStrategy);
-    addRecursiveClause(outerQb, tableName, foreignKeys, withTableName, recursiveTableName,
+    addRecursiveClause(tableName, foreignKeys, withTableName, recursiveTableName,
         recursiveForeignKey, paramName, fieldValues, findChildren);
     addSelectClause(String.format("%1$s.%2$s AS \"batchUuid\"", withTableName,
-        findChildren ? "parent_uuid" : "uuid"));
+        findChildren ? ANCESTOR_UUID : DESCENDANT_UUID));
   }
 
-  private final void addRecursiveClause(AbstractSearchQueryBuilder<B, T> outerQb, String tableName,
-      String[] foreignKeys, String withTableName, String recursiveTableName,
-      String recursiveForeignKey, String paramName, List<String> fieldValues,
-      boolean findChildren) {
-    createWithClause(outerQb, withTableName, recursiveTableName, recursiveForeignKey);
+  private final void addRecursiveClause(String tableName, String[] foreignKeys,
+      String withTableName, String recursiveTableName, String recursiveForeignKey,
+      String paramName, List<String> fieldValues, boolean findChildren) {
+    addAdditionalFromClause(String.format("%1$s %2$s",
+        getAncestorsTableName(recursiveTableName, recursiveForeignKey), withTableName));
     final List<String> orClauses = new ArrayList<>();
     for (final String foreignKey : foreignKeys) {
       orClauses.add(String.format("%1$s.%2$s = %3$s.%4$s", tableName, foreignKey, withTableName,
-          findChildren ? "uuid" : "parent_uuid"));
+          findChildren ? DESCENDANT_UUID : ANCESTOR_UUID));
     }
     addWhereClause(
         String.format("( (%1$s) AND %2$s.%3$s IN ( <%4$s> ) )", Joiner.on(" OR ").join(orClauses),
-            withTableName, findChildren ? "parent_uuid" : "uuid", paramName));
+            withTableName, findChildren ? ANCESTOR_UUID : DESCENDANT_UUID, paramName));
     addListArg(paramName, fieldValues);
   }
 
-  private void createWithClause(AbstractSearchQueryBuilder<B, T> outerQb, String withTableName,
-      String recursiveTableName, String recursiveForeignKey) {
-    if (outerQb == null) {
-      outerQb = this;
+  private static String getAncestorsTableName(String recursiveTableName,
+      String recursiveForeignKey) {
+    final String ancestorsTableName =
+        ANCESTORS_TABLES.get(recursiveTableName + "." + recursiveForeignKey);
+    if (ancestorsTableName == null) {
+      throw new IllegalArgumentException(String.format("No ancestors table for %1$s.%2$s",
+          recursiveTableName, recursiveForeignKey));
+    }
+    return ancestorsTableName;
+  }
+
+  /**
+   * Enable keyset pagination for a search ordered by the given column and then by uuid: results
+   * get a cursor for the next page, and if the search query has such a cursor, only the results
+   * following it are selected.
+   *
+   * @param tableName the table that is searched
+   * @param column the column the results are ordered by (before the uuid)
+   * @param sortOrder the sort order of the column (the uuid is always ascending)
+   * @param afterUuid the uuid of the last result of the previous page, or null for the first page
+   */
+  public final void addKeysetClause(String tableName, String column, SortOrder sortOrder,
+      String afterUuid) {
+    keysetPagination = true;
+    if (afterUuid == null) {
+      return;
     }
-    outerQb.addWithClause(String.format(
-        "%1$s(uuid, parent_uuid) AS (SELECT uuid, uuid as parent_uuid FROM %2$s UNION ALL"
-            + " SELECT pt.uuid, bt.%3$s FROM %2$s bt INNER JOIN"
-            + " %1$s pt ON bt.uuid = pt.parent_uuid)",
-        withTableName, recursiveTableName, recursiveForeignKey));
-    addAdditionalFromClause(withTableName);
+    final String value = String.format("%1$s.%2$s", tableName, column);
+    final String afterValue = String.format("(SELECT k.%2$s FROM %1$s k WHERE k.uuid = :afterUuid)",
+        tableName, column);
+    final String afterUuidClause = String.format("%1$s.uuid > :afterUuid", tableName);
+    final String op = (sortOrder == SortOrder.DESC) ? "<" : ">";
+    if ((sortOrder == SortOrder.DESC) == nullsAreSortedHigh()) {
+      // NULL values come first
+      whereClauses.add(String.format(
+          "((%2$s IS NOT NULL AND (%1$s %3$s %2$s OR (%1$s = %2$s AND %4$s)))"
+              + " OR (%2$s IS NULL AND (%1$s IS NOT NULL OR %4$s)))",
+          value, afterValue, op, afterUuidClause));
+    } else {
+      // NULL values come last
+      whereClauses.add(String.format(
+          "((%2$s IS NOT NULL AND (%1$s %3$s %2$s OR %1$s IS NULL OR (%1$s = %2$s AND %4$s)))"
+              + " OR (%2$s IS NULL AND %1$s IS NULL AND %4$s))",
+          value, afterValue, op, afterUuidClause));
+    }
+    sqlArgs.put("afterUuid", afterUuid);
+  }
+
+  public boolean isKeysetPagination() {
+    return keysetPagination;
+  }
+
+  public void setKeysetPagination(boolean keysetPagination) {
+    this.keysetPagination = keysetPagination;
   }
 
   private final String getLikeClause(String fieldName, String paramName) {
@@ -301,8 +358,21 @@ public abstract class AbstractSearchQueryBuilder<B extends AbstractAnetBean, T e
   }
 
   public AnetBeanList<B> buildAndRun(Handle handle, T query, RowMapper<B> mapper) {
+    if (query.getAfter() != null && !keysetPagination) {
+      throw new WebApplicationException("Cursor not supported for this search order",
+          Status.BAD_REQUEST);
+    }
+    includeTotalCount = query.getIncludeTotalCount();
     build();
-    return getResult(handle, query, mapper);
+    final AnetBeanList<B> result = getResult(handle, query, mapper);
+    if (!includeTotalCount) {
+      result.setTotalCount(null);
+    }
+    final List<B> list = result.getList();
+    if (keysetPagination && query.getPageSize() > 0 && list.size() == query.getPageSize()) {
+      result.setNextCursor(SearchCursor.encode(query, list.get(list.size() - 1).getUuid()));
+    }
+    return result;
   }
 
   protected void addWithClauses() {
@@ -313,6 +383,9 @@ public abstract class AbstractSearchQueryBuilder<B extends AbstractAnetBean, T e
   }
 
   protected void addSelectClauses() {
+    if (totalCount && includeTotalCount) {
+      addSelectClause("COUNT(*) OVER() AS \"totalCount\"");
+    }
     if (!selectClauses.isEmpty()) {
       sql.append(" SELECT ");
       sql.append(Joiner.on(", ").join(selectClauses));
@@ -361,6 +434,11 @@ public abstract class AbstractSearchQueryBuilder<B extends AbstractAnetBean, T e
     return text.trim().replaceAll("[\"*]", "");
   }
 
+  /**
+   * Whether the database sorts NULL values as if they are larger than any non-NULL value.
+   */
+  protected abstract boolean nullsAreSortedHigh();
+
   protected abstract AnetBeanList<B> getResult(Handle handle, T query, RowMapper<B> mapper);
 
 }
@@ -9,6 +9,8 @@ import java.util.Set;
 import java.util.stream.Collectors;
 import javax.inject.Inject;
 import javax.inject.Provider;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Response.Status;
 import mil.dds.anet.beans.search.AbstractSearchQuery;
 import mil.dds.anet.beans.search.ISearchQuery.SortOrder;
 import mil.dds.anet.utils.DaoUtils;
@@ -80,6 +82,37 @@ public abstract class AbstractSearcher<B extends AbstractAnetBean, T extends Abs
     }
   }
 
+  /**
+   * Enable keyset pagination for results ordered by the given column and then by uuid; searches
+   * without an explicit sort order on a full-text query are ordered by rank first, so they don't
+   * support it.
+   *
+   * @param query the search query
+   * @param tableName the table that is searched
+   * @param column the column the results are ordered by
+   * @throws WebApplicationException if the cursor points at a result that no longer exists
+   */
+  protected void addKeysetClause(T query, String tableName, String column) {
+    if (!query.isTextPresent() || query.isSortByPresent()) {
+      final String afterUuid = (query.getAfter() == null) ? null : SearchCursor.decode(query);
+      // The position of the next page is looked up from the last result of the previous one,
+      // so without it there is no way to tell where to continue
+      if (afterUuid != null && !exists(tableName, afterUuid)) {
+        throw new WebApplicationException(
+            "Cursor points at a result that no longer exists, restart from the first page",
+            Status.BAD_REQUEST);
+      }
+      qb.addKeysetClause(tableName, column, query.getSortOrder(), afterUuid);
+    }
+  }
+
+  private boolean exists(String tableName, String uuid) {
+    return getDbHandle()
+        .createQuery(String.format(
+            "/* keysetCursorExists */ SELECT COUNT(*) FROM %1$s WHERE uuid = :uuid", tableName))
+        .bind("uuid", uuid).mapTo(Integer.class).one() > 0;
+  }
+
   protected List<String> getOrderBy(SortOrder sortOrder, String table, String... columns) {
     final List<String> clauses = new ArrayList<>();
     for (final String column : columns) {
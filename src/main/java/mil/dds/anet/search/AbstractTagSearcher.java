@@ -31,11 +31,24 @@ public abstract class AbstractTagSearcher extends AbstractSearcher<Tag, TagSearc
       addTextQuery(query);
     }
 
+    addKeysetClause(query);
     addOrderByClauses(qb, query);
   }
 
   protected abstract void addTextQuery(TagSearchQuery query);
 
+  protected void addKeysetClause(TagSearchQuery query) {
+    switch (query.getSortBy()) {
+      case CREATED_AT:
+        addKeysetClause(query, "tags", "\"createdAt\"");
+        break;
+      case NAME:
+      default:
+        addKeysetClause(query, "tags", "name");
+        break;
+    }
+  }
+
   protected void addOrderByClauses(AbstractSearchQueryBuilder<?, ?> qb, TagSearchQuery query) {
     switch (query.getSortBy()) {
       case CREATED_AT:
@@ -76,6 +76,7 @@ public abstract class AbstractTaskSearcher extends AbstractSearcher<Task, TaskSe
       qb.addSqlArg("userUuid", DaoUtils.getUuid(query.getUser()));
     }
 
+    addKeysetClause(query);
     addOrderByClauses(qb, query);
   }
 
@@ -92,7 +93,7 @@ public abstract class AbstractTaskSearcher extends AbstractSearcher<Task, TaskSe
 
     if (RecurseStrategy.CHILDREN.equals(query.getOrgRecurseStrategy())
         || RecurseStrategy.PARENTS.equals(query.getOrgRecurseStrategy())) {
-      qb.addRecursiveClause(null, "\"taskTaskedOrganizations\"", "\"organizationUuid\"",
+      qb.addRecursiveClause("\"taskTaskedOrganizations\"", "\"organizationUuid\"",
           "parent_orgs", "organizations", "\"parentOrgUuid\"", "orgUuid", query.getTaskedOrgUuid(),
           RecurseStrategy.CHILDREN.equals(query.getOrgRecurseStrategy()));
     } else {
@@ -103,7 +104,7 @@ public abstract class AbstractTaskSearcher extends AbstractSearcher<Task, TaskSe
 
   protected void addCustomFieldRef1UuidQuery(TaskSearchQuery query) {
     if (query.getCustomFieldRef1Recursively()) {
-      qb.addRecursiveClause(null, "tasks", "\"customFieldRef1Uuid\"", "parent_tasks", "tasks",
+      qb.addRecursiveClause("tasks", "\"customFieldRef1Uuid\"", "parent_tasks", "tasks",
           "\"customFieldRef1Uuid\"", "customFieldRef1Uuid", query.getCustomFieldRef1Uuid(), true);
     } else {
       qb.addInListClause("customFieldRef1Uuid", "tasks.\"customFieldRef1Uuid\"",
@@ -111,6 +112,24 @@ public abstract class AbstractTaskSearcher extends AbstractSearcher<Task, TaskSe
     }
   }
 
+  protected void addKeysetClause(TaskSearchQuery query) {
+    switch (query.getSortBy()) {
+      case CREATED_AT:
+        addKeysetClause(query, "tasks", "\"createdAt\"");
+        break;
+      case CATEGORY:
+        addKeysetClause(query, "tasks", "category");
+        break;
+      case RECENT:
+        // Not supported
+        break;
+      case NAME:
+      default:
+        addKeysetClause(query, "tasks", "\"shortName\"");
+        break;
+    }
+  }
+
   protected void addOrderByClauses(AbstractSearchQueryBuilder<?, ?> qb, TaskSearchQuery query) {
     switch (query.getSortBy()) {
       case CREATED_AT:
@@ -0,0 +1,58 @@
+package mil.dds.anet.search;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Response.Status;
+import mil.dds.anet.beans.search.AbstractSearchQuery;
+
+/**
+ * Opaque cursor for keyset pagination. It encodes the sort key and sort order of the search, and
+ * the uuid of the last result; the sort column values of that result are looked up when the next
+ * page is searched, so they don't need to be serialized.
+ */
+public final class SearchCursor {
+
+  private static final String SEPARATOR = ":";
+
+  private SearchCursor() {}
+
+  /**
+   * Create a cursor pointing after a result.
+   *
+   * @param query the search query
+   * @param uuid the uuid of the last result of the page
+   * @return the opaque cursor
+   */
+  public static String encode(AbstractSearchQuery<?> query, String uuid) {
+    final String cursor = getSortKey(query) + SEPARATOR + uuid;
+    return Base64.getUrlEncoder().withoutPadding()
+        .encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Get the uuid from the cursor of a search query.
+   *
+   * @param query the search query, must have a cursor
+   * @return the uuid of the last result of the previous page
+   * @throws WebApplicationException if the cursor is invalid or for a different sort order
+   */
+  public static String decode(AbstractSearchQuery<?> query) {
+    final String cursor;
+    try {
+      cursor = new String(Base64.getUrlDecoder().decode(query.getAfter()), StandardCharsets.UTF_8);
+    } catch (IllegalArgumentException e) {
+      throw new WebApplicationException("Invalid cursor", Status.BAD_REQUEST);
+    }
+    final String sortKey = getSortKey(query) + SEPARATOR;
+    if (!cursor.startsWith(sortKey) || cursor.length() == sortKey.length()) {
+      throw new WebApplicationException("Cursor does not match the search", Status.BAD_REQUEST);
+    }
+    return cursor.substring(sortKey.length());
+  }
+
+  private static String getSortKey(AbstractSearchQuery<?> query) {
+    return query.getSortBy() + SEPARATOR + query.getSortOrder();
+  }
+
+}
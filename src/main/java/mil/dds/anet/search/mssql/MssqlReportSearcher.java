@@ -31,9 +31,10 @@ public class MssqlReportSearcher extends AbstractReportSearcher {
     outerQb.addFromClause("( " + qb.build() + " ) l");
     outerQb.addSqlArgs(qb.getSqlArgs());
     outerQb.addListArgs(qb.getListArgs());
+    outerQb.setKeysetPagination(qb.isKeysetPagination());
     addOrderByClauses((AbstractSearchQueryBuilder<Report, ReportSearchQuery>) outerQb, query);
-    return postProcessResults(context, query,
-        (outerQb).buildAndRun(getDbHandle(), query, new ReportMapper()));
+    return CompletableFuture
+        .completedFuture(outerQb.buildAndRun(getDbHandle(), query, new ReportMapper()));
   }
 
   @Override
@@ -87,21 +88,6 @@ public class MssqlReportSearcher extends AbstractReportSearcher {
         query.getEngagementDayOfWeek());
   }
 
-  @Override
-  protected void addOrgUuidQuery(ReportSearchQuery query) {
-    addOrgUuidQuery(outerQb, query);
-  }
-
-  @Override
-  protected void addAdvisorOrgUuidQuery(ReportSearchQuery query) {
-    addAdvisorOrgUuidQuery(outerQb, query);
-  }
-
-  @Override
-  protected void addPrincipalOrgUuidQuery(ReportSearchQuery query) {
-    addPrincipalOrgUuidQuery(outerQb, query);
-  }
-
   @Override
   protected void addOrderByClauses(AbstractSearchQueryBuilder<?, ?> qb, ReportSearchQuery query) {
     if (qb == outerQb) {
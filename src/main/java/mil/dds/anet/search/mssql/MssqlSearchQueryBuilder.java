@@ -5,6 +5,7 @@ import java.util.Map;
 import mil.dds.anet.beans.lists.AnetBeanList;
 import mil.dds.anet.beans.search.AbstractSearchQuery;
 import mil.dds.anet.search.AbstractSearchQueryBuilder;
+import mil.dds.anet.utils.DaoUtils;
 import mil.dds.anet.views.AbstractAnetBean;
 import org.jdbi.v3.core.Handle;
 import org.jdbi.v3.core.mapper.RowMapper;
@@ -37,6 +38,11 @@ public class MssqlSearchQueryBuilder<B extends AbstractAnetBean, T extends Abstr
     return text;
   }
 
+  @Override
+  protected boolean nullsAreSortedHigh() {
+    return false;
+  }
+
   @Override
   protected AnetBeanList<B> getResult(Handle handle, T query, RowMapper<B> mapper) {
     final Query sqlQuery = addPagination(query, handle, sql, sqlArgs, listArgs);
@@ -53,10 +59,12 @@ public class MssqlSearchQueryBuilder<B extends AbstractAnetBean, T extends Abstr
       q.bindMap(args);
     }
     if (query.getPageSize() > 0) {
-      q.bind("offset", query.getPageSize() * query.getPageNum()).bind("limit", query.getPageSize());
+      // With a cursor, the keyset clause has already skipped the previous pages
+      final int offset = (query.getAfter() == null) ? query.getPageSize() * query.getPageNum() : 0;
+      q.bind("offset", offset).bind("limit", query.getPageSize());
     }
     for (final Map.Entry<String, List<?>> listArg : listArgs.entrySet()) {
-      q.bindList(listArg.getKey(), listArg.getValue());
+      q.bindList(listArg.getKey(), DaoUtils.padListArg(listArg.getValue()));
     }
     return q;
   }
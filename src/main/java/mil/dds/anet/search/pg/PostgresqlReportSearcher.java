@@ -26,8 +26,8 @@ public class PostgresqlReportSearcher extends AbstractReportSearcher {
   public CompletableFuture<AnetBeanList<Report>> runSearch(Map<String, Object> context,
       Set<String> subFields, ReportSearchQuery query) {
     buildQuery(subFields, query);
-    return postProcessResults(context, query,
-        qb.buildAndRun(getDbHandle(), query, new ReportMapper()));
+    return CompletableFuture
+        .completedFuture(qb.buildAndRun(getDbHandle(), query, new ReportMapper()));
   }
 
   @Override
@@ -61,21 +61,6 @@ public class PostgresqlReportSearcher extends AbstractReportSearcher {
         query.getEngagementDayOfWeek());
   }
 
-  @Override
-  protected void addOrgUuidQuery(ReportSearchQuery query) {
-    addOrgUuidQuery(qb, query);
-  }
-
-  @Override
-  protected void addAdvisorOrgUuidQuery(ReportSearchQuery query) {
-    addAdvisorOrgUuidQuery(qb, query);
-  }
-
-  @Override
-  protected void addPrincipalOrgUuidQuery(ReportSearchQuery query) {
-    addPrincipalOrgUuidQuery(qb, query);
-  }
-
   @Override
   protected void addOrderByClauses(AbstractSearchQueryBuilder<?, ?> qb, ReportSearchQuery query) {
     if (query.isTextPresent() && !query.isSortByPresent()) {
@@ -1,11 +1,11 @@
 package mil.dds.anet.search.pg;
 
-import com.google.common.base.Joiner;
 import java.util.List;
 import java.util.Map;
 import mil.dds.anet.beans.lists.AnetBeanList;
 import mil.dds.anet.beans.search.AbstractSearchQuery;
 import mil.dds.anet.search.AbstractSearchQueryBuilder;
+import mil.dds.anet.utils.DaoUtils;
 import mil.dds.anet.views.AbstractAnetBean;
 import org.jdbi.v3.core.Handle;
 import org.jdbi.v3.core.mapper.RowMapper;
@@ -33,11 +33,8 @@ public class PostgresqlSearchQueryBuilder<B extends AbstractAnetBean, T extends
   }
 
   @Override
-  protected void addWithClauses() {
-    if (!withClauses.isEmpty()) {
-      sql.insert(0, Joiner.on(", ").join(withClauses));
-      sql.insert(0, "WITH RECURSIVE ");
-    }
+  protected boolean nullsAreSortedHigh() {
+    return true;
   }
 
   @Override
@@ -56,10 +53,12 @@ public class PostgresqlSearchQueryBuilder<B extends AbstractAnetBean, T extends
       q.bindMap(args);
     }
     if (query.getPageSize() > 0) {
-      q.bind("offset", query.getPageSize() * query.getPageNum()).bind("limit", query.getPageSize());
+      // With a cursor, the keyset clause has already skipped the previous pages
+      final int offset = (query.getAfter() == null) ? query.getPageSize() * query.getPageNum() : 0;
+      q.bind("offset", offset).bind("limit", query.getPageSize());
     }
     for (final Map.Entry<String, List<?>> listArg : listArgs.entrySet()) {
-      q.bindList(listArg.getKey(), listArg.getValue());
+      q.bindList(listArg.getKey(), DaoUtils.padListArg(listArg.getValue()));
     }
     return q;
   }
@@ -0,0 +1,49 @@
+package mil.dds.anet.threads;
+
+import java.lang.invoke.MethodHandles;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Base class of the background workers; they are normally run by the {@link WorkerScheduler}, but
+ * can also be run directly.
+ */
+public abstract class AbstractWorker implements Runnable {
+
+  private static final Logger logger =
+      LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+  private final String startMessage;
+
+  protected AbstractWorker(String startMessage) {
+    this.startMessage = startMessage;
+  }
+
+  @Override
+  public void run() {
+    try {
+      runOnce();
+    } catch (Throwable e) {
+      // Cannot let this thread die, otherwise this worker will not be run again
+      logger.error("Exception in run() of " + getClass().getSimpleName(), e);
+    }
+  }
+
+  /**
+   * Run the worker once, letting exceptions through.
+   *
+   * @return the number of items processed
+   */
+  int runOnce() throws Exception {
+    logger.debug(startMessage);
+    return runInternal();
+  }
+
+  /**
+   * Do the actual work.
+   *
+   * @return the number of items processed
+   */
+  protected abstract int runInternal() throws Exception;
+
+}
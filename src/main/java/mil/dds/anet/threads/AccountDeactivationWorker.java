@@ -23,7 +23,7 @@ import mil.dds.anet.utils.Utils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-public class AccountDeactivationWorker implements Runnable {
+public class AccountDeactivationWorker extends AbstractWorker {
 
   private static final Logger logger =
       LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
@@ -37,6 +37,7 @@ public class AccountDeactivationWorker implements Runnable {
 
   public AccountDeactivationWorker(AnetConfiguration config, PersonDao dao,
       int warningIntervalInSecs) {
+    super("Deactivation Warning Worker waking up to check for Future Account Deactivations");
     this.dao = dao;
 
     @SuppressWarnings("unchecked")
@@ -55,18 +56,11 @@ public class AccountDeactivationWorker implements Runnable {
   }
 
   @Override
-  public void run() {
-    logger.debug("Deactivation Warning Worker waking up to check for Future Account Deactivations");
-
-    try {
-      runInternal(this.daysTillEndOfTourWarnings);
-    } catch (Throwable e) {
-      // Cannot let this thread die. Otherwise ANET will stop checking.
-      logger.error("Exception in run()", e);
-    }
+  protected int runInternal() {
+    return checkDeactivations(this.daysTillEndOfTourWarnings);
   }
 
-  private void runInternal(final List<Integer> daysTillNextWarning) {
+  private int checkDeactivations(final List<Integer> daysTillNextWarning) {
     // Make sure the mechanism will be triggered, so account deactivation checking can take place
     final List<Integer> warningDays =
         (daysTillEndOfTourWarnings == null || daysTillEndOfTourWarnings.isEmpty())
@@ -98,6 +92,7 @@ public class AccountDeactivationWorker implements Runnable {
         checkDeactivationStatus(p, warning, nextWarning, now);
       }
     });
+    return persons.size();
   }
 
   private void checkDeactivationStatus(final Person person, final Integer daysBeforeWarning,
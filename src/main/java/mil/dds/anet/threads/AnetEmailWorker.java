@@ -1,26 +1,36 @@
 package mil.dds.anet.threads;
 
-import static mil.dds.anet.AnetApplication.FREEMARKER_VERSION;
-
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.RatioGauge;
+import com.codahale.metrics.Timer;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.base.Joiner;
-import freemarker.template.Configuration;
-import freemarker.template.DefaultObjectWrapperBuilder;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import freemarker.template.Template;
 import freemarker.template.TemplateException;
 import java.io.IOException;
 import java.io.StringWriter;
 import java.lang.invoke.MethodHandles;
-import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.LinkedList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import javax.mail.Authenticator;
 import javax.mail.Message;
@@ -40,25 +50,34 @@ import mil.dds.anet.database.AdminDao.AdminSettingKeys;
 import mil.dds.anet.database.EmailDao;
 import mil.dds.anet.database.mappers.MapperUtils;
 import mil.dds.anet.utils.DaoUtils;
+import mil.dds.anet.utils.FreemarkerUtils;
 import mil.dds.anet.utils.Utils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-public class AnetEmailWorker implements Runnable {
+public class AnetEmailWorker extends AbstractWorker {
 
   private static final Logger logger =
       LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
+  // Maximum number of rendered emails kept during a run
+  private static final int MAX_RENDERED_EMAILS = 1000;
+  // How long claimed emails are skipped by other workers; long enough to send a whole batch
+  private static final Duration CLAIM_DURATION = Duration.ofMinutes(30);
+
   private static AnetEmailWorker instance;
 
   private EmailDao dao;
   private ObjectMapper mapper;
-  private Properties props;
-  private Authenticator auth;
+  private final Session session;
+  private final int batchSize;
+  private final ExecutorService renderPool;
   private String fromAddr;
   private String serverUrl;
   private final Map<String, Object> fields;
-  private Configuration freemarkerConfig;
+  private final Timer renderTimer;
+  private final Meter renderCacheHits;
+  private final Meter renderCacheMisses;
   private final String supportEmailAddr;
   private final DateTimeFormatter dtf;
   private final DateTimeFormatter dttf;
@@ -68,8 +87,13 @@ public class AnetEmailWorker implements Runnable {
   private final boolean disabled;
   private final List<String> activeDomainNames;
 
-  @SuppressWarnings("unchecked")
   public AnetEmailWorker(EmailDao dao, AnetConfiguration config) {
+    this(dao, config, new MetricRegistry());
+  }
+
+  @SuppressWarnings("unchecked")
+  public AnetEmailWorker(EmailDao dao, AnetConfiguration config, MetricRegistry metricRegistry) {
+    super("AnetEmailWorker waking up to send emails!");
     this.dao = dao;
     this.mapper = MapperUtils.getDefaultMapper();
     this.fromAddr = config.getEmailFromAddr();
@@ -94,12 +118,12 @@ public class AnetEmailWorker implements Runnable {
     setInstance(this);
 
     SmtpConfiguration smtpConfig = config.getSmtp();
-    props = new Properties();
+    final Properties props = new Properties();
     props.put("mail.smtp.ssl.trust", smtpConfig.getSslTrust());
     props.put("mail.smtp.starttls.enable", smtpConfig.getStartTls().toString());
     props.put("mail.smtp.host", smtpConfig.getHostname());
     props.put("mail.smtp.port", smtpConfig.getPort().toString());
-    auth = null;
+    Authenticator auth = null;
     this.nbOfHoursForStaleEmails = smtpConfig.getNbOfHoursForStaleEmails();
 
     if (smtpConfig.getUsername() != null && smtpConfig.getUsername().trim().length() > 0) {
@@ -112,16 +136,27 @@ public class AnetEmailWorker implements Runnable {
       };
     }
 
+    session = Session.getInstance(props, auth);
     disabled = smtpConfig.isDisabled();
+    batchSize = smtpConfig.getBatchSize();
+    final ThreadPoolExecutor renderPool = new ThreadPoolExecutor(smtpConfig.getRenderThreads(),
+        smtpConfig.getRenderThreads(), 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+        new ThreadFactoryBuilder().setNameFormat("anet-email-render-%d").setDaemon(true).build());
+    renderPool.allowCoreThreadTimeOut(true);
+    this.renderPool = renderPool;
 
-    freemarkerConfig = new Configuration(FREEMARKER_VERSION);
-    // auto-escape HTML in our .ftlh templates
-    freemarkerConfig.setRecognizeStandardFileExtensions(true);
-    freemarkerConfig.setObjectWrapper(new DefaultObjectWrapperBuilder(FREEMARKER_VERSION).build());
-    freemarkerConfig.loadBuiltInEncodingMap();
-    freemarkerConfig.setDefaultEncoding(StandardCharsets.UTF_8.name());
-    freemarkerConfig.setClassForTemplateLoading(this.getClass(), "/");
-    freemarkerConfig.setAPIBuiltinEnabled(true);
+    renderTimer = metricRegistry.timer(MetricRegistry.name(getClass(), "render"));
+    renderCacheHits = metricRegistry.meter(MetricRegistry.name(getClass(), "renderCache", "hits"));
+    renderCacheMisses =
+        metricRegistry.meter(MetricRegistry.name(getClass(), "renderCache", "misses"));
+    metricRegistry.gauge(MetricRegistry.name(getClass(), "renderCache", "hitRate"),
+        () -> new RatioGauge() {
+          @Override
+          protected Ratio getRatio() {
+            final long hits = renderCacheHits.getCount();
+            return Ratio.of(hits, hits + renderCacheMisses.getCount());
+          }
+        });
   }
 
   public static void setInstance(AnetEmailWorker instance) {
@@ -129,57 +164,140 @@ public class AnetEmailWorker implements Runnable {
   }
 
   @Override
-  public void run() {
-    logger.debug("AnetEmailWorker waking up to send emails!");
+  protected int runInternal() throws MessagingException {
+    // One connection is kept open while sending all pending emails
+    final Transport transport = session.getTransport("smtp");
+    int nrProcessed = 0;
+    // Emails with the same action are rendered only once during this run
+    final Map<String, CompletableFuture<RenderedEmail>> renderedEmails =
+        new LinkedHashMap<String, CompletableFuture<RenderedEmail>>() {
+          private static final long serialVersionUID = 1L;
+
+          @Override
+          protected boolean removeEldestEntry(
+              Map.Entry<String, CompletableFuture<RenderedEmail>> eldest) {
+            return size() > MAX_RENDERED_EMAILS;
+          }
+        };
     try {
-      runInternal();
-    } catch (Throwable e) {
-      // Cannot let this thread die, otherwise ANET will stop sending emails until you
-      // reboot the server :(
-      logger.error("Exception in run()", e);
+      int afterId = 0;
+      List<AnetEmail> emails;
+      do {
+        // Claim the next batch of emails we need to send; the claim is committed right away, so
+        // no locks or database connections are held while talking to the SMTP server
+        emails = dao.claimPendingEmails(afterId, batchSize, Instant.now().plus(CLAIM_DURATION));
+        if (!emails.isEmpty()) {
+          afterId = emails.get(emails.size() - 1).getId();
+          final List<Integer> processedEmails = sendEmails(transport, renderedEmails, emails);
+          nrProcessed += dao.deletePendingEmails(processedEmails);
+          // Emails that could not be sent are tried again on the next run
+          final Set<Integer> processedIds = new HashSet<>(processedEmails);
+          dao.releasePendingEmails(emails.stream().map(AnetEmail::getId)
+              .filter(id -> !processedIds.contains(id)).collect(Collectors.toList()));
+        }
+      } while (emails.size() == batchSize);
+    } finally {
+      if (transport.isConnected()) {
+        transport.close();
+      }
     }
+    return nrProcessed;
   }
 
-  private void runInternal() {
-    // check the database for any emails we need to send.
-    final List<AnetEmail> emails = dao.getAll();
-
-    // Send the emails!
-    final List<Integer> processedEmails = new LinkedList<Integer>();
+  private List<Integer> sendEmails(final Transport transport,
+      final Map<String, CompletableFuture<RenderedEmail>> renderedEmails,
+      final List<AnetEmail> emails) {
+    // Render all emails on the render pool, and send them in order as soon as they are ready
+    final List<CompletableFuture<RenderedEmail>> rendered = new ArrayList<>(emails.size());
     for (final AnetEmail email : emails) {
-      Map<String, Object> context = null;
+      rendered.add(getRenderedEmail(renderedEmails, email));
+    }
 
+    final List<Integer> processedEmails = new ArrayList<>(emails.size());
+    for (int i = 0; i < emails.size(); i++) {
+      final AnetEmail email = emails.get(i);
       try {
-        context = buildContext(email);
-        if (context != null) {
+        final RenderedEmail renderedEmail = rendered.get(i).join();
+        if (renderedEmail != null) {
           logger.info("{} Sending email to {} re: {}", disabled ? "[Disabled] " : "",
-              email.getToAddresses(), email.getAction().getSubject(context));
-
+              email.getToAddresses(), renderedEmail.getSubject());
           if (!disabled) {
-            sendEmail(email, context);
+            final MimeMessage message = buildMessage(email, renderedEmail);
+            if (message != null) {
+              sendEmail(transport, message);
+            }
           }
         }
         processedEmails.add(email.getId());
       } catch (Throwable t) {
-        logger.error("Error sending email", t);
+        logger.error("Error sending email",
+            t instanceof CompletionException && t.getCause() != null ? t.getCause() : t);
 
         // Process stale emails
         if (this.nbOfHoursForStaleEmails != null && email.getCreatedAt().isBefore(Instant.now()
             .atZone(DaoUtils.getDefaultZoneId()).minusHours(nbOfHoursForStaleEmails).toInstant())) {
-          String message = "Purging stale email to ";
-          try {
-            message += email.getToAddresses();
-            message += email.getAction().getSubject(context);
-          } finally {
-            logger.info(message);
-            processedEmails.add(email.getId());
-          }
+          logger.info("Purging stale email to {}", email.getToAddresses());
+          processedEmails.add(email.getId());
         }
       }
     }
+    return processedEmails;
+  }
 
-    // Update the database.
-    dao.deletePendingEmails(processedEmails);
+  private CompletableFuture<RenderedEmail> getRenderedEmail(
+      final Map<String, CompletableFuture<RenderedEmail>> renderedEmails, final AnetEmail email) {
+    final String key = getRenderKey(email);
+    CompletableFuture<RenderedEmail> renderedEmail = key == null ? null : renderedEmails.get(key);
+    if (renderedEmail != null) {
+      renderCacheHits.mark();
+    } else {
+      renderCacheMisses.mark();
+      renderedEmail = CompletableFuture.supplyAsync(() -> renderEmail(email), renderPool);
+      if (key != null) {
+        renderedEmails.put(key, renderedEmail);
+      }
+    }
+    return renderedEmail;
+  }
+
+  /**
+   * Emails with the same action render to the same subject and body, whatever their recipients.
+   *
+   * @return the key identifying the rendered email, or null if it can't be determined
+   */
+  private String getRenderKey(final AnetEmail email) {
+    try {
+      return email.getAction().getTemplateName() + ":"
+          + mapper.writeValueAsString(email.getAction());
+    } catch (Exception e) {
+      logger.debug("Cannot determine render key of email", e);
+      return null;
+    }
+  }
+
+  /**
+   * Build the context of an email and render it.
+   *
+   * @return the rendered email, or null if there is nothing to send
+   */
+  private RenderedEmail renderEmail(final AnetEmail email) {
+    try (final Timer.Context timerContext = renderTimer.time()) {
+      final Map<String, Object> context = buildContext(email);
+      if (context == null) {
+        return null;
+      }
+      final String subject = email.getAction().getSubject(context);
+      if (disabled) {
+        return new RenderedEmail(subject, null);
+      }
+      final StringWriter writer = new StringWriter();
+      final Template temp =
+          FreemarkerUtils.getConfiguration().getTemplate(email.getAction().getTemplateName());
+      temp.process(context, writer);
+      return new RenderedEmail(subject, writer.toString());
+    } catch (IOException | TemplateException e) {
+      throw new CompletionException(e);
+    }
   }
 
   private Map<String, Object> buildContext(final AnetEmail email) {
@@ -201,8 +319,8 @@ public class AnetEmailWorker implements Runnable {
     return email.getAction().buildContext(context);
   }
 
-  private void sendEmail(final AnetEmail email, final Map<String, Object> context)
-      throws MessagingException, IOException, TemplateException {
+  private MimeMessage buildMessage(final AnetEmail email, final RenderedEmail renderedEmail)
+      throws MessagingException {
     // Remove any null email addresses
     email.getToAddresses().removeIf(s -> Objects.equals(s, null));
     email.getToAddresses()
@@ -211,23 +329,27 @@ public class AnetEmailWorker implements Runnable {
       // This email will never get sent... just kill it off
       // log.error("Unable to send email of subject {}, because there are no valid
       // to email addresses");
-      return;
+      return null;
     }
 
-    StringWriter writer = new StringWriter();
-    Template temp = freemarkerConfig.getTemplate(email.getAction().getTemplateName());
-    temp.process(context, writer);
-
-    Session session = Session.getInstance(props, auth);
-    Message message = new MimeMessage(session);
+    MimeMessage message = new MimeMessage(session);
     message.setFrom(new InternetAddress(fromAddr));
     String toAddress = Joiner.on(", ").join(email.getToAddresses());
     message.setRecipients(Message.RecipientType.TO, InternetAddress.parse(toAddress));
-    message.setSubject(email.getAction().getSubject(context));
-    message.setContent(writer.toString(), "text/html; charset=utf-8");
+    message.setSubject(renderedEmail.getSubject());
+    message.setContent(renderedEmail.getBody(), "text/html; charset=utf-8");
+    message.saveChanges();
+    return message;
+  }
 
+  private void sendEmail(final Transport transport, final MimeMessage message)
+      throws MessagingException {
+    // Checks whether the connection is still alive, and (re)connects if needed
+    if (!transport.isConnected()) {
+      transport.connect();
+    }
     try {
-      Transport.send(message);
+      transport.sendMessage(message, message.getAllRecipients());
     } catch (SendFailedException e) {
       // The server rejected this... we'll log it and then not try again.
       logger.error("Send failed", e);
@@ -254,4 +376,23 @@ public class AnetEmailWorker implements Runnable {
       throw new WebApplicationException(jsonError);
     }
   }
+
+  private static class RenderedEmail {
+    private final String subject;
+    private final String body;
+
+    public RenderedEmail(String subject, String body) {
+      this.subject = subject;
+      this.body = body;
+    }
+
+    public String getSubject() {
+      return subject;
+    }
+
+    public String getBody() {
+      return body;
+    }
+  }
+
 }
@@ -12,7 +12,7 @@ import mil.dds.anet.utils.Utils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-public class FutureEngagementWorker implements Runnable {
+public class FutureEngagementWorker extends AbstractWorker {
 
   private static final Logger logger =
       LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
@@ -20,21 +20,12 @@ public class FutureEngagementWorker implements Runnable {
   private ReportDao dao;
 
   public FutureEngagementWorker(ReportDao dao) {
+    super("Future Engagement Worker waking up to check for Future Engagements");
     this.dao = dao;
   }
 
   @Override
-  public void run() {
-    logger.debug("Future Engagement Worker waking up to check for Future Engagements");
-    try {
-      runInternal();
-    } catch (Throwable e) {
-      // CAnnot let this thread die. Otherwise ANET will stop checking for future engagements.
-      logger.error("Exception in run()", e);
-    }
-  }
-
-  private void runInternal() {
+  protected int runInternal() {
     // Get a list of all reports related to upcoming engagements which have just
     // become past engagements and need to change their report status to draft.
     // When a report is for an engagement which just moved from future to past
@@ -61,7 +52,7 @@ public class FutureEngagementWorker implements Runnable {
         logger.error("Exception when updating", e);
       }
     }
-
+    return reports.size();
   }
 
 }
@@ -1,36 +1,112 @@
 package mil.dds.anet.threads;
 
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.google.common.collect.ImmutableMap;
 import java.lang.invoke.MethodHandles;
+import java.util.Map;
+import java.util.Set;
 import mil.dds.anet.database.AdminDao;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-public class MaterializedViewRefreshWorker implements Runnable {
+/**
+ * Refreshes one materialized view; each view gets its own worker, so they can be scheduled
+ * independently and refreshed concurrently.
+ */
+public class MaterializedViewRefreshWorker extends AbstractWorker {
 
   private static final Logger logger =
       LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
-  private static final String[] materializedViews =
-      {"mv_fts_authorizationGroups", "mv_fts_locations", "mv_fts_organizations", "mv_fts_people",
-          "mv_fts_positions", "mv_fts_reports", "mv_fts_tags", "mv_fts_tasks"};
+  private static final String[] NOTES_TABLES = {"noteRelatedObjects", "notes"};
+
+  // The materialized views, with the tables they are built from
+  private static final Map<String, String[]> materializedViews =
+      ImmutableMap.<String, String[]>builder()
+          .put("mv_fts_authorizationGroups", withNotes("authorizationGroups"))
+          .put("mv_fts_locations", withNotes("locations"))
+          .put("mv_fts_organizations", withNotes("organizations"))
+          .put("mv_fts_people", withNotes("people", "positions", "organizations"))
+          .put("mv_fts_positions", withNotes("positions", "people", "organizations"))
+          .put("mv_fts_reports", withNotes("reports"))
+          .put("mv_fts_tags", new String[] {"tags"})
+          .put("mv_fts_tasks", withNotes("tasks")).build();
 
   private final AdminDao dao;
+  private final String viewName;
+  private final String[] tableNames;
+  private final Timer refreshTimer;
+  // The modification count of the tables of the view when it was last refreshed
+  private Long refreshedModificationCount;
+  private volatile long lastRefreshedAt;
 
-  public MaterializedViewRefreshWorker(AdminDao dao) {
+  public MaterializedViewRefreshWorker(AdminDao dao, MetricRegistry metricRegistry,
+      String viewName) {
+    super("Materialized View Refresh Worker waking up to check " + viewName);
     this.dao = dao;
+    this.viewName = viewName;
+    this.tableNames = materializedViews.get(viewName);
+    if (tableNames == null) {
+      throw new IllegalArgumentException("Unknown materialized view " + viewName);
+    }
+    final String metricName = MetricRegistry.name(getClass(), viewName);
+    this.refreshTimer = metricRegistry.timer(MetricRegistry.name(metricName, "refresh"));
+    metricRegistry.gauge(MetricRegistry.name(metricName, "lastRefreshedAt"),
+        () -> (Gauge<Long>) () -> lastRefreshedAt);
+  }
+
+  public static Set<String> getMaterializedViews() {
+    return materializedViews.keySet();
   }
 
   @Override
-  public void run() {
-    logger.debug("Refreshing materialized views");
-    for (final String materializedView : materializedViews) {
-      try {
-        dao.updateMaterializedView(materializedView);
-      } catch (Throwable e) {
-        // Cannot let this thread die, otherwise ANET will stop this worker.
-        logger.error("Exception in run()", e);
+  protected int runInternal() {
+    final Long modificationCount = getModificationCount();
+    if (modificationCount != null && modificationCount.equals(refreshedModificationCount)) {
+      logger.trace("Skipping {}, its tables have not changed", viewName);
+      return 0;
+    }
+    logger.debug("Refreshing materialized view {}", viewName);
+    try (final Timer.Context context = refreshTimer.time()) {
+      dao.updateMaterializedView(viewName);
+    }
+    refreshedModificationCount = modificationCount;
+    lastRefreshedAt = System.currentTimeMillis();
+    return 1;
+  }
+
+  /**
+   * The counts only go up, so their sum changes whenever one of the tables is modified.
+   *
+   * @return the sum of the modification counts, or null if any of them is unknown
+   */
+  private Long getModificationCount() {
+    final Map<String, Long> tableModificationCounts;
+    try {
+      tableModificationCounts = dao.getTableModificationCounts();
+    } catch (Throwable e) {
+      // Refresh anyway
+      logger.error("Exception getting table modification counts", e);
+      return null;
+    }
+    long sum = 0;
+    for (final String tableName : tableNames) {
+      final Long count = tableModificationCounts.get(tableName);
+      if (count == null) {
+        return null;
       }
+      sum += count;
     }
+    return sum;
+  }
+
+  private static String[] withNotes(String... tableNames) {
+    final String[] result = new String[tableNames.length + NOTES_TABLES.length];
+    System.arraycopy(tableNames, 0, result, 0, tableNames.length);
+    System.arraycopy(NOTES_TABLES, 0, result, tableNames.length, NOTES_TABLES.length);
+    return result;
   }
 
 }
@@ -18,7 +18,7 @@ import mil.dds.anet.utils.DaoUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-public class ReportApprovalWorker implements Runnable {
+public class ReportApprovalWorker extends AbstractWorker {
 
   private static final Logger logger =
       LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
@@ -27,24 +27,14 @@ public class ReportApprovalWorker implements Runnable {
   private final Integer nbOfHoursApprovalTimeout;
 
   public ReportApprovalWorker(ReportDao dao, AnetConfiguration config) {
+    super("Report Approval Worker waking up to check for reports to be approved");
     this.dao = dao;
     this.nbOfHoursApprovalTimeout =
         (Integer) config.getDictionaryEntry("reportWorkflow.nbOfHoursApprovalTimeout");
   }
 
   @Override
-  public void run() {
-    logger.debug("Report Approval Worker waking up to check for reports to be approved");
-    try {
-      runInternal();
-    } catch (Throwable e) {
-      // Cannot let this thread die. Otherwise ANET will stop checking for reports which are to be
-      // automatically approved.
-      logger.error("Exception in run()", e);
-    }
-  }
-
-  private void runInternal() {
+  protected int runInternal() {
     final Instant now = Instant.now().atZone(DaoUtils.getDefaultZoneId())
         .minusHours(nbOfHoursApprovalTimeout).toInstant();
     // Get a list of all PENDING_APPROVAL reports
@@ -88,6 +78,7 @@ public class ReportApprovalWorker implements Runnable {
         }
       }
     }
+    return reports.size();
   }
 
 }
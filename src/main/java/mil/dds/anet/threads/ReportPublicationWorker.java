@@ -17,7 +17,7 @@ import mil.dds.anet.utils.DaoUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-public class ReportPublicationWorker implements Runnable {
+public class ReportPublicationWorker extends AbstractWorker {
 
   private static final Logger logger =
       LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
@@ -26,24 +26,14 @@ public class ReportPublicationWorker implements Runnable {
   private final Integer nbOfHoursQuarantineApproved;
 
   public ReportPublicationWorker(ReportDao dao, AnetConfiguration config) {
+    super("Report Publication Worker waking up to check for reports to be published");
     this.dao = dao;
     this.nbOfHoursQuarantineApproved =
         (Integer) config.getDictionaryEntry("reportWorkflow.nbOfHoursQuarantineApproved");
   }
 
   @Override
-  public void run() {
-    logger.debug("Report Publication Worker waking up to check for reports to be published");
-    try {
-      runInternal();
-    } catch (Throwable e) {
-      // Cannot let this thread die. Otherwise ANET will stop checking for reports which are to be
-      // published.
-      logger.error("Exception in run()", e);
-    }
-  }
-
-  private void runInternal() {
+  protected int runInternal() {
     final Instant now = Instant.now().atZone(DaoUtils.getDefaultZoneId())
         .minusHours(this.nbOfHoursQuarantineApproved).toInstant();
     // Get a list of all APPROVED reports
@@ -75,6 +65,7 @@ public class ReportPublicationWorker implements Runnable {
         }
       }
     }
+    return reports.size();
   }
 
 }
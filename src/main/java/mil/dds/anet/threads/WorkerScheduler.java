@@ -0,0 +1,226 @@
+package mil.dds.anet.threads;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.dropwizard.lifecycle.Managed;
+import java.lang.invoke.MethodHandles;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import mil.dds.anet.beans.WorkerHealth;
+import mil.dds.anet.config.AnetConfiguration.WorkersConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Schedules the background workers. Each worker gets its own lane: a single timer thread triggers
+ * the runs, which are executed on a pool; a run is skipped while the previous run of the same
+ * worker is still busy, so one slow worker can occupy at most one thread of its pool. When the
+ * application stops, the timer and all pools created by the scheduler are shut down.
+ */
+public class WorkerScheduler implements Managed {
+
+  private static final Logger logger =
+      LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+  private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(
+      new ThreadFactoryBuilder().setNameFormat("anet-worker-timer").setDaemon(true).build());
+  private final Map<String, Lane> lanes = new ConcurrentSkipListMap<>();
+  private final List<ExecutorService> pools = new CopyOnWriteArrayList<>();
+  private final long maxJitterMs;
+  private final long shutdownTimeoutMs;
+  private final MetricRegistry metricRegistry;
+
+  public WorkerScheduler(WorkersConfiguration config, MetricRegistry metricRegistry) {
+    this.maxJitterMs = config.getJitter().toMilliseconds();
+    this.shutdownTimeoutMs = config.getShutdownTimeout().toMilliseconds();
+    this.metricRegistry = metricRegistry;
+  }
+
+  /**
+   * Create a pool to execute workers on; it is shut down when the scheduler stops.
+   *
+   * @param poolName the name of the pool, used for its threads
+   * @param threads the number of threads
+   * @return the pool
+   */
+  public ExecutorService newPool(String poolName, int threads) {
+    final ExecutorService pool = Executors.newFixedThreadPool(threads,
+        new ThreadFactoryBuilder().setNameFormat("anet-" + poolName + "-%d").setDaemon(true)
+            .build());
+    pools.add(pool);
+    return pool;
+  }
+
+  /**
+   * Schedule a worker to run periodically; a random jitter is added to the initial delay, so
+   * workers with the same period don't all run at the same moment.
+   *
+   * @param pool the pool to execute the worker on
+   * @param name the unique name of the worker
+   * @param worker the worker
+   * @param initialDelay the delay before the first run
+   * @param period the period between runs
+   * @param unit the time unit of initialDelay and period
+   */
+  public void schedule(ExecutorService pool, String name, AbstractWorker worker, long initialDelay,
+      long period, TimeUnit unit) {
+    final Lane lane = new Lane(pool, name, worker);
+    if (lanes.putIfAbsent(name, lane) != null) {
+      throw new IllegalArgumentException("Worker " + name + " is already scheduled");
+    }
+    final long jitterMs = maxJitterMs > 0 ? ThreadLocalRandom.current().nextLong(maxJitterMs) : 0;
+    timer.scheduleAtFixedRate(lane::trigger, unit.toMillis(initialDelay) + jitterMs,
+        unit.toMillis(period), TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Run a scheduled worker once more, e.g. shortly after boot-up.
+   *
+   * @param name the name of the worker
+   * @param delay the delay before the run
+   * @param unit the time unit of delay
+   */
+  public void runOnce(String name, long delay, TimeUnit unit) {
+    final Lane lane = lanes.get(name);
+    if (lane == null) {
+      throw new IllegalArgumentException("Worker " + name + " is not scheduled");
+    }
+    timer.schedule(lane::trigger, delay, unit);
+  }
+
+  @Override
+  public void start() {
+    // Workers are started when they are scheduled
+  }
+
+  /**
+   * Stop triggering workers, and wait for the running ones to finish; workers still running after
+   * the shutdown timeout are interrupted.
+   */
+  @Override
+  public void stop() throws InterruptedException {
+    timer.shutdownNow();
+    pools.forEach(ExecutorService::shutdown);
+    final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(shutdownTimeoutMs);
+    for (final ExecutorService pool : pools) {
+      final long remaining = deadline - System.nanoTime();
+      if (!pool.awaitTermination(Math.max(remaining, 0), TimeUnit.NANOSECONDS)) {
+        logger.warn("Workers did not finish within {}ms, interrupting them", shutdownTimeoutMs);
+        pool.shutdownNow();
+      }
+    }
+  }
+
+  public boolean isTerminated() {
+    return timer.isTerminated() && pools.stream().allMatch(ExecutorService::isTerminated);
+  }
+
+  public List<WorkerHealth> getHealth() {
+    final List<WorkerHealth> result = new ArrayList<>();
+    lanes.values().forEach(lane -> result.add(lane.getHealth()));
+    return result;
+  }
+
+  private class Lane {
+    private final ExecutorService pool;
+    private final String name;
+    private final AbstractWorker worker;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final Timer runTimer;
+    private final Histogram lagHistogram;
+    private final Counter itemsProcessedCounter;
+    private final Meter failureMeter;
+    private final Counter skippedCounter;
+    private volatile Instant lastStartedAt;
+    private volatile Instant lastFinishedAt;
+    private volatile Instant lastSucceededAt;
+    private volatile String lastError;
+    private volatile Long lastDurationMs;
+    private volatile Long lastLagMs;
+    private volatile Integer lastItemsProcessed;
+
+    Lane(ExecutorService pool, String name, AbstractWorker worker) {
+      this.pool = pool;
+      this.name = name;
+      this.worker = worker;
+      final String metricName = MetricRegistry.name(WorkerScheduler.class, name);
+      this.runTimer = metricRegistry.timer(MetricRegistry.name(metricName, "run"));
+      this.lagHistogram = metricRegistry.histogram(MetricRegistry.name(metricName, "lagMs"));
+      this.itemsProcessedCounter =
+          metricRegistry.counter(MetricRegistry.name(metricName, "itemsProcessed"));
+      this.failureMeter = metricRegistry.meter(MetricRegistry.name(metricName, "failures"));
+      this.skippedCounter = metricRegistry.counter(MetricRegistry.name(metricName, "skipped"));
+    }
+
+    // Runs on the timer thread, so it must be quick and must not throw
+    private void trigger() {
+      final long triggeredAt = System.nanoTime();
+      if (!running.compareAndSet(false, true)) {
+        skippedCounter.inc();
+        logger.warn("Skipping worker {}, its previous run is still busy", name);
+        return;
+      }
+      try {
+        pool.execute(() -> execute(triggeredAt));
+      } catch (Throwable e) {
+        running.set(false);
+        logger.error("Could not execute worker {}", name, e);
+      }
+    }
+
+    private void execute(long triggeredAt) {
+      final long startedAt = System.nanoTime();
+      lastLagMs = TimeUnit.NANOSECONDS.toMillis(startedAt - triggeredAt);
+      lagHistogram.update(lastLagMs);
+      lastStartedAt = Instant.now();
+      try (final Timer.Context context = runTimer.time()) {
+        final int itemsProcessed = worker.runOnce();
+        itemsProcessedCounter.inc(itemsProcessed);
+        lastItemsProcessed = itemsProcessed;
+        lastSucceededAt = Instant.now();
+        lastError = null;
+      } catch (Throwable e) {
+        // Cannot let this thread die, and the next run should still take place
+        failureMeter.mark();
+        lastError = e.toString();
+        logger.error("Exception in run() of worker {}", name, e);
+      } finally {
+        lastDurationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+        lastFinishedAt = Instant.now();
+        running.set(false);
+      }
+    }
+
+    private WorkerHealth getHealth() {
+      final WorkerHealth health = new WorkerHealth();
+      health.setName(name);
+      health.setRunning(running.get());
+      health.setLastStartedAt(lastStartedAt);
+      health.setLastFinishedAt(lastFinishedAt);
+      health.setLastSucceededAt(lastSucceededAt);
+      health.setLastError(lastError);
+      health.setLastDurationMs(lastDurationMs);
+      health.setLastLagMs(lastLagMs);
+      health.setLastItemsProcessed(lastItemsProcessed);
+      health.setRuns(runTimer.getCount());
+      health.setFailures(failureMeter.getCount());
+      health.setSkipped(skippedCounter.getCount());
+      return health;
+    }
+  }
+
+}
@@ -1,14 +1,33 @@
 package mil.dds.anet.utils;
 
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Snapshot;
+import com.codahale.metrics.Timer;
 import java.lang.invoke.MethodHandles;
 import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import mil.dds.anet.beans.StatementStatistics;
 import mil.dds.anet.database.CommentDao;
 import mil.dds.anet.database.OrganizationDao;
 import mil.dds.anet.database.PersonDao;
 import mil.dds.anet.database.PositionDao;
 import mil.dds.anet.database.ReportDao;
 import mil.dds.anet.database.ReportSensitiveInformationDao;
+import org.jdbi.v3.core.Jdbi;
+import org.jdbi.v3.core.statement.ParsedSql;
 import org.jdbi.v3.core.statement.SqlLogger;
+import org.jdbi.v3.core.statement.SqlStatements;
+import org.jdbi.v3.core.statement.StatementBuilderFactory;
 import org.jdbi.v3.core.statement.StatementContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -17,25 +36,162 @@ import org.slf4j.LoggerFactory;
  * Logger that specifically looks for the very long column definitions that ANET2 uses and will
  * replace them in the log with a shortened version. This just makes the logs easier to read and
  * debug.
+ *
+ * <p>
+ * It also times every statement, by the name in its leading comment (e.g. batch.getPeopleByUuids),
+ * and logs the statements that take longer than the slow query threshold. When installed with
+ * {@link #install(Jdbi)}, it also keeps track of the row counts of the data-modifying statements
+ * and of the sizes of the bound parameters.
  */
 public class AnetDbLogger implements SqlLogger {
   private static final Logger logger =
       LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
+  private static final Pattern STATEMENT_NAME = Pattern.compile("^\\s*/\\*\\s*(.*?)\\s*\\*/");
+  private static final String UNNAMED_STATEMENT = "unnamed";
+
+  private static final class StatementMetrics {
+    private final Timer timer;
+    private final Histogram rows;
+    private final LongAdder totalNanos = new LongAdder();
+
+    private StatementMetrics(Timer timer, Histogram rows) {
+      this.timer = timer;
+      this.rows = rows;
+    }
+  }
+
+  private final MetricRegistry metricRegistry;
+  private final long slowQueryThresholdNanos;
+  private final ConcurrentMap<String, StatementMetrics> statementMetrics =
+      new ConcurrentHashMap<>();
+
+  public AnetDbLogger(MetricRegistry metricRegistry, long slowQueryThresholdMs) {
+    this.metricRegistry = metricRegistry;
+    this.slowQueryThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowQueryThresholdMs);
+  }
+
+  /**
+   * Install the logger on the Jdbi instance, and instrument its statements; must be done before any
+   * handles are opened.
+   *
+   * @param jdbi the Jdbi instance
+   */
+  public void install(Jdbi jdbi) {
+    jdbi.getConfig(SqlStatements.class).setSqlLogger(this);
+    final StatementBuilderFactory factory = jdbi.getStatementBuilderFactory();
+    jdbi.setStatementBuilderFactory(
+        conn -> new InstrumentedStatementBuilder(factory.createStatementBuilder(conn), this));
+  }
+
   @Override
   public void logAfterExecution(StatementContext context) {
-    final String msg =
-        context.getRenderedSql().replace(PersonDao.PERSON_FIELDS, " <PERSON_FIELDS> ")
-            .replace(PersonDao.PERSON_FIELDS_NOAS, " <PERSON_FIELDS> ")
-            .replace(PositionDao.POSITIONS_FIELDS, " <POSITION_FIELDS> ")
-            .replace(OrganizationDao.ORGANIZATION_FIELDS, " <ORGANIZATION_FIELDS> ")
-            .replace(ReportDao.REPORT_FIELDS, " <REPORT_FIELDS> ")
-            .replace(ReportSensitiveInformationDao.REPORTS_SENSITIVE_INFORMATION_FIELDS,
-                " <REPORTS_SENSITIVE_INFORMATION_FIELDS> ")
-            .replace(CommentDao.COMMENT_FIELDS, " <COMMENT_FIELDS> ")
-            .replaceAll("LEFT JOIN (CONTAINS|FREETEXT)TABLE[^=]*= (\\S+)\\.\\[Key\\]", "<$1_$2>")
-            .replaceFirst("LEFT JOIN (mv_fts_\\S+) ON \\S+\\s*=\\s*\\S+", "<$1>")
-            .replaceFirst("\\(?(EXP|ISNULL|CASE|ts_rank).* AS (search_rank)", "<$2>");
-    logger.debug("{}\t{}", context.getElapsedTime(ChronoUnit.MILLIS), msg);
+    final long elapsedNanos = context.getElapsedTime(ChronoUnit.NANOS);
+    final String statementName = getStatementName(context.getRawSql());
+    final StatementMetrics metrics = getStatementMetrics(statementName);
+    metrics.timer.update(elapsedNanos, TimeUnit.NANOSECONDS);
+    metrics.totalNanos.add(elapsedNanos);
+
+    final boolean isSlow = slowQueryThresholdNanos > 0 && elapsedNanos >= slowQueryThresholdNanos;
+    if (isSlow || logger.isDebugEnabled()) {
+      final String msg = shorten(context.getRenderedSql());
+      final long elapsedMs = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+      if (isSlow) {
+        final InstrumentedStatementBuilder.Instrumentation instrumentation =
+            InstrumentedStatementBuilder.getInstrumentation(context.getStatement());
+        if (instrumentation == null) {
+          logger.warn("Slow statement {} took {}ms, with {} bound parameters: {}", statementName,
+              elapsedMs, getParameterCount(context), msg);
+        } else {
+          logger.warn(
+              "Slow statement {} took {}ms, with {} bound parameters of size {} in total "
+                  + "(largest {}): {}",
+              statementName, elapsedMs, instrumentation.getParameterCount(),
+              instrumentation.getTotalParameterSize(), instrumentation.getMaxParameterSize(), msg);
+        }
+      } else {
+        logger.debug("{}\t{}", elapsedMs, msg);
+      }
+    }
+  }
+
+  /**
+   * Get the statistics of the statements that took the most time in total.
+   *
+   * @param limit the maximum number of statements to return
+   * @return the statistics, by descending total time
+   */
+  public List<StatementStatistics> getTopStatements(int limit) {
+    return statementMetrics.entrySet().stream()
+        .sorted(Comparator.comparingLong(
+            (Map.Entry<String, StatementMetrics> e) -> e.getValue().totalNanos.sum()).reversed())
+        .limit(limit).map(e -> getStatementStatistics(e.getKey(), e.getValue()))
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Record the row count of a statement, as read by Jdbi.
+   *
+   * @param context the context of the statement
+   * @param rows the number of rows; negative if unknown
+   */
+  void recordRows(StatementContext context, int rows) {
+    if (rows >= 0) {
+      getStatementMetrics(getStatementName(context.getRawSql())).rows.update(rows);
+    }
+  }
+
+  static String getStatementName(String sql) {
+    if (sql == null) {
+      return UNNAMED_STATEMENT;
+    }
+    final Matcher m = STATEMENT_NAME.matcher(sql);
+    return m.find() && !m.group(1).isEmpty() ? m.group(1) : UNNAMED_STATEMENT;
+  }
+
+  private StatementMetrics getStatementMetrics(String statementName) {
+    return statementMetrics.computeIfAbsent(statementName, name -> {
+      final String metricName = MetricRegistry.name(AnetDbLogger.class, name);
+      return new StatementMetrics(metricRegistry.timer(MetricRegistry.name(metricName, "time")),
+          metricRegistry.histogram(MetricRegistry.name(metricName, "rows")));
+    });
+  }
+
+  private static StatementStatistics getStatementStatistics(String statementName,
+      StatementMetrics metrics) {
+    final Snapshot snapshot = metrics.timer.getSnapshot();
+    final StatementStatistics statistics = new StatementStatistics();
+    statistics.setName(statementName);
+    statistics.setCount(metrics.timer.getCount());
+    statistics.setTotalTimeMs(TimeUnit.NANOSECONDS.toMillis(metrics.totalNanos.sum()));
+    statistics.setMeanTimeMs(toMillis(snapshot.getMean()));
+    statistics.setP99TimeMs(toMillis(snapshot.get99thPercentile()));
+    statistics.setMaxTimeMs(toMillis(snapshot.getMax()));
+    statistics.setMeanRows(metrics.rows.getCount() == 0 ? null
+        : metrics.rows.getSnapshot().getMean());
+    return statistics;
+  }
+
+  private static double toMillis(double nanos) {
+    return nanos / TimeUnit.MILLISECONDS.toNanos(1);
+  }
+
+  private static int getParameterCount(StatementContext context) {
+    final ParsedSql parsedSql = context.getParsedSql();
+    return parsedSql == null ? 0 : parsedSql.getParameters().getParameterCount();
+  }
+
+  private static String shorten(String sql) {
+    return sql.replace(PersonDao.PERSON_FIELDS, " <PERSON_FIELDS> ")
+        .replace(PersonDao.PERSON_FIELDS_NOAS, " <PERSON_FIELDS> ")
+        .replace(PositionDao.POSITIONS_FIELDS, " <POSITION_FIELDS> ")
+        .replace(OrganizationDao.ORGANIZATION_FIELDS, " <ORGANIZATION_FIELDS> ")
+        .replace(ReportDao.REPORT_FIELDS, " <REPORT_FIELDS> ")
+        .replace(ReportSensitiveInformationDao.REPORTS_SENSITIVE_INFORMATION_FIELDS,
+            " <REPORTS_SENSITIVE_INFORMATION_FIELDS> ")
+        .replace(CommentDao.COMMENT_FIELDS, " <COMMENT_FIELDS> ")
+        .replaceAll("LEFT JOIN (CONTAINS|FREETEXT)TABLE[^=]*= (\\S+)\\.\\[Key\\]", "<$1_$2>")
+        .replaceFirst("LEFT JOIN (mv_fts_\\S+) ON \\S+\\s*=\\s*\\S+", "<$1>")
+        .replaceFirst("\\(?(EXP|ISNULL|CASE|ts_rank).* AS (search_rank)", "<$2>");
   }
 }
@@ -1,11 +1,17 @@
 package mil.dds.anet.utils;
 
+import com.codahale.metrics.Gauge;
 import com.codahale.metrics.MetricRegistry;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.lang.invoke.MethodHandles;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import mil.dds.anet.AnetObjectEngine;
 import mil.dds.anet.beans.ApprovalStep;
 import mil.dds.anet.beans.AuthorizationGroup;
@@ -27,6 +33,7 @@ import mil.dds.anet.beans.search.OrganizationSearchQuery;
 import mil.dds.anet.beans.search.PositionSearchQuery;
 import mil.dds.anet.beans.search.ReportSearchQuery;
 import mil.dds.anet.beans.search.TaskSearchQuery;
+import mil.dds.anet.config.AnetConfiguration.DataLoaderConfiguration;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.dataloader.BatchLoader;
 import org.dataloader.DataLoader;
@@ -34,46 +41,95 @@ import org.dataloader.DataLoaderOptions;
 import org.dataloader.DataLoaderRegistry;
 import org.dataloader.stats.SimpleStatisticsCollector;
 import org.dataloader.stats.Statistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public final class BatchingUtils {
 
-  private final ExecutorService dispatcherService;
+  private static final Logger logger =
+      LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+  private static final String DISPATCHER_SERVICE_NAME = "dataLoaderDispatcher";
+
   private final DataLoaderRegistry dataLoaderRegistry;
   private final DataLoaderOptions dataLoaderOptions;
 
+  /**
+   * Create the data loaders, running their batch loads synchronously on the calling thread. Meant
+   * for registries without batching, where an executor has nothing to overlap: in particular, a
+   * data loader thread that (indirectly) uses such a registry then never blocks waiting for other
+   * data loaders.
+   *
+   * @param engine the object engine
+   * @param batchingEnabled whether to batch loads
+   * @param cachingEnabled whether to cache loads
+   */
   public BatchingUtils(AnetObjectEngine engine, boolean batchingEnabled, boolean cachingEnabled) {
+    this(engine, batchingEnabled, cachingEnabled, MoreExecutors.directExecutor());
+  }
+
+  /**
+   * Create the data loaders, running their batch loads on the given executor.
+   *
+   * @param engine the object engine
+   * @param batchingEnabled whether to batch loads
+   * @param cachingEnabled whether to cache loads
+   * @param executor the executor to run the batch loads on
+   */
+  public BatchingUtils(AnetObjectEngine engine, boolean batchingEnabled, boolean cachingEnabled,
+      Executor executor) {
     final int maxBatchSize = DaoUtils.isMsSql() ? 1000 : 25000;
-    // Give each registry its own thread pool
-    dispatcherService = Executors.newFixedThreadPool(3);
     dataLoaderRegistry = new DataLoaderRegistry();
     dataLoaderOptions =
         DataLoaderOptions.newOptions().setStatisticsCollector(() -> new SimpleStatisticsCollector())
             .setBatchingEnabled(batchingEnabled).setCachingEnabled(cachingEnabled)
             .setMaxBatchSize(maxBatchSize);
-    registerDataLoaders(engine);
-  }
-
-  public DataLoaderRegistry getDataLoaderRegistry() {
-    return dataLoaderRegistry;
+    registerDataLoaders(engine, executor);
   }
 
   /**
-   * Call this when you're done with this batcher; it shuts down the thread pool being used (which
-   * may free up some resources). If you don't call this yourself, eventually it will be done
-   * through {@link #finalize()}, but that might be delayed.
+   * Create an executor for the data loaders. Every batch load holds one database connection while
+   * it runs, so the number of threads is derived from the database pool: unless configured
+   * explicitly, the data loaders get half of its connections, leaving the rest to the request
+   * threads and the workers. Batch loads never wait for other data loaders (nested searches use
+   * the synchronous registry of the object engine), so the threads can't starve each other. When
+   * the bounded queue is full, the dispatching request thread runs the batch load itself. This
+   * only bounds the queue; to hold back batch loads while the database pool is saturated, wrap
+   * the executor in a {@link ConnectionPoolThrottledExecutor}.
+   *
+   * @param config the data loader configuration
+   * @param maxDbConnections the maximum size of the database connection pool
+   * @param metricRegistry the registry to add the executor gauges to
+   * @return the executor; the caller is responsible for shutting it down
    */
-  public void shutdown() {
-    dispatcherService.shutdown();
+  public static ThreadPoolExecutor createDispatcherService(DataLoaderConfiguration config,
+      int maxDbConnections, MetricRegistry metricRegistry) {
+    final int nThreads = Math.max(1, config.getThreads() > 0
+        ? Math.min(config.getThreads(), maxDbConnections) : maxDbConnections / 2);
+    logger.info("Using {} threads and a queue of {} for the data loaders", nThreads,
+        config.getQueueSize());
+    final ThreadPoolExecutor executor = new ThreadPoolExecutor(nThreads, nThreads, 60L,
+        TimeUnit.SECONDS, new ArrayBlockingQueue<>(config.getQueueSize()),
+        new ThreadFactoryBuilder().setNameFormat(DISPATCHER_SERVICE_NAME + "-%d").setDaemon(true)
+            .build(),
+        new ThreadPoolExecutor.CallerRunsPolicy());
+    executor.allowCoreThreadTimeOut(true);
+    if (metricRegistry != null) {
+      metricRegistry.remove(MetricRegistry.name(DISPATCHER_SERVICE_NAME, "QueueDepth"));
+      metricRegistry.register(MetricRegistry.name(DISPATCHER_SERVICE_NAME, "QueueDepth"),
+          (Gauge<Integer>) () -> executor.getQueue().size());
+      metricRegistry.remove(MetricRegistry.name(DISPATCHER_SERVICE_NAME, "ActiveThreads"));
+      metricRegistry.register(MetricRegistry.name(DISPATCHER_SERVICE_NAME, "ActiveThreads"),
+          (Gauge<Integer>) () -> executor.getActiveCount());
+    }
+    return executor;
   }
 
-  @Override
-  @SuppressWarnings("checkstyle:NoFinalizer")
-  protected void finalize() throws Throwable {
-    shutdown();
-    super.finalize();
+  public DataLoaderRegistry getDataLoaderRegistry() {
+    return dataLoaderRegistry;
   }
 
-  private void registerDataLoaders(AnetObjectEngine engine) {
+  private void registerDataLoaders(AnetObjectEngine engine, Executor dispatcherService) {
     dataLoaderRegistry.register(IdDataLoaderKey.APPROVAL_STEPS.toString(),
         new DataLoader<>(new BatchLoader<String, ApprovalStep>() {
           @Override
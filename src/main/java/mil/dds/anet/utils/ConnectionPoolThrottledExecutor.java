@@ -0,0 +1,94 @@
+package mil.dds.anet.utils;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import io.dropwizard.db.ManagedPooledDataSource;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executor that applies back-pressure when the database connection pool is saturated. While
+ * threads are waiting for a connection, or all connections are in use, a new task is held back on
+ * the submitting thread (for the data loaders: the request thread that dispatches them) until the
+ * pool has room again, or until the maximum wait has passed; only then is it handed to the
+ * delegate. The pool state comes from the gauges that Dropwizard registers for its managed data
+ * source; without them, tasks are never held back.
+ */
+public class ConnectionPoolThrottledExecutor implements Executor {
+
+  private static final String POOL_METRICS_PREFIX = ManagedPooledDataSource.class.getName() + ".";
+  private static final long POLL_MILLIS = 5;
+
+  private final Executor delegate;
+  private final MetricRegistry metricRegistry;
+  private final int maxConnections;
+  private final long maxWaitNanos;
+  private final Counter throttledCount;
+  private final Timer throttleTime;
+
+  /**
+   * Create the executor.
+   *
+   * @param delegate the executor that runs the tasks
+   * @param metricRegistry the registry with the data source gauges, and for our own metrics
+   * @param metricName the name under which to register our own metrics
+   * @param maxConnections the maximum size of the database connection pool
+   * @param maxWait the maximum time a task is held back
+   */
+  public ConnectionPoolThrottledExecutor(Executor delegate, MetricRegistry metricRegistry,
+      String metricName, int maxConnections, Duration maxWait) {
+    this.delegate = delegate;
+    this.metricRegistry = metricRegistry;
+    this.maxConnections = maxConnections;
+    this.maxWaitNanos = maxWait.toNanos();
+    this.throttledCount = metricRegistry.counter(MetricRegistry.name(metricName, "Throttled"));
+    this.throttleTime = metricRegistry.timer(MetricRegistry.name(metricName, "ThrottleTime"));
+  }
+
+  @Override
+  public void execute(Runnable command) {
+    if (maxWaitNanos > 0 && isSaturated()) {
+      throttledCount.inc();
+      final long start = System.nanoTime();
+      try {
+        while (isSaturated() && System.nanoTime() - start < maxWaitNanos) {
+          Thread.sleep(POLL_MILLIS);
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } finally {
+        throttleTime.update(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+      }
+    }
+    delegate.execute(command);
+  }
+
+  /**
+   * Check whether the database connection pool is saturated.
+   *
+   * @return true if threads are waiting for a connection, or all connections are in use
+   */
+  public boolean isSaturated() {
+    return getPoolGauge("waiting") > 0 || getPoolGauge("active") >= maxConnections;
+  }
+
+  private long getPoolGauge(String gaugeName) {
+    final String suffix = "." + gaugeName;
+    final Collection<Gauge> gauges = metricRegistry
+        .getGauges((name, metric) -> name.startsWith(POOL_METRICS_PREFIX) && name.endsWith(suffix))
+        .values();
+    long total = 0;
+    for (final Gauge<?> gauge : gauges) {
+      final Object value = gauge.getValue();
+      if (value instanceof Number) {
+        total += ((Number) value).longValue();
+      }
+    }
+    return total;
+  }
+
+}
@@ -6,6 +6,7 @@ import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -54,6 +55,57 @@ public class DaoUtils {
     return o.ordinal();
   }
 
+  // Beyond this size, list arguments are padded to a multiple of it instead of a power of two
+  private static final int LIST_ARG_BUCKET_STEP = 128;
+
+  /**
+   * Pad a list argument of an IN ( ... ) clause by repeating its last element, so that its size is
+   * a power of two (or, for long lists, a multiple of 128). Each list size makes bindList generate
+   * a different SQL statement, so this keeps the number of distinct statements low enough for the
+   * prepared statement caches to be effective.
+   *
+   * @param listArg the list argument
+   * @return the padded list argument
+   */
+  public static <T> List<T> padListArg(List<T> listArg) {
+    final int size = listArg.size();
+    final int paddedSize = getPaddedListArgSize(size);
+    if (paddedSize == size) {
+      return listArg;
+    }
+    final List<T> paddedListArg = new ArrayList<>(paddedSize);
+    paddedListArg.addAll(listArg);
+    final T last = listArg.get(size - 1);
+    while (paddedListArg.size() < paddedSize) {
+      paddedListArg.add(last);
+    }
+    return paddedListArg;
+  }
+
+  public static int getPaddedListArgSize(int size) {
+    if (size <= 1) {
+      return size;
+    }
+    if (size <= LIST_ARG_BUCKET_STEP) {
+      return Integer.highestOneBit(size - 1) << 1;
+    }
+    return (size + LIST_ARG_BUCKET_STEP - 1) / LIST_ARG_BUCKET_STEP * LIST_ARG_BUCKET_STEP;
+  }
+
+  /**
+   * Rewrite the IN ( &lt;paramName&gt; ) clauses of a statement to = ANY(:paramName), so that on
+   * PostgreSQL the list can be bound as a single array parameter: the statement text is then the
+   * same for every list size, and a long list doesn't need thousands of bind parameters.
+   *
+   * @param sql the statement
+   * @param paramName the name of the list parameter
+   * @return the rewritten statement, or the statement itself if it has no such clause
+   */
+  public static String toAnyArraySql(String sql, String paramName) {
+    return sql.replaceAll("(?i)\\bIN\\s*\\(\\s*<" + paramName + ">\\s*\\)",
+        "= ANY(:" + paramName + ")");
+  }
+
   /* This never changes during execution, so statically cache it. */
   private static DbType DB_TYPE = null;
 
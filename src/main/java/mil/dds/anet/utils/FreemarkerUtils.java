@@ -0,0 +1,32 @@
+package mil.dds.anet.utils;
+
+import static mil.dds.anet.AnetApplication.FREEMARKER_VERSION;
+
+import freemarker.template.Configuration;
+import freemarker.template.DefaultObjectWrapperBuilder;
+import java.nio.charset.StandardCharsets;
+
+public class FreemarkerUtils {
+
+  // Shared, so that compiled templates are cached across all renders
+  private static final Configuration configuration = createConfiguration();
+
+  private FreemarkerUtils() {}
+
+  public static Configuration getConfiguration() {
+    return configuration;
+  }
+
+  private static Configuration createConfiguration() {
+    final Configuration freemarkerConfig = new Configuration(FREEMARKER_VERSION);
+    // auto-escape HTML in our .ftlh templates
+    freemarkerConfig.setRecognizeStandardFileExtensions(true);
+    freemarkerConfig.setObjectWrapper(new DefaultObjectWrapperBuilder(FREEMARKER_VERSION).build());
+    freemarkerConfig.loadBuiltInEncodingMap();
+    freemarkerConfig.setDefaultEncoding(StandardCharsets.UTF_8.name());
+    freemarkerConfig.setClassForTemplateLoading(FreemarkerUtils.class, "/");
+    freemarkerConfig.setAPIBuiltinEnabled(true);
+    return freemarkerConfig;
+  }
+
+}
@@ -0,0 +1,214 @@
+package mil.dds.anet.utils;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.stream.IntStream;
+import org.jdbi.v3.core.statement.StatementBuilder;
+import org.jdbi.v3.core.statement.StatementContext;
+
+/**
+ * Statement builder that instruments the prepared statements it creates for the
+ * {@link AnetDbLogger}. It keeps track of the sizes of the bound parameters, and passes the row
+ * counts on to the logger when Jdbi reads them from the statement, so the statement is only asked
+ * for them once. For queries, the rows read from the result set are counted, and passed on when it
+ * is closed.
+ */
+class InstrumentedStatementBuilder implements StatementBuilder {
+
+  /**
+   * Handles the calls to an instrumented statement, and keeps track of its bound parameters.
+   */
+  static final class Instrumentation implements InvocationHandler {
+    private final Statement stmt;
+    private final StatementContext ctx;
+    private final AnetDbLogger dbLogger;
+    // A statement is only used by one thread at a time
+    private int count;
+    private long totalSize;
+    private long maxSize;
+
+    private Instrumentation(Statement stmt, StatementContext ctx, AnetDbLogger dbLogger) {
+      this.stmt = stmt;
+      this.ctx = ctx;
+      this.dbLogger = dbLogger;
+    }
+
+    int getParameterCount() {
+      return count;
+    }
+
+    long getTotalParameterSize() {
+      return totalSize;
+    }
+
+    long getMaxParameterSize() {
+      return maxSize;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      final String name = method.getName();
+      if ("equals".equals(name) && args != null && args.length == 1) {
+        return proxy == args[0];
+      }
+      if ("hashCode".equals(name) && args == null) {
+        return System.identityHashCode(proxy);
+      }
+      // Parameter setters all take the parameter index and the value (or SQL type for setNull)
+      if (name.startsWith("set") && args != null && args.length >= 2
+          && args[0] instanceof Integer) {
+        addParameter("setNull".equals(name) ? null : args[1]);
+      }
+      final Object result;
+      try {
+        result = method.invoke(stmt, args);
+      } catch (InvocationTargetException e) {
+        throw e.getCause();
+      }
+      if ("getUpdateCount".equals(name)) {
+        dbLogger.recordRows(ctx, (Integer) result);
+      } else if ("executeBatch".equals(name)) {
+        dbLogger.recordRows(ctx, IntStream.of((int[]) result).filter(c -> c >= 0).sum());
+      } else if (result instanceof ResultSet
+          && ("executeQuery".equals(name) || "getResultSet".equals(name))) {
+        return Proxy.newProxyInstance(InstrumentedStatementBuilder.class.getClassLoader(),
+            new Class<?>[] {ResultSet.class},
+            new ResultSetInstrumentation((ResultSet) result, (Statement) proxy, ctx, dbLogger));
+      }
+      return result;
+    }
+
+    private void addParameter(Object value) {
+      final long size = getSize(value);
+      count++;
+      totalSize += size;
+      maxSize = Math.max(maxSize, size);
+    }
+
+    // Characters for strings and arrays (as text), bytes for binary data; other values count as 0
+    private static long getSize(Object value) {
+      if (value instanceof CharSequence) {
+        return ((CharSequence) value).length();
+      } else if (value instanceof byte[]) {
+        return ((byte[]) value).length;
+      } else if (value instanceof java.sql.Array) {
+        return value.toString().length();
+      }
+      return 0;
+    }
+  }
+
+  /**
+   * Handles the calls to the result set of an instrumented statement, and counts the rows read.
+   */
+  static final class ResultSetInstrumentation implements InvocationHandler {
+    private final ResultSet rs;
+    private final Statement stmt;
+    private final StatementContext ctx;
+    private final AnetDbLogger dbLogger;
+    private int rows;
+    private boolean recorded;
+
+    private ResultSetInstrumentation(ResultSet rs, Statement stmt, StatementContext ctx,
+        AnetDbLogger dbLogger) {
+      this.rs = rs;
+      this.stmt = stmt;
+      this.ctx = ctx;
+      this.dbLogger = dbLogger;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      final String name = method.getName();
+      if ("equals".equals(name) && args != null && args.length == 1) {
+        return proxy == args[0];
+      }
+      if ("hashCode".equals(name) && args == null) {
+        return System.identityHashCode(proxy);
+      }
+      if ("getStatement".equals(name) && args == null) {
+        // The instrumented statement, not the one it wraps
+        return stmt;
+      }
+      final Object result;
+      try {
+        result = method.invoke(rs, args);
+      } catch (InvocationTargetException e) {
+        throw e.getCause();
+      }
+      if ("next".equals(name) && Boolean.TRUE.equals(result)) {
+        rows++;
+      } else if ("close".equals(name) && !recorded) {
+        // Only the rows actually read, e.g. one for a query that just takes the first row
+        recorded = true;
+        dbLogger.recordRows(ctx, rows);
+      }
+      return result;
+    }
+  }
+
+  private final StatementBuilder delegate;
+  private final AnetDbLogger dbLogger;
+
+  InstrumentedStatementBuilder(StatementBuilder delegate, AnetDbLogger dbLogger) {
+    this.delegate = delegate;
+    this.dbLogger = dbLogger;
+  }
+
+  /**
+   * Get the instrumentation of a statement.
+   *
+   * @param stmt the statement
+   * @return the instrumentation, or null if the statement is not instrumented
+   */
+  static Instrumentation getInstrumentation(Statement stmt) {
+    if (stmt != null && Proxy.isProxyClass(stmt.getClass())) {
+      final InvocationHandler handler = Proxy.getInvocationHandler(stmt);
+      if (handler instanceof Instrumentation) {
+        return (Instrumentation) handler;
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public Statement create(Connection conn, StatementContext ctx) throws SQLException {
+    return delegate.create(conn, ctx);
+  }
+
+  @Override
+  public PreparedStatement create(Connection conn, String sql, StatementContext ctx)
+      throws SQLException {
+    return instrument(PreparedStatement.class, delegate.create(conn, sql, ctx), ctx);
+  }
+
+  @Override
+  public CallableStatement createCall(Connection conn, String sql, StatementContext ctx)
+      throws SQLException {
+    return instrument(CallableStatement.class, delegate.createCall(conn, sql, ctx), ctx);
+  }
+
+  @Override
+  public void close(Connection conn, String sql, Statement stmt) throws SQLException {
+    delegate.close(conn, sql, stmt);
+  }
+
+  @Override
+  public void close(Connection conn) {
+    delegate.close(conn);
+  }
+
+  private <T extends Statement> T instrument(Class<T> type, T stmt, StatementContext ctx) {
+    return type.cast(Proxy.newProxyInstance(InstrumentedStatementBuilder.class.getClassLoader(),
+        new Class<?>[] {type}, new Instrumentation(stmt, ctx, dbLogger)));
+  }
+
+}
@@ -0,0 +1,79 @@
+package mil.dds.anet.database;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class AdvisorReportInsightsCacheTest {
+
+  private static final String ORG_UUID = "org-1";
+  private static final Instant START = Instant.parse("2020-01-06T00:00:00Z");
+  private static final Instant END = Instant.parse("2020-01-27T00:00:00Z");
+
+  private AdvisorReportInsightsCache cache;
+  private AtomicInteger nrOfLoads;
+  private Supplier<List<Map<String, Object>>> loader;
+
+  @BeforeEach
+  public void setUp() {
+    cache = new AdvisorReportInsightsCache("advisorReportInsightsCacheTest",
+        Duration.ofMinutes(1), () -> null);
+    nrOfLoads = new AtomicInteger();
+    loader = () -> {
+      final List<Map<String, Object>> result = new ArrayList<>();
+      result.add(Collections.singletonMap("week", nrOfLoads.incrementAndGet()));
+      return result;
+    };
+  }
+
+  @Test
+  public void testCaching() {
+    final List<Map<String, Object>> result = cache.get(ORG_UUID, START, END, loader);
+    assertThat(cache.get(ORG_UUID, START, END, loader)).isSameAs(result);
+    assertThat(nrOfLoads.get()).isEqualTo(1);
+
+    // Other organizations and periods are cached separately
+    cache.get("org-2", START, END, loader);
+    cache.get(ORG_UUID, START, END.plusSeconds(1), loader);
+    assertThat(nrOfLoads.get()).isEqualTo(3);
+  }
+
+  @Test
+  public void testEviction() {
+    cache.get(ORG_UUID, START, END, loader);
+    cache.evictAll();
+    assertThat(cache.get(ORG_UUID, START, END, loader).get(0).get("week")).isEqualTo(2);
+    assertThat(nrOfLoads.get()).isEqualTo(2);
+  }
+
+  @Test
+  public void testNoCachingOfRacingLoad() {
+    final Supplier<List<Map<String, Object>>> racingLoader = () -> {
+      // Simulate a write happening while the insights are being loaded
+      cache.evictAll();
+      return loader.get();
+    };
+    cache.get(ORG_UUID, START, END, racingLoader);
+    cache.get(ORG_UUID, START, END, loader);
+    assertThat(nrOfLoads.get()).isEqualTo(2);
+  }
+
+  @Test
+  public void testZeroTimeToLive() {
+    cache = new AdvisorReportInsightsCache("advisorReportInsightsCacheTest", Duration.ZERO,
+        () -> null);
+    cache.get(ORG_UUID, START, END, loader);
+    cache.get(ORG_UUID, START, END, loader);
+    assertThat(nrOfLoads.get()).isEqualTo(2);
+  }
+
+}
@@ -0,0 +1,89 @@
+package mil.dds.anet.database;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.stream.IntStream;
+import mil.dds.anet.utils.Utils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class AvatarRenditionCacheTest {
+
+  private static final String PERSON_UUID = "person-1";
+
+  private byte[] avatar;
+
+  @BeforeEach
+  public void setUp() throws IOException {
+    // 200 x 200 avatar
+    final File defaultAvatar = new File(
+        AvatarRenditionCacheTest.class.getResource("/assets/default_avatar.png").getFile());
+    avatar = Files.readAllBytes(defaultAvatar.toPath());
+  }
+
+  @Test
+  public void testCaching() throws IOException {
+    final AvatarRenditionCache cache =
+        new AvatarRenditionCache("avatarRenditionCacheTest", 1, () -> null);
+    final String avatarHash = AvatarRenditionCache.getAvatarHash(avatar);
+    assertThat(cache.getIfPresent(PERSON_UUID, avatarHash, 32)).isNull();
+    final byte[] rendition = cache.get(PERSON_UUID, avatarHash, avatar, 32);
+    final BufferedImage image = Utils.convert(rendition);
+    assertThat(image.getWidth()).isEqualTo(32);
+    assertThat(image.getHeight()).isEqualTo(32);
+    assertThat(cache.get(PERSON_UUID, avatarHash, avatar, 32)).isSameAs(rendition);
+    // Once cached, the original avatar is not needed
+    assertThat(cache.getIfPresent(PERSON_UUID, avatarHash, 32)).isSameAs(rendition);
+    // Without a hash, it is computed from the avatar
+    assertThat(cache.get(PERSON_UUID, null, avatar, 32)).isSameAs(rendition);
+
+    // Other sizes and changed avatars get their own renditions
+    assertThat(cache.get(PERSON_UUID, avatarHash, avatar, 64)).isNotSameAs(rendition);
+    assertThat(cache.getIfPresent(PERSON_UUID, avatarHash, 128)).isNull();
+    final byte[] changedAvatar = Utils.resizeImage(avatar, 100, 100, "png");
+    assertThat(cache.get(PERSON_UUID, AvatarRenditionCache.getAvatarHash(changedAvatar),
+        changedAvatar, 32)).isNotSameAs(rendition);
+
+    cache.evictAll();
+    assertThat(cache.getIfPresent(PERSON_UUID, avatarHash, 32)).isNull();
+  }
+
+  @Test
+  public void testBoundedBySize() {
+    final AvatarRenditionCache cache =
+        new AvatarRenditionCache("avatarRenditionCacheTest", 1, () -> null);
+    final String avatarHash = AvatarRenditionCache.getAvatarHash(avatar);
+    final int nrPeople = 100;
+    long totalSize = 0;
+    for (int i = 0; i < nrPeople; i++) {
+      totalSize += cache.get("person-" + i, avatarHash, avatar, 512).length;
+    }
+    // More than fits in 1 MB, so some renditions have been evicted, but not all
+    assertThat(totalSize).isGreaterThan(1024 * 1024);
+    final long nrCached = IntStream.range(0, nrPeople)
+        .filter(i -> cache.getIfPresent("person-" + i, avatarHash, 512) != null).count();
+    assertThat(nrCached).isGreaterThan(0).isLessThan(nrPeople);
+  }
+
+  @Test
+  public void testNoAvatar() {
+    final AvatarRenditionCache cache =
+        new AvatarRenditionCache("avatarRenditionCacheTest", 1, () -> null);
+    assertThat(cache.get(PERSON_UUID, null, null, 32)).isNull();
+    final byte[] malformedAvatar = "malformedImageData".getBytes();
+    assertThat(cache.get(PERSON_UUID, AvatarRenditionCache.getAvatarHash(malformedAvatar),
+        malformedAvatar, 32)).isNull();
+  }
+
+  @Test
+  public void testAvatarHash() {
+    assertThat(AvatarRenditionCache.getAvatarHash(avatar))
+        .isEqualTo(AvatarRenditionCache.getAvatarHash(avatar.clone())).hasSize(64);
+    assertThat(AvatarRenditionCache.getAvatarHash(null)).isNull();
+  }
+
+}
@@ -0,0 +1,174 @@
+package mil.dds.anet.database;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import javax.cache.Cache;
+import javax.cache.Cache.Entry;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.configuration.MutableConfiguration;
+import mil.dds.anet.beans.Person;
+import mil.dds.anet.beans.Position;
+import mil.dds.anet.utils.DaoUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class DomainUsersCacheTest {
+
+  private static final String CACHE_NAME = "domainUsersCacheTest";
+  private static final int NR_OF_PEOPLE = 50;
+  private static final int NR_OF_POSITIONS = 20;
+  private static final int NR_OF_THREADS = 8;
+  private static final int NR_OF_OPERATIONS = 20000;
+
+  private CacheManager cacheManager;
+  private Cache<String, Person> cache;
+  private DomainUsersCache domainUsersCache;
+
+  @BeforeEach
+  public void setUp() {
+    cacheManager = Caching.getCachingProvider().getCacheManager();
+    cache = cacheManager.createCache(CACHE_NAME, new MutableConfiguration<String, Person>()
+        .setTypes(String.class, Person.class).setStoreByValue(false));
+    domainUsersCache = new DomainUsersCache(cache);
+  }
+
+  @AfterEach
+  public void tearDown() {
+    cacheManager.destroyCache(CACHE_NAME);
+  }
+
+  private static Person getPerson(int personIdx, Integer positionIdx) {
+    final Person person = new Person();
+    person.setUuid("person-" + personIdx);
+    person.setDomainUsername("user-" + personIdx);
+    if (positionIdx != null) {
+      final Position position = new Position();
+      position.setUuid("position-" + positionIdx);
+      person.setPosition(position);
+    }
+    return person;
+  }
+
+  @Test
+  public void testEvictByIndexes() {
+    domainUsersCache.put(getPerson(1, 1));
+    domainUsersCache.put(getPerson(2, 2));
+    domainUsersCache.put(getPerson(3, null));
+    assertThat(domainUsersCache.get("user-1")).isNotNull();
+    assertThat(domainUsersCache.get("user-2")).isNotNull();
+    assertThat(domainUsersCache.get("user-3")).isNotNull();
+
+    domainUsersCache.evictByPositionUuid("position-1");
+    assertThat(domainUsersCache.get("user-1")).isNull();
+    assertThat(domainUsersCache.getIndexedByPersonUuid("person-1")).isNull();
+
+    domainUsersCache.evictByPersonUuid("person-2");
+    assertThat(domainUsersCache.get("user-2")).isNull();
+    assertThat(domainUsersCache.getIndexedByPositionUuid("position-2")).isNull();
+
+    domainUsersCache.evictByPersonUuid("person-3");
+    assertThat(domainUsersCache.get("user-3")).isNull();
+  }
+
+  @Test
+  public void testPositionReassignment() {
+    domainUsersCache.put(getPerson(1, 1));
+    // Person 2 now holds position 1, so the cached person 1 is stale
+    domainUsersCache.put(getPerson(2, 1));
+    assertThat(domainUsersCache.get("user-1")).isNull();
+    assertThat(domainUsersCache.getIndexedByPersonUuid("person-1")).isNull();
+    assertThat(domainUsersCache.getIndexedByPositionUuid("position-1")).isEqualTo("user-2");
+  }
+
+  @Test
+  public void testDomainUsernameChange() {
+    domainUsersCache.put(getPerson(1, 1));
+    final Person renamed = getPerson(1, 1);
+    renamed.setDomainUsername("renamed-1");
+    domainUsersCache.put(renamed);
+    assertThat(domainUsersCache.get("user-1")).isNull();
+    assertThat(domainUsersCache.getIndexedByPersonUuid("person-1")).isEqualTo("renamed-1");
+    assertThat(domainUsersCache.getIndexedByPositionUuid("position-1")).isEqualTo("renamed-1");
+  }
+
+  @Test
+  public void testConcurrentLoginsAndReassignments() throws Exception {
+    final ExecutorService executor = Executors.newFixedThreadPool(NR_OF_THREADS);
+    try {
+      final List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < NR_OF_THREADS; t++) {
+        futures.add(executor.submit(() -> {
+          final ThreadLocalRandom random = ThreadLocalRandom.current();
+          for (int i = 0; i < NR_OF_OPERATIONS; i++) {
+            final int personIdx = random.nextInt(NR_OF_PEOPLE);
+            final int positionIdx = random.nextInt(NR_OF_POSITIONS);
+            final Integer heldPositionIdx = random.nextBoolean() ? positionIdx : null;
+            switch (random.nextInt(4)) {
+              case 0:
+              case 1:
+                // Login, i.e. person loaded from the database and cached
+                domainUsersCache.put(getPerson(personIdx, heldPositionIdx));
+                domainUsersCache.get("user-" + personIdx);
+                break;
+              case 2:
+                // Position reassignment
+                domainUsersCache.evictByPositionUuid("position-" + positionIdx);
+                break;
+              default:
+                // Person update
+                domainUsersCache.evictByPersonUuid("person-" + personIdx);
+                break;
+            }
+          }
+        }));
+      }
+      for (final Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+
+    // Every cache entry must be indexed
+    int nrOfEntries = 0;
+    for (final Entry<String, Person> entry : cache) {
+      nrOfEntries++;
+      final Person person = entry.getValue();
+      assertThat(domainUsersCache.getIndexedByPersonUuid(person.getUuid()))
+          .isEqualTo(entry.getKey());
+      if (person.getPosition() != null) {
+        assertThat(domainUsersCache.getIndexedByPositionUuid(person.getPosition().getUuid()))
+            .isEqualTo(entry.getKey());
+      }
+    }
+    // And every index entry must point to a matching cache entry
+    int nrOfIndexedPeople = 0;
+    for (int i = 0; i < NR_OF_PEOPLE; i++) {
+      final String domainUsername = domainUsersCache.getIndexedByPersonUuid("person-" + i);
+      if (domainUsername != null) {
+        nrOfIndexedPeople++;
+        final Person person = cache.get(domainUsername);
+        assertThat(person).isNotNull();
+        assertThat(person.getUuid()).isEqualTo("person-" + i);
+      }
+    }
+    assertThat(nrOfIndexedPeople).isEqualTo(nrOfEntries);
+    for (int i = 0; i < NR_OF_POSITIONS; i++) {
+      final String domainUsername = domainUsersCache.getIndexedByPositionUuid("position-" + i);
+      if (domainUsername != null) {
+        final Person person = cache.get(domainUsername);
+        assertThat(person).isNotNull();
+        assertThat(DaoUtils.getUuid(person.getPosition())).isEqualTo("position-" + i);
+      }
+    }
+  }
+
+}
@@ -0,0 +1,132 @@
+package mil.dds.anet.database;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.codahale.metrics.MetricRegistry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.configuration.MutableConfiguration;
+import mil.dds.anet.beans.Tag;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class EntityCacheTest {
+
+  private static final String CACHE_NAME = "entityCacheTest";
+  private static final String[] FIELDS = {"uuid", "name", "description"};
+
+  private CacheManager cacheManager;
+  private MetricRegistry metricRegistry;
+  private EntityCache<Tag> entityCache;
+  private List<List<String>> loads;
+  private Function<List<String>, List<Tag>> loader;
+
+  @BeforeEach
+  public void setUp() {
+    cacheManager = Caching.getCachingProvider().getCacheManager();
+    final Cache<String, Tag> cache = cacheManager.createCache(CACHE_NAME,
+        new MutableConfiguration<String, Tag>().setTypes(String.class, Tag.class)
+            .setStoreByValue(false));
+    metricRegistry = new MetricRegistry();
+    entityCache = new EntityCache<>(CACHE_NAME, cache, Tag.class, FIELDS, () -> metricRegistry);
+    loads = new ArrayList<>();
+    loader = uuids -> {
+      loads.add(uuids);
+      final List<Tag> tags = new ArrayList<>();
+      for (final String uuid : uuids) {
+        // Unknown uuids are not found
+        tags.add(uuid.startsWith("unknown") ? null : getTag(uuid, "tag " + loads.size()));
+      }
+      return tags;
+    };
+  }
+
+  @AfterEach
+  public void tearDown() {
+    cacheManager.destroyCache(CACHE_NAME);
+  }
+
+  private static Tag getTag(String uuid, String name) {
+    final Tag tag = new Tag();
+    tag.setUuid(uuid);
+    tag.setName(name);
+    return tag;
+  }
+
+  private long getCount(String name) {
+    return metricRegistry.counter(MetricRegistry.name(CACHE_NAME, name)).getCount();
+  }
+
+  @Test
+  public void testOnlyMissesAreLoaded() {
+    assertThat(entityCache.getByIds(Arrays.asList("a", "b"), loader)).extracting(Tag::getUuid)
+        .containsExactly("a", "b");
+    final List<Tag> tags = entityCache.getByIds(Arrays.asList("c", "b", "unknown", "a"), loader);
+    assertThat(tags).extracting(t -> t == null ? null : t.getUuid()).containsExactly("c", "b",
+        null, "a");
+    // The cached tags still have the name of the first load
+    assertThat(tags.get(1).getName()).isEqualTo("tag 1");
+    assertThat(loads).containsExactly(Arrays.asList("a", "b"), Arrays.asList("c", "unknown"));
+    assertThat(getCount("LoadCount")).isEqualTo(6);
+    assertThat(getCount("CacheHitCount")).isEqualTo(2);
+    assertThat(getCount("CacheMissCount")).isEqualTo(4);
+  }
+
+  @Test
+  public void testDefensiveCopies() {
+    final Tag loaded = entityCache.getByIds(Arrays.asList("a"), loader).get(0);
+    loaded.setName("changed by the first request");
+    loaded.setDescription("not a cached field either way");
+    final Tag cached = entityCache.getByIds(Arrays.asList("a"), loader).get(0);
+    assertThat(cached).isNotSameAs(loaded);
+    assertThat(cached.getName()).isEqualTo("tag 1");
+    cached.setName("changed by the second request");
+    assertThat(entityCache.getByIds(Arrays.asList("a"), loader).get(0).getName())
+        .isEqualTo("tag 1");
+    assertThat(loads).hasSize(1);
+  }
+
+  @Test
+  public void testEvict() {
+    entityCache.getByIds(Arrays.asList("a", "b"), loader);
+    entityCache.evict("a");
+    entityCache.evict(null);
+    final List<Tag> tags = entityCache.getByIds(Arrays.asList("a", "b"), loader);
+    assertThat(tags.get(0).getName()).isEqualTo("tag 2");
+    assertThat(tags.get(1).getName()).isEqualTo("tag 1");
+    assertThat(loads).containsExactly(Arrays.asList("a", "b"), Arrays.asList("a"));
+  }
+
+  @Test
+  public void testLoadRacingWithEvictionIsNotCached() {
+    // The bean is written (and evicted) while it is being loaded
+    final Function<List<String>, List<Tag>> racingLoader = uuids -> {
+      final List<Tag> tags = loader.apply(uuids);
+      entityCache.evict("a");
+      return tags;
+    };
+    assertThat(entityCache.getByIds(Arrays.asList("a"), racingLoader).get(0).getName())
+        .isEqualTo("tag 1");
+    // So the (possibly old) loaded bean was not cached
+    assertThat(entityCache.getByIds(Arrays.asList("a"), loader).get(0).getName())
+        .isEqualTo("tag 2");
+    assertThat(entityCache.getByIds(Arrays.asList("a"), loader).get(0).getName())
+        .isEqualTo("tag 2");
+    assertThat(loads).hasSize(2);
+  }
+
+  @Test
+  public void testWithoutCache() {
+    entityCache = new EntityCache<>(CACHE_NAME, null, Tag.class, FIELDS, () -> metricRegistry);
+    entityCache.getByIds(Arrays.asList("a"), loader);
+    entityCache.getByIds(Arrays.asList("a"), loader);
+    assertThat(loads).hasSize(2);
+  }
+
+}
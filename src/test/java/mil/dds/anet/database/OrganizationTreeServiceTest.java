@@ -0,0 +1,186 @@
+package mil.dds.anet.database;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import mil.dds.anet.beans.Organization;
+import mil.dds.anet.beans.Organization.OrganizationType;
+import mil.dds.anet.utils.Utils;
+import org.jdbi.v3.core.Handle;
+import org.jdbi.v3.core.Jdbi;
+import org.jdbi.v3.core.transaction.TransactionHandler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+public class OrganizationTreeServiceTest {
+
+  private List<Organization> orgs;
+  private AtomicInteger nrOfLoads;
+  private AtomicLong clock;
+  private OrganizationTreeService treeService;
+
+  @BeforeEach
+  public void setUp() {
+    // a -> (b -> (d, e), c) and f, where f is a principal organization
+    orgs = new ArrayList<>();
+    orgs.add(getOrg("a", null, OrganizationType.ADVISOR_ORG));
+    orgs.add(getOrg("b", "a", OrganizationType.ADVISOR_ORG));
+    orgs.add(getOrg("c", "a", OrganizationType.ADVISOR_ORG));
+    orgs.add(getOrg("d", "b", OrganizationType.ADVISOR_ORG));
+    orgs.add(getOrg("e", "b", OrganizationType.ADVISOR_ORG));
+    orgs.add(getOrg("f", null, OrganizationType.PRINCIPAL_ORG));
+    nrOfLoads = new AtomicInteger();
+    clock = new AtomicLong();
+    treeService = new OrganizationTreeService(() -> {
+      nrOfLoads.incrementAndGet();
+      return new ArrayList<>(orgs);
+    }, clock::get);
+    treeService.setEnabled(true);
+  }
+
+  private static Organization getOrg(String uuid, String parentOrgUuid, OrganizationType type) {
+    final Organization org = new Organization();
+    org.setUuid(uuid);
+    org.setShortName(uuid.toUpperCase());
+    org.setParentOrgUuid(parentOrgUuid);
+    org.setType(type);
+    return org;
+  }
+
+  private static List<String> getUuids(List<Organization> orgs) {
+    final List<String> uuids = new ArrayList<>();
+    orgs.forEach(o -> uuids.add(o.getUuid()));
+    return uuids;
+  }
+
+  @Test
+  public void testAscendantsAndDescendants() {
+    final OrganizationTreeService.Snapshot tree = treeService.getSnapshot();
+    assertThat(tree).isNotNull();
+    assertThat(getUuids(tree.getAscendantOrgs("d"))).containsExactly("a", "b", "d");
+    assertThat(getUuids(tree.getDescendantOrgs("a"))).containsExactly("a", "b", "c", "d", "e");
+    assertThat(getUuids(tree.getDescendantOrgs("c"))).containsExactly("c");
+    assertThat(tree.getDescendantOrgs("unknown")).isEmpty();
+    assertThat(treeService.getSnapshot()).isSameAs(tree);
+    assertThat(nrOfLoads.get()).isEqualTo(1);
+  }
+
+  @Test
+  public void testIsAncestor() {
+    final OrganizationTreeService.Snapshot tree = treeService.getSnapshot();
+    assertThat(tree.isAncestor("a", "e")).isTrue();
+    assertThat(tree.isAncestor("b", "b")).isTrue();
+    assertThat(tree.isAncestor("e", "a")).isFalse();
+    assertThat(tree.isAncestor("c", "d")).isFalse();
+    assertThat(tree.isAncestor("f", "d")).isFalse();
+  }
+
+  @Test
+  public void testTopLevelOrgHash() {
+    final OrganizationTreeService.Snapshot tree = treeService.getSnapshot();
+    final Map<String, Organization> byType =
+        tree.buildTopLevelOrgHash(OrganizationType.ADVISOR_ORG);
+    assertThat(byType).hasSize(5).doesNotContainKey("f");
+    byType.values().forEach(o -> assertThat(o.getUuid()).isEqualTo("a"));
+
+    final Map<String, Organization> byParent = tree.buildTopLevelOrgHash("a");
+    final Map<String, Organization> expected = Utils.buildParentOrgMapping(orgs.subList(0, 5), "a");
+    assertThat(byParent.keySet()).isEqualTo(expected.keySet());
+    expected.forEach((k, v) -> assertThat(byParent.get(k).getUuid()).isEqualTo(v.getUuid()));
+  }
+
+  @Test
+  public void testPut() {
+    treeService.getSnapshot();
+    // Rename only
+    final Organization renamed = getOrg("c", "a", OrganizationType.ADVISOR_ORG);
+    renamed.setShortName("Z");
+    treeService.put(renamed);
+    assertThat(getUuids(treeService.getSnapshot().getDescendantOrgs("a"))).containsExactly("a",
+        "b", "d", "e", "c");
+    // Move b (and its children) under c
+    treeService.put(getOrg("b", "c", OrganizationType.ADVISOR_ORG));
+    assertThat(getUuids(treeService.getSnapshot().getAscendantOrgs("e"))).containsExactly("a",
+        "b", "e", "c");
+    assertThat(treeService.getSnapshot().isAncestor("c", "d")).isTrue();
+    // New organization
+    treeService.put(getOrg("g", "f", OrganizationType.PRINCIPAL_ORG));
+    assertThat(getUuids(treeService.getSnapshot().getDescendantOrgs("f"))).containsExactly("f",
+        "g");
+    assertThat(nrOfLoads.get()).isEqualTo(1);
+  }
+
+  @Test
+  public void testPutAfterCommit() {
+    final Jdbi jdbi = mock(Jdbi.class);
+    when(jdbi.getTransactionHandler()).thenReturn(mock(TransactionHandler.class));
+    TransactionCallbacks.install(jdbi);
+    final ArgumentCaptor<TransactionHandler> captor =
+        ArgumentCaptor.forClass(TransactionHandler.class);
+    verify(jdbi).setTransactionHandler(captor.capture());
+    final TransactionHandler handler = captor.getValue();
+    final Handle handle = mock(Handle.class);
+    when(handle.isInTransaction()).thenReturn(true);
+
+    final OrganizationTreeService.Snapshot tree = treeService.getSnapshot();
+    // A rolled back change never reaches the tree
+    treeService.putAfterCommit(handle, getOrg("g", "f", OrganizationType.PRINCIPAL_ORG), "f");
+    handler.rollback(handle);
+    assertThat(treeService.getSnapshot()).isSameAs(tree);
+    // A committed change only does so after the commit
+    final Organization moved = getOrg("c", null, OrganizationType.ADVISOR_ORG);
+    treeService.putAfterCommit(handle, moved, "f");
+    moved.setShortName("Changed after the write");
+    assertThat(treeService.getSnapshot()).isSameAs(tree);
+    handler.commit(handle);
+    final OrganizationTreeService.Snapshot newTree = treeService.getSnapshot();
+    assertThat(getUuids(newTree.getDescendantOrgs("f"))).containsExactly("c", "f");
+    assertThat(newTree.getDescendantOrgs("c").get(0).getShortName()).isEqualTo("C");
+    assertThat(nrOfLoads.get()).isEqualTo(1);
+  }
+
+  @Test
+  public void testRefresh() {
+    treeService.setRefreshInterval(Duration.ofMinutes(5));
+    final OrganizationTreeService.Snapshot tree = treeService.getSnapshot();
+    // A change made elsewhere is only picked up once the snapshot has expired
+    orgs.add(getOrg("g", "f", OrganizationType.PRINCIPAL_ORG));
+    clock.addAndGet(Duration.ofMinutes(5).toNanos() - 1);
+    assertThat(treeService.getSnapshot()).isSameAs(tree);
+    assertThat(nrOfLoads.get()).isEqualTo(1);
+    clock.incrementAndGet();
+    assertThat(getUuids(treeService.getSnapshot().getDescendantOrgs("f"))).containsExactly("f",
+        "g");
+    assertThat(nrOfLoads.get()).isEqualTo(2);
+    // And never when refreshing is disabled
+    treeService.setRefreshInterval(Duration.ZERO);
+    clock.addAndGet(Duration.ofDays(1).toNanos());
+    treeService.getSnapshot();
+    assertThat(nrOfLoads.get()).isEqualTo(2);
+  }
+
+  @Test
+  public void testLoop() {
+    orgs.add(getOrg("x", "y", OrganizationType.ADVISOR_ORG));
+    orgs.add(getOrg("y", "x", OrganizationType.ADVISOR_ORG));
+    treeService.invalidate();
+    assertThat(treeService.getSnapshot()).isNull();
+  }
+
+  @Test
+  public void testDisabled() {
+    treeService.setEnabled(false);
+    assertThat(treeService.getSnapshot()).isNull();
+    assertThat(nrOfLoads.get()).isEqualTo(0);
+  }
+
+}
@@ -0,0 +1,108 @@
+package mil.dds.anet.database;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import mil.dds.anet.beans.Position;
+import mil.dds.anet.beans.Position.PositionType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class RoleCacheTest {
+
+  private static final String PERSON_UUID = "person-1";
+  private static final String POSITION_UUID = "position-1";
+
+  private RoleCache roleCache;
+  private AtomicInteger nrOfLoads;
+  private PositionType positionType;
+  private Function<String, Position> loader;
+
+  @BeforeEach
+  public void setUp() {
+    roleCache = new RoleCache("roleCacheTest", Duration.ofMinutes(1), () -> null);
+    nrOfLoads = new AtomicInteger();
+    positionType = PositionType.ADMINISTRATOR;
+    loader = personUuid -> {
+      nrOfLoads.incrementAndGet();
+      if (positionType == null) {
+        return null;
+      }
+      final Position position = new Position();
+      position.setUuid(POSITION_UUID);
+      position.setType(positionType);
+      return position;
+    };
+  }
+
+  @Test
+  public void testCaching() {
+    assertThat(roleCache.getPositionType(PERSON_UUID, loader))
+        .isEqualTo(PositionType.ADMINISTRATOR);
+    assertThat(roleCache.getPositionType(PERSON_UUID, loader))
+        .isEqualTo(PositionType.ADMINISTRATOR);
+    assertThat(nrOfLoads.get()).isEqualTo(1);
+
+    // Having no position is cached as well
+    positionType = null;
+    roleCache.evictByPersonUuid(PERSON_UUID);
+    assertThat(roleCache.getPositionType(PERSON_UUID, loader)).isNull();
+    assertThat(roleCache.getPositionType(PERSON_UUID, loader)).isNull();
+    assertThat(nrOfLoads.get()).isEqualTo(2);
+  }
+
+  @Test
+  public void testRevocation() {
+    assertThat(roleCache.getPositionType(PERSON_UUID, loader))
+        .isEqualTo(PositionType.ADMINISTRATOR);
+    positionType = PositionType.ADVISOR;
+    roleCache.evictByPositionUuid(POSITION_UUID);
+    assertThat(roleCache.getPositionType(PERSON_UUID, loader)).isEqualTo(PositionType.ADVISOR);
+    assertThat(nrOfLoads.get()).isEqualTo(2);
+  }
+
+  @Test
+  public void testPositionIndex() {
+    roleCache.getPositionType(PERSON_UUID, loader);
+    assertThat(roleCache.getIndexedByPositionUuid(POSITION_UUID)).isEqualTo(PERSON_UUID);
+    // Evicting another position leaves the person cached
+    roleCache.evictByPositionUuid("position-2");
+    roleCache.getPositionType(PERSON_UUID, loader);
+    assertThat(nrOfLoads.get()).isEqualTo(1);
+
+    // Evicting the person also cleans up the index
+    roleCache.evictByPersonUuid(PERSON_UUID);
+    assertThat(roleCache.getIndexedByPositionUuid(POSITION_UUID)).isNull();
+
+    // A person without a position is not indexed
+    positionType = null;
+    roleCache.getPositionType(PERSON_UUID, loader);
+    assertThat(roleCache.getIndexedByPositionUuid(POSITION_UUID)).isNull();
+    assertThat(nrOfLoads.get()).isEqualTo(2);
+  }
+
+  @Test
+  public void testDisabled() {
+    roleCache.setTimeToLive(Duration.ZERO);
+    roleCache.getPositionType(PERSON_UUID, loader);
+    roleCache.getPositionType(PERSON_UUID, loader);
+    assertThat(nrOfLoads.get()).isEqualTo(2);
+  }
+
+  @Test
+  public void testEvictionDuringLoad() {
+    // A position change committed while loading must not leave the stale result in the cache
+    final Function<String, Position> racingLoader = personUuid -> {
+      final Position position = loader.apply(personUuid);
+      roleCache.evictByPersonUuid(personUuid);
+      return position;
+    };
+    assertThat(roleCache.getPositionType(PERSON_UUID, racingLoader))
+        .isEqualTo(PositionType.ADMINISTRATOR);
+    positionType = PositionType.ADVISOR;
+    assertThat(roleCache.getPositionType(PERSON_UUID, loader)).isEqualTo(PositionType.ADVISOR);
+  }
+
+}
@@ -0,0 +1,115 @@
+package mil.dds.anet.database;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.jdbi.v3.core.Handle;
+import org.jdbi.v3.core.HandleCallback;
+import org.jdbi.v3.core.Jdbi;
+import org.jdbi.v3.core.transaction.TransactionHandler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+public class TransactionCallbacksTest {
+
+  private TransactionHandler delegate;
+  private TransactionHandler handler;
+  private Handle handle;
+  private List<String> actions;
+
+  @BeforeEach
+  public void setUp() {
+    final Jdbi jdbi = mock(Jdbi.class);
+    delegate = mock(TransactionHandler.class);
+    when(jdbi.getTransactionHandler()).thenReturn(delegate);
+    TransactionCallbacks.install(jdbi);
+    final ArgumentCaptor<TransactionHandler> captor =
+        ArgumentCaptor.forClass(TransactionHandler.class);
+    verify(jdbi).setTransactionHandler(captor.capture());
+    handler = captor.getValue();
+    handle = mock(Handle.class);
+    when(handle.isInTransaction()).thenReturn(true);
+    when(delegate.isInTransaction(handle)).thenReturn(false);
+    actions = new ArrayList<>();
+  }
+
+  private void register() {
+    TransactionCallbacks.afterCommit(handle, () -> actions.add("commit"));
+    TransactionCallbacks.afterRollback(handle, () -> actions.add("rollback"));
+    TransactionCallbacks.afterCompletion(handle, () -> actions.add("completion"));
+  }
+
+  @Test
+  public void testOutsideTransaction() {
+    when(handle.isInTransaction()).thenReturn(false);
+    register();
+    assertThat(actions).containsExactly("commit", "completion");
+  }
+
+  @Test
+  public void testCommit() {
+    register();
+    assertThat(actions).isEmpty();
+    handler.commit(handle);
+    assertThat(actions).containsExactly("commit", "completion");
+    // The callbacks only run once
+    handler.commit(handle);
+    assertThat(actions).hasSize(2);
+  }
+
+  @Test
+  public void testRollback() {
+    register();
+    handler.rollback(handle);
+    assertThat(actions).containsExactly("rollback", "completion");
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testInTransaction() throws Exception {
+    when(delegate.inTransaction(any(Handle.class), any(HandleCallback.class)))
+        .thenAnswer(invocation -> {
+          register();
+          return "result";
+        });
+    assertThat(handler.inTransaction(handle, h -> null)).isEqualTo("result");
+    assertThat(actions).containsExactly("commit", "completion");
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testFailedTransaction() throws Exception {
+    when(delegate.inTransaction(any(Handle.class), any(HandleCallback.class)))
+        .thenAnswer(invocation -> {
+          register();
+          throw new IllegalStateException("failed");
+        });
+    assertThatThrownBy(() -> handler.inTransaction(handle, h -> null))
+        .isInstanceOf(IllegalStateException.class);
+    assertThat(actions).containsExactly("rollback", "completion");
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testNestedTransaction() throws Exception {
+    when(delegate.isInTransaction(handle)).thenReturn(true);
+    when(delegate.inTransaction(any(Handle.class), any(HandleCallback.class)))
+        .thenAnswer(invocation -> {
+          register();
+          return null;
+        });
+    handler.inTransaction(handle, h -> null);
+    // Only the outermost transaction completes the callbacks
+    assertThat(actions).isEmpty();
+    handler.commit(handle);
+    assertThat(actions).containsExactly("commit", "completion");
+  }
+
+}
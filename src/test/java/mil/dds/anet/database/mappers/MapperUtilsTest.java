@@ -0,0 +1,72 @@
+package mil.dds.anet.database.mappers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import mil.dds.anet.beans.Person.PersonStatus;
+import org.jdbi.v3.core.statement.StatementContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class MapperUtilsTest {
+
+  private StatementContext ctx;
+
+  @BeforeEach
+  public void setUp() {
+    final Map<String, Object> attributes = new HashMap<>();
+    ctx = mock(StatementContext.class);
+    doAnswer(i -> attributes.put(i.getArgument(0), i.getArgument(1))).when(ctx)
+        .define(anyString(), any());
+    when(ctx.getAttribute(anyString())).thenAnswer(i -> attributes.get(i.getArgument(0)));
+  }
+
+  private ResultSet mockResultSet() throws SQLException {
+    final ResultSetMetaData metaData = mock(ResultSetMetaData.class);
+    when(metaData.getColumnCount()).thenReturn(3);
+    when(metaData.getColumnName(1)).thenReturn("people_uuid");
+    when(metaData.getColumnName(2)).thenReturn("people_name");
+    when(metaData.getColumnName(3)).thenReturn("people_status");
+    final ResultSet rs = mock(ResultSet.class);
+    when(rs.getMetaData()).thenReturn(metaData);
+    when(rs.getString(2)).thenReturn("name");
+    when(rs.getInt(3)).thenReturn(1);
+    return rs;
+  }
+
+  @Test
+  public void testColumnsResolvedOncePerResultSet() throws SQLException {
+    final ResultSet rs = mockResultSet();
+    assertThat(MapperUtils.getOptionalString(rs, ctx, "people_name")).isEqualTo("name");
+    assertThat(MapperUtils.getOptionalString(rs, ctx, "people_code")).isNull();
+    assertThat(MapperUtils.getEnumIdx(rs, ctx, "people_status", PersonStatus.class))
+        .isEqualTo(PersonStatus.values()[1]);
+    assertThat(MapperUtils.containsColumnNamed(rs, ctx, "people_uuid")).isTrue();
+    verify(rs, times(1)).getMetaData();
+
+    // Another result set of the same statement gets its own columns
+    final ResultSet otherRs = mockResultSet();
+    assertThat(MapperUtils.getOptionalString(otherRs, ctx, "people_name")).isEqualTo("name");
+    verify(otherRs, times(1)).getMetaData();
+  }
+
+  @Test
+  public void testWithoutContext() throws SQLException {
+    final ResultSet rs = mockResultSet();
+    assertThat(MapperUtils.getOptionalInt(rs, null, "people_status")).isEqualTo(1);
+    assertThat(MapperUtils.getOptionalInt(rs, null, "people_role")).isNull();
+    assertThat(ResultSetColumns.get(rs, null).indexOf("people_name")).isEqualTo(2);
+  }
+
+}
@@ -0,0 +1,119 @@
+package mil.dds.anet.graphql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.codahale.metrics.MetricRegistry;
+import graphql.ExecutionInput;
+import graphql.GraphqlErrorBuilder;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.parser.Parser;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class CachingPreparsedDocumentProviderTest {
+
+  private static final String CACHE_NAME = "documentCacheTest";
+  private static final String QUERY = "{ me { uuid name } }";
+
+  private MetricRegistry metricRegistry;
+  private CachingPreparsedDocumentProvider provider;
+  private AtomicInteger nrOfParses;
+  private Function<ExecutionInput, PreparsedDocumentEntry> parser;
+
+  @BeforeEach
+  public void setUp() {
+    metricRegistry = new MetricRegistry();
+    provider = new CachingPreparsedDocumentProvider(CACHE_NAME, 1000, metricRegistry);
+    nrOfParses = new AtomicInteger();
+    parser = executionInput -> {
+      nrOfParses.incrementAndGet();
+      return new PreparsedDocumentEntry(new Parser().parseDocument(executionInput.getQuery()));
+    };
+  }
+
+  private PreparsedDocumentEntry getDocument(String query,
+      Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidateFunction) {
+    return provider.getDocument(ExecutionInput.newExecutionInput().query(query).build(),
+        parseAndValidateFunction);
+  }
+
+  private long getCount(String name) {
+    return metricRegistry.counter(MetricRegistry.name(CACHE_NAME, name)).getCount();
+  }
+
+  @Test
+  public void testCaching() {
+    final PreparsedDocumentEntry document = getDocument(QUERY, parser);
+    assertThat(getDocument(QUERY, parser)).isSameAs(document);
+    assertThat(nrOfParses.get()).isEqualTo(1);
+    assertThat(getCount("LoadCount")).isEqualTo(2);
+    assertThat(getCount("CacheHitCount")).isEqualTo(1);
+    assertThat(getCount("CacheMissCount")).isEqualTo(1);
+    assertThat(metricRegistry.timer(MetricRegistry.name(CACHE_NAME, "ParseTime")).getCount())
+        .isEqualTo(1);
+
+    getDocument("{ me { uuid } }", parser);
+    assertThat(nrOfParses.get()).isEqualTo(2);
+  }
+
+  @Test
+  public void testNoCachingOfErrors() {
+    final Function<ExecutionInput, PreparsedDocumentEntry> failingParser = executionInput -> {
+      nrOfParses.incrementAndGet();
+      return new PreparsedDocumentEntry(GraphqlErrorBuilder.newError().message("invalid").build());
+    };
+    getDocument(QUERY, failingParser);
+    getDocument(QUERY, failingParser);
+    assertThat(nrOfParses.get()).isEqualTo(2);
+    assertThat(provider.getPersistedQuery(CachingPreparsedDocumentProvider.getQueryHash(QUERY)))
+        .isNull();
+  }
+
+  @Test
+  public void testPersistedQuery() {
+    final String queryHash = CachingPreparsedDocumentProvider.getQueryHash(QUERY);
+    assertThat(queryHash).hasSize(64);
+    assertThat(provider.getPersistedQuery(queryHash)).isNull();
+    getDocument(QUERY, parser);
+    assertThat(provider.getPersistedQuery(queryHash)).isEqualTo(QUERY);
+  }
+
+  @Test
+  public void testSizeBound() {
+    // Three queries of 400 characters; only two of them fit in the bound of 1000
+    final String queryA = getLongQuery("a");
+    final String queryB = getLongQuery("b");
+    final String queryC = getLongQuery("c");
+    assertThat(queryA).hasSize(400);
+    getDocument(queryA, parser);
+    getDocument(queryB, parser);
+    // Use A again, so B is the least recently used query
+    getDocument(queryA, parser);
+    assertThat(nrOfParses.get()).isEqualTo(2);
+
+    getDocument(queryC, parser);
+    assertThat(nrOfParses.get()).isEqualTo(3);
+    assertThat(provider.getPersistedQuery(CachingPreparsedDocumentProvider.getQueryHash(queryA)))
+        .isEqualTo(queryA);
+    assertThat(provider.getPersistedQuery(CachingPreparsedDocumentProvider.getQueryHash(queryB)))
+        .isNull();
+    assertThat(provider.getPersistedQuery(CachingPreparsedDocumentProvider.getQueryHash(queryC)))
+        .isEqualTo(queryC);
+  }
+
+  // A query of exactly 400 characters, with an alias to tell the queries apart
+  private static String getLongQuery(String alias) {
+    final StringBuilder query = new StringBuilder("{ ").append(alias).append(": me { uuid");
+    final String suffix = " } }";
+    while (query.length() + " name".length() + suffix.length() <= 400) {
+      query.append(" name");
+    }
+    while (query.length() + suffix.length() < 400) {
+      query.append(' ');
+    }
+    return query.append(suffix).toString();
+  }
+
+}
@@ -0,0 +1,152 @@
+package mil.dds.anet.graphql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import graphql.ExecutionInput;
+import graphql.ExecutionResult;
+import graphql.GraphQL;
+import graphql.schema.DataFetchingEnvironment;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.idl.RuntimeWiring;
+import graphql.schema.idl.SchemaGenerator;
+import graphql.schema.idl.SchemaParser;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.dataloader.BatchLoader;
+import org.dataloader.DataLoader;
+import org.dataloader.DataLoaderRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that the {@link DataLoaderDispatcher} resolves nested and chained data loaders, and that
+ * it is driven by the instrumentation's signals instead of by its safety-net timeout (the old
+ * dispatcher polled every 50ms).
+ */
+public class DataLoaderDispatcherTest {
+
+  private static final String SCHEMA = "type Query { node(id: Int!): Node }\n"
+      + "type Node { id: Int! parent: Node grandParent: Node }";
+  private static final String NODES = "nodes";
+  private static final int NESTING_LEVELS = 6;
+  private static final int ITERATIONS = 20;
+  // Simulated database latency for a batch load
+  private static final long BATCH_LOAD_MILLIS = 2;
+
+  private static ExecutorService executor;
+  private static GraphQL graphql;
+
+  @BeforeAll
+  public static void setUp() {
+    executor = Executors.newFixedThreadPool(3);
+    final RuntimeWiring wiring = RuntimeWiring.newRuntimeWiring()
+        .type("Query", b -> b.dataFetcher("node", env -> load(env, env.getArgument("id"))))
+        .type("Node",
+            b -> b.dataFetcher("id", env -> env.getSource())
+                .dataFetcher("parent", env -> load(env, (Integer) env.getSource() - 1))
+                // Chained data loader calls inside one fetcher
+                .dataFetcher("grandParent", env -> load(env, (Integer) env.getSource() - 1)
+                    .thenCompose(parent -> load(env, parent - 1))))
+        .build();
+    final GraphQLSchema schema =
+        new SchemaGenerator().makeExecutableSchema(new SchemaParser().parse(SCHEMA), wiring);
+    graphql = GraphQL.newGraphQL(schema).doNotAddDefaultInstrumentations()
+        .instrumentation(new DataLoaderDispatcherInstrumentation()).build();
+  }
+
+  @AfterAll
+  public static void tearDown() {
+    executor.shutdown();
+  }
+
+  private static CompletableFuture<Integer> load(DataFetchingEnvironment env, Integer id) {
+    final Map<String, Object> context = env.getContext();
+    final DataLoaderRegistry dataLoaderRegistry =
+        (DataLoaderRegistry) context.get("dataLoaderRegistry");
+    return dataLoaderRegistry.<Integer, Integer>getDataLoader(NODES).load(id);
+  }
+
+  private static DataLoaderRegistry createDataLoaderRegistry() {
+    final DataLoaderRegistry dataLoaderRegistry = new DataLoaderRegistry();
+    dataLoaderRegistry.register(NODES, new DataLoader<>(new BatchLoader<Integer, Integer>() {
+      @Override
+      public CompletableFuture<List<Integer>> load(List<Integer> keys) {
+        return CompletableFuture.supplyAsync(() -> {
+          try {
+            Thread.sleep(BATCH_LOAD_MILLIS);
+          } catch (InterruptedException ignored) {
+            // just continue
+          }
+          return keys;
+        }, executor);
+      }
+    }));
+    return dataLoaderRegistry;
+  }
+
+  private static String buildQuery() {
+    final StringBuilder sb = new StringBuilder("{ node(id: 100) { id ");
+    for (int i = 0; i < NESTING_LEVELS; i++) {
+      sb.append("parent { id grandParent { id } ");
+    }
+    for (int i = 0; i < NESTING_LEVELS; i++) {
+      sb.append("} ");
+    }
+    return sb.append("} }").toString();
+  }
+
+  private static ExecutionResult execute(String query) {
+    return execute(query, new DataLoaderDispatcher(createDataLoaderRegistry()));
+  }
+
+  private static ExecutionResult execute(String query, DataLoaderDispatcher dispatcher) {
+    final DataLoaderRegistry dataLoaderRegistry = dispatcher.getDataLoaderRegistry();
+    final Map<String, Object> context = new HashMap<>();
+    context.put("dataLoaderRegistry", dataLoaderRegistry);
+    context.put(DataLoaderDispatcher.CONTEXT_KEY, dispatcher);
+    final ExecutionInput executionInput = ExecutionInput.newExecutionInput().query(query)
+        .dataLoaderRegistry(dataLoaderRegistry).context(context).build();
+    final CompletableFuture<ExecutionResult> request = graphql.executeAsync(executionInput);
+    dispatcher.dispatchUntilDone(request);
+    return request.join();
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testNestedAndChainedLoaders() {
+    final ExecutionResult result = execute(buildQuery());
+    assertThat(result.getErrors()).isEmpty();
+    Map<String, Object> node = (Map<String, Object>) ((Map<String, Object>) result.getData())
+        .get("node");
+    int expectedId = 100;
+    assertThat(node.get("id")).isEqualTo(expectedId);
+    for (int i = 0; i < NESTING_LEVELS; i++) {
+      node = (Map<String, Object>) node.get("parent");
+      expectedId--;
+      assertThat(node.get("id")).isEqualTo(expectedId);
+      assertThat(((Map<String, Object>) node.get("grandParent")).get("id"))
+          .isEqualTo(expectedId - 2);
+    }
+  }
+
+  @Test
+  public void testDispatchIsSignalled() {
+    final String query = buildQuery();
+    for (int i = 0; i < ITERATIONS; i++) {
+      final DataLoaderDispatcher dispatcher =
+          new DataLoaderDispatcher(createDataLoaderRegistry());
+      assertThat(execute(query, dispatcher).getErrors()).isEmpty();
+      // Every wait was ended by a signal, never by the safety-net timeout
+      assertThat(dispatcher.getWaitTimeouts()).isZero();
+      // Node n can only be loaded once node n + 1 has been, so the (cached) loads of nodes 100
+      // down to the deepest grandParent each take exactly one round
+      assertThat(dispatcher.getDispatchRounds()).isEqualTo(NESTING_LEVELS + 3);
+    }
+  }
+
+}
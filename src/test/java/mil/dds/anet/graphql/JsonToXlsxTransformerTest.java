@@ -0,0 +1,77 @@
+package mil.dds.anet.graphql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import mil.dds.anet.config.AnetConfiguration;
+import mil.dds.anet.graphql.outputtransformers.JsonToXlsxTransformer;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+
+public class JsonToXlsxTransformerTest {
+
+  private static final int NR_OF_ROWS = 10000;
+
+  private static Map<String, Object> getRow(int i) {
+    final Map<String, Object> row = new LinkedHashMap<>();
+    row.put("uuid", "uuid-" + i);
+    row.put("intent", "Engagement " + i);
+    row.put("count", i);
+    row.put("engagementDate", 1577836800000L + i * 60000L);
+    row.put("tags", Arrays.asList("tag-" + (i % 10), "tag-" + (i % 7)));
+    return row;
+  }
+
+  private static Map<String, Object> getResult(String collection, int nrOfRows) {
+    final List<Object> list = new ArrayList<>();
+    for (int i = 0; i < nrOfRows; i++) {
+      list.add(getRow(i));
+    }
+    final Map<String, Object> data = new LinkedHashMap<>();
+    data.put("list", list);
+    return Collections.<String, Object>singletonMap(collection, data);
+  }
+
+  @Test
+  public void testStreamingWorkbook() throws Exception {
+    final AnetConfiguration config = new AnetConfiguration();
+    config.setDictionary(Collections.<String, Object>singletonMap("dateFormats",
+        Collections.singletonMap("excel", "d MMMM yyyy")));
+    config.setXlsxRowWindow(10);
+
+    final Map<String, Object> data = new LinkedHashMap<>();
+    data.putAll(getResult("reportList", NR_OF_ROWS));
+    data.putAll(getResult("personList", 10));
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    new JsonToXlsxTransformer(config)
+        .apply(Collections.<String, Object>singletonMap("data", data)).write(output);
+
+    try (final XSSFWorkbook workbook =
+        new XSSFWorkbook(new ByteArrayInputStream(output.toByteArray()))) {
+      assertThat(workbook.getNumberOfSheets()).isEqualTo(2);
+      // Default, header and date styles, shared by all sheets
+      assertThat(workbook.getNumCellStyles()).isEqualTo(3);
+
+      final XSSFSheet sheet = workbook.getSheet("reportList");
+      assertThat(sheet.getLastRowNum()).isEqualTo(NR_OF_ROWS);
+      assertThat(sheet.getRow(0).getCell(0).getStringCellValue()).isEqualTo("UUID");
+      assertThat(sheet.getRow(0).getCell(4).getStringCellValue()).isEqualTo("TAGS");
+      assertThat(sheet.getRow(NR_OF_ROWS).getCell(1).getStringCellValue())
+          .isEqualTo("Engagement " + (NR_OF_ROWS - 1));
+      assertThat(sheet.getRow(2).getCell(2).getNumericCellValue()).isEqualTo(1);
+      assertThat(sheet.getRow(1).getCell(3).getCellType()).isEqualTo(CellType.NUMERIC);
+      assertThat(sheet.getRow(1).getCell(4).getStringCellValue()).isEqualTo("[tag-0; tag-0]");
+      assertThat(workbook.getSheet("personList").getLastRowNum()).isEqualTo(10);
+    }
+  }
+
+}
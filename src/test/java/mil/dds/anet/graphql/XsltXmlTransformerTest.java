@@ -0,0 +1,98 @@
+package mil.dds.anet.graphql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import mil.dds.anet.graphql.outputtransformers.XsltXmlTransformer;
+import org.junit.jupiter.api.Test;
+
+public class XsltXmlTransformerTest {
+
+  private static Map<String, Object> getReport(int i, boolean withLocation) {
+    final Map<String, Object> advisor = new LinkedHashMap<>();
+    advisor.put("name", "Advisor " + i);
+    final Map<String, Object> organization = new LinkedHashMap<>();
+    organization.put("longName", "Organization " + i);
+    final Map<String, Object> principal = new LinkedHashMap<>();
+    principal.put("position", Collections.singletonMap("organization", organization));
+    final Map<String, Object> report = new LinkedHashMap<>();
+    report.put("uuid", "uuid-" + i);
+    report.put("intent", "Engagement " + i);
+    report.put("primaryAdvisor", advisor);
+    report.put("primaryPrincipal", principal);
+    if (withLocation) {
+      final Map<String, Object> location = new LinkedHashMap<>();
+      location.put("lat", 10.5 + i);
+      location.put("lng", 20.25);
+      report.put("location", location);
+    } else {
+      report.put("location", null);
+    }
+    return report;
+  }
+
+  private static Map<String, Object> getResult(int nrOfReports) {
+    final List<Object> list = new ArrayList<>();
+    for (int i = 0; i < nrOfReports; i++) {
+      list.add(getReport(i, i % 2 == 0));
+    }
+    return Collections.<String, Object>singletonMap("data",
+        Collections.singletonMap("reportList", Collections.singletonMap("list", list)));
+  }
+
+  private static String transform(XsltXmlTransformer transformer, Map<String, Object> json)
+      throws Exception {
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    transformer.apply(json).write(output);
+    return new String(output.toByteArray(), StandardCharsets.UTF_8);
+  }
+
+  private static XsltXmlTransformer getTransformer(String format) {
+    return new XsltXmlTransformer(
+        XsltXmlTransformerTest.class.getResourceAsStream("/stylesheets/" + format + ".xslt"));
+  }
+
+  @Test
+  public void testNvg() throws Exception {
+    final String nvg = transform(getTransformer("nvg"), getResult(4));
+    assertThat(nvg).contains("<nvg").contains("label=\"Advisor 0@Organization 0\"")
+        .contains("x=\"20.25\"").contains("y=\"10.5\"").contains("y=\"12.5\"")
+        .doesNotContain("Advisor 1@").doesNotContain("Advisor 3@");
+  }
+
+  @Test
+  public void testKml() throws Exception {
+    final String kml = transform(getTransformer("kml"), getResult(2));
+    assertThat(kml).contains("<kml").contains("<coordinates>20.25,10.5</coordinates>")
+        .contains("/reports/uuid-0").doesNotContain("/reports/uuid-1");
+  }
+
+  @Test
+  public void testConcurrentTransformations() throws Exception {
+    final XsltXmlTransformer transformer = getTransformer("kml");
+    final Map<String, Object> json = getResult(200);
+    final String expected = transform(transformer, json);
+    final ExecutorService pool = Executors.newFixedThreadPool(8);
+    try {
+      final List<Future<String>> results = new ArrayList<>();
+      for (int i = 0; i < 32; i++) {
+        results.add(pool.submit(() -> transform(transformer, json)));
+      }
+      for (final Future<String> result : results) {
+        assertThat(result.get()).isEqualTo(expected);
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+}
@@ -0,0 +1,153 @@
+package mil.dds.anet.resources;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import graphql.ExecutionInput;
+import graphql.ExecutionResult;
+import graphql.GraphQL;
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import mil.dds.anet.AnetObjectEngine;
+import mil.dds.anet.beans.Person;
+import mil.dds.anet.config.AnetConfiguration;
+import mil.dds.anet.graphql.DataLoaderDispatcher;
+import mil.dds.anet.test.integration.utils.TestApp;
+import mil.dds.anet.utils.BatchingUtils;
+import org.dataloader.DataLoaderRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compares the latency of a nested report query (workflow, approvers and ascendant organizations)
+ * with the old dispatcher, which polled the data loaders every 50ms, and with the
+ * {@link DataLoaderDispatcher}. Run with {@code ./gradlew benchmark}.
+ */
+@Tag("benchmark")
+@ExtendWith(TestApp.class)
+public class GraphQlDispatchBenchmarkTest {
+
+  private static final Logger logger =
+      LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+  private static final String QUERY = "query { reportList(query: { pageSize: 10 }) { list { uuid "
+      + "workflow { type createdAt person { uuid name } "
+      + "step { uuid name approvers { uuid name person { uuid name } } } } "
+      + "advisorOrg { uuid shortName ascendantOrgs { uuid shortName } } "
+      + "principalOrg { uuid shortName ascendantOrgs { uuid shortName } } } } }";
+  private static final int WARMUP_ITERATIONS = 20;
+  private static final int ITERATIONS = 200;
+  private static final long POLL_MILLIS = 50;
+
+  private static AnetObjectEngine engine;
+  private static GraphQL graphql;
+  private static ExecutorService dataLoaderExecutor;
+  private static Person user;
+
+  @BeforeAll
+  public static void setUp() {
+    engine = AnetObjectEngine.getInstance();
+    graphql = TestApp.app.getEnvironment().jersey().getResourceConfig().getSingletons().stream()
+        .filter(GraphQlResource.class::isInstance).map(r -> ((GraphQlResource) r).getGraphQl())
+        .findFirst().get();
+    final AnetConfiguration config = TestApp.app.getConfiguration();
+    dataLoaderExecutor = BatchingUtils.createDispatcherService(config.getDataLoader(),
+        config.getDataSourceFactory().getMaxSize(), null);
+    user = engine.getPersonDao().findByDomainUsername("arthur").get(0);
+  }
+
+  @AfterAll
+  public static void tearDown() {
+    dataLoaderExecutor.shutdown();
+  }
+
+  @Test
+  public void benchmarkNestedQuery() {
+    for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+      execute(true);
+      execute(false);
+    }
+    final List<Long> polling = new ArrayList<>();
+    final List<Long> signalled = new ArrayList<>();
+    // Interleaved, so both see the same caches and load
+    for (int i = 0; i < ITERATIONS; i++) {
+      polling.add(execute(true));
+      signalled.add(execute(false));
+    }
+    logger.info("Nested report query, 50ms polling: {}", summarize(polling));
+    logger.info("Nested report query, DataLoaderDispatcher: {}", summarize(signalled));
+  }
+
+  /*
+   * Executes the query and returns its latency in microseconds.
+   */
+  private static long execute(boolean polling) {
+    final BatchingUtils batchingUtils =
+        new BatchingUtils(engine, true, true, dataLoaderExecutor);
+    final DataLoaderRegistry dataLoaderRegistry = batchingUtils.getDataLoaderRegistry();
+    final Map<String, Object> context = new HashMap<>();
+    context.put("user", user);
+    context.put("dataLoaderRegistry", dataLoaderRegistry);
+    // Without a dispatcher in the context, the instrumentation does nothing
+    final DataLoaderDispatcher dispatcher =
+        polling ? null : new DataLoaderDispatcher(dataLoaderRegistry);
+    if (dispatcher != null) {
+      context.put(DataLoaderDispatcher.CONTEXT_KEY, dispatcher);
+    }
+    final ExecutionInput executionInput = ExecutionInput.newExecutionInput().query(QUERY)
+        .dataLoaderRegistry(dataLoaderRegistry).context(context).build();
+
+    final long start = System.nanoTime();
+    final CompletableFuture<ExecutionResult> request = graphql.executeAsync(executionInput);
+    if (polling) {
+      pollUntilDone(request, dataLoaderRegistry);
+    } else {
+      dispatcher.dispatchUntilDone(request);
+    }
+    final ExecutionResult result = request.join();
+    final long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+    assertThat(result.getErrors()).isEmpty();
+    return micros;
+  }
+
+  /*
+   * The dispatch loop GraphQlResource used before the DataLoaderDispatcher.
+   */
+  private static void pollUntilDone(CompletableFuture<?> request,
+      DataLoaderRegistry dataLoaderRegistry) {
+    while (!request.isDone()) {
+      try {
+        Thread.yield();
+        Thread.sleep(POLL_MILLIS);
+      } catch (InterruptedException ignored) {
+        // just retry
+      }
+      final CompletableFuture<?>[] dispatchersWithWork = dataLoaderRegistry.getDataLoaders()
+          .stream().filter(dl -> dl.dispatchDepth() > 0)
+          .map(dl -> (CompletableFuture<?>) dl.dispatch()).toArray(CompletableFuture<?>[]::new);
+      if (dispatchersWithWork.length > 0) {
+        CompletableFuture.allOf(dispatchersWithWork).join();
+      }
+    }
+  }
+
+  private static String summarize(List<Long> micros) {
+    final List<Long> sorted = new ArrayList<>(micros);
+    Collections.sort(sorted);
+    return String.format("p50=%.1fms p99=%.1fms max=%.1fms (%d runs)",
+        sorted.get(sorted.size() / 2) / 1000.0, sorted.get(sorted.size() * 99 / 100) / 1000.0,
+        sorted.get(sorted.size() - 1) / 1000.0, sorted.size());
+  }
+
+}
@@ -0,0 +1,49 @@
+package mil.dds.anet.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import javax.ws.rs.WebApplicationException;
+import mil.dds.anet.beans.search.ISearchQuery.SortOrder;
+import mil.dds.anet.beans.search.ReportSearchQuery;
+import mil.dds.anet.beans.search.ReportSearchSortBy;
+import org.junit.jupiter.api.Test;
+
+public class SearchCursorTest {
+
+  private static final String UUID = "0d7f8c2e-1b4a-4c3e-9f6d-2a5b8c7e1f30";
+
+  @Test
+  public void testRoundTrip() {
+    final ReportSearchQuery query = new ReportSearchQuery();
+    query.setSortBy(ReportSearchSortBy.CREATED_AT);
+    query.setSortOrder(SortOrder.DESC);
+    query.setAfter(SearchCursor.encode(query, UUID));
+    assertThat(query.getAfter()).doesNotContain(UUID);
+    assertThat(SearchCursor.decode(query)).isEqualTo(UUID);
+  }
+
+  @Test
+  public void testDifferentSortOrder() {
+    final ReportSearchQuery query = new ReportSearchQuery();
+    query.setSortBy(ReportSearchSortBy.CREATED_AT);
+    query.setSortOrder(SortOrder.ASC);
+    query.setAfter(SearchCursor.encode(query, UUID));
+    query.setSortOrder(SortOrder.DESC);
+    assertThatThrownBy(() -> SearchCursor.decode(query))
+        .isInstanceOf(WebApplicationException.class);
+    query.setSortOrder(SortOrder.ASC);
+    query.setSortBy(ReportSearchSortBy.UPDATED_AT);
+    assertThatThrownBy(() -> SearchCursor.decode(query))
+        .isInstanceOf(WebApplicationException.class);
+  }
+
+  @Test
+  public void testInvalidCursor() {
+    final ReportSearchQuery query = new ReportSearchQuery();
+    query.setAfter("not a cursor!");
+    assertThatThrownBy(() -> SearchCursor.decode(query))
+        .isInstanceOf(WebApplicationException.class);
+  }
+
+}
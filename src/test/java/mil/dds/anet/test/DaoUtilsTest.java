@@ -2,6 +2,10 @@ package mil.dds.anet.test;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import mil.dds.anet.utils.DaoUtils;
 import mil.dds.anet.utils.DaoUtils.DbType;
 import org.junit.jupiter.api.Test;
 
@@ -27,4 +31,38 @@ public class DaoUtilsTest {
           .hasMessageContaining("nopenopenope").hasMessageStartingWith("No database type");
     }
   }
+
+  @Test
+  public void testPaddedListArgSize() {
+    assertThat(DaoUtils.getPaddedListArgSize(0)).isEqualTo(0);
+    assertThat(DaoUtils.getPaddedListArgSize(1)).isEqualTo(1);
+    assertThat(DaoUtils.getPaddedListArgSize(2)).isEqualTo(2);
+    assertThat(DaoUtils.getPaddedListArgSize(3)).isEqualTo(4);
+    assertThat(DaoUtils.getPaddedListArgSize(5)).isEqualTo(8);
+    assertThat(DaoUtils.getPaddedListArgSize(64)).isEqualTo(64);
+    assertThat(DaoUtils.getPaddedListArgSize(65)).isEqualTo(128);
+    assertThat(DaoUtils.getPaddedListArgSize(128)).isEqualTo(128);
+    assertThat(DaoUtils.getPaddedListArgSize(129)).isEqualTo(256);
+    assertThat(DaoUtils.getPaddedListArgSize(300)).isEqualTo(384);
+  }
+
+  @Test
+  public void testPadListArg() {
+    final List<String> empty = Collections.emptyList();
+    assertThat(DaoUtils.padListArg(empty)).isSameAs(empty);
+    final List<String> four = Arrays.asList("a", "b", "c", "d");
+    assertThat(DaoUtils.padListArg(four)).isSameAs(four);
+    assertThat(DaoUtils.padListArg(Arrays.asList("a", "b", "c"))).containsExactly("a", "b", "c",
+        "c");
+  }
+
+  @Test
+  public void testToAnyArraySql() {
+    assertThat(DaoUtils.toAnyArraySql("SELECT * FROM people WHERE uuid IN ( <uuids> )", "uuids"))
+        .isEqualTo("SELECT * FROM people WHERE uuid = ANY(:uuids)");
+    assertThat(DaoUtils.toAnyArraySql("WHERE a IN (<foreignKeys>) OR b in ( <foreignKeys> )",
+        "foreignKeys")).isEqualTo("WHERE a = ANY(:foreignKeys) OR b = ANY(:foreignKeys)");
+    final String other = "SELECT * FROM people WHERE uuid IN ( <otherUuids> )";
+    assertThat(DaoUtils.toAnyArraySql(other, "uuids")).isEqualTo(other);
+  }
 }
@@ -0,0 +1,147 @@
+package mil.dds.anet.test.integration.db;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import mil.dds.anet.AnetObjectEngine;
+import mil.dds.anet.beans.Organization;
+import mil.dds.anet.beans.Position;
+import mil.dds.anet.beans.Report.ReportState;
+import mil.dds.anet.database.ReportDao;
+import mil.dds.anet.test.integration.utils.TestApp;
+import mil.dds.anet.utils.DaoUtils;
+import org.jdbi.v3.core.Jdbi;
+import org.jdbi.v3.core.statement.Query;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+@ExtendWith(TestApp.class)
+public class AdvisorReportInsightsTest {
+
+  // Whole days, wide enough to include all reports; not used elsewhere, so nothing is cached yet
+  private static final Instant START =
+      LocalDate.of(2000, 1, 1).atStartOfDay(DaoUtils.getDefaultZoneId()).toInstant();
+  private static final Instant END =
+      LocalDate.of(2100, 1, 1).atStartOfDay(DaoUtils.getDefaultZoneId()).toInstant();
+
+  private static ReportDao reportDao;
+  private static Jdbi jdbi;
+
+  @BeforeAll
+  public static void setUpClass() {
+    final AnetObjectEngine engine = AnetObjectEngine.getInstance();
+    reportDao = engine.getReportDao();
+    jdbi = engine.getInjector().getInstance(Jdbi.class);
+  }
+
+  @Test
+  public void testCountsMatchReports() {
+    // Per organization
+    final List<Map<String, Object>> perOrg =
+        reportDao.getAdvisorReportInsights(START, END, Organization.DUMMY_ORG_UUID);
+    assertThat(perOrg).isNotEmpty();
+    assertThat(toRows(perOrg, false)).containsExactlyInAnyOrderElementsOf(
+        getInsightsFromReports(Organization.DUMMY_ORG_UUID));
+
+    // Per advisor, for each organization
+    final Set<String> orgUuids = perOrg.stream().map(r -> (String) r.get("organizationUuid"))
+        .collect(Collectors.toSet());
+    for (final String orgUuid : orgUuids) {
+      final List<Map<String, Object>> perPerson =
+          reportDao.getAdvisorReportInsights(START, END, orgUuid);
+      assertThat(perPerson).isNotEmpty();
+      assertThat(toRows(perPerson, true))
+          .containsExactlyInAnyOrderElementsOf(getInsightsFromReports(orgUuid));
+    }
+  }
+
+  private static List<String> toRows(List<Map<String, Object>> results, boolean perPerson) {
+    return results.stream()
+        .map(r -> toRow((String) r.get("organizationUuid"), (String) r.get("organizationShortName"),
+            perPerson ? (String) r.get("personUuid") : null,
+            perPerson ? (String) r.get("name") : null, ((Number) r.get("week")).intValue(),
+            ((Number) r.get("nrReportsSubmitted")).intValue(),
+            ((Number) r.get("nrEngagementsAttended")).intValue()))
+        .collect(Collectors.toList());
+  }
+
+  private static String toRow(String orgUuid, String orgShortName, String personUuid, String name,
+      int week, int nrReportsSubmitted, int nrEngagementsAttended) {
+    return String.join("|", orgUuid, orgShortName, personUuid, name, String.valueOf(week),
+        String.valueOf(nrReportsSubmitted), String.valueOf(nrEngagementsAttended));
+  }
+
+  /*
+   * The FULL OUTER JOIN query on the reports that the advisorReportCounts table replaced.
+   */
+  private static List<String> getInsightsFromReports(String orgUuid) {
+    final boolean perPerson = !Organization.DUMMY_ORG_UUID.equals(orgUuid);
+    final String personColumns =
+        perPerson ? "people.uuid AS \"personUuid\", people.name AS name, " : "";
+    final String personTable = perPerson ? "people, " : "";
+    final String personCondition =
+        perPerson ? "AND positions.\"currentPersonUuid\" = people.uuid " : "";
+    final String personGroupBy = perPerson ? "people.uuid, people.name, " : "";
+    final String orgCondition = perPerson ? "AND organizations.uuid = :organizationUuid " : "";
+    final String createdWeek = String.format(reportDao.getWeekFormat(), "reports.\"createdAt\"");
+    final String engagementWeek =
+        String.format(reportDao.getWeekFormat(), "reports.\"engagementDate\"");
+    final String sql = "SELECT "
+        + "COALESCE(a.\"organizationUuid\", b.\"organizationUuid\") AS \"organizationUuid\", "
+        + "COALESCE(a.\"organizationShortName\", b.\"organizationShortName\") "
+        + "AS \"organizationShortName\", "
+        + (perPerson ? "COALESCE(a.\"personUuid\", b.\"personUuid\") AS \"personUuid\", "
+            + "COALESCE(a.name, b.name) AS name, " : "")
+        + "COALESCE(a.week, b.week) AS week, "
+        + "COALESCE(a.\"nrReportsSubmitted\", 0) AS \"nrReportsSubmitted\", "
+        + "COALESCE(b.\"nrEngagementsAttended\", 0) AS \"nrEngagementsAttended\" FROM ("
+        + "SELECT organizations.uuid AS \"organizationUuid\", "
+        + "organizations.\"shortName\" AS \"organizationShortName\", " + personColumns
+        + createdWeek + " AS week, COUNT(reports.\"authorUuid\") AS \"nrReportsSubmitted\" "
+        + "FROM positions, reports, " + personTable + "organizations "
+        + "WHERE positions.\"currentPersonUuid\" = reports.\"authorUuid\" " + personCondition
+        + "AND reports.\"advisorOrganizationUuid\" = organizations.uuid "
+        + "AND positions.type = :positionAdvisor "
+        + "AND reports.state IN (:reportPublished, :reportPending, :reportDraft) "
+        + "AND reports.\"createdAt\" BETWEEN :startDate AND :endDate " + orgCondition
+        + "GROUP BY organizations.uuid, organizations.\"shortName\", " + personGroupBy
+        + createdWeek + ") a FULL OUTER JOIN ("
+        + "SELECT organizations.uuid AS \"organizationUuid\", "
+        + "organizations.\"shortName\" AS \"organizationShortName\", " + personColumns
+        + engagementWeek + " AS week, "
+        + "COUNT(\"reportPeople\".\"personUuid\") AS \"nrEngagementsAttended\" "
+        + "FROM positions, " + personTable + "reports, \"reportPeople\", organizations "
+        + "WHERE positions.\"currentPersonUuid\" = \"reportPeople\".\"personUuid\" "
+        + personCondition + "AND \"reportPeople\".\"reportUuid\" = reports.uuid "
+        + "AND reports.\"advisorOrganizationUuid\" = organizations.uuid "
+        + "AND positions.type = :positionAdvisor "
+        + "AND reports.state IN (:reportPublished, :reportPending, :reportDraft) "
+        + "AND reports.\"engagementDate\" BETWEEN :startDate AND :endDate " + orgCondition
+        + "GROUP BY organizations.uuid, organizations.\"shortName\", " + personGroupBy
+        + engagementWeek + ") b ON a.\"organizationUuid\" = b.\"organizationUuid\" "
+        + (perPerson ? "AND a.\"personUuid\" = b.\"personUuid\" " : "") + "AND a.week = b.week";
+    return jdbi.withHandle(handle -> {
+      final Query q = handle.createQuery(sql)
+          .bind("startDate", DaoUtils.asLocalDateTime(START))
+          .bind("endDate", DaoUtils.asLocalDateTime(END))
+          .bind("positionAdvisor", DaoUtils.getEnumId(Position.PositionType.ADVISOR))
+          .bind("reportDraft", DaoUtils.getEnumId(ReportState.DRAFT))
+          .bind("reportPending", DaoUtils.getEnumId(ReportState.PENDING_APPROVAL))
+          .bind("reportPublished", DaoUtils.getEnumId(ReportState.PUBLISHED));
+      if (perPerson) {
+        q.bind("organizationUuid", orgUuid);
+      }
+      return q.map((rs, ctx) -> toRow(rs.getString("organizationUuid"),
+          rs.getString("organizationShortName"), perPerson ? rs.getString("personUuid") : null,
+          perPerson ? rs.getString("name") : null, rs.getInt("week"),
+          rs.getInt("nrReportsSubmitted"), rs.getInt("nrEngagementsAttended"))).list();
+    });
+  }
+
+}
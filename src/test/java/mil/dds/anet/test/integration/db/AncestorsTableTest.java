@@ -0,0 +1,118 @@
+package mil.dds.anet.test.integration.db;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+
+import java.util.Map;
+import java.util.stream.Collectors;
+import javax.ws.rs.WebApplicationException;
+import mil.dds.anet.AnetObjectEngine;
+import mil.dds.anet.beans.Organization;
+import mil.dds.anet.database.OrganizationDao;
+import mil.dds.anet.test.integration.utils.TestApp;
+import mil.dds.anet.test.integration.utils.TestBeans;
+import org.jdbi.v3.core.Jdbi;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+@ExtendWith(TestApp.class)
+public class AncestorsTableTest {
+
+  private static OrganizationDao orgDao;
+  private static Jdbi jdbi;
+
+  @BeforeAll
+  public static void setUpClass() {
+    final AnetObjectEngine engine = AnetObjectEngine.getInstance();
+    orgDao = engine.getOrganizationDao();
+    jdbi = engine.getInjector().getInstance(Jdbi.class);
+  }
+
+  @Test
+  public void testInsert() {
+    final Organization top = insertOrg(null);
+    final Organization middle = insertOrg(top);
+    final Organization bottom = insertOrg(middle);
+
+    assertThat(getAncestors(top)).containsOnly(entry(top.getUuid(), 0));
+    assertThat(getAncestors(middle)).containsOnly(entry(middle.getUuid(), 0),
+        entry(top.getUuid(), 1));
+    assertThat(getAncestors(bottom)).containsOnly(entry(bottom.getUuid(), 0),
+        entry(middle.getUuid(), 1), entry(top.getUuid(), 2));
+  }
+
+  @Test
+  public void testMove() {
+    final Organization oldTop = insertOrg(null);
+    final Organization newTop = insertOrg(null);
+    final Organization newMiddle = insertOrg(newTop);
+    final Organization middle = insertOrg(oldTop);
+    final Organization bottom = insertOrg(middle);
+
+    // Move the subtree under another tree
+    middle.setParentOrg(newMiddle);
+    orgDao.update(middle);
+    assertThat(getAncestors(middle)).containsOnly(entry(middle.getUuid(), 0),
+        entry(newMiddle.getUuid(), 1), entry(newTop.getUuid(), 2));
+    assertThat(getAncestors(bottom)).containsOnly(entry(bottom.getUuid(), 0),
+        entry(middle.getUuid(), 1), entry(newMiddle.getUuid(), 2), entry(newTop.getUuid(), 3));
+    assertThat(getDescendants(oldTop)).containsOnly(entry(oldTop.getUuid(), 0));
+
+    // Make the subtree a tree of its own
+    middle.setParentOrg(null);
+    orgDao.update(middle);
+    assertThat(getAncestors(middle)).containsOnly(entry(middle.getUuid(), 0));
+    assertThat(getAncestors(bottom)).containsOnly(entry(bottom.getUuid(), 0),
+        entry(middle.getUuid(), 1));
+    assertThat(getDescendants(newTop)).containsOnly(entry(newTop.getUuid(), 0),
+        entry(newMiddle.getUuid(), 1));
+  }
+
+  @Test
+  public void testCycle() {
+    final Organization top = insertOrg(null);
+    final Organization middle = insertOrg(top);
+    final Organization bottom = insertOrg(middle);
+
+    // Moving a node under its own descendant must be rejected and leave everything unchanged
+    top.setParentOrg(bottom);
+    assertThatThrownBy(() -> orgDao.update(top)).isInstanceOf(WebApplicationException.class);
+    assertThat(orgDao.getByUuid(top.getUuid()).getParentOrgUuid()).isNull();
+    assertThat(getAncestors(top)).containsOnly(entry(top.getUuid(), 0));
+    assertThat(getDescendants(top)).containsOnly(entry(top.getUuid(), 0),
+        entry(middle.getUuid(), 1), entry(bottom.getUuid(), 2));
+
+    // And so must moving a node under itself
+    middle.setParentOrg(middle);
+    assertThatThrownBy(() -> orgDao.update(middle)).isInstanceOf(WebApplicationException.class);
+    assertThat(orgDao.getByUuid(middle.getUuid()).getParentOrgUuid()).isEqualTo(top.getUuid());
+    assertThat(getAncestors(bottom)).containsOnly(entry(bottom.getUuid(), 0),
+        entry(middle.getUuid(), 1), entry(top.getUuid(), 2));
+  }
+
+  private Organization insertOrg(Organization parentOrg) {
+    final Organization org = TestBeans.getTestOrganization();
+    org.setParentOrg(parentOrg);
+    return orgDao.insert(org);
+  }
+
+  private Map<String, Integer> getAncestors(Organization org) {
+    return getClosure("\"descendantUuid\"", "\"ancestorUuid\"", org);
+  }
+
+  private Map<String, Integer> getDescendants(Organization org) {
+    return getClosure("\"ancestorUuid\"", "\"descendantUuid\"", org);
+  }
+
+  private Map<String, Integer> getClosure(String column, String otherColumn, Organization org) {
+    return jdbi.withHandle(handle -> handle
+        .createQuery("SELECT " + otherColumn + " AS uuid, depth FROM "
+            + OrganizationDao.ANCESTORS_TABLE_NAME + " WHERE " + column + " = :uuid")
+        .bind("uuid", org.getUuid())
+        .map((rs, ctx) -> entry(rs.getString("uuid"), rs.getInt("depth"))).stream()
+        .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue)));
+  }
+
+}
@@ -0,0 +1,124 @@
+package mil.dds.anet.test.integration.db;
+
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import mil.dds.anet.AnetObjectEngine;
+import mil.dds.anet.database.PersonDao;
+import mil.dds.anet.test.integration.utils.TestApp;
+import mil.dds.anet.utils.DaoUtils;
+import org.jdbi.v3.core.Handle;
+import org.jdbi.v3.core.Jdbi;
+import org.jdbi.v3.core.statement.Query;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compares the padded {@code IN ( <uuids> )} list with the {@code = ANY(:uuids)} array parameter
+ * for batches of 10, 1k and 25k ids, on PostgreSQL. The planning and execution times come from
+ * {@code EXPLAIN (ANALYZE, SUMMARY)}; the round trip time, measured on the client, also includes
+ * building, sending and parsing the statement. Run with {@code ./gradlew benchmark}.
+ */
+@Tag("benchmark")
+@ExtendWith(TestApp.class)
+public class IdBatcherBenchmarkTest {
+
+  private static final Logger logger =
+      LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+  private static final String SQL = "/* idBatcherBenchmark */ SELECT " + PersonDao.PERSON_FIELDS
+      + " FROM people WHERE uuid IN ( <uuids> )";
+  private static final int[] BATCH_SIZES = {10, 1000, 25000};
+  private static final int WARMUP_ITERATIONS = 5;
+  private static final int ITERATIONS = 25;
+
+  private static Jdbi jdbi;
+  private static List<String> personUuids;
+
+  @BeforeAll
+  public static void setUpClass() {
+    jdbi = AnetObjectEngine.getInstance().getInjector().getInstance(Jdbi.class);
+    personUuids = jdbi.withHandle(
+        handle -> handle.createQuery("SELECT uuid FROM people").mapTo(String.class).list());
+  }
+
+  @Test
+  public void benchmarkInListVersusAnyArray() throws IOException {
+    assumeTrue(DaoUtils.isPostgresql(), "Array parameters are only used on PostgreSQL");
+    final String anyArraySql = DaoUtils.toAnyArraySql(SQL, "uuids");
+    for (final int batchSize : BATCH_SIZES) {
+      final List<String> uuids = getUuids(batchSize);
+      final Result inList = run(SQL, q -> q.bindList("uuids", DaoUtils.padListArg(uuids)));
+      final Result anyArray = run(anyArraySql,
+          q -> q.registerArrayType(String.class, "varchar").bindArray("uuids", String.class,
+              uuids));
+      logger.info("{} ids, padded IN list: {}", batchSize, inList);
+      logger.info("{} ids, = ANY array: {}", batchSize, anyArray);
+    }
+  }
+
+  private static final class Result {
+    private final List<Double> planningMs = new ArrayList<>();
+    private final List<Double> executionMs = new ArrayList<>();
+    private final List<Double> roundTripMs = new ArrayList<>();
+
+    @Override
+    public String toString() {
+      return String.format("median planning %.2fms, execution %.2fms, round trip %.2fms "
+          + "(%d runs)", median(planningMs), median(executionMs), median(roundTripMs),
+          roundTripMs.size());
+    }
+
+    private static double median(List<Double> values) {
+      final List<Double> sorted = new ArrayList<>(values);
+      Collections.sort(sorted);
+      return sorted.get(sorted.size() / 2);
+    }
+  }
+
+  private static Result run(String sql, Function<Query, Query> binder) throws IOException {
+    final ObjectMapper mapper = new ObjectMapper();
+    final Result result = new Result();
+    for (int i = 0; i < WARMUP_ITERATIONS + ITERATIONS; i++) {
+      try (final Handle handle = jdbi.open()) {
+        final JsonNode explain = mapper.readTree(binder
+            .apply(handle.createQuery("EXPLAIN (ANALYZE, SUMMARY, FORMAT JSON) " + sql))
+            .mapTo(String.class).one()).get(0);
+        final long start = System.nanoTime();
+        binder.apply(handle.createQuery(sql)).mapToMap().list();
+        final long roundTripNanos = System.nanoTime() - start;
+        if (i >= WARMUP_ITERATIONS) {
+          result.planningMs.add(explain.get("Planning Time").asDouble());
+          result.executionMs.add(explain.get("Execution Time").asDouble());
+          result.roundTripMs.add(roundTripNanos / (double) TimeUnit.MILLISECONDS.toNanos(1));
+        }
+      }
+    }
+    return result;
+  }
+
+  /*
+   * Returns size uuids: all existing people (as far as they fit), followed by unknown uuids.
+   */
+  private static List<String> getUuids(int size) {
+    final List<String> uuids = new ArrayList<>(size);
+    uuids.addAll(personUuids.subList(0, Math.min(size, personUuids.size())));
+    while (uuids.size() < size) {
+      uuids.add(DaoUtils.getNewUuid());
+    }
+    return uuids;
+  }
+
+}
@@ -0,0 +1,98 @@
+package mil.dds.anet.test.integration.db;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import mil.dds.anet.AnetObjectEngine;
+import mil.dds.anet.beans.Person;
+import mil.dds.anet.database.PersonDao;
+import mil.dds.anet.test.integration.utils.TestApp;
+import mil.dds.anet.test.integration.utils.TestBeans;
+import mil.dds.anet.utils.DaoUtils;
+import org.jdbi.v3.core.Jdbi;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+@ExtendWith(TestApp.class)
+public class IdBatcherTest {
+
+  private static final String SQL =
+      "/* idBatcherTest */ SELECT uuid FROM people WHERE uuid IN ( <uuids> )";
+
+  private static PersonDao personDao;
+  private static Jdbi jdbi;
+  private static List<String> personUuids;
+
+  @BeforeAll
+  public static void setUpClass() {
+    final AnetObjectEngine engine = AnetObjectEngine.getInstance();
+    personDao = engine.getPersonDao();
+    jdbi = engine.getInjector().getInstance(Jdbi.class);
+    personUuids = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      personUuids.add(personDao.insert(TestBeans.getTestPerson()).getUuid());
+    }
+  }
+
+  @Test
+  public void testGetByIds() {
+    assertThat(personDao.getByIds(Collections.emptyList())).isEmpty();
+    // On MSSQL the batches are limited to 1000 (bind parameters), see BatchingUtils
+    final int[] batchSizes =
+        DaoUtils.isMsSql() ? new int[] {3, 10, 1000} : new int[] {3, 10, 1000, 25000};
+    for (final int batchSize : batchSizes) {
+      final List<String> uuids = getUuids(batchSize);
+      final List<Person> result = personDao.getByIds(uuids);
+      // One result per uuid, in the same order, null for unknown uuids
+      assertThat(result).hasSize(batchSize);
+      for (int i = 0; i < batchSize; i++) {
+        if (personUuids.contains(uuids.get(i))) {
+          assertThat(result.get(i).getUuid()).isEqualTo(uuids.get(i));
+        } else {
+          assertThat(result.get(i)).isNull();
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testAnyArrayMatchesPaddedIn() {
+    // The = ANY(:param) rewrite is only used on PostgreSQL
+    assumeTrue(DaoUtils.isPostgresql(), "Array parameters are only used on PostgreSQL");
+    final String anyArraySql = DaoUtils.toAnyArraySql(SQL, "uuids");
+    assertThat(anyArraySql).isNotEqualTo(SQL).contains("= ANY(:uuids)");
+    for (final int size : new int[] {1, 3, 10, 1000, 1001}) {
+      final List<String> uuids = getUuids(size);
+      final List<String> inResult = jdbi.withHandle(handle -> handle.createQuery(SQL)
+          .bindList("uuids", DaoUtils.padListArg(uuids)).mapTo(String.class).list());
+      final List<String> anyResult = jdbi.withHandle(handle -> handle.createQuery(anyArraySql)
+          .registerArrayType(String.class, "varchar").bindArray("uuids", String.class, uuids)
+          .mapTo(String.class).list());
+      assertThat(anyResult).containsExactlyInAnyOrderElementsOf(inResult);
+      assertThat(anyResult).containsExactlyInAnyOrderElementsOf(
+          personUuids.stream().filter(uuids::contains).collect(Collectors.toList()));
+    }
+  }
+
+  /*
+   * Returns size uuids: the test people (as far as they fit), followed by unknown uuids, with one
+   * of the test people repeated at the end when there is room.
+   */
+  private static List<String> getUuids(int size) {
+    final List<String> uuids = new ArrayList<>(size);
+    uuids.addAll(personUuids.subList(0, Math.min(size, personUuids.size())));
+    while (uuids.size() < size - 1) {
+      uuids.add(DaoUtils.getNewUuid());
+    }
+    if (uuids.size() < size) {
+      uuids.add(personUuids.get(0));
+    }
+    return uuids;
+  }
+
+}
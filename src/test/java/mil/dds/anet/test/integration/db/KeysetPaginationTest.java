@@ -0,0 +1,116 @@
+package mil.dds.anet.test.integration.db;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import javax.ws.rs.WebApplicationException;
+import mil.dds.anet.AnetObjectEngine;
+import mil.dds.anet.beans.Location;
+import mil.dds.anet.beans.Location.LocationStatus;
+import mil.dds.anet.beans.lists.AnetBeanList;
+import mil.dds.anet.beans.search.ISearchQuery.SortOrder;
+import mil.dds.anet.beans.search.LocationSearchQuery;
+import mil.dds.anet.beans.search.LocationSearchSortBy;
+import mil.dds.anet.database.LocationDao;
+import mil.dds.anet.search.SearchCursor;
+import mil.dds.anet.test.integration.utils.TestApp;
+import mil.dds.anet.utils.DaoUtils;
+import org.jdbi.v3.core.Jdbi;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+@ExtendWith(TestApp.class)
+public class KeysetPaginationTest {
+
+  private static final int PAGE_SIZE = 3;
+
+  private static LocationDao locationDao;
+  private static Jdbi jdbi;
+
+  @BeforeAll
+  public static void setUpClass() {
+    final AnetObjectEngine engine = AnetObjectEngine.getInstance();
+    locationDao = engine.getLocationDao();
+    jdbi = engine.getInjector().getInstance(Jdbi.class);
+    // Locations with the same name are ordered by uuid, so pages must not split them wrongly
+    for (int i = 0; i < PAGE_SIZE + 1; i++) {
+      insertLocation("keyset pagination test");
+    }
+  }
+
+  private static Location insertLocation(String name) {
+    final Location location = new Location();
+    location.setName(name);
+    location.setStatus(LocationStatus.ACTIVE);
+    return locationDao.insert(location);
+  }
+
+  private static LocationSearchQuery getQuery(LocationSearchSortBy sortBy, SortOrder sortOrder) {
+    final LocationSearchQuery query = new LocationSearchQuery();
+    query.setSortBy(sortBy);
+    query.setSortOrder(sortOrder);
+    query.setPageSize(PAGE_SIZE);
+    return query;
+  }
+
+  private static List<String> getUuids(AnetBeanList<Location> results) {
+    return results.getList().stream().map(Location::getUuid).collect(Collectors.toList());
+  }
+
+  @Test
+  public void testKeysetMatchesOffsetPaging() {
+    for (final LocationSearchSortBy sortBy : new LocationSearchSortBy[] {LocationSearchSortBy.NAME,
+        LocationSearchSortBy.CREATED_AT}) {
+      for (final SortOrder sortOrder : SortOrder.values()) {
+        checkPaging(sortBy, sortOrder);
+      }
+    }
+  }
+
+  private void checkPaging(LocationSearchSortBy sortBy, SortOrder sortOrder) {
+    final LocationSearchQuery allQuery = getQuery(sortBy, sortOrder);
+    allQuery.setPageSize(0);
+    final List<String> expected = getUuids(locationDao.search(allQuery));
+    assertThat(expected).hasSizeGreaterThan(PAGE_SIZE);
+
+    final List<String> actual = new ArrayList<>();
+    final LocationSearchQuery query = getQuery(sortBy, sortOrder);
+    int pageNum = 0;
+    AnetBeanList<Location> page;
+    do {
+      page = locationDao.search(query);
+      final List<String> uuids = getUuids(page);
+      // Each page has the same rows as the corresponding offset page
+      assertThat(uuids).isEqualTo(expected.subList(Math.min(pageNum * PAGE_SIZE, expected.size()),
+          Math.min((pageNum + 1) * PAGE_SIZE, expected.size())));
+      actual.addAll(uuids);
+      query.setAfter(page.getNextCursor());
+      pageNum++;
+    } while (page.getNextCursor() != null);
+    assertThat(actual).isEqualTo(expected);
+  }
+
+  @Test
+  public void testDeletedCursorRow() {
+    final Location location = insertLocation("keyset pagination deleted test");
+    final LocationSearchQuery query = getQuery(LocationSearchSortBy.NAME, SortOrder.ASC);
+    query.setAfter(SearchCursor.encode(query, location.getUuid()));
+    // The cursor works while its row exists
+    assertThat(getUuids(locationDao.search(query))).doesNotContain(location.getUuid());
+
+    jdbi.useHandle(handle -> handle.createUpdate("DELETE FROM locations WHERE uuid = :uuid")
+        .bind("uuid", location.getUuid()).execute());
+    assertThatThrownBy(() -> locationDao.search(query))
+        .isInstanceOf(WebApplicationException.class)
+        .hasMessageContaining("no longer exists");
+
+    query.setAfter(SearchCursor.encode(query, DaoUtils.getNewUuid()));
+    assertThatThrownBy(() -> locationDao.search(query))
+        .isInstanceOf(WebApplicationException.class);
+  }
+
+}
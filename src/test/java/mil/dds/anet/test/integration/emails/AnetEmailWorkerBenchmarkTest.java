@@ -0,0 +1,110 @@
+package mil.dds.anet.test.integration.emails;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import io.dropwizard.testing.junit5.DropwizardAppExtension;
+import java.lang.invoke.MethodHandles;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import mil.dds.anet.AnetObjectEngine;
+import mil.dds.anet.beans.AnetEmail;
+import mil.dds.anet.beans.Person;
+import mil.dds.anet.config.AnetConfiguration;
+import mil.dds.anet.emails.AccountDeactivationWarningEmail;
+import mil.dds.anet.test.integration.config.AnetTestConfiguration;
+import mil.dds.anet.test.integration.utils.FakeSmtpServer;
+import mil.dds.anet.test.integration.utils.TestApp;
+import mil.dds.anet.threads.AnetEmailWorker;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Measures the throughput of the {@link AnetEmailWorker}: a few thousand pending emails are
+ * claimed in batches, rendered and sent to the fake SMTP server in one run of the worker. The
+ * emails have a limited number of distinct actions, so the render cache is exercised as well. Run
+ * with {@code ./gradlew benchmark}.
+ */
+@Tag("benchmark")
+@ExtendWith(TestApp.class)
+public class AnetEmailWorkerBenchmarkTest {
+
+  private static final Logger logger =
+      LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+  private static final int NR_EMAILS = 3000;
+  private static final int NR_DISTINCT_ACTIONS = 50;
+
+  private static AnetObjectEngine engine;
+  private static AnetConfiguration config;
+  private static FakeSmtpServer emailServer;
+  private static AnetEmailWorker emailWorker;
+  private static String whitelistedEmail;
+
+  @BeforeAll
+  @SuppressWarnings("unchecked")
+  public static void setUp() throws Exception {
+    assumeTrue(
+        Boolean.parseBoolean(
+            AnetTestConfiguration.getConfiguration().get("emailServerTestsExecute").toString()),
+        "Email server tests configured to be skipped.");
+    final DropwizardAppExtension<AnetConfiguration> app = TestApp.app;
+    config = app.getConfiguration();
+    assumeFalse(config.getSmtp().isDisabled(), "Sending emails is disabled.");
+
+    engine = AnetObjectEngine.getInstance();
+    whitelistedEmail = "@" + ((List<String>) config.getDictionaryEntry("domainNames")).get(0);
+    config.setEmailFromAddr("test_from_address" + whitelistedEmail);
+    emailWorker = new AnetEmailWorker(engine.getEmailDao(), config);
+    emailServer = new FakeSmtpServer(config.getSmtp());
+
+    // Send whatever is still pending, so only our emails are measured
+    emailWorker.run();
+    emailServer.clearEmailServer();
+  }
+
+  @AfterAll
+  public static void tearDown() throws Exception {
+    if (emailServer != null) {
+      emailServer.clearEmailServer();
+    }
+    emailWorker = null;
+    AnetEmailWorker.setInstance(null);
+  }
+
+  @Test
+  public void benchmarkSendPendingEmails() {
+    final Person person = engine.getPersonDao().findByDomainUsername("arthur").get(0);
+    final Instant now = Instant.now();
+    for (int i = 0; i < NR_EMAILS; i++) {
+      final AccountDeactivationWarningEmail action = new AccountDeactivationWarningEmail();
+      action.setPerson(person);
+      action.setNextReminder(now.plus(Duration.ofDays(i % NR_DISTINCT_ACTIONS)));
+      final AnetEmail email = new AnetEmail();
+      email.setAction(action);
+      email.setToAddresses(Collections.singletonList("benchmark_" + i + whitelistedEmail));
+      AnetEmailWorker.sendEmailAsync(email);
+    }
+    assertThat(engine.getEmailDao().getAll()).hasSize(NR_EMAILS);
+
+    final long start = System.nanoTime();
+    emailWorker.run();
+    final long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+    // All emails have been sent and deleted
+    assertThat(engine.getEmailDao().getAll()).isEmpty();
+    logger.info("Sent {} emails in batches of {} in {}ms: {} messages/second", NR_EMAILS,
+        config.getSmtp().getBatchSize(), elapsedMs,
+        String.format("%.1f", NR_EMAILS * 1000.0 / Math.max(1, elapsedMs)));
+  }
+
+}
@@ -0,0 +1,133 @@
+package mil.dds.anet.test.integration.emails;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.codahale.metrics.MetricRegistry;
+import io.dropwizard.testing.junit5.DropwizardAppExtension;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import mil.dds.anet.beans.AnetEmail;
+import mil.dds.anet.config.AnetConfiguration;
+import mil.dds.anet.database.EmailDao;
+import mil.dds.anet.emails.AnetEmailAction;
+import mil.dds.anet.test.integration.utils.TestApp;
+import mil.dds.anet.threads.AnetEmailWorker;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+@ExtendWith(TestApp.class)
+public class AnetEmailWorkerRenderTest {
+
+  private static final AtomicInteger nrOfRenders = new AtomicInteger();
+
+  private boolean smtpDisabled;
+  private MetricRegistry metricRegistry;
+  private EmailDao emailDao;
+  private AnetEmailWorker emailWorker;
+
+  public static class TestEmailAction implements AnetEmailAction {
+    private String name;
+
+    public TestEmailAction() {}
+
+    public TestEmailAction(String name) {
+      this.name = name;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public void setName(String name) {
+      this.name = name;
+    }
+
+    @Override
+    public Map<String, Object> buildContext(Map<String, Object> context) {
+      nrOfRenders.incrementAndGet();
+      return context;
+    }
+
+    @Override
+    public String getTemplateName() {
+      return "/emails/test.ftlh";
+    }
+
+    @Override
+    public String getSubject(Map<String, Object> context) {
+      return "Test email " + name;
+    }
+  }
+
+  @BeforeEach
+  public void setUp() {
+    // Render only (no template processing), and don't send anything
+    final DropwizardAppExtension<AnetConfiguration> app = TestApp.app;
+    smtpDisabled = app.getConfiguration().getSmtp().isDisabled();
+    app.getConfiguration().getSmtp().setDisabled(true);
+    nrOfRenders.set(0);
+    metricRegistry = new MetricRegistry();
+    emailDao = mock(EmailDao.class);
+    emailWorker = new AnetEmailWorker(emailDao, app.getConfiguration(), metricRegistry);
+  }
+
+  @AfterEach
+  public void tearDown() {
+    TestApp.app.getConfiguration().getSmtp().setDisabled(smtpDisabled);
+    AnetEmailWorker.setInstance(null);
+  }
+
+  private static AnetEmail createEmail(int id, AnetEmailAction action) {
+    final AnetEmail email = new AnetEmail();
+    email.setId(id);
+    email.setAction(action);
+    email.setToAddresses(new ArrayList<>(Collections.singletonList("user" + id + "@example.com")));
+    email.setCreatedAt(Instant.now());
+    return email;
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testRenderedOncePerAction() {
+    // Three recipients of one action (one of them with an equal copy of it), and one other action
+    final TestEmailAction shared = new TestEmailAction("shared");
+    final List<AnetEmail> emails = new ArrayList<>();
+    emails.add(createEmail(1, shared));
+    emails.add(createEmail(2, new TestEmailAction("other")));
+    emails.add(createEmail(3, shared));
+    emails.add(createEmail(4, new TestEmailAction("shared")));
+    when(emailDao.claimPendingEmails(anyInt(), anyInt(), any())).thenReturn(emails,
+        Collections.emptyList());
+    when(emailDao.deletePendingEmails(anyList()))
+        .thenAnswer(invocation -> ((List<Integer>) invocation.getArgument(0)).size());
+
+    emailWorker.run();
+
+    // Every email has been processed, but each action has only been rendered once
+    verify(emailDao).deletePendingEmails(Arrays.asList(1, 2, 3, 4));
+    verify(emailDao).releasePendingEmails(Collections.emptyList());
+    assertThat(nrOfRenders.get()).isEqualTo(2);
+    assertThat(metricRegistry.timer(MetricRegistry.name(AnetEmailWorker.class, "render"))
+        .getCount()).isEqualTo(2);
+    assertThat(metricRegistry
+        .meter(MetricRegistry.name(AnetEmailWorker.class, "renderCache", "misses")).getCount())
+            .isEqualTo(2);
+    assertThat(metricRegistry
+        .meter(MetricRegistry.name(AnetEmailWorker.class, "renderCache", "hits")).getCount())
+            .isEqualTo(2);
+  }
+
+}
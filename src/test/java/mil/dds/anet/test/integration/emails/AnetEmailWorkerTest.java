@@ -2,6 +2,8 @@ package mil.dds.anet.test.integration.emails;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -76,7 +78,7 @@ public class AnetEmailWorkerTest {
     // Run
     final List<AnetEmail> emailsToReadyToSend = new ArrayList<>();
     emailsToReadyToSend.add(testEmail);
-    when(emailDao.getAll()).thenReturn(emailsToReadyToSend);
+    when(emailDao.claimPendingEmails(anyInt(), anyInt(), any())).thenReturn(emailsToReadyToSend);
 
     // Make sure all messages have been (asynchronously) sent
     emailWorker.run();
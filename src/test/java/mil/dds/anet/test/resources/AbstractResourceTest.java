@@ -88,7 +88,6 @@ public abstract class AbstractResourceTest {
   @AfterAll
   public static void tearDown() {
     client.close();
-    batchingUtils.shutdown();
   }
 
   /*
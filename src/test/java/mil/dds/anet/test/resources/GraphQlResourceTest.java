@@ -3,6 +3,7 @@ package mil.dds.anet.test.resources;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.fail;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.ImmutableMap;
 import java.io.File;
 import java.io.FileInputStream;
@@ -11,14 +12,19 @@ import java.lang.invoke.MethodHandles;
 import java.net.URLEncoder;
 import java.util.Base64;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import javax.ws.rs.client.Entity;
 import javax.ws.rs.client.Invocation.Builder;
 import javax.ws.rs.core.GenericType;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.Status;
 import mil.dds.anet.beans.Person;
 import mil.dds.anet.beans.search.ReportSearchQuery;
+import mil.dds.anet.graphql.CachingPreparsedDocumentProvider;
 import mil.dds.anet.test.integration.utils.TestApp;
+import mil.dds.anet.utils.DaoUtils;
 import org.apache.commons.io.IOUtils;
 import org.junit.jupiter.api.Test;
 import org.slf4j.Logger;
@@ -126,6 +132,67 @@ public class GraphQlResourceTest extends AbstractResourceTest {
     }
   }
 
+  @Test
+  public void testPersistedQueries() throws IOException {
+    // A query no other test uses, so it is not cached yet
+    final String query =
+        "query { pq" + DaoUtils.getNewUuid().replace("-", "") + ": me { uuid } }";
+    final String queryHash = CachingPreparsedDocumentProvider.getQueryHash(query);
+    final Map<String, Object> extensions =
+        ImmutableMap.of("persistedQuery", ImmutableMap.of("version", 1, "sha256Hash", queryHash));
+
+    // Hash only, for an unknown query: the client should retry with the full query
+    assertPersistedQueryNotFound(httpQuery("/graphql", admin).post(
+        Entity.json(ImmutableMap.of("extensions", extensions)),
+        new GenericType<Map<String, Object>>() {}));
+    final String getPath = "/graphql?extensions="
+        + URLEncoder.encode(new ObjectMapper().writeValueAsString(extensions), "UTF-8");
+    assertPersistedQueryNotFound(
+        httpQuery(getPath, admin).get(new GenericType<Map<String, Object>>() {}));
+
+    // Full query and hash: the query is executed, and persisted
+    final Map<String, Object> respFull = httpQuery("/graphql", admin).post(
+        Entity.json(ImmutableMap.of("query", query, "extensions", extensions)),
+        new GenericType<Map<String, Object>>() {});
+    assertThat(respFull).containsKey("data").doesNotContainKey("errors");
+
+    // Hash only, for a persisted query, both as POST and as GET (with JSON extensions)
+    final Map<String, Object> respPost =
+        httpQuery("/graphql", admin).post(Entity.json(ImmutableMap.of("extensions", extensions)),
+            new GenericType<Map<String, Object>>() {});
+    assertThat(respPost).doesNotContainKey("errors");
+    assertThat(respPost.get("data")).isEqualTo(respFull.get("data"));
+    final Map<String, Object> respGet =
+        httpQuery(getPath, admin).get(new GenericType<Map<String, Object>>() {});
+    assertThat(respGet).doesNotContainKey("errors");
+    assertThat(respGet.get("data")).isEqualTo(respFull.get("data"));
+
+    // A hash that doesn't match the query is rejected
+    final Map<String, Object> otherExtensions = ImmutableMap.of("persistedQuery",
+        ImmutableMap.of("version", 1, "sha256Hash",
+            CachingPreparsedDocumentProvider.getQueryHash("query { me { name } }")));
+    final Response mismatch = httpQuery("/graphql", admin)
+        .post(Entity.json(ImmutableMap.of("query", query, "extensions", otherExtensions)));
+    assertThat(mismatch.getStatus()).isEqualTo(Status.BAD_REQUEST.getStatusCode());
+    mismatch.close();
+
+    // So are GET extensions that are not valid JSON
+    final Response invalid = httpQuery("/graphql?extensions="
+        + URLEncoder.encode("{persistedQuery", "UTF-8") + "&query="
+        + URLEncoder.encode(query, "UTF-8"), admin).get();
+    assertThat(invalid.getStatus()).isEqualTo(Status.BAD_REQUEST.getStatusCode());
+    invalid.close();
+  }
+
+  private void assertPersistedQueryNotFound(Map<String, Object> resp) {
+    assertThat(resp).doesNotContainKey("data").containsKey("errors");
+    @SuppressWarnings("unchecked")
+    final List<Map<String, Object>> errors = (List<Map<String, Object>>) resp.get("errors");
+    assertThat(errors).hasSize(1);
+    assertThat(errors.get(0)).containsEntry("message", "PersistedQueryNotFound")
+        .containsEntry("extensions", ImmutableMap.of("code", "PERSISTED_QUERY_NOT_FOUND"));
+  }
+
   private void doAsserts(File f, Map<String, Object> resp) {
     assertThat(resp).isNotNull();
     assertThat(resp.containsKey("errors"))
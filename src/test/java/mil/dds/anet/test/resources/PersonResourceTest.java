@@ -18,8 +18,14 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import javax.ws.rs.BadRequestException;
 import javax.ws.rs.ForbiddenException;
 import javax.ws.rs.NotFoundException;
+import javax.ws.rs.client.WebTarget;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.Status;
 import mil.dds.anet.beans.Organization;
 import mil.dds.anet.beans.Organization.OrganizationType;
 import mil.dds.anet.beans.Person;
@@ -36,6 +42,7 @@ import mil.dds.anet.beans.search.PersonSearchQuery;
 import mil.dds.anet.beans.search.PersonSearchSortBy;
 import mil.dds.anet.beans.search.PositionSearchQuery;
 import mil.dds.anet.test.beans.OrganizationTest;
+import mil.dds.anet.test.integration.utils.TestApp;
 import mil.dds.anet.test.resources.utils.GraphQlResponse;
 import mil.dds.anet.utils.DaoUtils;
 import mil.dds.anet.utils.UtilsTest;
@@ -104,6 +111,22 @@ public class PersonResourceTest extends AbstractResourceTest {
     assertThat(retPerson.getName()).isEqualTo(newPerson.getName());
     assertThat(retPerson.getCode()).isEqualTo(newPerson.getCode());
     assertThat(retPerson.getAvatar()).isNotNull();
+    checkAvatarEndpoint(jack, newPerson.getUuid());
+    // The avatar of a searched person is found through its stored hash
+    final PersonSearchQuery avatarQuery = new PersonSearchQuery();
+    avatarQuery.setText(newPerson.getName());
+    final AnetBeanList<Person> avatarSearchResults = graphQLHelper.searchObjects(jack,
+        "personList", "query", "PersonSearchQueryInput", "uuid avatar(size: 32)", avatarQuery,
+        new TypeReference<GraphQlResponse<AnetBeanList<Person>>>() {});
+    assertThat(avatarSearchResults.getList()).filteredOn(p -> p.getUuid().equals(newPersonUuid))
+        .hasSize(1).allMatch(p -> p.getAvatar() != null);
+    // The avatar size is limited
+    try {
+      graphQLHelper.getObjectById(jack, "person", "uuid avatar(size: 2048)", newPerson.getUuid(),
+          new TypeReference<GraphQlResponse<Person>>() {});
+      fail("Expected BadRequestException");
+    } catch (BadRequestException expectedException) {
+    }
     // check that HTML of biography is sanitized after update
     assertThat(retPerson.getBiography()).isEqualTo(UtilsTest.getCombinedTestCase().getOutput());
 
@@ -623,4 +646,34 @@ public class PersonResourceTest extends AbstractResourceTest {
     }
   }
 
+  private void checkAvatarEndpoint(Person user, String personUuid) {
+    final String authString =
+        Base64.getEncoder().encodeToString((user.getDomainUsername() + ":").getBytes());
+    final WebTarget target = client
+        .target(String.format("http://localhost:%d/api/people/%s/avatar",
+            TestApp.app.getLocalPort(), personUuid))
+        .queryParam("size", 32);
+    final Response response =
+        target.request().header("Authorization", "Basic " + authString).get();
+    assertThat(response.getStatus()).isEqualTo(Status.OK.getStatusCode());
+    assertThat(response.getMediaType().toString()).isEqualTo("image/png");
+    final EntityTag entityTag = response.getEntityTag();
+    assertThat(entityTag).isNotNull();
+    assertThat(response.readEntity(byte[].class)).isNotEmpty();
+
+    // A conditional request for the same avatar is answered without a body
+    final Response notModified = target.request().header("Authorization", "Basic " + authString)
+        .header(HttpHeaders.IF_NONE_MATCH, entityTag.toString()).get();
+    assertThat(notModified.getStatus()).isEqualTo(Status.NOT_MODIFIED.getStatusCode());
+    notModified.close();
+
+    // The avatar size is limited
+    final Response tooLarge = client
+        .target(String.format("http://localhost:%d/api/people/%s/avatar",
+            TestApp.app.getLocalPort(), personUuid))
+        .queryParam("size", Person.MAX_AVATAR_SIZE + 1).request()
+        .header("Authorization", "Basic " + authString).get();
+    assertThat(tooLarge.getStatus()).isEqualTo(Status.BAD_REQUEST.getStatusCode());
+    tooLarge.close();
+  }
 }
@@ -1442,6 +1442,36 @@ public class ReportsResourceTest extends AbstractResourceTest {
     assertThat(startCt).isEqualTo(endCt - diff);
   }
 
+  @Test
+  public void dailyRollupGraphRebuildTest() {
+    // Maintained incrementally, the daily rollup should match a full rebuild
+    final Instant startDate =
+        Instant.now().atZone(DaoUtils.getDefaultZoneId()).minusDays(30).toInstant();
+    final Instant endDate =
+        Instant.now().atZone(DaoUtils.getDefaultZoneId()).plusDays(1).toInstant();
+    final Map<String, Object> variables = new HashMap<>();
+    variables.put("startDate", startDate.toEpochMilli());
+    variables.put("endDate", endDate.toEpochMilli());
+    final String query =
+        "query ($startDate: Long!, $endDate: Long!) { payload: rollupGraph(startDate: $startDate, endDate: $endDate) { org {"
+            + ORGANIZATION_FIELDS + "} published cancelled } }";
+    final Map<String, String> beforeGraph = getRollupCounts(graphQLHelper.getObjectList(admin,
+        query, variables, new TypeReference<GraphQlResponse<List<RollupGraph>>>() {}));
+    assertThat(beforeGraph).isNotEmpty();
+
+    assertThat(AnetObjectEngine.getInstance().getReportDao().rebuildDailyRollup())
+        .isGreaterThan(0);
+    final Map<String, String> afterGraph = getRollupCounts(graphQLHelper.getObjectList(admin,
+        query, variables, new TypeReference<GraphQlResponse<List<RollupGraph>>>() {}));
+    assertThat(afterGraph).isEqualTo(beforeGraph);
+  }
+
+  private Map<String, String> getRollupCounts(List<RollupGraph> graph) {
+    return graph.stream().collect(Collectors.toMap(
+        rg -> rg.getOrg() == null ? Organization.DUMMY_ORG_UUID : rg.getOrg().getUuid(),
+        rg -> rg.getPublished() + "/" + rg.getCancelled()));
+  }
+
   @Test
   public void testTagSearch() {
     final ReportSearchQuery tagQuery = new ReportSearchQuery();
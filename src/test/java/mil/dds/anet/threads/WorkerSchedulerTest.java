@@ -0,0 +1,126 @@
+package mil.dds.anet.threads;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.codahale.metrics.MetricRegistry;
+import io.dropwizard.util.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import mil.dds.anet.beans.WorkerHealth;
+import mil.dds.anet.config.AnetConfiguration.WorkersConfiguration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class WorkerSchedulerTest {
+
+  private final CountDownLatch started = new CountDownLatch(1);
+  private final CountDownLatch release = new CountDownLatch(1);
+  private MetricRegistry metricRegistry;
+  private WorkerScheduler scheduler;
+  private ExecutorService pool;
+
+  @BeforeEach
+  public void setUp() {
+    final WorkersConfiguration config = new WorkersConfiguration();
+    config.setJitter(Duration.seconds(0));
+    config.setShutdownTimeout(Duration.milliseconds(100));
+    metricRegistry = new MetricRegistry();
+    scheduler = new WorkerScheduler(config, metricRegistry);
+    pool = scheduler.newPool("test", 2);
+    scheduler.schedule(pool, "slow", new AbstractWorker("slow") {
+      @Override
+      protected int runInternal() throws Exception {
+        started.countDown();
+        release.await();
+        return 3;
+      }
+    }, 1, 1, TimeUnit.HOURS);
+    scheduler.schedule(pool, "failing", new AbstractWorker("failing") {
+      @Override
+      protected int runInternal() {
+        throw new IllegalStateException("failed");
+      }
+    }, 1, 1, TimeUnit.HOURS);
+  }
+
+  @AfterEach
+  public void tearDown() throws InterruptedException {
+    release.countDown();
+    scheduler.stop();
+  }
+
+  private WorkerHealth waitFor(String name, Predicate<WorkerHealth> condition)
+      throws InterruptedException {
+    final long deadline = System.currentTimeMillis() + 10000;
+    while (true) {
+      final WorkerHealth health = getHealth(name);
+      if (condition.test(health) || System.currentTimeMillis() > deadline) {
+        return health;
+      }
+      Thread.sleep(10);
+    }
+  }
+
+  private WorkerHealth getHealth(String name) {
+    final List<WorkerHealth> health = scheduler.getHealth();
+    return health.stream().filter(h -> name.equals(h.getName())).findFirst().get();
+  }
+
+  @Test
+  public void testSkipWhileRunning() throws InterruptedException {
+    scheduler.runOnce("slow", 0, TimeUnit.SECONDS);
+    assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+    assertThat(getHealth("slow").isRunning()).isTrue();
+
+    scheduler.runOnce("slow", 0, TimeUnit.SECONDS);
+    assertThat(waitFor("slow", h -> h.getSkipped() == 1).getSkipped()).isEqualTo(1);
+
+    // The other lane is not blocked by the slow worker
+    scheduler.runOnce("failing", 0, TimeUnit.SECONDS);
+    final WorkerHealth failing = waitFor("failing", h -> h.getFailures() == 1);
+    assertThat(failing.getFailures()).isEqualTo(1);
+    assertThat(failing.getLastError()).contains("failed");
+    assertThat(failing.getLastSucceededAt()).isNull();
+
+    release.countDown();
+    final WorkerHealth slow = waitFor("slow", h -> !h.isRunning() && h.getRuns() == 1);
+    assertThat(slow.isRunning()).isFalse();
+    assertThat(slow.getRuns()).isEqualTo(1);
+    assertThat(slow.getLastItemsProcessed()).isEqualTo(3);
+    assertThat(slow.getLastSucceededAt()).isNotNull();
+    assertThat(slow.getLastLagMs()).isNotNull();
+    assertThat(metricRegistry.counter(MetricRegistry.name(WorkerScheduler.class, "slow",
+        "itemsProcessed")).getCount()).isEqualTo(3);
+  }
+
+  @Test
+  public void testStop() throws InterruptedException {
+    scheduler.stop();
+    assertThat(scheduler.isTerminated()).isTrue();
+    assertThat(pool.isShutdown()).isTrue();
+  }
+
+  @Test
+  public void testStopInterruptsBusyWorkers() throws InterruptedException {
+    scheduler.runOnce("slow", 0, TimeUnit.SECONDS);
+    assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+    // The slow worker doesn't finish within the shutdown timeout, so it gets interrupted
+    scheduler.stop();
+    assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+    assertThat(scheduler.isTerminated()).isTrue();
+    final WorkerHealth slow = getHealth("slow");
+    assertThat(slow.isRunning()).isFalse();
+    assertThat(slow.getFailures()).isEqualTo(1);
+  }
+
+  @Test
+  public void testHealthSortedByName() {
+    assertThat(scheduler.getHealth()).extracting(WorkerHealth::getName).containsExactly("failing",
+        "slow");
+  }
+
+}
@@ -0,0 +1,231 @@
+package mil.dds.anet.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import mil.dds.anet.beans.StatementStatistics;
+import org.jdbi.v3.core.statement.StatementBuilder;
+import org.jdbi.v3.core.statement.StatementContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+public class AnetDbLoggerTest {
+
+  private MetricRegistry metricRegistry;
+
+  @BeforeEach
+  public void setUp() {
+    metricRegistry = new MetricRegistry();
+  }
+
+  @Test
+  public void testGetStatementName() {
+    assertThat(AnetDbLogger.getStatementName("/* batch.getPeopleByUuids */ SELECT * FROM people"))
+        .isEqualTo("batch.getPeopleByUuids");
+    assertThat(AnetDbLogger.getStatementName("  /*updateAttendeeOnReport*/ UPDATE reportPeople"))
+        .isEqualTo("updateAttendeeOnReport");
+    assertThat(AnetDbLogger.getStatementName("SELECT * FROM people /* not leading */"))
+        .isEqualTo("unnamed");
+    assertThat(AnetDbLogger.getStatementName("/* */ SELECT 1")).isEqualTo("unnamed");
+    assertThat(AnetDbLogger.getStatementName(null)).isEqualTo("unnamed");
+  }
+
+  @Test
+  public void testNoTopStatements() {
+    assertThat(new AnetDbLogger(metricRegistry, 500).getTopStatements(10)).isEmpty();
+  }
+
+  @Test
+  public void testStatementTimers() {
+    final AnetDbLogger dbLogger = new AnetDbLogger(metricRegistry, 0);
+    dbLogger.logAfterExecution(getContext("/* a */ SELECT 1", 2, null));
+    dbLogger.logAfterExecution(getContext("/* a */ SELECT 2", 4, null));
+    dbLogger.logAfterExecution(getContext("/* b */ SELECT 3", 5, null));
+    dbLogger.logAfterExecution(getContext("SELECT 4", 1, null));
+
+    // One timer per statement name
+    final Timer timerA = getTimer("a");
+    assertThat(timerA.getCount()).isEqualTo(2);
+    assertThat(timerA.getSnapshot().getMin()).isEqualTo(TimeUnit.MILLISECONDS.toNanos(2));
+    assertThat(timerA.getSnapshot().getMax()).isEqualTo(TimeUnit.MILLISECONDS.toNanos(4));
+    assertThat(getTimer("b").getCount()).isEqualTo(1);
+    assertThat(getTimer("unnamed").getCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void testTopStatements() {
+    final AnetDbLogger dbLogger = new AnetDbLogger(metricRegistry, 0);
+    // a: 3 x 2ms = 6ms in total; b: 1 x 5ms; c: 2 x 1ms
+    for (int i = 0; i < 3; i++) {
+      dbLogger.logAfterExecution(getContext("/* a */ SELECT 1", 2, null));
+    }
+    dbLogger.logAfterExecution(getContext("/* b */ SELECT 2", 5, null));
+    for (int i = 0; i < 2; i++) {
+      dbLogger.logAfterExecution(getContext("/* c */ SELECT 3", 1, null));
+    }
+
+    // Ordered by descending total time, not by count or mean time
+    final List<StatementStatistics> top = dbLogger.getTopStatements(10);
+    assertThat(top.stream().map(StatementStatistics::getName).collect(Collectors.toList()))
+        .containsExactly("a", "b", "c");
+    assertThat(top.get(0).getCount()).isEqualTo(3);
+    assertThat(top.get(0).getTotalTimeMs()).isEqualTo(6);
+    assertThat(top.get(0).getMeanTimeMs()).isCloseTo(2.0, within(0.001));
+    assertThat(top.get(1).getMaxTimeMs()).isEqualTo(5.0);
+    assertThat(top.get(0).getMeanRows()).isNull();
+
+    assertThat(dbLogger.getTopStatements(2).stream().map(StatementStatistics::getName)
+        .collect(Collectors.toList())).containsExactly("a", "b");
+  }
+
+  @Test
+  public void testSlowQueryLog() throws SQLException {
+    final AnetDbLogger dbLogger = new AnetDbLogger(metricRegistry, 10);
+    final PreparedStatement stmt = createInstrumentedStatement(dbLogger, "/* slow */ SELECT ?");
+    stmt.setString(1, "abcd");
+    stmt.setBytes(2, new byte[10]);
+    stmt.setNull(3, Types.VARCHAR);
+    stmt.setInt(4, 42);
+
+    final ch.qos.logback.classic.Logger logger =
+        (ch.qos.logback.classic.Logger) LoggerFactory.getLogger(AnetDbLogger.class);
+    final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+    appender.start();
+    logger.addAppender(appender);
+    try {
+      // Fast statements are not logged as slow
+      dbLogger.logAfterExecution(getContext("/* fast */ SELECT 1", 9, null));
+      assertThat(getWarnings(appender)).isEmpty();
+
+      dbLogger.logAfterExecution(getContext("/* slow */ SELECT 1", 10, stmt));
+      assertThat(getWarnings(appender)).containsExactly(
+          "Slow statement slow took 10ms, with 4 bound parameters of size 14 in total "
+              + "(largest 10): /* slow */ SELECT 1");
+
+      // Without instrumentation, only the number of parameters is known
+      dbLogger.logAfterExecution(getContext("/* uninstrumented */ SELECT 1", 20, null));
+      assertThat(getWarnings(appender)).hasSize(2).last().isEqualTo(
+          "Slow statement uninstrumented took 20ms, with 0 bound parameters: "
+              + "/* uninstrumented */ SELECT 1");
+    } finally {
+      logger.detachAppender(appender);
+    }
+  }
+
+  @Test
+  public void testRowCounts() throws SQLException {
+    final AnetDbLogger dbLogger = new AnetDbLogger(metricRegistry, 0);
+    final PreparedStatement delegate = mock(PreparedStatement.class);
+    when(delegate.getUpdateCount()).thenReturn(3);
+    when(delegate.executeBatch()).thenReturn(new int[] {1, 4, Statement.SUCCESS_NO_INFO});
+    final PreparedStatement stmt =
+        createInstrumentedStatement(dbLogger, delegate, "/* update */ UPDATE people");
+
+    // The row counts are recorded as Jdbi reads them, without asking the statement again
+    assertThat(stmt.getUpdateCount()).isEqualTo(3);
+    verify(delegate, times(1)).getUpdateCount();
+    stmt.executeBatch();
+    final Histogram rows = metricRegistry.histogram(
+        MetricRegistry.name(MetricRegistry.name(AnetDbLogger.class, "update"), "rows"));
+    assertThat(rows.getCount()).isEqualTo(2);
+    assertThat(rows.getSnapshot().getValues()).containsExactly(3, 5);
+
+    // No update count is recorded for queries
+    final PreparedStatement query = mock(PreparedStatement.class);
+    when(query.getUpdateCount()).thenReturn(-1);
+    createInstrumentedStatement(dbLogger, query, "/* update */ SELECT 1").getUpdateCount();
+    assertThat(rows.getCount()).isEqualTo(2);
+  }
+
+  @Test
+  public void testQueryRowCounts() throws SQLException {
+    final AnetDbLogger dbLogger = new AnetDbLogger(metricRegistry, 0);
+    final PreparedStatement delegate = mock(PreparedStatement.class);
+    final ResultSet delegateRs = mock(ResultSet.class);
+    when(delegate.execute()).thenReturn(true);
+    when(delegate.getResultSet()).thenReturn(delegateRs);
+    when(delegate.executeQuery()).thenReturn(delegateRs);
+    when(delegateRs.next()).thenReturn(true, true, false, true, false);
+    final PreparedStatement stmt =
+        createInstrumentedStatement(dbLogger, delegate, "/* query */ SELECT * FROM people");
+    final Histogram rows = metricRegistry.histogram(
+        MetricRegistry.name(MetricRegistry.name(AnetDbLogger.class, "query"), "rows"));
+
+    // The rows read are recorded once the result set is closed, and only once
+    stmt.execute();
+    final ResultSet rs = stmt.getResultSet();
+    assertThat(rs.getStatement()).isSameAs(stmt);
+    while (rs.next()) {
+      assertThat(rows.getCount()).isZero();
+    }
+    rs.close();
+    rs.close();
+    assertThat(rows.getCount()).isEqualTo(1);
+
+    // A query that only reads the first row
+    final ResultSet firstRow = stmt.executeQuery();
+    assertThat(firstRow.next()).isTrue();
+    firstRow.close();
+    assertThat(rows.getSnapshot().getValues()).containsExactly(1, 2);
+    verify(delegateRs, times(3)).close();
+  }
+
+  private Timer getTimer(String statementName) {
+    return metricRegistry
+        .timer(MetricRegistry.name(MetricRegistry.name(AnetDbLogger.class, statementName), "time"));
+  }
+
+  private static StatementContext getContext(String sql, long elapsedMs, PreparedStatement stmt) {
+    final StatementContext context = mock(StatementContext.class);
+    when(context.getRawSql()).thenReturn(sql);
+    when(context.getRenderedSql()).thenReturn(sql);
+    when(context.getElapsedTime(ChronoUnit.NANOS))
+        .thenReturn(TimeUnit.MILLISECONDS.toNanos(elapsedMs));
+    when(context.getStatement()).thenReturn(stmt);
+    return context;
+  }
+
+  private static PreparedStatement createInstrumentedStatement(AnetDbLogger dbLogger, String sql)
+      throws SQLException {
+    return createInstrumentedStatement(dbLogger, mock(PreparedStatement.class), sql);
+  }
+
+  private static PreparedStatement createInstrumentedStatement(AnetDbLogger dbLogger,
+      PreparedStatement delegate, String sql) throws SQLException {
+    final StatementBuilder statementBuilder = mock(StatementBuilder.class);
+    when(statementBuilder.create(any(Connection.class), anyString(), any(StatementContext.class)))
+        .thenReturn(delegate);
+    final StatementContext context = getContext(sql, 0, null);
+    return new InstrumentedStatementBuilder(statementBuilder, dbLogger)
+        .create(mock(Connection.class), sql, context);
+  }
+
+  private static List<String> getWarnings(ListAppender<ILoggingEvent> appender) {
+    return appender.list.stream().filter(e -> e.getLevel() == Level.WARN)
+        .map(ILoggingEvent::getFormattedMessage).collect(Collectors.toList());
+  }
+
+}
@@ -0,0 +1,34 @@
+package mil.dds.anet.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.codahale.metrics.MetricRegistry;
+import java.util.concurrent.ThreadPoolExecutor;
+import mil.dds.anet.config.AnetConfiguration.DataLoaderConfiguration;
+import org.junit.jupiter.api.Test;
+
+public class BatchingUtilsTest {
+
+  private static int getThreads(int configuredThreads, int maxDbConnections) {
+    final DataLoaderConfiguration config = new DataLoaderConfiguration();
+    config.setThreads(configuredThreads);
+    final ThreadPoolExecutor executor =
+        BatchingUtils.createDispatcherService(config, maxDbConnections, new MetricRegistry());
+    try {
+      return executor.getMaximumPoolSize();
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testSizedFromDbPool() {
+    // By default the data loaders get half of the database connections
+    assertThat(getThreads(0, 32)).isEqualTo(16);
+    assertThat(getThreads(0, 1)).isEqualTo(1);
+    // An explicit number of threads is capped at the size of the database pool
+    assertThat(getThreads(4, 32)).isEqualTo(4);
+    assertThat(getThreads(64, 32)).isEqualTo(32);
+  }
+
+}
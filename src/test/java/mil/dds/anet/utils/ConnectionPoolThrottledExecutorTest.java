@@ -0,0 +1,106 @@
+package mil.dds.anet.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class ConnectionPoolThrottledExecutorTest {
+
+  private static final String POOL = "io.dropwizard.db.ManagedPooledDataSource.anet";
+  private static final int MAX_CONNECTIONS = 4;
+
+  private final AtomicInteger active = new AtomicInteger();
+  private final AtomicInteger waiting = new AtomicInteger();
+  private MetricRegistry metricRegistry;
+
+  @BeforeEach
+  public void setUp() {
+    metricRegistry = new MetricRegistry();
+    metricRegistry.register(MetricRegistry.name(POOL, "active"), (Gauge<Integer>) active::get);
+    metricRegistry.register(MetricRegistry.name(POOL, "waiting"), (Gauge<Integer>) waiting::get);
+  }
+
+  private ConnectionPoolThrottledExecutor createExecutor(Duration maxWait) {
+    return new ConnectionPoolThrottledExecutor(Runnable::run, metricRegistry, "test",
+        MAX_CONNECTIONS, maxWait);
+  }
+
+  @Test
+  public void testSaturation() {
+    final ConnectionPoolThrottledExecutor executor = createExecutor(Duration.ofSeconds(1));
+    assertThat(executor.isSaturated()).isFalse();
+    active.set(MAX_CONNECTIONS - 1);
+    assertThat(executor.isSaturated()).isFalse();
+    active.set(MAX_CONNECTIONS);
+    assertThat(executor.isSaturated()).isTrue();
+    active.set(0);
+    waiting.set(1);
+    assertThat(executor.isSaturated()).isTrue();
+  }
+
+  @Test
+  public void testWithoutPoolGauges() {
+    final ConnectionPoolThrottledExecutor executor = new ConnectionPoolThrottledExecutor(
+        Runnable::run, new MetricRegistry(), "test", MAX_CONNECTIONS, Duration.ofSeconds(1));
+    assertThat(executor.isSaturated()).isFalse();
+  }
+
+  @Test
+  public void testNotThrottled() {
+    final AtomicInteger runs = new AtomicInteger();
+    createExecutor(Duration.ofSeconds(1)).execute(runs::incrementAndGet);
+    assertThat(runs.get()).isEqualTo(1);
+    assertThat(metricRegistry.counter("test.Throttled").getCount()).isZero();
+  }
+
+  @Test
+  public void testHeldBackUntilConnectionFree() {
+    final ConnectionPoolThrottledExecutor executor = createExecutor(Duration.ofSeconds(10));
+    waiting.set(2);
+    final AtomicInteger runs = new AtomicInteger();
+    final CompletableFuture<Void> submitted =
+        CompletableFuture.runAsync(() -> executor.execute(runs::incrementAndGet));
+    try {
+      submitted.get(100, TimeUnit.MILLISECONDS);
+    } catch (Exception expected) {
+      // still held back
+    }
+    assertThat(runs.get()).isZero();
+    waiting.set(0);
+    submitted.join();
+    assertThat(runs.get()).isEqualTo(1);
+    assertThat(metricRegistry.counter("test.Throttled").getCount()).isEqualTo(1);
+    assertThat(metricRegistry.timer("test.ThrottleTime").getCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void testMaxWait() {
+    final ConnectionPoolThrottledExecutor executor = createExecutor(Duration.ofMillis(50));
+    active.set(MAX_CONNECTIONS);
+    final AtomicInteger runs = new AtomicInteger();
+    final long start = System.nanoTime();
+    executor.execute(runs::incrementAndGet);
+    // Runs anyway once the maximum wait has passed, still saturated
+    assertThat(runs.get()).isEqualTo(1);
+    assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(
+        TimeUnit.MILLISECONDS.toNanos(50));
+  }
+
+  @Test
+  public void testThrottlingDisabled() {
+    final ConnectionPoolThrottledExecutor executor = createExecutor(Duration.ZERO);
+    active.set(MAX_CONNECTIONS);
+    final AtomicInteger runs = new AtomicInteger();
+    executor.execute(runs::incrementAndGet);
+    assertThat(runs.get()).isEqualTo(1);
+    assertThat(metricRegistry.counter("test.Throttled").getCount()).isZero();
+  }
+
+}